@@ -0,0 +1,60 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.autoconfigure.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 进程内一级缓存配置
+ * <p>
+ * 开启后 CacheManager 为 L1(进程内) + L2(Redis) 二级缓存，
+ * 缓存名称支持 cacheName#ttl#localTtl 单独指定 L1 TTL
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@Data
+@ConfigurationProperties(prefix = LocalCacheProperties.PREFIX)
+public class LocalCacheProperties {
+    public static final String PREFIX = "iti.cache.local";
+
+    /**
+     * 是否开启一级缓存
+     */
+    private boolean enabled = false;
+
+    /**
+     * 每个缓存空间的最大条目数
+     */
+    private long maximumSize = 10000;
+
+    /**
+     * 默认过期时间，即跨节点数据不一致的最长时间
+     */
+    private Duration ttl = Duration.ofSeconds(60);
+
+    /**
+     * 失效消息频道
+     */
+    private String invalidationChannel = "iti:cache:invalidation";
+}
@@ -19,12 +19,15 @@
 package org.lan.iti.cloud.autoconfigure.cache;
 
 import org.lan.iti.cloud.cache.ITIRedisCacheManager;
+import org.lan.iti.cloud.cache.ITITwoLevelCacheManager;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizers;
 import org.springframework.boot.autoconfigure.cache.CacheProperties;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
@@ -35,7 +38,10 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.lang.Nullable;
 
@@ -48,6 +54,7 @@ import java.util.Map;
  * <p>
  * 支持注解形式的ttl key: xx#ttl -> testKey:10   (s)
  * </p>
+ * 开启 iti.cache.local.enabled 后使用进程内 L1 + Redis L2 的二级缓存，见 {@link ITITwoLevelCacheManager}
  *
  * @author NorthLan
  * @date 2020-04-11
@@ -57,7 +64,7 @@ import java.util.Map;
 @AutoConfigureAfter(RedisAutoConfiguration.class)
 @ConditionalOnBean(RedisConnectionFactory.class)
 @ConditionalOnMissingBean(CacheManager.class)
-@EnableConfigurationProperties(CacheProperties.class)
+@EnableConfigurationProperties({CacheProperties.class, LocalCacheProperties.class})
 public class RedisCacheAutoConfiguration {
     private final CacheProperties cacheProperties;
     private final CacheManagerCustomizers cacheManagerCustomizers;
@@ -65,17 +72,52 @@ public class RedisCacheAutoConfiguration {
     @Nullable
     private final RedisCacheConfiguration redisCacheConfiguration;
 
+    @Nullable
+    private final RedisSerializer<Object> valueSerializer;
+
     public RedisCacheAutoConfiguration(CacheProperties cacheProperties,
                                        CacheManagerCustomizers cacheManagerCustomizers,
-                                       ObjectProvider<RedisCacheConfiguration> redisCacheConfigurations) {
+                                       ObjectProvider<RedisCacheConfiguration> redisCacheConfigurations,
+                                       @Qualifier(RedisTemplateConfig.VALUE_SERIALIZER_BEAN_NAME)
+                                               ObjectProvider<RedisSerializer<Object>> valueSerializer) {
         this.cacheProperties = cacheProperties;
         this.cacheManagerCustomizers = cacheManagerCustomizers;
         this.redisCacheConfiguration = redisCacheConfigurations.getIfAvailable();
+        this.valueSerializer = valueSerializer.getIfAvailable();
     }
 
     @Bean
+    @ConditionalOnProperty(prefix = LocalCacheProperties.PREFIX, name = "enabled", havingValue = "false", matchIfMissing = true)
     public RedisCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
                                           ResourceLoader resourceLoader) {
+        return this.cacheManagerCustomizers.customize(redisCacheManager(redisConnectionFactory, resourceLoader));
+    }
+
+    @Bean("cacheManager")
+    @ConditionalOnProperty(prefix = LocalCacheProperties.PREFIX, name = "enabled", havingValue = "true")
+    public ITITwoLevelCacheManager twoLevelCacheManager(RedisConnectionFactory redisConnectionFactory,
+                                                        ResourceLoader resourceLoader,
+                                                        LocalCacheProperties properties) {
+        return new ITITwoLevelCacheManager(
+                this.cacheManagerCustomizers.customize(redisCacheManager(redisConnectionFactory, resourceLoader)),
+                redisConnectionFactory,
+                properties.getInvalidationChannel(),
+                properties.getMaximumSize(),
+                properties.getTtl());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = LocalCacheProperties.PREFIX, name = "enabled", havingValue = "true")
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                            ITITwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(cacheManager.getInvalidationChannel()));
+        return container;
+    }
+
+    private ITIRedisCacheManager redisCacheManager(RedisConnectionFactory redisConnectionFactory,
+                                                   ResourceLoader resourceLoader) {
         RedisCacheWriter redisCacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(redisConnectionFactory);
         RedisCacheConfiguration cacheConfiguration = this.determineConfiguration(resourceLoader.getClassLoader());
         List<String> cacheNames = this.cacheProperties.getCacheNames();
@@ -90,7 +132,7 @@ public class RedisCacheAutoConfiguration {
                 cacheConfiguration,
                 initialCaches, true);
         cacheManager.setTransactionAware(false);
-        return this.cacheManagerCustomizers.customize(cacheManager);
+        return cacheManager;
     }
 
     private RedisCacheConfiguration determineConfiguration(ClassLoader classLoader) {
@@ -100,7 +142,9 @@ public class RedisCacheAutoConfiguration {
         CacheProperties.Redis redisProperties = this.cacheProperties.getRedis();
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig();
         config = config.serializeValuesWith(RedisSerializationContext.SerializationPair
-                .fromSerializer(new JdkSerializationRedisSerializer(classLoader)));
+                .fromSerializer(this.valueSerializer != null
+                        ? this.valueSerializer
+                        : new JdkSerializationRedisSerializer(classLoader)));
         if (redisProperties.getTimeToLive() != null) {
             config = config.entryTtl(redisProperties.getTimeToLive());
         }
@@ -0,0 +1,74 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.autoconfigure.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Redis 值序列化配置，作用于 RedisTemplate 与 Redis 缓存
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@Data
+@ConfigurationProperties(prefix = RedisSerializerProperties.PREFIX)
+public class RedisSerializerProperties {
+    public static final String PREFIX = "iti.redis.serializer";
+
+    /**
+     * 序列化方式
+     */
+    private Type type = Type.JDK;
+
+    /**
+     * 压缩阈值，超过时压缩，小于0不压缩，仅 {@link Type#SMILE} 生效
+     */
+    private DataSize compressionThreshold = DataSize.ofKilobytes(4);
+
+    /**
+     * 是否可读取旧的 JDK 序列化数据，用于从 {@link Type#JDK} 迁移，仅 {@link Type#SMILE} 生效
+     */
+    private boolean readJdk = true;
+
+    /**
+     * 允许 Jackson 反序列化的类名前缀，如 com.example.dto.，仅 {@link Type#SMILE} 生效
+     * <p>
+     * org.lan.、java.util.、java.time.、java.math. 以及数字、枚举、数组默认允许，
+     * 缓存值或其字段中出现的其它非 final 类型需在此列出
+     */
+    private List<String> allowedTypes = new ArrayList<>();
+
+    public enum Type {
+        /**
+         * JDK 序列化
+         */
+        JDK,
+
+        /**
+         * Jackson Smile 二进制格式，需引入 jackson-dataformat-smile
+         */
+        SMILE
+    }
+}
@@ -19,19 +19,27 @@
 package org.lan.iti.cloud.autoconfigure.cache;
 
 import lombok.AllArgsConstructor;
+import org.lan.iti.cloud.cache.serializer.CompactRedisSerializer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 /**
  * RedisTemplate 配置
+ * <p>
+ * 值序列化方式由 iti.redis.serializer.type 选择，见 {@link RedisSerializerProperties}
  *
  * @author NorthLan
  * @date 2020-04-11
@@ -43,16 +51,32 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 @AutoConfigureBefore(name = {"org.redisson.spring.starter.RedissonAutoConfiguration",
         "org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration"})
 @ConditionalOnClass({RedisConnectionFactory.class, RedisTemplate.class})
+@EnableConfigurationProperties(RedisSerializerProperties.class)
 public class RedisTemplateConfig {
+    public static final String VALUE_SERIALIZER_BEAN_NAME = "redisValueSerializer";
+
+    @Bean(VALUE_SERIALIZER_BEAN_NAME)
+    @ConditionalOnMissingBean(name = VALUE_SERIALIZER_BEAN_NAME)
+    public RedisSerializer<Object> redisValueSerializer(RedisSerializerProperties properties,
+                                                        ResourceLoader resourceLoader) {
+        ClassLoader classLoader = resourceLoader.getClassLoader();
+        if (properties.getType() == RedisSerializerProperties.Type.SMILE) {
+            return CompactRedisSerializer.smile(classLoader,
+                    (int) properties.getCompressionThreshold().toBytes(), properties.isReadJdk(),
+                    properties.getAllowedTypes());
+        }
+        return new JdkSerializationRedisSerializer(classLoader);
+    }
 
     @Bean
     @Primary
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory,
+                                                       @Qualifier(VALUE_SERIALIZER_BEAN_NAME) RedisSerializer<Object> valueSerializer) {
         RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
         redisTemplate.setKeySerializer(new StringRedisSerializer());
         redisTemplate.setHashKeySerializer(new StringRedisSerializer());
-        redisTemplate.setValueSerializer(new JdkSerializationRedisSerializer());
-        redisTemplate.setHashValueSerializer(new JdkSerializationRedisSerializer());
+        redisTemplate.setValueSerializer(valueSerializer);
+        redisTemplate.setHashValueSerializer(valueSerializer);
         redisTemplate.setConnectionFactory(redisConnectionFactory);
         return redisTemplate;
     }
@@ -66,7 +66,7 @@ public class OssAutoConfiguration {
                 .withCredentials(awsCredentialsProvider)
                 .disableChunkedEncoding()
                 .withPathStyleAccessEnabled(properties.getPathStyleAccess())
-                .build());
+                .build(), Math.toIntExact(properties.getPartSize().toBytes()), properties.getUploadConcurrency());
     }
 
     @Bean
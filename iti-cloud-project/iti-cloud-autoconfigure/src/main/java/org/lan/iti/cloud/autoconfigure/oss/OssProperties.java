@@ -20,6 +20,7 @@ package org.lan.iti.cloud.autoconfigure.oss;
 
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  * aws 配置信息
@@ -39,6 +40,11 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 @Data
 @ConfigurationProperties(prefix = "oss")
 public class OssProperties {
+    /**
+     * S3 分片上传要求的最小分片大小（最后一个分片除外）
+     */
+    public static final DataSize MIN_PART_SIZE = DataSize.ofMegabytes(5);
+
     /**
      * 是否开启Oss
      */
@@ -90,4 +96,27 @@ public class OssProperties {
      * 最大线程数，默认： 100
      */
     private Integer maxConnections = 100;
+
+    /**
+     * 分片上传的分片大小，默认： 8MB，S3 要求不小于 5MB，且不超过 {@link Integer#MAX_VALUE} 字节
+     */
+    private DataSize partSize = DataSize.ofMegabytes(8);
+
+    /**
+     * 单次上传并发上传的分片数，默认： 4
+     * <p>
+     * 单次上传最多占用 (uploadConcurrency + 1) * partSize 内存
+     */
+    private Integer uploadConcurrency = 4;
+
+    /**
+     * 绑定时校验分片大小，超出范围时启动失败
+     */
+    public void setPartSize(DataSize partSize) {
+        if (partSize == null || partSize.compareTo(MIN_PART_SIZE) < 0 || partSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("oss.part-size must be between " + MIN_PART_SIZE.toMegabytes()
+                    + "MB and " + Integer.MAX_VALUE + " bytes, but was " + partSize);
+        }
+        this.partSize = partSize;
+    }
 }
@@ -18,14 +18,31 @@
 
 package org.lan.iti.cloud.autoconfigure.security;
 
+import com.xkcoding.http.HttpUtil;
 import org.lan.iti.cloud.autoconfigure.web.HttpAutoConfiguration;
+import org.lan.iti.cloud.security.cache.RedisIhaCache;
+import org.lan.iti.cloud.security.properties.CacheConfig;
+import org.lan.iti.cloud.security.properties.SecurityProperties;
 import org.lan.iti.cloud.security.service.DefaultUserDetailsServiceImpl;
+import org.lan.iti.iha.oauth2.util.SimpleHttpTransport;
 import org.lan.iti.iha.security.IhaSecurity;
+import org.lan.iti.iha.security.cache.Cache;
+import org.lan.iti.iha.security.cache.IhaCacheConfig;
 import org.lan.iti.iha.security.context.IhaSecurityContext;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
 /**
  * Iha-Security自动装配
@@ -36,13 +53,67 @@ import org.springframework.context.annotation.Configuration;
  */
 @Configuration
 @ConditionalOnClass(IhaSecurity.class)
-@AutoConfigureAfter(HttpAutoConfiguration.class)
+@AutoConfigureAfter({HttpAutoConfiguration.class, RedisAutoConfiguration.class})
 public class IhaSecurityAutoConfiguration implements InitializingBean {
+    private final ObjectProvider<Cache> cache;
+
+    public IhaSecurityAutoConfiguration(ObjectProvider<Cache> cache) {
+        this.cache = cache;
+    }
 
     @Override
     public void afterPropertiesSet() {
         // default user details
-        IhaSecurity.init(new IhaSecurityContext()
-                .setUserDetailsService(new DefaultUserDetailsServiceImpl()));
+        IhaSecurityContext context = new IhaSecurityContext()
+                .setUserDetailsService(new DefaultUserDetailsServiceImpl());
+        cache.ifAvailable(context::setCache);
+        IhaSecurity.init(context);
+    }
+
+    /**
+     * Redis缓存，iti.security.cache.type=redis 时启用
+     */
+    @Configuration
+    @ConditionalOnClass(RedisConnectionFactory.class)
+    @ConditionalOnBean(RedisConnectionFactory.class)
+    @ConditionalOnProperty(prefix = SecurityProperties.PREFIX + ".cache", name = "type", havingValue = "redis")
+    @EnableConfigurationProperties(SecurityProperties.class)
+    static class RedisCacheConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(Cache.class)
+        public RedisIhaCache ihaRedisCache(RedisConnectionFactory connectionFactory, SecurityProperties properties) {
+            CacheConfig config = properties.getCache();
+            return new RedisIhaCache(connectionFactory,
+                    config.getRedisKeyPrefix(),
+                    config.getInvalidationChannel(),
+                    IhaCacheConfig.expire,
+                    config.getNearCacheSize(),
+                    config.getNearCacheTtl());
+        }
+
+        @Bean
+        @ConditionalOnBean(RedisIhaCache.class)
+        public RedisMessageListenerContainer ihaCacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                                  RedisIhaCache cache) {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            container.addMessageListener(cache, new ChannelTopic(cache.getInvalidationChannel()));
+            return container;
+        }
+    }
+
+    /**
+     * JustAuth 经由 IHA 的 HTTP 传输访问第三方平台，iti.security.social-http-transport=true 时启用
+     */
+    @Configuration
+    @ConditionalOnClass({HttpUtil.class, SimpleHttpTransport.class})
+    @ConditionalOnProperty(prefix = SecurityProperties.PREFIX, name = "social-http-transport", havingValue = "true")
+    static class SocialHttpTransportConfiguration implements InitializingBean {
+
+        @Override
+        public void afterPropertiesSet() {
+            HttpUtil.setHttp(new SimpleHttpTransport());
+        }
     }
 }
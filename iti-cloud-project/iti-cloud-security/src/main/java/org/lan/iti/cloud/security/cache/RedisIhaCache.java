@@ -0,0 +1,352 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.security.cache;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.lan.iti.common.core.util.SystemClock;
+import org.lan.iti.iha.security.cache.BoundedLocalCache;
+import org.lan.iti.iha.security.cache.Cache;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 基于Redis的IHA缓存，支持多节点共享令牌
+ * <p>
+ * <ul>
+ *     <li>值使用JDK序列化，{@code AuthorizationToken} 等实现了 {@link java.io.Externalizable} 的对象以紧凑二进制形式存储</li>
+ *     <li>{@link #batch(Consumer)} 内的写入与删除通过一次pipeline发送</li>
+ *     <li>本地近端缓存：读取时连同剩余TTL一并取回，近端条目不超过远端有效期；
+ *     写入/删除时通过Pub/Sub广播失效消息，其它节点收到后清除对应近端条目</li>
+ * </ul>
+ * 需要将本实例注册到 {@link org.springframework.data.redis.listener.RedisMessageListenerContainer}，
+ * 订阅 {@link #getInvalidationChannel()} 以接收失效消息
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@Slf4j
+public class RedisIhaCache implements Cache, MessageListener {
+    private static final String SEPARATOR = "\n";
+    private static final int SCAN_BATCH = 512;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisSerializer<String> keySerializer = RedisSerializer.string();
+    private final RedisSerializer<Object> valueSerializer;
+
+    /**
+     * 近端缓存，为null表示不启用
+     */
+    private final BoundedLocalCache nearCache;
+    private final long nearCacheTtl;
+
+    /**
+     * 当前节点ID，忽略自身发出的失效消息
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final String keyPrefix;
+
+    @Getter
+    private final String invalidationChannel;
+    private final byte[] rawInvalidationChannel;
+
+    /**
+     * 默认过期时间，单位毫秒
+     */
+    private final long defaultExpire;
+
+    public RedisIhaCache(RedisConnectionFactory connectionFactory,
+                         String keyPrefix,
+                         String invalidationChannel,
+                         long defaultExpire,
+                         long nearCacheSize,
+                         Duration nearCacheTtl) {
+        this.keyPrefix = keyPrefix;
+        this.invalidationChannel = invalidationChannel;
+        this.rawInvalidationChannel = keySerializer.serialize(invalidationChannel);
+        this.defaultExpire = defaultExpire;
+        this.valueSerializer = new JdkSerializationRedisSerializer(getClass().getClassLoader());
+
+        this.redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(keySerializer);
+        redisTemplate.setValueSerializer(valueSerializer);
+        redisTemplate.afterPropertiesSet();
+
+        this.nearCacheTtl = nearCacheTtl == null ? 0 : nearCacheTtl.toMillis();
+        this.nearCache = nearCacheSize > 0 && this.nearCacheTtl > 0
+                ? new BoundedLocalCache(nearCacheSize, this.nearCacheTtl, SystemClock::now)
+                : null;
+    }
+
+    @Override
+    public void put(String key, Object value) {
+        put(key, value, defaultExpire, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void put(String key, Object value, long expire, TimeUnit timeUnit) {
+        batch(cache -> cache.put(key, value, expire, timeUnit));
+    }
+
+    @Override
+    public Object get(String key) {
+        if (key == null || key.isEmpty()) {
+            return null;
+        }
+        if (nearCache != null) {
+            Object value = nearCache.get(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        byte[] rawKey = rawKey(key);
+        // GET 与 PTTL 一次往返
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.get(rawKey);
+            connection.pTtl(rawKey);
+            return null;
+        }, valueSerializer);
+        Object value = results.get(0);
+        if (value != null && nearCache != null) {
+            Long ttl = (Long) results.get(1);
+            // -1 表示远端无过期时间
+            long expire = ttl == null || ttl < 0 ? nearCacheTtl : Math.min(ttl, nearCacheTtl);
+            nearCache.put(key, value, expire, TimeUnit.MILLISECONDS);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        if (key == null || key.isEmpty()) {
+            return false;
+        }
+        if (nearCache != null && nearCache.containsKey(key)) {
+            return true;
+        }
+        Boolean exists = redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.exists(rawKey(key)));
+        return Boolean.TRUE.equals(exists);
+    }
+
+    @Override
+    public Collection<String> keys() {
+        List<String> keys = new ArrayList<>();
+        scan(rawKeys -> {
+            for (byte[] rawKey : rawKeys) {
+                keys.add(keySerializer.deserialize(rawKey).substring(keyPrefix.length()));
+            }
+        });
+        return keys;
+    }
+
+    @Override
+    public void evict(String... keys) {
+        if (keys == null || keys.length == 0) {
+            return;
+        }
+        batch(cache -> cache.evict(keys));
+    }
+
+    @Override
+    public void clear() {
+        scan(rawKeys -> redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.del(rawKeys.toArray(new byte[0][]))));
+        if (nearCache != null) {
+            nearCache.clear();
+        }
+        publish(new ArrayList<>());
+    }
+
+    @Override
+    public void batch(Consumer<Cache> operations) {
+        Batch batch = new Batch();
+        operations.accept(batch);
+        if (batch.commands.isEmpty()) {
+            return;
+        }
+        byte[] message = nearCache != null ? invalidationMessage(batch.keys) : null;
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Consumer<RedisConnection> command : batch.commands) {
+                command.accept(connection);
+            }
+            if (message != null) {
+                connection.publish(rawInvalidationChannel, message);
+            }
+            return null;
+        });
+        if (nearCache != null) {
+            batch.nearCacheUpdates.forEach(update -> update.accept(nearCache));
+        }
+    }
+
+    /**
+     * 接收其它节点的失效消息
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (nearCache == null) {
+            return;
+        }
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR);
+        if (parts.length == 0 || nodeId.equals(parts[0])) {
+            return;
+        }
+        if (parts.length == 1) {
+            nearCache.clear();
+        } else {
+            String[] keys = new String[parts.length - 1];
+            System.arraycopy(parts, 1, keys, 0, keys.length);
+            nearCache.evict(keys);
+        }
+    }
+
+    private void publish(List<String> keys) {
+        if (nearCache == null) {
+            return;
+        }
+        byte[] message = invalidationMessage(keys);
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(rawInvalidationChannel, message));
+    }
+
+    /**
+     * 失效消息：节点ID + 失效的key，不含key时表示清空
+     */
+    private byte[] invalidationMessage(List<String> keys) {
+        StringBuilder sb = new StringBuilder(nodeId);
+        for (String key : keys) {
+            sb.append(SEPARATOR).append(key);
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void scan(Consumer<List<byte[]>> consumer) {
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            ScanOptions options = ScanOptions.scanOptions().match(keyPrefix + "*").count(SCAN_BATCH).build();
+            List<byte[]> rawKeys = new ArrayList<>(SCAN_BATCH);
+            try (Cursor<byte[]> cursor = connection.scan(options)) {
+                while (cursor.hasNext()) {
+                    rawKeys.add(cursor.next());
+                    if (rawKeys.size() >= SCAN_BATCH) {
+                        consumer.accept(rawKeys);
+                        rawKeys = new ArrayList<>(SCAN_BATCH);
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("[RedisIhaCache] scan keys failed.", e);
+            }
+            if (!rawKeys.isEmpty()) {
+                consumer.accept(rawKeys);
+            }
+            return null;
+        });
+    }
+
+    private byte[] rawKey(String key) {
+        return keySerializer.serialize(keyPrefix + key);
+    }
+
+    /**
+     * 批量操作视图，仅记录写入与删除，读取直接访问缓存
+     */
+    private class Batch implements Cache {
+        private final List<Consumer<RedisConnection>> commands = new ArrayList<>();
+        private final List<Consumer<Cache>> nearCacheUpdates = new ArrayList<>();
+        private final List<String> keys = new ArrayList<>();
+
+        @Override
+        public void put(String key, Object value) {
+            put(key, value, defaultExpire, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void put(String key, Object value, long expire, TimeUnit timeUnit) {
+            long millis = timeUnit.toMillis(expire);
+            if (millis <= 0) {
+                // 已过期，等同于删除
+                evict(key);
+                return;
+            }
+            byte[] rawKey = rawKey(key);
+            byte[] rawValue = valueSerializer.serialize(value);
+            commands.add(connection -> connection.set(rawKey, rawValue,
+                    Expiration.milliseconds(millis), RedisStringCommands.SetOption.UPSERT));
+            nearCacheUpdates.add(cache -> cache.put(key, value, Math.min(millis, nearCacheTtl), TimeUnit.MILLISECONDS));
+            keys.add(key);
+        }
+
+        @Override
+        public Object get(String key) {
+            return RedisIhaCache.this.get(key);
+        }
+
+        @Override
+        public boolean containsKey(String key) {
+            return RedisIhaCache.this.containsKey(key);
+        }
+
+        @Override
+        public Collection<String> keys() {
+            return RedisIhaCache.this.keys();
+        }
+
+        @Override
+        public void evict(String... keys) {
+            byte[][] rawKeys = new byte[keys.length][];
+            for (int i = 0; i < keys.length; ++i) {
+                rawKeys[i] = rawKey(keys[i]);
+                this.keys.add(keys[i]);
+            }
+            // 多个key合并为一条DEL
+            commands.add(connection -> connection.del(rawKeys));
+            nearCacheUpdates.add(cache -> cache.evict(keys));
+        }
+
+        @Override
+        public void clear() {
+            RedisIhaCache.this.clear();
+        }
+
+        @Override
+        public void batch(Consumer<Cache> operations) {
+            operations.accept(this);
+        }
+    }
+}
@@ -21,6 +21,8 @@ package org.lan.iti.cloud.security.properties;
 import lombok.Data;
 import org.lan.iti.iha.security.IhaSecurityConstants;
 
+import java.time.Duration;
+
 /**
  * @author NorthLan
  * @date 2021/9/28
@@ -31,4 +33,41 @@ public class CacheConfig {
     private String securityPrefix = IhaSecurityConstants.SECURITY_PREFIX;
     private String tokenPrefix = "TOKEN:";
     private String platformTokenPrefix = "PLATFORM_TOKEN:";
+
+    /**
+     * IHA缓存类型
+     */
+    private Type type = Type.LOCAL;
+
+    /**
+     * Redis缓存key前缀，用于隔离IHA缓存
+     */
+    private String redisKeyPrefix = "iti:iha:cache:";
+
+    /**
+     * Redis缓存近端缓存失效通知频道
+     */
+    private String invalidationChannel = "iti:iha:cache:invalidation";
+
+    /**
+     * Redis缓存近端缓存最大条目数，为0时不启用近端缓存
+     */
+    private long nearCacheSize = 10000;
+
+    /**
+     * Redis缓存近端缓存条目最长存活时间，限制失效通知丢失时的不一致窗口
+     */
+    private Duration nearCacheTtl = Duration.ofSeconds(30);
+
+    public enum Type {
+        /**
+         * 进程内缓存
+         */
+        LOCAL,
+
+        /**
+         * Redis缓存，多节点共享
+         */
+        REDIS
+    }
 }
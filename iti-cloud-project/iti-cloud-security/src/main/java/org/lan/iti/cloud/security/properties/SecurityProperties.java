@@ -104,6 +104,13 @@ public class SecurityProperties {
      */
     private String frontUri;
 
+    /**
+     * JustAuth 访问第三方平台时是否使用 IHA 的 HTTP 传输（共享连接池、超时与统计）
+     * <p>
+     * 开启后替换 simple-http 的进程级全局实现，同一进程中其它使用 simple-http 的组件同样受影响
+     */
+    private boolean socialHttpTransport = false;
+
     @Setter(AccessLevel.NONE)
     @Getter(AccessLevel.NONE)
     private volatile boolean initOidc = false;
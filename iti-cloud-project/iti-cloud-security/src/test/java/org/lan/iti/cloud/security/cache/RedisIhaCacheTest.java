@@ -0,0 +1,354 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.security.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lan.iti.common.core.util.SystemClock;
+import org.lan.iti.common.core.util.clock.RealClockSource;
+import org.lan.iti.common.core.util.clock.VirtualClockSource;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Redis缓存测试
+ * <p>
+ * 多个节点共享一个模拟的 {@link RedisConnection}（内存存储，按虚拟时钟过期，PUBLISH直接投递到各节点），
+ * 校验近端缓存命中、跨节点失效、过期以及pipeline批量写入
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class RedisIhaCacheTest {
+    private static final String KEY_PREFIX = "iha:";
+    private static final String CHANNEL = "iha:invalidation";
+    private static final long DEFAULT_EXPIRE = TimeUnit.HOURS.toMillis(1);
+
+    private final VirtualClockSource clock = new VirtualClockSource(0);
+
+    private Map<String, Entry> store;
+    private List<RedisIhaCache> nodes;
+    private List<String> commands;
+    private List<String> messages;
+    private int pipelines;
+
+    @BeforeEach
+    public void setUp() {
+        SystemClock.setSource(clock);
+        store = new ConcurrentHashMap<>();
+        nodes = new ArrayList<>();
+        commands = new ArrayList<>();
+        messages = new ArrayList<>();
+        pipelines = 0;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SystemClock.setSource(RealClockSource.INSTANCE);
+    }
+
+    @Test
+    public void nearCacheTest() {
+        RedisIhaCache a = node(100, Duration.ofMinutes(10));
+        RedisIhaCache b = node(100, Duration.ofMinutes(10));
+
+        a.put("k", "v");
+        // 写入节点直接更新近端缓存
+        Assertions.assertEquals("v", a.get("k"));
+        Assertions.assertEquals(0, count("get"));
+
+        // 其它节点首次读取GET+PTTL一次往返，之后命中近端缓存
+        int pipelinesBefore = pipelines;
+        Assertions.assertEquals("v", b.get("k"));
+        Assertions.assertEquals("v", b.get("k"));
+        Assertions.assertTrue(b.containsKey("k"));
+        Assertions.assertEquals(1, count("get"));
+        Assertions.assertEquals(1, count("pTtl"));
+        Assertions.assertEquals(pipelinesBefore + 1, pipelines);
+        Assertions.assertEquals(0, count("exists"));
+
+        Assertions.assertNull(b.get("missing"));
+        Assertions.assertFalse(b.containsKey("missing"));
+        Assertions.assertEquals(1, count("exists"));
+    }
+
+    @Test
+    public void invalidationTest() {
+        RedisIhaCache a = node(100, Duration.ofMinutes(10));
+        RedisIhaCache b = node(100, Duration.ofMinutes(10));
+
+        a.put("k", "v1");
+        Assertions.assertEquals("v1", b.get("k"));
+        a.put("k", "v2");
+        Assertions.assertEquals("v2", b.get("k"));
+        Assertions.assertEquals(2, count("get"));
+
+        a.evict("k");
+        Assertions.assertNull(b.get("k"));
+        Assertions.assertFalse(b.containsKey("k"));
+
+        a.put("k1", "v1");
+        a.put("k2", "v2");
+        Assertions.assertEquals("v1", b.get("k1"));
+        a.clear();
+        Assertions.assertTrue(store.isEmpty());
+        Assertions.assertNull(a.get("k2"));
+        Assertions.assertNull(b.get("k1"));
+        // 清空消息仅包含节点ID
+        Assertions.assertEquals(1, messages.get(messages.size() - 1).split("\n").length);
+
+        // 忽略自身发出的消息
+        b.put("own", "v");
+        int gets = count("get");
+        Assertions.assertEquals("v", b.get("own"));
+        Assertions.assertEquals(gets, count("get"));
+    }
+
+    @Test
+    public void expireTest() {
+        RedisIhaCache a = node(100, Duration.ofMinutes(10));
+        RedisIhaCache b = node(100, Duration.ofSeconds(5));
+
+        // 近端缓存不超过远端剩余有效期
+        a.put("short", "v", 1, TimeUnit.SECONDS);
+        Assertions.assertEquals("v", b.get("short"));
+        clock.advance(Duration.ofMillis(1500));
+        Assertions.assertNull(b.get("short"));
+        Assertions.assertNull(a.get("short"));
+        Assertions.assertEquals(3, count("get"));
+
+        // 近端缓存不超过配置的有效期
+        a.put("long", "v");
+        Assertions.assertEquals("v", b.get("long"));
+        clock.advance(Duration.ofSeconds(4));
+        Assertions.assertEquals("v", b.get("long"));
+        Assertions.assertEquals(4, count("get"));
+        clock.advance(Duration.ofSeconds(2));
+        Assertions.assertEquals("v", b.get("long"));
+        Assertions.assertEquals(5, count("get"));
+
+        // 已过期的写入等同于删除
+        a.put("long", "v", 0, TimeUnit.SECONDS);
+        Assertions.assertFalse(store.containsKey(KEY_PREFIX + "long"));
+        Assertions.assertNull(b.get("long"));
+    }
+
+    @Test
+    public void batchTest() {
+        RedisIhaCache a = node(100, Duration.ofMinutes(10));
+        RedisIhaCache b = node(100, Duration.ofMinutes(10));
+        a.put("k3", "v3");
+        a.put("k4", "v4");
+        Assertions.assertEquals("v3", b.get("k3"));
+        commands.clear();
+        messages.clear();
+        int pipelinesBefore = pipelines;
+
+        a.batch(cache -> {
+            cache.put("k1", "v1");
+            cache.put("k2", "v2", 10, TimeUnit.SECONDS);
+            cache.evict("k3", "k4");
+        });
+        // 一次pipeline，多个key合并为一条DEL，一条失效消息
+        Assertions.assertEquals(pipelinesBefore + 1, pipelines);
+        Assertions.assertEquals(Arrays.asList("set", "set", "del", "publish"), commands);
+        Assertions.assertEquals(1, messages.size());
+        String[] parts = messages.get(0).split("\n");
+        Assertions.assertEquals(Arrays.asList("k1", "k2", "k3", "k4"), Arrays.asList(parts).subList(1, parts.length));
+
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("k1", "k2")), new HashSet<>(a.keys()));
+        Assertions.assertEquals("v1", a.get("k1"));
+        Assertions.assertNull(b.get("k3"));
+        Assertions.assertEquals(1, count("get"));
+
+        // 空批量不访问Redis
+        int pipelinesAfter = pipelines;
+        a.batch(cache -> {
+        });
+        Assertions.assertEquals(pipelinesAfter, pipelines);
+    }
+
+    @Test
+    public void keysTest() {
+        RedisIhaCache a = node(100, Duration.ofMinutes(10));
+        store.put("other:k", new Entry("x".getBytes(StandardCharsets.UTF_8), 0));
+        for (int i = 0; i < 1000; ++i) {
+            a.put("k" + i, i);
+        }
+        List<String> keys = new ArrayList<>(a.keys());
+        Assertions.assertEquals(1000, keys.size());
+        Assertions.assertTrue(keys.contains("k999"));
+        Assertions.assertFalse(keys.contains("other:k"));
+
+        a.clear();
+        Assertions.assertTrue(a.keys().isEmpty());
+        Assertions.assertEquals(1, store.size());
+    }
+
+    @Test
+    public void withoutNearCacheTest() {
+        RedisIhaCache a = node(0, Duration.ofMinutes(10));
+        a.put("k", "v");
+        Assertions.assertEquals("v", a.get("k"));
+        Assertions.assertEquals("v", a.get("k"));
+        Assertions.assertEquals(2, count("get"));
+        a.evict("k");
+        a.clear();
+        Assertions.assertEquals(0, count("publish"));
+    }
+
+    private RedisIhaCache node(long nearCacheSize, Duration nearCacheTtl) {
+        RedisConnectionFactory factory = Mockito.mock(RedisConnectionFactory.class);
+        Mockito.when(factory.getConnection()).thenAnswer(invocation -> connection());
+        RedisIhaCache cache = new RedisIhaCache(factory, KEY_PREFIX, CHANNEL, DEFAULT_EXPIRE, nearCacheSize, nearCacheTtl);
+        nodes.add(cache);
+        return cache;
+    }
+
+    private int count(String command) {
+        return (int) commands.stream().filter(command::equals).count();
+    }
+
+    private RedisConnection connection() {
+        List<Object> pipelined = new ArrayList<>();
+        boolean[] pipelining = new boolean[1];
+        return Mockito.mock(RedisConnection.class, invocation -> {
+            String name = invocation.getMethod().getName();
+            Object[] args = invocation.getArguments();
+            Object result;
+            switch (name) {
+                case "openPipeline":
+                    pipelines++;
+                    pipelining[0] = true;
+                    return null;
+                case "isPipelined":
+                    return pipelining[0];
+                case "closePipeline":
+                    pipelining[0] = false;
+                    List<Object> results = new ArrayList<>(pipelined);
+                    pipelined.clear();
+                    return results;
+                case "get":
+                    Entry entry = entry(string(args[0]));
+                    result = entry == null ? null : entry.value;
+                    break;
+                case "pTtl":
+                    Entry ttlEntry = entry(string(args[0]));
+                    result = ttlEntry == null ? -2L : ttlEntry.expireAt == 0 ? -1L : ttlEntry.expireAt - SystemClock.now();
+                    break;
+                case "set":
+                    long expireAt = args.length > 2 ? SystemClock.now() + ((Expiration) args[2]).getExpirationTimeInMilliseconds() : 0;
+                    store.put(string(args[0]), new Entry((byte[]) args[1], expireAt));
+                    result = true;
+                    break;
+                case "del":
+                    long deleted = 0;
+                    for (int i = 0; i < args.length; ++i) {
+                        deleted += store.remove(string(args[i])) != null ? 1 : 0;
+                    }
+                    result = deleted;
+                    break;
+                case "exists":
+                    boolean exists = entry(string(args[0])) != null;
+                    result = invocation.getMethod().getReturnType() == Boolean.class ? (Object) exists : (Object) (exists ? 1L : 0L);
+                    break;
+                case "scan":
+                    String prefix = ((ScanOptions) args[0]).getPattern().replace("*", "");
+                    List<byte[]> keys = store.keySet().stream()
+                            .filter(key -> key.startsWith(prefix) && entry(key) != null)
+                            .map(key -> key.getBytes(StandardCharsets.UTF_8))
+                            .collect(Collectors.toList());
+                    return cursor(keys.iterator());
+                case "publish":
+                    String message = string(args[1]);
+                    messages.add(message);
+                    for (RedisIhaCache node : nodes) {
+                        node.onMessage(new DefaultMessage((byte[]) args[0], (byte[]) args[1]), null);
+                    }
+                    result = (long) nodes.size();
+                    break;
+                default:
+                    return Mockito.RETURNS_DEFAULTS.answer(invocation);
+            }
+            commands.add(name);
+            if (pipelining[0]) {
+                pipelined.add(result);
+                return null;
+            }
+            return result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cursor<byte[]> cursor(Iterator<byte[]> iterator) {
+        return Mockito.mock(Cursor.class, invocation -> {
+            switch (invocation.getMethod().getName()) {
+                case "hasNext":
+                    return iterator.hasNext();
+                case "next":
+                    return iterator.next();
+                default:
+                    return Mockito.RETURNS_DEFAULTS.answer(invocation);
+            }
+        });
+    }
+
+    private Entry entry(String key) {
+        Entry entry = store.get(key);
+        if (entry != null && entry.expireAt != 0 && entry.expireAt <= SystemClock.now()) {
+            store.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private static String string(Object bytes) {
+        return new String((byte[]) bytes, StandardCharsets.UTF_8);
+    }
+
+    private static class Entry {
+        private final byte[] value;
+        private final long expireAt;
+
+        private Entry(byte[] value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -20,9 +20,10 @@ package org.lan.iti.cloud.api;
 
 import cn.hutool.core.collection.CollUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import org.lan.iti.cloud.constants.AopConstants;
+import org.lan.iti.cloud.util.PathPatternTrie;
 import org.lan.iti.common.core.api.ApiResult;
 import org.springframework.boot.autoconfigure.data.web.SpringDataWebProperties;
 import org.springframework.core.MethodParameter;
@@ -31,14 +32,22 @@ import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.lang.NonNull;
 import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.BaseStream;
 
 /**
  * 返回值包装为统一格式
@@ -51,7 +60,7 @@ import java.lang.reflect.Method;
  * @url https://noahlan.com
  */
 @RestControllerAdvice
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Order(AopConstants.API_RESULT_WRAPPER_ADVICE)
 public class ApiResultWrapperAdvice implements ResponseBodyAdvice<Object> {
     private final ObjectMapper objectMapper;
@@ -59,11 +68,27 @@ public class ApiResultWrapperAdvice implements ResponseBodyAdvice<Object> {
     private final SpringDataWebProperties webProperties;
     // matcher
     private final AntPathMatcher matcher = new AntPathMatcher();
+    /**
+     * 按配置编译的判定结果，配置重新绑定（列表引用变化）后重建
+     */
+    private volatile Decisions decisions;
 
     @Override
     public boolean supports(@NonNull MethodParameter returnType,
                             @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
-        return properties.isEnabled() && filter(returnType);
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        Method method = returnType.getMethod();
+        if (method == null) {
+            return false;
+        }
+        Map<Method, Boolean> methods = decisions().methods;
+        Boolean supported = methods.get(method);
+        if (supported == null) {
+            supported = methods.computeIfAbsent(method, it -> filter(returnType));
+        }
+        return supported;
     }
 
     @SuppressWarnings("rawtypes")
@@ -83,13 +108,17 @@ public class ApiResultWrapperAdvice implements ResponseBodyAdvice<Object> {
             // 返回值为空，默认返回success
             // 当类型为String时将发生 cast异常，处理
             if (returnType.getParameterType().equals(String.class)) {
-                return objectMapper.writeValueAsString(ApiResult.ok());
+                return writeString(ApiResult.ok(), selectedConverterType, response);
             }
             return ApiResult.ok();
         }
         // 返回String需要特殊处理
         if (body instanceof String) {
-            return objectMapper.writeValueAsString(ApiResult.ok(body));
+            return writeString(ApiResult.ok(body), selectedConverterType, response);
+        }
+        // Stream / Iterator 逐个元素写出，不先收集为List
+        if (body instanceof BaseStream || body instanceof Iterator) {
+            body = new StreamingData(body);
         }
         ApiResult result = null;
         // 返回ApiResult不再进行封装
@@ -112,6 +141,22 @@ public class ApiResultWrapperAdvice implements ResponseBodyAdvice<Object> {
         return result;
     }
 
+    /**
+     * String 返回值由 {@link StringHttpMessageConverter} 写出，封装结果直接以 JSON 流式写入响应，
+     * 不再先序列化为中间字符串；返回 null 使转换器跳过写出
+     * 其他转换器（如 Jackson）直接返回封装对象，避免 JSON 字符串被二次编码
+     */
+    private Object writeString(ApiResult<?> result,
+                               Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                               ServerHttpResponse response) throws IOException {
+        if (!StringHttpMessageConverter.class.isAssignableFrom(selectedConverterType)) {
+            return result;
+        }
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        objectMapper.writeValue(StreamUtils.nonClosing(response.getBody()), result);
+        return null;
+    }
+
     /**
      * 处理Page相关内容
      */
@@ -129,7 +174,17 @@ public class ApiResultWrapperAdvice implements ResponseBodyAdvice<Object> {
     }
 
     private boolean filterUrl(ServerHttpRequest request) {
-        return properties.getExcludePath().stream().anyMatch(it -> matcher.match(it, request.getURI().getPath()));
+        PathPatternTrie excludePath = decisions().excludePathTrie;
+        return !excludePath.isEmpty() && excludePath.matches(request.getURI().getPath());
+    }
+
+    private Decisions decisions() {
+        Decisions current = decisions;
+        if (current == null || !current.isCompiledFrom(properties)) {
+            current = new Decisions(properties);
+            decisions = current;
+        }
+        return current;
     }
 
     private boolean filter(@NonNull MethodParameter returnType) {
@@ -163,4 +218,32 @@ public class ApiResultWrapperAdvice implements ResponseBodyAdvice<Object> {
         }
         return true;
     }
+
+    /**
+     * 一组配置对应的判定缓存：每个处理方法的 supports 结果，以及预编译的 excludePath
+     */
+    private static class Decisions {
+        private final List<String> excludePath;
+        private final List<String> excludePackages;
+        private final List<String> includePackages;
+        private final List<String> excludeClasses;
+
+        private final Map<Method, Boolean> methods = new ConcurrentHashMap<>();
+        private final PathPatternTrie excludePathTrie;
+
+        Decisions(ApiResultWrapperProperties properties) {
+            this.excludePath = properties.getExcludePath();
+            this.excludePackages = properties.getExcludePackages();
+            this.includePackages = properties.getIncludePackages();
+            this.excludeClasses = properties.getExcludeClasses();
+            this.excludePathTrie = new PathPatternTrie(excludePath);
+        }
+
+        boolean isCompiledFrom(ApiResultWrapperProperties properties) {
+            return excludePath == properties.getExcludePath()
+                    && excludePackages == properties.getExcludePackages()
+                    && includePackages == properties.getIncludePackages()
+                    && excludeClasses == properties.getExcludeClasses();
+        }
+    }
 }
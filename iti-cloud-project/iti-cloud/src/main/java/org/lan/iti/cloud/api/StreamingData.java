@@ -0,0 +1,70 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.stream.BaseStream;
+
+/**
+ * 流式返回数据
+ * <p>
+ * 包装 {@link java.util.stream.Stream} / {@link Iterator} 返回值，序列化时逐个元素写出为 JSON 数组，
+ * 大结果集无需先收集到内存；写出完成后关闭 Stream
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@JsonSerialize(using = StreamingData.Serializer.class)
+class StreamingData {
+    private final Object source;
+
+    StreamingData(Object source) {
+        this.source = source;
+    }
+
+    public static class Serializer extends JsonSerializer<StreamingData> {
+
+        @Override
+        public void serialize(StreamingData value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            Object source = value.source;
+            if (source instanceof BaseStream) {
+                try (BaseStream<?, ?> stream = (BaseStream<?, ?>) source) {
+                    write(stream.iterator(), gen, serializers);
+                }
+            } else {
+                write((Iterator<?>) source, gen, serializers);
+            }
+        }
+
+        private void write(Iterator<?> iterator, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeStartArray();
+            while (iterator.hasNext()) {
+                serializers.defaultSerializeValue(iterator.next(), gen);
+            }
+            gen.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.cache;
+
+import cn.hutool.core.util.StrUtil;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 二级缓存 CacheManager
+ * <p>
+ * L1 为进程内有界缓存，L2 为 {@link ITIRedisCacheManager}，读取先查 L1，未命中再查 Redis 并回填 L1。
+ * 写入/删除/清空时通过 Redis Pub/Sub 广播失效消息，其它节点收到后清除对应 L1 条目。
+ * <p>
+ * 1. L1 TTL 沿用 cacheName 语法: cacheName#ttl#localTtl，未指定 localTtl 时取 ttl 与默认 L1 TTL 中较小者
+ * 2. 多租户: 由 L2 解析租户前缀，不同租户的 L1 相互独立
+ * </p>
+ * 失效消息为尽力而为，L1 TTL 即为跨节点数据不一致的最长时间，适用于读多写少的缓存。
+ * <p>
+ * 需要将本实例注册到 {@link org.springframework.data.redis.listener.RedisMessageListenerContainer}，
+ * 订阅 {@link #getInvalidationChannel()} 以接收失效消息。
+ * 失效消息为 UTF-8 文本: nodeId\ncacheName[\nkey]，不含 key 表示清空该缓存空间
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@Slf4j
+@SuppressWarnings("AlibabaClassNamingShouldBeCamel")
+public class ITITwoLevelCacheManager implements CacheManager, MessageListener, InitializingBean {
+    private static final String SPLIT_FLAG = "#";
+    private static final int LOCAL_TTL_INDEX = 2;
+    private static final String MESSAGE_SEPARATOR = "\n";
+    private static final int MESSAGE_PARTS = 3;
+
+    private final ITIRedisCacheManager redisCacheManager;
+    private final long maximumSize;
+    private final Duration defaultTtl;
+
+    @Getter
+    private final String invalidationChannel;
+    private final byte[] rawInvalidationChannel;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 当前节点ID，忽略自身发出的失效消息
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * 二级缓存，key 为 L2 缓存名称（已包含租户前缀）
+     */
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param redisCacheManager   L2
+     * @param connectionFactory   用于发布失效消息
+     * @param invalidationChannel 失效消息频道
+     * @param maximumSize         每个缓存空间的 L1 最大条目数
+     * @param defaultTtl          默认 L1 TTL
+     */
+    public ITITwoLevelCacheManager(ITIRedisCacheManager redisCacheManager,
+                                   RedisConnectionFactory connectionFactory,
+                                   String invalidationChannel,
+                                   long maximumSize,
+                                   Duration defaultTtl) {
+        this.redisCacheManager = redisCacheManager;
+        this.maximumSize = maximumSize;
+        this.defaultTtl = defaultTtl;
+        this.invalidationChannel = invalidationChannel;
+        this.rawInvalidationChannel = RedisSerializer.string().serialize(invalidationChannel);
+
+        this.redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        redisCacheManager.afterPropertiesSet();
+    }
+
+    @Override
+    @Nullable
+    public Cache getCache(@NonNull String name) {
+        Cache cache = redisCacheManager.getCache(name);
+        if (!(cache instanceof RedisCache)) {
+            // 事务包装等非 RedisCache 无法取得 key 转换与值序列化配置，不启用 L1
+            return cache;
+        }
+        RedisCache redisCache = (RedisCache) cache;
+        TwoLevelCache twoLevelCache = caches.get(redisCache.getName());
+        if (twoLevelCache == null) {
+            twoLevelCache = caches.computeIfAbsent(redisCache.getName(),
+                    key -> new TwoLevelCache(redisCache, maximumSize, localTtl(name), this::publish));
+        }
+        return twoLevelCache;
+    }
+
+    @Override
+    @NonNull
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    /**
+     * 接收其它节点的失效消息
+     */
+    @Override
+    public void onMessage(@NonNull Message message, @Nullable byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(MESSAGE_SEPARATOR, MESSAGE_PARTS);
+        if (parts.length < MESSAGE_PARTS - 1) {
+            log.warn("[ITITwoLevelCacheManager] unreadable invalidation message, length={}.", message.getBody().length);
+            return;
+        }
+        if (nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.evictLocal(parts.length == MESSAGE_PARTS ? parts[2] : null);
+        }
+    }
+
+    /**
+     * 广播失效消息
+     *
+     * @param cacheName L2 缓存名称
+     * @param key       失效的key，null 表示清空
+     */
+    private void publish(String cacheName, @Nullable String key) {
+        String message = nodeId + MESSAGE_SEPARATOR + cacheName;
+        if (key != null) {
+            message += MESSAGE_SEPARATOR + key;
+        }
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        try {
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(rawInvalidationChannel, body));
+        } catch (Exception e) {
+            log.warn("[ITITwoLevelCacheManager] publish invalidation failed, cache={}.", cacheName, e);
+        }
+    }
+
+    /**
+     * 解析 L1 TTL: cacheName#ttl#localTtl
+     */
+    private Duration localTtl(String name) {
+        if (StrUtil.isBlank(name) || !name.contains(SPLIT_FLAG)) {
+            return defaultTtl;
+        }
+        String[] cacheArray = name.split(SPLIT_FLAG);
+        if (cacheArray.length > LOCAL_TTL_INDEX) {
+            return DurationStyle.detectAndParse(cacheArray[LOCAL_TTL_INDEX], ChronoUnit.SECONDS);
+        }
+        if (cacheArray.length == LOCAL_TTL_INDEX) {
+            // Redis 中 ttl<=0 表示永不过期
+            Duration ttl = DurationStyle.detectAndParse(cacheArray[1], ChronoUnit.SECONDS);
+            return ttl.isZero() || ttl.isNegative() || ttl.compareTo(defaultTtl) >= 0 ? defaultTtl : ttl;
+        }
+        return defaultTtl;
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.cache;
+
+import com.google.common.cache.CacheBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.core.convert.ConversionFailedException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * 二级缓存空间
+ * <p>
+ * L1 保存 L2 返回的 {@link ValueWrapper}，因此 L2 允许缓存 null 时 L1 同样缓存 null。
+ * 写操作先写 L2，再更新本地 L1 并广播失效消息。
+ * <p>
+ * 写入 L1 的是按 L2 值序列化方式复制的副本，调用方之后修改传入的对象不会影响 L1；
+ * 从 L1 读取的值由各调用方共享，不应修改。
+ * L1 的 key 与 L2 相同，按缓存配置的 {@link ConversionService} 转为字符串，失效消息以纯文本传递。
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ * @see ITITwoLevelCacheManager
+ */
+class TwoLevelCache implements Cache {
+    private static final TypeDescriptor STRING_TYPE = TypeDescriptor.valueOf(String.class);
+
+    private final RedisCache redisCache;
+    private final com.google.common.cache.Cache<String, ValueWrapper> localCache;
+    private final ConversionService conversionService;
+    private final RedisSerializationContext.SerializationPair<Object> valueSerializationPair;
+
+    /**
+     * 失效广播 (L2 缓存名称, key)，key 为 null 表示清空
+     */
+    private final BiConsumer<String, String> invalidation;
+
+    TwoLevelCache(RedisCache redisCache, long maximumSize, Duration ttl, BiConsumer<String, String> invalidation) {
+        this.redisCache = redisCache;
+        this.localCache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+        this.conversionService = redisCache.getCacheConfiguration().getConversionService();
+        this.valueSerializationPair = redisCache.getCacheConfiguration().getValueSerializationPair();
+        this.invalidation = invalidation;
+    }
+
+    @Override
+    @NonNull
+    public String getName() {
+        return redisCache.getName();
+    }
+
+    @Override
+    @NonNull
+    public Object getNativeCache() {
+        return redisCache.getNativeCache();
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper get(@NonNull Object key) {
+        String localKey = localKey(key);
+        ValueWrapper wrapper = localCache.getIfPresent(localKey);
+        if (wrapper != null) {
+            return wrapper;
+        }
+        wrapper = redisCache.get(key);
+        if (wrapper != null) {
+            localCache.put(localKey, wrapper);
+        }
+        return wrapper;
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(@NonNull Object key, @Nullable Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        ValueWrapper wrapper = localCache.getIfPresent(localKey);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value = redisCache.get(key, valueLoader);
+        localCache.put(localKey, new SimpleValueWrapper(copy(value)));
+        return value;
+    }
+
+    @Override
+    public void put(@NonNull Object key, @Nullable Object value) {
+        String localKey = localKey(key);
+        redisCache.put(key, value);
+        localCache.put(localKey, new SimpleValueWrapper(copy(value)));
+        invalidation.accept(getName(), localKey);
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(@NonNull Object key, @Nullable Object value) {
+        String localKey = localKey(key);
+        ValueWrapper existing = redisCache.putIfAbsent(key, value);
+        if (existing == null) {
+            localCache.put(localKey, new SimpleValueWrapper(copy(value)));
+            invalidation.accept(getName(), localKey);
+        } else {
+            localCache.put(localKey, existing);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(@NonNull Object key) {
+        String localKey = localKey(key);
+        redisCache.evict(key);
+        localCache.invalidate(localKey);
+        invalidation.accept(getName(), localKey);
+    }
+
+    @Override
+    public boolean evictIfPresent(@NonNull Object key) {
+        String localKey = localKey(key);
+        boolean present = redisCache.evictIfPresent(key);
+        localCache.invalidate(localKey);
+        invalidation.accept(getName(), localKey);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        redisCache.clear();
+        localCache.invalidateAll();
+        invalidation.accept(getName(), null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = redisCache.invalidate();
+        localCache.invalidateAll();
+        invalidation.accept(getName(), null);
+        return present;
+    }
+
+    /**
+     * 仅清除本地 L1
+     *
+     * @param key 失效的key，null 表示清空
+     */
+    void evictLocal(@Nullable String key) {
+        if (key == null) {
+            localCache.invalidateAll();
+        } else {
+            localCache.invalidate(key);
+        }
+    }
+
+    /**
+     * 与 {@code RedisCache#convertKey} 相同的字符串转换（不含缓存名称前缀）
+     */
+    private String localKey(Object key) {
+        if (key instanceof String) {
+            return (String) key;
+        }
+        if (conversionService.canConvert(TypeDescriptor.forObject(key), STRING_TYPE)) {
+            try {
+                String converted = conversionService.convert(key, String.class);
+                if (converted != null) {
+                    return converted;
+                }
+            } catch (ConversionFailedException ignored) {
+                // 退化为 toString
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * 按 L2 的值序列化方式复制
+     */
+    @Nullable
+    private Object copy(@Nullable Object value) {
+        return value == null ? null : valueSerializationPair.read(valueSerializationPair.write(value));
+    }
+}
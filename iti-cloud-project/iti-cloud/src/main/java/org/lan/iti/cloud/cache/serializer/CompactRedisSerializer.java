@@ -0,0 +1,323 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.cache.serializer;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.lang.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 紧凑二进制 Redis 值序列化器
+ * <p>
+ * 数据格式: [MAGIC][FLAGS][payload]
+ * <ul>
+ *     <li>默认使用 Jackson Smile 二进制格式，非 final 类型携带类型信息，忽略未知属性，字段增删不影响读取</li>
+ *     <li>{@link Externalizable} 对象以及 Jackson 无法往返的类型使用 JDK 序列化</li>
+ *     <li>payload 超过阈值时使用 Deflate 压缩，压缩无收益时保留原文</li>
+ *     <li>迁移模式下可读取旧的 JDK 序列化数据（以 0xACED 开头），切换序列化器无需清空缓存</li>
+ * </ul>
+ * <p>
+ * Jackson 数据中的类型名仅允许 {@link #DEFAULT_ALLOWED_TYPES} 与调用方指定的类名前缀，其它类型读取时失败。
+ * JDK 序列化数据不受此限制，与 {@link JdkSerializationRedisSerializer} 一样只应用于可信的 Redis
+ * <p>
+ * 是否可通过 Jackson 往返按类型在首次写入时以该实例校验一次，最多记录 {@link #MAX_PROBED_TYPES} 个类型，
+ * 超出后未记录的类型每次写入都重新校验。校验要求往返结果与原值 equals，未重写 equals 的可序列化类型无法确认
+ * 是否丢失了没有 getter 的字段，同样使用 JDK 序列化。
+ * 集合、Map 或泛型字段的元素类型随实例变化，同一类型的后续实例若包含无法往返或不在允许范围内的元素，读取时抛出
+ * {@link SerializationException}，此类值应保证元素类型一致
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@Slf4j
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+    static final byte MAGIC = (byte) 0xC1;
+
+    static final byte FORMAT_JACKSON = 0x00;
+    static final byte FORMAT_JDK = 0x01;
+    static final byte FORMAT_NULL_VALUE = 0x02;
+    static final byte FORMAT_MASK = 0x0F;
+    static final byte FLAG_DEFLATE = 0x10;
+
+    private static final byte[] EMPTY = new byte[0];
+    private static final int HEADER_LENGTH = 2;
+    private static final byte JDK_MAGIC_0 = (byte) 0xAC;
+    private static final byte JDK_MAGIC_1 = (byte) 0xED;
+
+    /**
+     * 默认允许 Jackson 反序列化的类名前缀
+     */
+    public static final List<String> DEFAULT_ALLOWED_TYPES = Collections.unmodifiableList(
+            Arrays.asList("org.lan.", "java.util.", "java.time.", "java.math."));
+
+    /**
+     * 记录校验结果的最大类型数
+     */
+    static final int MAX_PROBED_TYPES = 1024;
+
+    private final ObjectMapper mapper;
+    private final ObjectWriter writer;
+    private final JdkSerializationRedisSerializer jdkSerializer;
+    private final int compressionThreshold;
+    private final boolean readJdk;
+
+    /**
+     * 类型是否可通过 Jackson 往返，最多 {@link #MAX_PROBED_TYPES} 个
+     */
+    private final Map<Class<?>, Boolean> jacksonTypes = new ConcurrentHashMap<>();
+
+    /**
+     * @param mapper               二进制格式的 ObjectMapper，需已开启默认类型信息，根对象按 {@link Object} 写入
+     * @param classLoader          JDK 反序列化使用的类加载器
+     * @param compressionThreshold 压缩阈值（字节），小于0不压缩
+     * @param readJdk              是否可读取旧的 JDK 序列化数据
+     */
+    public CompactRedisSerializer(ObjectMapper mapper, @Nullable ClassLoader classLoader,
+                                  int compressionThreshold, boolean readJdk) {
+        this.mapper = mapper;
+        // 按 Object 写入根对象，final 类型（Long、LocalDateTime 等）同样携带类型信息
+        this.writer = mapper.writerFor(Object.class);
+        this.jdkSerializer = new JdkSerializationRedisSerializer(classLoader);
+        this.compressionThreshold = compressionThreshold;
+        this.readJdk = readJdk;
+    }
+
+    /**
+     * 基于 Jackson Smile 的序列化器，仅允许 {@link #DEFAULT_ALLOWED_TYPES}
+     *
+     * @param classLoader          JDK 反序列化使用的类加载器
+     * @param compressionThreshold 压缩阈值（字节），小于0不压缩
+     * @param readJdk              是否可读取旧的 JDK 序列化数据
+     */
+    public static CompactRedisSerializer smile(@Nullable ClassLoader classLoader, int compressionThreshold, boolean readJdk) {
+        return smile(classLoader, compressionThreshold, readJdk, Collections.emptyList());
+    }
+
+    /**
+     * 基于 Jackson Smile 的序列化器
+     *
+     * @param classLoader          JDK 反序列化使用的类加载器
+     * @param compressionThreshold 压缩阈值（字节），小于0不压缩
+     * @param readJdk              是否可读取旧的 JDK 序列化数据
+     * @param allowedTypes         在 {@link #DEFAULT_ALLOWED_TYPES} 之外允许反序列化的类名前缀
+     */
+    public static CompactRedisSerializer smile(@Nullable ClassLoader classLoader, int compressionThreshold,
+                                               boolean readJdk, Collection<String> allowedTypes) {
+        // 类型信息中的类名重复出现，开启共享字符串以回引代替重复写入
+        SmileFactory factory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.smile()
+                .factory(factory)
+                .failOnUnknownProperties(false)
+                .build();
+        // 时间类型以时间戳存储，更紧凑
+        mapper.enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        BasicPolymorphicTypeValidator.Builder validator = BasicPolymorphicTypeValidator.builder()
+                .allowIfSubTypeIsArray()
+                .allowIfSubType(Number.class)
+                .allowIfSubType(Enum.class);
+        DEFAULT_ALLOWED_TYPES.forEach(validator::allowIfSubType);
+        allowedTypes.forEach(validator::allowIfSubType);
+        mapper.activateDefaultTyping(validator.build(), ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        if (classLoader != null) {
+            mapper.setTypeFactory(mapper.getTypeFactory().withClassLoader(classLoader));
+        }
+        return new CompactRedisSerializer(mapper, classLoader, compressionThreshold, readJdk);
+    }
+
+    @Override
+    public byte[] serialize(@Nullable Object value) throws SerializationException {
+        if (value == null) {
+            return EMPTY;
+        }
+        if (value instanceof NullValue) {
+            // Spring Cache 依赖 NullValue 单例判断 null
+            return new byte[]{MAGIC, FORMAT_NULL_VALUE};
+        }
+        if (useJackson(value)) {
+            try {
+                return encode(FORMAT_JACKSON, writer.writeValueAsBytes(value));
+            } catch (IOException e) {
+                if (!(value instanceof Serializable)) {
+                    throw new SerializationException("Could not write " + value.getClass().getName(), e);
+                }
+                remember(value.getClass(), Boolean.FALSE);
+            }
+        }
+        return encode(FORMAT_JDK, jdkSerializer.serialize(value));
+    }
+
+    @Override
+    public Object deserialize(@Nullable byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes.length >= HEADER_LENGTH && bytes[0] == JDK_MAGIC_0 && bytes[1] == JDK_MAGIC_1) {
+            if (!readJdk) {
+                throw new SerializationException("JDK serialized value is not readable, enable readJdk to migrate");
+            }
+            return jdkSerializer.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH || bytes[0] != MAGIC) {
+            throw new SerializationException("Unknown value format");
+        }
+        byte flags = bytes[1];
+        byte[] payload = bytes;
+        int offset = HEADER_LENGTH;
+        if ((flags & FLAG_DEFLATE) != 0) {
+            payload = inflate(bytes);
+            offset = 0;
+        }
+        switch (flags & FORMAT_MASK) {
+            case FORMAT_NULL_VALUE:
+                return NullValue.INSTANCE;
+            case FORMAT_JDK:
+                return jdkSerializer.deserialize(offset == 0 ? payload : Arrays.copyOfRange(payload, offset, payload.length));
+            case FORMAT_JACKSON:
+                try {
+                    return mapper.readValue(payload, offset, payload.length - offset, Object.class);
+                } catch (IOException e) {
+                    throw new SerializationException("Could not read value", e);
+                }
+            default:
+                throw new SerializationException("Unknown value format: " + flags);
+        }
+    }
+
+    /**
+     * 每个类型首次写入时以该实例校验能否通过 Jackson 往返，不能时改用 JDK 序列化
+     */
+    private boolean useJackson(Object value) {
+        if (value instanceof Externalizable) {
+            return false;
+        }
+        Class<?> type = value.getClass();
+        Boolean jackson = jacksonTypes.get(type);
+        if (jackson == null) {
+            jackson = probe(value);
+            remember(type, jackson);
+        }
+        return jackson || !(value instanceof Serializable);
+    }
+
+    private void remember(Class<?> type, Boolean jackson) {
+        if (jacksonTypes.size() < MAX_PROBED_TYPES || jacksonTypes.containsKey(type)) {
+            jacksonTypes.put(type, jackson);
+        }
+    }
+
+    private boolean probe(Object value) {
+        Class<?> type = value.getClass();
+        try {
+            if (!type.isArray() && type.getMethod("equals", Object.class).getDeclaringClass() == Object.class) {
+                return false;
+            }
+            Object copy = mapper.readValue(writer.writeValueAsBytes(value), Object.class);
+            return copy != null && copy.getClass() == type && Objects.deepEquals(copy, value);
+        } catch (Exception e) {
+            log.debug("[CompactRedisSerializer] {} falls back to JDK serialization.", value.getClass().getName(), e);
+            return false;
+        }
+    }
+
+    private byte[] encode(byte format, byte[] payload) {
+        if (compressionThreshold >= 0 && payload.length > compressionThreshold) {
+            byte[] compressed = deflate(payload);
+            if (compressed != null) {
+                compressed[0] = MAGIC;
+                compressed[1] = (byte) (format | FLAG_DEFLATE);
+                return compressed;
+            }
+        }
+        byte[] bytes = new byte[payload.length + HEADER_LENGTH];
+        bytes[0] = MAGIC;
+        bytes[1] = format;
+        System.arraycopy(payload, 0, bytes, HEADER_LENGTH, payload.length);
+        return bytes;
+    }
+
+    /**
+     * 压缩，结果预留头部空间；压缩后不小于原文时返回 null
+     */
+    @Nullable
+    private static byte[] deflate(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            byte[] buffer = new byte[payload.length + HEADER_LENGTH];
+            int length = HEADER_LENGTH;
+            while (!deflater.finished() && length < buffer.length) {
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            return deflater.finished() ? Arrays.copyOf(buffer, length) : null;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new SerializationException("Truncated compressed value");
+                }
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new SerializationException("Corrupted compressed value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
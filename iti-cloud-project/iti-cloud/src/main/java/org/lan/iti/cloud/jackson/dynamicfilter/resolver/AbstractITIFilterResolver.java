@@ -18,7 +18,6 @@
 
 package org.lan.iti.cloud.jackson.dynamicfilter.resolver;
 
-import cn.hutool.core.collection.CollUtil;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.ser.PropertyFilter;
@@ -27,9 +26,12 @@ import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
 import lombok.AllArgsConstructor;
 
 import java.lang.annotation.Annotation;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * ITIFilter 底层实现
@@ -46,45 +48,69 @@ public abstract class AbstractITIFilterResolver<A extends Annotation> extends Dy
 
     @Override
     public PropertyFilter apply(A annotation) {
-        return new SimpleBeanPropertyFilter() {
-            private final FilterProps filterProps = buildProps(annotation);
+        return new CompiledPropertyFilter(buildProps(annotation));
+    }
+
+    protected abstract FilterProps buildProps(A annotation);
+
+    @AllArgsConstructor
+    public static class FilterProps {
+        private Map<Class<?>, Set<String>> includeMap;
+        private Map<Class<?>, Set<String>> excludeMap;
 
-            @Override
-            public void serializeAsField(Object pojo, JsonGenerator jgen, SerializerProvider provider, PropertyWriter writer) throws Exception {
-                if (isFilter(filterProps, annotation, pojo.getClass(), writer.getName())) {
-                    writer.serializeAsField(pojo, jgen, provider);
-                } else if (!jgen.canOmitFields()) {
-                    writer.serializeAsOmittedField(pojo, jgen, provider);
+        /**
+         * 计算指定类需要隐藏的字段：所有可赋值类型的 excludes 去掉 includes
+         *
+         * @param clazz 被序列化对象的实际类型
+         * @return 隐藏字段，无需隐藏时为空集合
+         */
+        public Set<String> hiddenFields(Class<?> clazz) {
+            Set<String> hidden = new HashSet<>();
+            for (Map.Entry<Class<?>, Set<String>> entry : excludeMap.entrySet()) {
+                if (entry.getKey().isAssignableFrom(clazz)) {
+                    hidden.addAll(entry.getValue());
                 }
             }
-        };
-    }
-
-    private boolean isFilter(FilterProps props, A annotation, Class<?> clazz, String name) {
-        Set<String> includeFields = new HashSet<>();
-        for (Map.Entry<Class<?>, Set<String>> entry : props.includeMap.entrySet()) {
-            if (entry.getKey().isAssignableFrom(clazz)) {
-                includeFields.addAll(entry.getValue());
+            if (hidden.isEmpty()) {
+                return Collections.emptySet();
             }
-        }
-        Set<String> excludeFields = new HashSet<>();
-        for (Map.Entry<Class<?>, Set<String>> entry : props.excludeMap.entrySet()) {
-            if (entry.getKey().isAssignableFrom(clazz)) {
-                excludeFields.addAll(entry.getValue());
+            for (Map.Entry<Class<?>, Set<String>> entry : includeMap.entrySet()) {
+                if (entry.getKey().isAssignableFrom(clazz)) {
+                    hidden.removeAll(entry.getValue());
+                }
             }
+            return hidden.isEmpty() ? Collections.emptySet() : hidden;
         }
+    }
+
+    /**
+     * 按实际类型预编译的字段过滤器
+     * <p>
+     * 每个类型的隐藏字段只计算一次，序列化每个字段时仅需一次类型查找和一次集合查找
+     */
+    private static class CompiledPropertyFilter extends SimpleBeanPropertyFilter {
+        private final FilterProps filterProps;
+        private final ConcurrentMap<Class<?>, Set<String>> hiddenFields = new ConcurrentHashMap<>();
 
-        if (!CollUtil.contains(excludeFields, name)) {
-            return true;
+        CompiledPropertyFilter(FilterProps filterProps) {
+            this.filterProps = filterProps;
         }
-        return CollUtil.contains(includeFields, name);
-    }
 
-    protected abstract FilterProps buildProps(A annotation);
+        @Override
+        public void serializeAsField(Object pojo, JsonGenerator jgen, SerializerProvider provider, PropertyWriter writer) throws Exception {
+            if (!hiddenFields(pojo.getClass()).contains(writer.getName())) {
+                writer.serializeAsField(pojo, jgen, provider);
+            } else if (!jgen.canOmitFields()) {
+                writer.serializeAsOmittedField(pojo, jgen, provider);
+            }
+        }
 
-    @AllArgsConstructor
-    public static class FilterProps {
-        private Map<Class<?>, Set<String>> includeMap;
-        private Map<Class<?>, Set<String>> excludeMap;
+        private Set<String> hiddenFields(Class<?> clazz) {
+            Set<String> hidden = hiddenFields.get(clazz);
+            if (hidden == null) {
+                hidden = hiddenFields.computeIfAbsent(clazz, filterProps::hiddenFields);
+            }
+            return hidden;
+        }
     }
 }
@@ -32,7 +32,9 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Controller aop 切面拦截
@@ -46,6 +48,10 @@ import java.util.*;
 @Order(AopConstants.DYNAMIC_FILTER_ADVICE)
 public class DynamicFilterResponseBodyAdvice extends AbstractMappingJacksonResponseBodyAdvice {
     private final Map<Class<Annotation>, DynamicFilterResolver<?>> resolvers = new HashMap<>();
+    /**
+     * 每个 Controller 方法的过滤器只解析一次，无过滤注解时为 {@link Optional#empty()}
+     */
+    private final Map<Method, Optional<DynamicFilterProvider>> providers = new ConcurrentHashMap<>();
 
     public DynamicFilterResponseBodyAdvice() {
         addResolvers(new ITIFiltersResolver(), new ITIFilterResolver());
@@ -53,12 +59,24 @@ public class DynamicFilterResponseBodyAdvice extends AbstractMappingJacksonRespo
 
     @Override
     public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
-        return super.supports(returnType, converterType) && resolvers.keySet().stream().anyMatch(returnType::hasMethodAnnotation);
+        return super.supports(returnType, converterType) && provider(returnType).isPresent();
     }
 
     @Override
     protected void beforeBodyWriteInternal(MappingJacksonValue mappingJacksonValue, MediaType mediaType, MethodParameter methodParameter, ServerHttpRequest serverHttpRequest, ServerHttpResponse serverHttpResponse) {
-        resolveFilter(methodParameter).map(DynamicFilterProvider::new).ifPresent(mappingJacksonValue::setFilters);
+        provider(methodParameter).ifPresent(mappingJacksonValue::setFilters);
+    }
+
+    private Optional<DynamicFilterProvider> provider(MethodParameter methodParameter) {
+        Method method = methodParameter.getMethod();
+        if (method == null) {
+            return Optional.empty();
+        }
+        Optional<DynamicFilterProvider> provider = providers.get(method);
+        if (provider == null) {
+            provider = providers.computeIfAbsent(method, it -> resolveFilter(methodParameter).map(DynamicFilterProvider::new));
+        }
+        return provider;
     }
 
     private Optional<PropertyFilter> resolveFilter(MethodParameter methodParameter) {
@@ -76,5 +94,6 @@ public class DynamicFilterResponseBodyAdvice extends AbstractMappingJacksonRespo
     public void addResolvers(DynamicFilterResolver<?> resolver, DynamicFilterResolver<?>... more) {
         resolvers.put((Class<Annotation>) resolver.getType(), resolver);
         Arrays.stream(more).filter(Objects::nonNull).forEach(it -> resolvers.put((Class<Annotation>) it.getType(), it));
+        providers.clear();
     }
 }
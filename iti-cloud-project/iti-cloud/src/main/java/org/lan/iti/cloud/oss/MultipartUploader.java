@@ -0,0 +1,281 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.oss;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.*;
+import com.amazonaws.util.BinaryUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.lan.iti.common.core.support.NamedThreadFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 流式分片上传
+ * <p>
+ * 每次上传最多持有 {@code concurrency + 1} 个分片缓冲区，内存占用与对象大小无关：
+ * 读取线程填满一个缓冲区后提交给线程池上传，同时最多 {@code concurrency} 个分片在上传，
+ * 缓冲区在分片上传完成后归还复用，读取线程在无空闲缓冲区或并发已满时阻塞等待。
+ * <p>
+ * 未知大小的流若首个分片未填满则退化为普通 PUT，不发起分片上传。
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@Slf4j
+final class MultipartUploader {
+    /**
+     * 默认分片上传线程池，所有模板共享
+     */
+    static final Executor DEFAULT_EXECUTOR;
+
+    static {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new NamedThreadFactory("iti-oss-upload", true));
+        executor.allowCoreThreadTimeOut(true);
+        DEFAULT_EXECUTOR = executor;
+    }
+
+    private final AmazonS3 amazonS3;
+    private final int partSize;
+    private final int concurrency;
+    private final Executor executor;
+
+    MultipartUploader(AmazonS3 amazonS3, int partSize, int concurrency, Executor executor) {
+        if (partSize <= 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("partSize and concurrency must be positive");
+        }
+        this.amazonS3 = amazonS3;
+        this.partSize = partSize;
+        this.concurrency = concurrency;
+        this.executor = executor;
+    }
+
+    int getPartSize() {
+        return partSize;
+    }
+
+    /**
+     * 上传流，直到流结束
+     *
+     * @param bucketName bucket名称
+     * @param objectName 文件名称
+     * @param stream     文件流，不会被关闭
+     * @param metadata   元数据（不含长度）
+     * @param uploadId   需要续传的 uploadId，为 null 时新建
+     * @return 上传结果
+     * @throws OssUploadException 分片上传失败，可根据 uploadId 续传
+     */
+    PutObjectResult upload(String bucketName, String objectName, InputStream stream, ObjectMetadata metadata,
+                           String uploadId) throws IOException {
+        BufferPool pool = new BufferPool(concurrency, partSize);
+        byte[] first = pool.acquire();
+        int firstLength = readFully(stream, first);
+        if (uploadId == null && firstLength < partSize) {
+            // 不足一个分片，直接 PUT
+            metadata.setContentLength(firstLength);
+            return amazonS3.putObject(new PutObjectRequest(bucketName, objectName,
+                    new ByteArrayInputStream(first, 0, firstLength), metadata));
+        }
+
+        Map<Integer, PartSummary> uploaded = Collections.emptyMap();
+        if (uploadId == null) {
+            uploadId = amazonS3.initiateMultipartUpload(
+                    new InitiateMultipartUploadRequest(bucketName, objectName, metadata)).getUploadId();
+        } else {
+            uploaded = listParts(bucketName, objectName, uploadId);
+        }
+
+        List<CompletableFuture<PartETag>> parts = new ArrayList<>();
+        try {
+            byte[] buffer = first;
+            int length = firstLength;
+            int partNumber = 1;
+            while (true) {
+                parts.add(uploadPart(bucketName, objectName, uploadId, partNumber, buffer, length,
+                        uploaded.get(partNumber), pool));
+                if (length < partSize || pool.failed) {
+                    break;
+                }
+                buffer = pool.acquire();
+                length = readFully(stream, buffer);
+                if (length == 0) {
+                    pool.release(buffer);
+                    break;
+                }
+                partNumber++;
+            }
+            List<PartETag> etags = new ArrayList<>(parts.size());
+            for (CompletableFuture<PartETag> part : parts) {
+                etags.add(part.join());
+            }
+            CompleteMultipartUploadResult completed = amazonS3.completeMultipartUpload(
+                    new CompleteMultipartUploadRequest(bucketName, objectName, uploadId, etags));
+            PutObjectResult result = new PutObjectResult();
+            result.setETag(completed.getETag());
+            result.setVersionId(completed.getVersionId());
+            return result;
+        } catch (Exception e) {
+            // 等待已提交的分片结束，保证缓冲区不再被使用
+            CompletableFuture.allOf(parts.toArray(new CompletableFuture[0])).exceptionally(ex -> null).join();
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            throw new OssUploadException(bucketName, objectName, uploadId, cause);
+        }
+    }
+
+    private CompletableFuture<PartETag> uploadPart(String bucketName, String objectName, String uploadId,
+                                                   int partNumber, byte[] buffer, int length,
+                                                   PartSummary uploaded, BufferPool pool) throws IOException {
+        if (uploaded != null && uploaded.getSize() == length && sameContent(uploaded.getETag(), buffer, length)) {
+            pool.release(buffer);
+            return CompletableFuture.completedFuture(new PartETag(partNumber, uploaded.getETag()));
+        }
+        UploadPartRequest request = new UploadPartRequest()
+                .withBucketName(bucketName)
+                .withKey(objectName)
+                .withUploadId(uploadId)
+                .withPartNumber(partNumber)
+                .withPartSize(length)
+                .withInputStream(new ByteArrayInputStream(buffer, 0, length));
+        pool.beginUpload();
+        CompletableFuture<PartETag> future = CompletableFuture.supplyAsync(
+                () -> amazonS3.uploadPart(request).getPartETag(), executor);
+        future.whenComplete((etag, e) -> {
+            if (e != null) {
+                pool.failed = true;
+            }
+            pool.endUpload();
+            pool.release(buffer);
+        });
+        return future;
+    }
+
+    /**
+     * 查询已上传的全部分片
+     */
+    Map<Integer, PartSummary> listParts(String bucketName, String objectName, String uploadId) {
+        Map<Integer, PartSummary> parts = new HashMap<>();
+        ListPartsRequest request = new ListPartsRequest(bucketName, objectName, uploadId);
+        PartListing listing;
+        do {
+            listing = amazonS3.listParts(request);
+            for (PartSummary part : listing.getParts()) {
+                parts.put(part.getPartNumber(), part);
+            }
+            request.setPartNumberMarker(listing.getNextPartNumberMarker());
+        } while (listing.isTruncated());
+        return parts;
+    }
+
+    /**
+     * 续传时校验已上传分片内容，分片 ETag 非 MD5 格式（如 SSE-KMS）或无法计算 MD5 时视为不一致，重新上传该分片
+     */
+    private static boolean sameContent(String etag, byte[] buffer, int length) {
+        if (etag == null) {
+            return false;
+        }
+        String hex = etag.replace("\"", "");
+        if (hex.length() != 32) {
+            return false;
+        }
+        try {
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            md5.update(buffer, 0, length);
+            return hex.equalsIgnoreCase(BinaryUtils.toHex(md5.digest()));
+        } catch (NoSuchAlgorithmException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 读满缓冲区或直到流结束
+     */
+    private static int readFully(InputStream stream, byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int read = stream.read(buffer, total, buffer.length - total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * 单次上传的定长缓冲区池，按需分配，最多分配 {@code concurrency + 1} 个
+     */
+    private static final class BufferPool {
+        private final BlockingQueue<byte[]> free;
+        private final Semaphore uploading;
+        private final int capacity;
+        private final int size;
+        private int allocated;
+        private volatile boolean failed;
+
+        BufferPool(int concurrency, int size) {
+            this.capacity = concurrency + 1;
+            this.free = new ArrayBlockingQueue<>(capacity);
+            this.uploading = new Semaphore(concurrency);
+            this.size = size;
+        }
+
+        void beginUpload() throws IOException {
+            try {
+                uploading.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for an upload slot", e);
+            }
+        }
+
+        void endUpload() {
+            uploading.release();
+        }
+
+        byte[] acquire() throws IOException {
+            byte[] buffer = free.poll();
+            if (buffer != null) {
+                return buffer;
+            }
+            if (allocated < capacity) {
+                allocated++;
+                return new byte[size];
+            }
+            try {
+                return free.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for an upload buffer", e);
+            }
+        }
+
+        void release(byte[] buffer) {
+            free.offer(buffer);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.oss;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import org.lan.iti.common.core.support.NamedThreadFactory;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 按页迭代对象列表
+ * <p>
+ * 基于 ListObjectsV2 的 continuationToken 逐页获取，返回当前页的同时异步预取下一页，
+ * 调用方处理当前页时下一页的请求已在进行中。同一时刻最多持有两页（每页最多 1000 个对象）。
+ * <p>
+ * 非线程安全
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+final class ObjectListingIterator implements Iterator<ListObjectsV2Result> {
+    /**
+     * 预取线程池，所有列表迭代共享
+     */
+    private static final Executor PREFETCH_EXECUTOR = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), new NamedThreadFactory("iti-oss-list", true));
+
+    private final AmazonS3 amazonS3;
+    private final ListObjectsV2Request request;
+
+    /**
+     * 下一页，null 表示已无更多页
+     */
+    private CompletableFuture<ListObjectsV2Result> next;
+
+    ObjectListingIterator(AmazonS3 amazonS3, ListObjectsV2Request request) {
+        this.amazonS3 = amazonS3;
+        this.request = request;
+        // 首页同步获取，参数错误等异常直接抛给调用方
+        this.next = CompletableFuture.completedFuture(amazonS3.listObjectsV2(request));
+    }
+
+    /**
+     * 创建按页的惰性流
+     */
+    static Stream<ListObjectsV2Result> stream(AmazonS3 amazonS3, ListObjectsV2Request request) {
+        ObjectListingIterator iterator = new ObjectListingIterator(amazonS3, request);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::cancel);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public ListObjectsV2Result next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        ListObjectsV2Result page;
+        try {
+            page = next.join();
+        } catch (CompletionException e) {
+            next = null;
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+        if (page.isTruncated() && page.getNextContinuationToken() != null) {
+            // 上一次请求已完成，复用同一请求对象
+            request.setContinuationToken(page.getNextContinuationToken());
+            next = CompletableFuture.supplyAsync(() -> amazonS3.listObjectsV2(request), PREFETCH_EXECUTOR);
+        } else {
+            next = null;
+        }
+        return page;
+    }
+
+    /**
+     * 停止迭代，丢弃已发起的预取
+     */
+    void cancel() {
+        if (next != null) {
+            next.cancel(false);
+            next = null;
+        }
+    }
+}
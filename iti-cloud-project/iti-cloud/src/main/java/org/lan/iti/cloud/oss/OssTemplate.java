@@ -20,31 +20,69 @@ package org.lan.iti.cloud.oss;
 
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.*;
-import com.amazonaws.util.IOUtils;
 import lombok.Cleanup;
-import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 
-import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * aws-s3 通用存储操作 支持所有兼容s3协议的云存储: {阿里云OSS，腾讯云COS，七牛云，京东云，minio 等}
+ * <p>
+ * 大于一个分片或大小未知的文件使用流式分片上传，内存占用与文件大小无关
  *
  * @author NorthLan
  * @date 2021-03-06
  * @url https://noahlan.com
  */
-@RequiredArgsConstructor
 public class OssTemplate {
+    /**
+     * 默认分片大小 8MB，S3 要求除最后一个分片外不小于 5MB
+     */
+    public static final int DEFAULT_PART_SIZE = 8 * 1024 * 1024;
+
+    /**
+     * 默认单次上传并发分片数
+     */
+    public static final int DEFAULT_UPLOAD_CONCURRENCY = 4;
+
+    /**
+     * 单次批量删除的最大对象数（S3 限制）
+     */
+    public static final int MAX_DELETE_BATCH = 1000;
+
+    /**
+     * 非递归查询使用的目录分隔符
+     */
+    private static final String DELIMITER = "/";
 
     /**
      * amazon-s3 接口
      */
     private final AmazonS3 amazonS3;
 
+    /**
+     * 分片上传
+     */
+    private final MultipartUploader uploader;
+
+    public OssTemplate(AmazonS3 amazonS3) {
+        this(amazonS3, DEFAULT_PART_SIZE, DEFAULT_UPLOAD_CONCURRENCY);
+    }
+
+    /**
+     * @param amazonS3    amazon-s3 接口
+     * @param partSize    分片大小
+     * @param concurrency 单次上传并发分片数，单次上传最多占用 (concurrency + 1) * partSize 内存
+     */
+    public OssTemplate(AmazonS3 amazonS3, int partSize, int concurrency) {
+        this.amazonS3 = amazonS3;
+        this.uploader = new MultipartUploader(amazonS3, partSize, concurrency, MultipartUploader.DEFAULT_EXECUTOR);
+    }
+
     /**
      * 创建存储桶
      *
@@ -70,13 +108,17 @@ public class OssTemplate {
     }
 
     /**
+     * 通过 HeadBucket 判断存储桶是否存在，不再列出全部存储桶
+     * <p>
+     * 返回的 {@link Bucket} 仅包含名称
+     *
      * @param bucketName bucket名称
-     * @see <a href="http://docs.aws.amazon.com/goto/WebAPI/s3-2006-03-01/ListBuckets">AWS
+     * @see <a href="http://docs.aws.amazon.com/goto/WebAPI/s3-2006-03-01/HeadBucket">AWS
      * API Documentation</a>
      */
     @SneakyThrows
     public Optional<Bucket> getBucket(String bucketName) {
-        return amazonS3.listBuckets().stream().filter(b -> b.getName().equals(bucketName)).findFirst();
+        return amazonS3.doesBucketExistV2(bucketName) ? Optional.of(new Bucket(bucketName)) : Optional.empty();
     }
 
     /**
@@ -102,8 +144,57 @@ public class OssTemplate {
      */
     @SneakyThrows
     public List<S3ObjectSummary> getAllObjectsByPrefix(String bucketName, String prefix, boolean recursive) {
-        ObjectListing objectListing = amazonS3.listObjects(bucketName, prefix);
-        return new ArrayList<>(objectListing.getObjectSummaries());
+        try (Stream<S3ObjectSummary> objects = listObjects(bucketName, prefix, recursive)) {
+            return objects.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * 按前缀惰性遍历文件
+     * <p>
+     * 自动跟随分页，消费当前页时预取下一页，适用于任意数量的对象；
+     * 未遍历完时应关闭流以停止预取
+     *
+     * @param bucketName bucket名称
+     * @param prefix     前缀
+     * @param recursive  是否递归查询，false 时仅返回前缀下一级的文件
+     * @return S3ObjectSummary 流
+     * @see <a href="https://docs.aws.amazon.com/AmazonS3/latest/API/API_ListObjectsV2.html">AWS
+     * API Documentation</a>
+     */
+    public Stream<S3ObjectSummary> listObjects(String bucketName, String prefix, boolean recursive) {
+        return listPages(bucketName, prefix, recursive)
+                .flatMap(page -> page.getObjectSummaries().stream());
+    }
+
+    /**
+     * 惰性遍历前缀下一级的“目录”（以 / 分隔的公共前缀）
+     *
+     * @param bucketName bucket名称
+     * @param prefix     前缀
+     * @return 公共前缀流
+     */
+    public Stream<String> listCommonPrefixes(String bucketName, String prefix) {
+        return listPages(bucketName, prefix, false)
+                .flatMap(page -> page.getCommonPrefixes().stream());
+    }
+
+    /**
+     * 惰性按页遍历
+     *
+     * @param bucketName bucket名称
+     * @param prefix     前缀
+     * @param recursive  是否递归查询
+     * @return 分页结果流
+     */
+    public Stream<ListObjectsV2Result> listPages(String bucketName, String prefix, boolean recursive) {
+        ListObjectsV2Request request = new ListObjectsV2Request()
+                .withBucketName(bucketName)
+                .withPrefix(prefix);
+        if (!recursive) {
+            request.setDelimiter(DELIMITER);
+        }
+        return ObjectListingIterator.stream(amazonS3, request);
     }
 
     /**
@@ -140,7 +231,35 @@ public class OssTemplate {
     }
 
     /**
-     * 上传文件
+     * 获取文件指定范围的内容
+     *
+     * @param bucketName bucket名称
+     * @param objectName 文件名称
+     * @param start      起始字节（包含）
+     * @param end        结束字节（包含）
+     * @return 二进制流
+     * @see <a href="https://docs.aws.amazon.com/AmazonS3/latest/API/API_GetObject.html#API_GetObject_RequestSyntax">Range</a>
+     */
+    @SneakyThrows
+    public S3Object getObject(String bucketName, String objectName, long start, long end) {
+        return amazonS3.getObject(new GetObjectRequest(bucketName, objectName).withRange(start, end));
+    }
+
+    /**
+     * 获取文件从指定位置到末尾的内容，用于断点下载
+     *
+     * @param bucketName bucket名称
+     * @param objectName 文件名称
+     * @param start      起始字节（包含）
+     * @return 二进制流
+     */
+    @SneakyThrows
+    public S3Object getObject(String bucketName, String objectName, long start) {
+        return amazonS3.getObject(new GetObjectRequest(bucketName, objectName).withRange(start));
+    }
+
+    /**
+     * 上传文件，大小未知时按流式分片上传
      *
      * @param bucketName bucket名称
      * @param objectName 文件名称
@@ -148,7 +267,7 @@ public class OssTemplate {
      * @throws Exception exp
      */
     public void putObject(String bucketName, String objectName, InputStream stream) throws Exception {
-        putObject(bucketName, objectName, stream, (long) stream.available(), "application/octet-stream");
+        putObject(bucketName, objectName, stream, -1, "application/octet-stream");
     }
 
     /**
@@ -157,23 +276,52 @@ public class OssTemplate {
      * @param bucketName  bucket名称
      * @param objectName  文件名称
      * @param stream      文件流
-     * @param size        大小
+     * @param size        大小，小于0表示未知
      * @param contextType 类型
-     * @throws Exception exp
+     * @throws Exception           exp
+     * @throws OssUploadException 分片上传失败，可通过 {@link #resumeObject} 续传
      * @see <a href="http://docs.aws.amazon.com/goto/WebAPI/s3-2006-03-01/PutObject">AWS
      * API Documentation</a>
      */
     public PutObjectResult putObject(String bucketName, String objectName, InputStream stream, long size,
                                      String contextType) throws Exception {
-        // String fileName = getFileName(objectName);
-        byte[] bytes = IOUtils.toByteArray(stream);
         ObjectMetadata objectMetadata = new ObjectMetadata();
-        objectMetadata.setContentLength(size);
         objectMetadata.setContentType(contextType);
-        ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(bytes);
-        // 上传
-        return amazonS3.putObject(bucketName, objectName, byteArrayInputStream, objectMetadata);
+        if (size >= 0 && size < uploader.getPartSize()) {
+            // 已知大小且不足一个分片，直接流式上传
+            objectMetadata.setContentLength(size);
+            return amazonS3.putObject(new PutObjectRequest(bucketName, objectName, stream, objectMetadata));
+        }
+        return uploader.upload(bucketName, objectName, stream, objectMetadata, null);
+    }
 
+    /**
+     * 续传未完成的分片上传
+     * <p>
+     * 流需从文件开头重新读取，已上传且内容一致的分片会被跳过
+     *
+     * @param bucketName bucket名称
+     * @param objectName 文件名称
+     * @param uploadId   {@link OssUploadException#getUploadId()}
+     * @param stream     文件流
+     * @throws Exception           exp
+     * @throws OssUploadException 分片上传再次失败
+     */
+    public PutObjectResult resumeObject(String bucketName, String objectName, String uploadId,
+                                        InputStream stream) throws Exception {
+        return uploader.upload(bucketName, objectName, stream, new ObjectMetadata(), uploadId);
+    }
+
+    /**
+     * 放弃未完成的分片上传并清理已上传分片
+     *
+     * @param bucketName bucket名称
+     * @param objectName 文件名称
+     * @param uploadId   {@link OssUploadException#getUploadId()}
+     */
+    @SneakyThrows
+    public void abortUpload(String bucketName, String objectName, String uploadId) {
+        amazonS3.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, objectName, uploadId));
     }
 
     /**
@@ -203,4 +351,54 @@ public class OssTemplate {
     public void removeObject(String bucketName, String objectName) throws Exception {
         amazonS3.deleteObject(bucketName, objectName);
     }
+
+    /**
+     * 批量删除文件，每 {@value #MAX_DELETE_BATCH} 个对象一次请求
+     * <p>
+     * 单批部分失败不会中断后续批次，失败项汇总返回
+     *
+     * @param bucketName  bucket名称
+     * @param objectNames 文件名称，可惰性提供
+     * @return 删除失败的对象，全部成功时为空
+     * @see <a href="https://docs.aws.amazon.com/AmazonS3/latest/API/API_DeleteObjects.html">AWS
+     * API Documentation</a>
+     */
+    @SneakyThrows
+    public List<MultiObjectDeleteException.DeleteError> removeObjects(String bucketName, Iterable<String> objectNames) {
+        List<MultiObjectDeleteException.DeleteError> errors = new ArrayList<>();
+        List<DeleteObjectsRequest.KeyVersion> batch = new ArrayList<>(MAX_DELETE_BATCH);
+        for (String objectName : objectNames) {
+            batch.add(new DeleteObjectsRequest.KeyVersion(objectName));
+            if (batch.size() == MAX_DELETE_BATCH) {
+                deleteBatch(bucketName, batch, errors);
+                batch = new ArrayList<>(MAX_DELETE_BATCH);
+            }
+        }
+        if (!batch.isEmpty()) {
+            deleteBatch(bucketName, batch, errors);
+        }
+        return errors;
+    }
+
+    /**
+     * 删除前缀下的全部文件
+     *
+     * @param bucketName bucket名称
+     * @param prefix     前缀
+     * @return 删除失败的对象，全部成功时为空
+     */
+    public List<MultiObjectDeleteException.DeleteError> removeObjectsByPrefix(String bucketName, String prefix) {
+        try (Stream<String> objectNames = listObjects(bucketName, prefix, true).map(S3ObjectSummary::getKey)) {
+            return removeObjects(bucketName, objectNames::iterator);
+        }
+    }
+
+    private void deleteBatch(String bucketName, List<DeleteObjectsRequest.KeyVersion> keys,
+                             List<MultiObjectDeleteException.DeleteError> errors) {
+        try {
+            amazonS3.deleteObjects(new DeleteObjectsRequest(bucketName).withKeys(keys).withQuiet(true));
+        } catch (MultiObjectDeleteException e) {
+            errors.addAll(e.getErrors());
+        }
+    }
 }
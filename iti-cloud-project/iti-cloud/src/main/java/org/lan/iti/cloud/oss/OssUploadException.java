@@ -0,0 +1,47 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.oss;
+
+import lombok.Getter;
+
+/**
+ * 分片上传异常
+ * <p>
+ * 携带未完成的 uploadId，可通过 {@link OssTemplate#resumeObject} 续传，
+ * 或通过 {@link OssTemplate#abortUpload} 放弃并清理已上传分片
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@Getter
+public class OssUploadException extends RuntimeException {
+    private static final long serialVersionUID = -2287496123745512309L;
+
+    private final String bucketName;
+    private final String objectName;
+    private final String uploadId;
+
+    public OssUploadException(String bucketName, String objectName, String uploadId, Throwable cause) {
+        super("Multipart upload failed, bucket=" + bucketName + ", object=" + objectName + ", uploadId=" + uploadId, cause);
+        this.bucketName = bucketName;
+        this.objectName = objectName;
+        this.uploadId = uploadId;
+    }
+}
@@ -18,11 +18,14 @@
 
 package org.lan.iti.cloud.sequence.builder;
 
+import org.lan.iti.cloud.sequence.properties.BaseProperties;
 import org.lan.iti.cloud.sequence.properties.SequenceDbProperties;
 import org.lan.iti.cloud.sequence.range.Name;
 import org.lan.iti.cloud.sequence.range.impl.db.DbRangeManager;
+import org.lan.iti.cloud.sequence.sequence.RangeSequence;
 import org.lan.iti.cloud.sequence.sequence.Sequence;
 import org.lan.iti.cloud.sequence.sequence.impl.DefaultRangeSequence;
+import org.lan.iti.cloud.sequence.sequence.impl.DoubleBufferRangeSequence;
 
 import javax.sql.DataSource;
 
@@ -56,12 +59,26 @@ public class DbSequenceBuilder implements SequenceBuilder {
     public Sequence build() {
         DbRangeManager rangeManager = new DbRangeManager(this.dataSource);
         rangeManager.setRetryTimes(this.properties.getRetryTimes())
+                .setRetryBackoff(this.properties.getRetryBackoff())
+                .setMaxRetryBackoff(this.properties.getMaxRetryBackoff())
+                .setBatchSize(this.properties.getBatchSize())
                 .setStep(this.properties.getStep())
                 .setStepStart(this.properties.getStepStart())
                 .setTableName(this.properties.getTableName())
                 .setSchema(this.properties.getSchema())
                 .init();
-        DefaultRangeSequence sequence = new DefaultRangeSequence();
+        RangeSequence sequence;
+        if (this.properties.getMode() == BaseProperties.Mode.DOUBLE_BUFFER) {
+            sequence = new DoubleBufferRangeSequence()
+                    .setStep(this.properties.getStep())
+                    .setMaxStep(this.properties.getMaxStep())
+                    .setPrefetchRatio(this.properties.getPrefetchRatio())
+                    .setSegmentDuration(this.properties.getSegmentDuration())
+                    .setPrewarmAhead(this.properties.getPrewarmAhead());
+        } else {
+            sequence = new DefaultRangeSequence()
+                    .setPrewarmAhead(this.properties.getPrewarmAhead());
+        }
         sequence.setName(this.name);
         sequence.setRangeManager(rangeManager);
         return sequence;
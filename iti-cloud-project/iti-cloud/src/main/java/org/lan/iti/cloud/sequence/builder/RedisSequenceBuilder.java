@@ -18,11 +18,14 @@
 
 package org.lan.iti.cloud.sequence.builder;
 
+import org.lan.iti.cloud.sequence.properties.BaseProperties;
 import org.lan.iti.cloud.sequence.properties.SequenceRedisProperties;
 import org.lan.iti.cloud.sequence.range.Name;
 import org.lan.iti.cloud.sequence.range.impl.redis.RedisRangeManager;
+import org.lan.iti.cloud.sequence.sequence.RangeSequence;
 import org.lan.iti.cloud.sequence.sequence.Sequence;
 import org.lan.iti.cloud.sequence.sequence.impl.DefaultRangeSequence;
+import org.lan.iti.cloud.sequence.sequence.impl.DoubleBufferRangeSequence;
 import org.springframework.data.redis.core.RedisTemplate;
 
 /**
@@ -68,7 +71,18 @@ public class RedisSequenceBuilder implements SequenceBuilder {
                 .setStep(this.properties.getStep())
                 .setStepStart(this.properties.getStepStart())
                 .init();
-        DefaultRangeSequence sequence = new DefaultRangeSequence();
+        RangeSequence sequence;
+        if (this.properties.getMode() == BaseProperties.Mode.DOUBLE_BUFFER) {
+            sequence = new DoubleBufferRangeSequence()
+                    .setStep(this.properties.getStep())
+                    .setMaxStep(this.properties.getMaxStep())
+                    .setPrefetchRatio(this.properties.getPrefetchRatio())
+                    .setSegmentDuration(this.properties.getSegmentDuration())
+                    .setPrewarmAhead(this.properties.getPrewarmAhead());
+        } else {
+            sequence = new DefaultRangeSequence()
+                    .setPrewarmAhead(this.properties.getPrewarmAhead());
+        }
         sequence.setName(this.name);
         sequence.setRangeManager(rangeManager);
         return sequence;
@@ -20,6 +20,8 @@ package org.lan.iti.cloud.sequence.properties;
 
 import lombok.Data;
 
+import java.time.Duration;
+
 /**
  * 公共属性
  *
@@ -43,4 +45,41 @@ public class BaseProperties {
      * 业务名称
      */
     private String name = "iti";
+
+    /**
+     * 区间分配模式[可选，默认：SINGLE]
+     */
+    private Mode mode = Mode.SINGLE;
+
+    /**
+     * 双Buffer模式下，当前区间消耗比例达到该值时异步预取下一区间[可选，默认：0.1]
+     */
+    private double prefetchRatio = 0.1;
+
+    /**
+     * 双Buffer模式下，动态步长上限[可选，默认：1000000]
+     */
+    private int maxStep = 1000000;
+
+    /**
+     * 双Buffer模式下，期望单个区间的消耗时长，据此动态调整步长[可选，默认：15分钟]
+     */
+    private Duration segmentDuration = Duration.ofMinutes(15);
+
+    /**
+     * 使用按日期滚动的名称时，提前预热次日首个区间的时间，为0时不预热[可选，默认：5秒]
+     */
+    private Duration prewarmAhead = Duration.ofSeconds(5);
+
+    public enum Mode {
+        /**
+         * 单区间，用尽后同步获取新区间
+         */
+        SINGLE,
+
+        /**
+         * 双Buffer，提前异步预取下一区间
+         */
+        DOUBLE_BUFFER
+    }
 }
@@ -23,6 +23,8 @@ import lombok.EqualsAndHashCode;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 /**
  * DB配置属性
  *
@@ -49,4 +51,19 @@ public class SequenceDbProperties extends BaseProperties {
      * 重试次数
      */
     private int retryTimes = 1;
+
+    /**
+     * 乐观更新冲突后的初始退避时长，每次重试翻倍
+     */
+    private Duration retryBackoff = Duration.ofMillis(10);
+
+    /**
+     * 乐观更新冲突后的最大退避时长
+     */
+    private Duration maxRetryBackoff = Duration.ofMillis(200);
+
+    /**
+     * 批量获取区间时单条SQL包含的最大名称数
+     */
+    private int batchSize = 512;
 }
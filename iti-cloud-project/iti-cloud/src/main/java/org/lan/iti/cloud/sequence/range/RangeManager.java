@@ -20,6 +20,10 @@ package org.lan.iti.cloud.sequence.range;
 
 import org.lan.iti.cloud.sequence.exception.SequenceException;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * 区间管理器
  *
@@ -37,6 +41,36 @@ public interface RangeManager {
      */
     Range nextRange(String name) throws SequenceException;
 
+    /**
+     * 以指定步长获取指定区间名的下一个区间
+     * <p>
+     * 默认实现不支持自定义步长，按 {@link #nextRange(String)} 以管理器自身配置的步长获取，
+     * 调用方应以返回区间的实际边界为准
+     *
+     * @param name 区间名
+     * @param step 区间步长
+     * @return 返回区间
+     * @throws SequenceException 异常
+     */
+    default Range nextRange(String name, int step) throws SequenceException {
+        return nextRange(name);
+    }
+
+    /**
+     * 批量获取多个区间名的下一个区间
+     *
+     * @param names 区间名
+     * @return 区间名与区间的映射
+     * @throws SequenceException 异常
+     */
+    default Map<String, Range> nextRanges(Collection<String> names) throws SequenceException {
+        Map<String, Range> ranges = new LinkedHashMap<>(names.size() * 4 / 3 + 1);
+        for (String name : names) {
+            ranges.put(name, nextRange(name));
+        }
+        return ranges;
+    }
+
     /**
      * 初始化
      */
@@ -0,0 +1,59 @@
+/*
+ *
+ *  * Copyright (c) [2019-2020] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.sequence.range;
+
+import java.time.LocalDate;
+
+/**
+ * 按周期滚动的名称接口
+ * <p>
+ * 名称在 {@link #nextRolloverTime()} 时刻切换为 {@link #createNext()}，序列号生成器可据此重置区间并提前预热下一周期的首个区间
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public interface RollingName extends Name {
+
+    /**
+     * 创建下一周期的名称
+     *
+     * @return 下一周期名称
+     */
+    String createNext();
+
+    /**
+     * 下一次切换名称的时间
+     *
+     * @return 时间戳（毫秒）
+     */
+    long nextRolloverTime();
+
+    /**
+     * 名称所属周期的日期
+     * <p>
+     * 格式化序列号时以该日期作为日期部分，保证跨周期前取得的序列号仍使用其所属周期的日期
+     *
+     * @param name 由 {@link #create()} 或 {@link #createNext()} 生成的名称
+     * @return 日期，无法确定时返回null（使用格式化时的当前日期）
+     */
+    default LocalDate dateOf(String name) {
+        return null;
+    }
+}
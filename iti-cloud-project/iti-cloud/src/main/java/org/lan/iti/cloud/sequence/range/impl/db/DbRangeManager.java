@@ -26,13 +26,30 @@ import org.lan.iti.cloud.sequence.range.Range;
 import org.lan.iti.cloud.sequence.range.RangeManager;
 import org.lan.iti.common.core.util.Formatter;
 import org.lan.iti.common.core.util.SystemClock;
+import org.lan.iti.common.core.util.clock.ClockSource;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.Assert;
 
 import javax.sql.DataSource;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 基于DB的区间管理器
@@ -43,6 +60,7 @@ import java.sql.Types;
  */
 public class DbRangeManager implements RangeManager {
     private final static String TABLE_NAME_PLACEHOLDER = "#tableName";
+    private final static String NAMES_PLACEHOLDER = "#names";
 
     // SQL
     private static final long DELTA = 100000000L;
@@ -50,6 +68,21 @@ public class DbRangeManager implements RangeManager {
     private final static String SQL_INSERT_RANGE = "INSERT INTO " + TABLE_NAME_PLACEHOLDER + "(" + ALL_FIELDS + ") VALUES (?,?,?,?)";
     private final static String SQL_UPDATE_RANGE = "UPDATE " + TABLE_NAME_PLACEHOLDER + " SET value=?, update_time=? WHERE name=? AND value=?";
     private final static String SQL_SELECT_RANGE = "SELECT value FROM " + TABLE_NAME_PLACEHOLDER + " WHERE name=?";
+    private final static String SQL_UPDATE_RANGES_RETURNING = "UPDATE " + TABLE_NAME_PLACEHOLDER + " SET value=value+?, update_time=? WHERE name IN (" + NAMES_PLACEHOLDER + ") RETURNING name, value";
+    private final static String SQL_SELECT_RANGES_FOR_UPDATE = "SELECT name, value FROM " + TABLE_NAME_PLACEHOLDER + " WHERE name IN (" + NAMES_PLACEHOLDER + ") FOR UPDATE";
+    private final static String SQL_UPDATE_RANGE_BY_NAME = "UPDATE " + TABLE_NAME_PLACEHOLDER + " SET value=?, update_time=? WHERE name=?";
+
+    /**
+     * 支持 UPDATE ... RETURNING 的数据库（产品名前缀）
+     */
+    private final static List<String> RETURNING_DATABASES = Collections.singletonList("postgresql");
+
+    /**
+     * 支持 SELECT ... FOR UPDATE 的数据库（产品名前缀，如DB2上报为 DB2/LINUXX8664）
+     */
+    private final static List<String> FOR_UPDATE_DATABASES = Arrays.asList(
+            "mysql", "mariadb", "oracle", "h2", "hsql database engine", "db2", "dm dbms");
+
     /**
      * 区间步长
      */
@@ -71,6 +104,27 @@ public class DbRangeManager implements RangeManager {
     @Accessors(chain = true)
     private int retryTimes = 1;
 
+    /**
+     * 乐观更新冲突后的初始退避时长，每次重试翻倍（带随机抖动）
+     */
+    @Setter
+    @Accessors(chain = true)
+    private Duration retryBackoff = Duration.ofMillis(10);
+
+    /**
+     * 乐观更新冲突后的最大退避时长
+     */
+    @Setter
+    @Accessors(chain = true)
+    private Duration maxRetryBackoff = Duration.ofMillis(200);
+
+    /**
+     * 批量获取区间时单条SQL包含的最大名称数
+     */
+    @Setter
+    @Accessors(chain = true)
+    private int batchSize = 512;
+
     /**
      * 表名
      */
@@ -85,41 +139,162 @@ public class DbRangeManager implements RangeManager {
     @Accessors(chain = true)
     private String schema = "public";
 
+    /**
+     * 时钟源，用于写入记录的创建/更新时间
+     */
+    @Setter
+    @Accessors(chain = true)
+    private ClockSource clock = SystemClock::now;
+
     /**
      * 真实表名称
      */
     private String realTableName;
     private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 预编译SQL，init时生成
+     */
+    private String insertRangeSql;
+    private String updateRangeSql;
+    private String selectRangeSql;
+    private String updateRangeByNameSql;
+
+    /**
+     * 批量SQL，按名称个数（2的幂）分桶预生成，不足时以最后一个名称补齐，保证SQL文本稳定以复用预编译语句
+     */
+    private String[] batchRangesSql;
+
+    /**
+     * 批量获取策略
+     */
+    private BatchStrategy batchStrategy;
+
+    /**
+     * 乐观更新冲突次数
+     */
+    private final AtomicLong contentionCount = new AtomicLong();
+
+    /**
+     * 重试耗尽次数
+     */
+    private final AtomicLong retryExhaustedCount = new AtomicLong();
 
     public DbRangeManager(DataSource dataSource) {
         Assert.notNull(dataSource, "DataSource required");
         this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
     }
 
     @Override
     public Range nextRange(String name) throws SequenceException {
+        return nextRange(name, step);
+    }
+
+    @Override
+    public Range nextRange(String name, int step) throws SequenceException {
         if (StrUtil.isBlank(name)) {
             throw new SequenceException("[DbRangeManager] name is empty.");
         }
-        Long oldValue;
+        long oldValue;
         long newValue;
         for (int i = 0; i < retryTimes; ++i) {
-            oldValue = selectRange(name);
-            if (null == oldValue) {
-                // 区间不存在,重新执行
-                continue;
+            if (i > 0) {
+                backoff(i);
             }
+            oldValue = selectRange(name);
             newValue = oldValue + step;
             if (updateRange(name, newValue, oldValue)) {
                 return new Range(oldValue + 1, newValue);
             }
+            contentionCount.incrementAndGet();
         }
+        retryExhaustedCount.incrementAndGet();
         throw new SequenceException(Formatter.format("Retried too many times, retryTimes = {}", retryTimes));
     }
 
+    /**
+     * 批量获取区间
+     * <p>
+     * PostgreSQL 使用一条 UPDATE ... RETURNING；支持行锁的数据库在一个事务内 SELECT ... FOR UPDATE 后批量更新；
+     * 其它数据库逐个获取
+     *
+     * @param names 区间名
+     * @return 区间名与区间的映射
+     * @throws SequenceException 异常
+     */
+    @Override
+    public Map<String, Range> nextRanges(Collection<String> names) throws SequenceException {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(names));
+        for (String name : distinct) {
+            if (StrUtil.isBlank(name)) {
+                throw new SequenceException("[DbRangeManager] name is empty.");
+            }
+        }
+        // 按名称排序后分批加锁，保证名称有交集的并发批次以相同顺序获取行锁，避免死锁
+        List<String> ordered = new ArrayList<>(distinct);
+        Collections.sort(ordered);
+        Map<String, Range> allocatedAll = new HashMap<>(ordered.size() * 4 / 3 + 1);
+        for (int from = 0; from < ordered.size(); from += batchSize) {
+            List<String> chunk = ordered.subList(from, Math.min(from + batchSize, ordered.size()));
+            Map<String, Range> allocated = allocate(chunk);
+            if (allocated.size() < chunk.size()) {
+                // 区间不存在，初始化后重新获取
+                List<String> missing = new ArrayList<>();
+                for (String name : chunk) {
+                    if (!allocated.containsKey(name)) {
+                        insertRange(name);
+                        missing.add(name);
+                    }
+                }
+                allocated.putAll(allocate(missing));
+            }
+            for (String name : chunk) {
+                Range range = allocated.get(name);
+                if (range == null) {
+                    throw new SequenceException(Formatter.format("[DbRangeManager] cannot allocate range for {}", name));
+                }
+                allocatedAll.put(name, range);
+            }
+        }
+        Map<String, Range> ranges = new LinkedHashMap<>(distinct.size() * 4 / 3 + 1);
+        for (String name : distinct) {
+            ranges.put(name, allocatedAll.get(name));
+        }
+        return ranges;
+    }
+
     @Override
     public void init() {
         checkParam();
+        this.realTableName = schema + "." + tableName;
+        this.insertRangeSql = SQL_INSERT_RANGE.replace(TABLE_NAME_PLACEHOLDER, realTableName);
+        this.updateRangeSql = SQL_UPDATE_RANGE.replace(TABLE_NAME_PLACEHOLDER, realTableName);
+        this.selectRangeSql = SQL_SELECT_RANGE.replace(TABLE_NAME_PLACEHOLDER, realTableName);
+        this.updateRangeByNameSql = SQL_UPDATE_RANGE_BY_NAME.replace(TABLE_NAME_PLACEHOLDER, realTableName);
+
+        this.batchStrategy = detectBatchStrategy();
+        String batchSql = batchStrategy == BatchStrategy.RETURNING ? SQL_UPDATE_RANGES_RETURNING : SQL_SELECT_RANGES_FOR_UPDATE;
+        batchSql = batchSql.replace(TABLE_NAME_PLACEHOLDER, realTableName);
+        this.batchRangesSql = new String[bucketIndex(batchSize) + 1];
+        for (int i = 0; i < batchRangesSql.length; ++i) {
+            batchRangesSql[i] = batchSql.replace(NAMES_PLACEHOLDER, StrUtil.repeatAndJoin("?", 1 << i, ","));
+        }
+    }
+
+    /**
+     * @return 乐观更新冲突次数
+     */
+    public long getContentionCount() {
+        return contentionCount.get();
+    }
+
+    /**
+     * @return 重试耗尽（获取区间失败）次数
+     */
+    public long getRetryExhaustedCount() {
+        return retryExhaustedCount.get();
     }
 
     // region sql
@@ -128,12 +303,15 @@ public class DbRangeManager implements RangeManager {
      * 插入数据区间
      *
      * @param name 区间名称
+     * @return 是否插入成功，已被其它节点插入时返回false
      */
     private boolean insertRange(String name) {
         try {
-            int affectRows = jdbcTemplate.update(SQL_INSERT_RANGE.replace(TABLE_NAME_PLACEHOLDER, getRealTableName()),
-                    name, stepStart, new Timestamp(SystemClock.now()), new Timestamp(SystemClock.now()));
+            Timestamp now = new Timestamp(clock.millis());
+            int affectRows = jdbcTemplate.update(insertRangeSql, name, stepStart, now, now);
             return affectRows > 0;
+        } catch (DuplicateKeyException e) {
+            return false;
         } catch (DataAccessException e) {
             throw new SequenceException(e);
         }
@@ -144,10 +322,9 @@ public class DbRangeManager implements RangeManager {
      *
      * @param name 区间名称
      */
-    private boolean updateRange(String name, Long newValue, Long oldValue) {
+    private boolean updateRange(String name, long newValue, long oldValue) {
         try {
-            int affectRows = jdbcTemplate.update(SQL_UPDATE_RANGE.replace(TABLE_NAME_PLACEHOLDER, getRealTableName()),
-                    newValue, new Timestamp(SystemClock.now()), name, oldValue);
+            int affectRows = jdbcTemplate.update(updateRangeSql, newValue, new Timestamp(clock.millis()), name, oldValue);
             return affectRows > 0;
         } catch (DataAccessException e) {
             throw new SequenceException(e);
@@ -155,15 +332,29 @@ public class DbRangeManager implements RangeManager {
     }
 
     /**
-     * 查询区间，如果区间不存在，会新增一个区间，并返回null，由上层重新执行
+     * 查询区间，如果区间不存在，会新增一个区间
      *
      * @return 区间值
      */
-    private Long selectRange(String name) {
-        Long oldValue;
+    private long selectRange(String name) {
+        Long oldValue = queryValue(name);
+        if (oldValue == null) {
+            // 需要初始化
+            insertRange(name);
+            oldValue = queryValue(name);
+            if (oldValue == null) {
+                throw new SequenceException(Formatter.format("Sequence {} cannot be initialized, please check table sequence {}",
+                        name, realTableName));
+            }
+        }
+        checkValue(oldValue);
+        return oldValue;
+    }
+
+    private Long queryValue(String name) {
         try {
-            oldValue = jdbcTemplate.query(
-                    SQL_SELECT_RANGE.replace(TABLE_NAME_PLACEHOLDER, getRealTableName()),
+            return jdbcTemplate.query(
+                    selectRangeSql,
                     new String[]{name},
                     new int[]{Types.VARCHAR},
                     rs -> {
@@ -173,33 +364,154 @@ public class DbRangeManager implements RangeManager {
                             return null;
                         }
                     });
-            if (oldValue == null) {
-                // 需要初始化
-                insertRange(name);
-                return null;
+        } catch (DataAccessException e) {
+            throw new SequenceException(e);
+        }
+    }
+
+    /**
+     * 批量分配区间，不存在的区间不会出现在结果中
+     *
+     * @param names 区间名称
+     * @return 区间名与区间的映射
+     */
+    private Map<String, Range> allocate(List<String> names) {
+        Map<String, Range> ranges = new HashMap<>(names.size() * 4 / 3 + 1);
+        if (names.isEmpty()) {
+            return ranges;
+        }
+        try {
+            switch (batchStrategy) {
+                case RETURNING:
+                    allocateReturning(names, ranges);
+                    break;
+                case FOR_UPDATE:
+                    transactionTemplate.executeWithoutResult(status -> allocateForUpdate(names, ranges));
+                    break;
+                default:
+                    for (String name : names) {
+                        ranges.put(name, nextRange(name));
+                    }
             }
-            if (oldValue < 0) {
-                throw new SequenceException(
-                        Formatter.format("Sequence value cannot be less than zero, value = {}, please check table sequence {}",
-                                oldValue, getRealTableName()));
+        } catch (DataAccessException e) {
+            throw new SequenceException(e);
+        }
+        return ranges;
+    }
+
+    private void allocateReturning(List<String> names, Map<String, Range> ranges) {
+        Object[] args = batchArgs(names, 2);
+        args[0] = step;
+        args[1] = new Timestamp(clock.millis());
+        jdbcTemplate.query(batchRangesSql[bucketIndex(names.size())], rs -> {
+            long newValue = rs.getLong("value");
+            checkValue(newValue - step);
+            ranges.put(rs.getString("name"), new Range(newValue - step + 1, newValue));
+        }, args);
+    }
+
+    private void allocateForUpdate(List<String> names, Map<String, Range> ranges) {
+        Map<String, Long> values = new HashMap<>(names.size() * 4 / 3 + 1);
+        jdbcTemplate.query(batchRangesSql[bucketIndex(names.size())],
+                rs -> {
+                    values.put(rs.getString("name"), rs.getLong("value"));
+                }, batchArgs(names, 0));
+        if (values.isEmpty()) {
+            return;
+        }
+        Timestamp now = new Timestamp(clock.millis());
+        List<Object[]> updates = new ArrayList<>(values.size());
+        for (Map.Entry<String, Long> entry : values.entrySet()) {
+            long oldValue = entry.getValue();
+            checkValue(oldValue);
+            updates.add(new Object[]{oldValue + step, now, entry.getKey()});
+            ranges.put(entry.getKey(), new Range(oldValue + 1, oldValue + step));
+        }
+        jdbcTemplate.batchUpdate(updateRangeByNameSql, updates);
+    }
+
+    /**
+     * 构造批量SQL参数，名称个数补齐到所在分桶大小
+     *
+     * @param names  区间名称
+     * @param offset 名称参数之前的参数个数
+     * @return 参数
+     */
+    private Object[] batchArgs(List<String> names, int offset) {
+        int size = 1 << bucketIndex(names.size());
+        Object[] args = new Object[offset + size];
+        for (int i = 0; i < size; ++i) {
+            args[offset + i] = names.get(Math.min(i, names.size() - 1));
+        }
+        return args;
+    }
+    // endregion
+
+    /**
+     * @param size 名称个数
+     * @return 不小于size的最小2的幂的指数
+     */
+    private static int bucketIndex(int size) {
+        return size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+    }
+
+    private BatchStrategy detectBatchStrategy() {
+        try {
+            String productName = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            productName = productName == null ? "" : productName.toLowerCase();
+            if (matches(RETURNING_DATABASES, productName)) {
+                return BatchStrategy.RETURNING;
             }
-            if (oldValue > Long.MAX_VALUE - DELTA) {
-                throw new SequenceException(
-                        Formatter.format("Sequence value overflow, value = {}, please check table sequence {}",
-                                oldValue, getRealTableName()));
+            if (matches(FOR_UPDATE_DATABASES, productName)) {
+                return BatchStrategy.FOR_UPDATE;
             }
-            return oldValue;
         } catch (DataAccessException e) {
+            // ignore
+        }
+        return BatchStrategy.SEQUENTIAL;
+    }
+
+    private static boolean matches(List<String> prefixes, String productName) {
+        for (String prefix : prefixes) {
+            if (productName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 乐观更新冲突后退避，指数增长并带随机抖动
+     *
+     * @param attempt 第几次重试
+     */
+    private void backoff(int attempt) {
+        long base = retryBackoff.toMillis();
+        if (base <= 0) {
+            return;
+        }
+        long max = Math.min(maxRetryBackoff.toMillis(), base << Math.min(attempt - 1, 20));
+        long millis = max / 2 + ThreadLocalRandom.current().nextLong(max / 2 + 1);
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new SequenceException(e);
         }
     }
-    // endregion
 
-    private String getRealTableName() {
-        if (StrUtil.isBlank(realTableName)) {
-            realTableName = schema + "." + tableName;
+    private void checkValue(long value) {
+        if (value < 0) {
+            throw new SequenceException(
+                    Formatter.format("Sequence value cannot be less than zero, value = {}, please check table sequence {}",
+                            value, realTableName));
+        }
+        if (value > Long.MAX_VALUE - DELTA) {
+            throw new SequenceException(
+                    Formatter.format("Sequence value overflow, value = {}, please check table sequence {}",
+                            value, realTableName));
         }
-        return realTableName;
     }
 
     private void checkParam() {
@@ -212,5 +524,25 @@ public class DbRangeManager implements RangeManager {
         if (retryTimes <= 0) {
             throw new SequenceException("[DbRangeManager] retryTimes must greater than 0.");
         }
+        if (batchSize <= 0) {
+            throw new SequenceException("[DbRangeManager] batchSize must greater than 0.");
+        }
+    }
+
+    private enum BatchStrategy {
+        /**
+         * UPDATE ... RETURNING
+         */
+        RETURNING,
+
+        /**
+         * SELECT ... FOR UPDATE + 批量UPDATE
+         */
+        FOR_UPDATE,
+
+        /**
+         * 逐个获取
+         */
+        SEQUENTIAL
     }
 }
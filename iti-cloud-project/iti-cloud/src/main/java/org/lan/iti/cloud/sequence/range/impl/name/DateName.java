@@ -18,25 +18,107 @@
 
 package org.lan.iti.cloud.sequence.range.impl.name;
 
-import cn.hutool.core.date.DateUtil;
-import lombok.AllArgsConstructor;
-import lombok.NoArgsConstructor;
-import org.lan.iti.cloud.sequence.range.Name;
+import cn.hutool.core.date.DatePattern;
+import org.lan.iti.cloud.sequence.range.RollingName;
+import org.lan.iti.common.core.util.SystemClock;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 /**
  * 根据时间重置name
+ * <p>
+ * 当日名称被缓存，仅在跨天时重新生成
  *
  * @author NorthLan
  * @date 2020-05-06
  * @url https://noahlan.com
  */
-@NoArgsConstructor
-@AllArgsConstructor
-public class DateName implements Name {
-    private String name;
+public class DateName implements RollingName {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(DatePattern.NORM_DATE_PATTERN);
+
+    private final String name;
+    private final String prefix;
+    private final ZoneId zone;
+
+    /**
+     * 当日名称
+     */
+    private volatile String current;
+
+    /**
+     * 次日名称
+     */
+    private volatile String next;
+
+    /**
+     * 次日零点时间戳
+     */
+    private volatile long nextRolloverTime = Long.MIN_VALUE;
+
+    public DateName() {
+        this(null);
+    }
+
+    public DateName(String name) {
+        this(name, ZoneId.systemDefault());
+    }
+
+    public DateName(String name, ZoneId zone) {
+        this.name = name;
+        this.prefix = String.valueOf(name);
+        this.zone = zone;
+    }
 
     @Override
     public String create() {
-        return this.name + DateUtil.today();
+        if (SystemClock.now() >= nextRolloverTime) {
+            refresh();
+        }
+        return current;
+    }
+
+    @Override
+    public String createNext() {
+        if (SystemClock.now() >= nextRolloverTime) {
+            refresh();
+        }
+        return next;
+    }
+
+    @Override
+    public long nextRolloverTime() {
+        if (SystemClock.now() >= nextRolloverTime) {
+            refresh();
+        }
+        return nextRolloverTime;
+    }
+
+    @Override
+    public LocalDate dateOf(String name) {
+        if (!name.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(name.substring(prefix.length()), FORMATTER);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private synchronized void refresh() {
+        long now = SystemClock.now();
+        if (now < nextRolloverTime) {
+            return;
+        }
+        LocalDate today = Instant.ofEpochMilli(now).atZone(zone).toLocalDate();
+        LocalDate tomorrow = today.plusDays(1);
+        this.current = this.name + FORMATTER.format(today);
+        this.next = this.name + FORMATTER.format(tomorrow);
+        // 最后写入，保证读到新时间戳的线程也能读到新名称
+        this.nextRolloverTime = tomorrow.atStartOfDay(zone).toInstant().toEpochMilli();
     }
 }
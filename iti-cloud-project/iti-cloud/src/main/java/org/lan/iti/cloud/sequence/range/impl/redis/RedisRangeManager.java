@@ -23,11 +23,39 @@ import lombok.experimental.Accessors;
 import org.lan.iti.cloud.sequence.exception.SequenceException;
 import org.lan.iti.cloud.sequence.range.Range;
 import org.lan.iti.cloud.sequence.range.RangeManager;
+import org.lan.iti.common.core.util.Formatter;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.util.Assert;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Redis 区间管理器
+ * <p>
+ * 初始化与递增由一个Lua脚本在服务端原子完成，每次获取区间仅需一次往返
+ * <p>
+ * 批量获取时每个区间名各发送一条只操作单个key的EVAL，并通过pipeline一次性提交：
+ * <ul>
+ *     <li>单机/哨兵：所有EVAL在同一连接上一次往返完成，结果按提交顺序返回</li>
+ *     <li>Redis Cluster：脚本只访问自身的KEYS[1]，不会出现跨slot（CROSSSLOT）错误；
+ *     Lettuce集群连接按key所在slot将命令路由到对应节点，每个涉及的节点一次往返，结果仍按提交顺序汇总。
+ *     不支持pipeline的集群连接（如Jedis）会退化为逐个获取</li>
+ * </ul>
+ * 计数溢出（INCRBY超出long范围）或其它Redis错误均以 {@link SequenceException} 抛出，
+ * pipeline中任一命令失败整批失败，已执行的递增只会跳过号段，不会产生重复
  *
  * @author NorthLan
  * @date 2020-05-06
@@ -39,6 +67,16 @@ public class RedisRangeManager implements RangeManager {
      */
     private final static String KEY_PREFIX = "x_sequence_";
 
+    /**
+     * KEYS[1] 业务key，ARGV[1] 起始值，ARGV[2] 步长
+     * key不存在时以起始值初始化，随后递增步长并返回区间最大值
+     */
+    private final static String NEXT_RANGE_SCRIPT =
+            "redis.call('SETNX', KEYS[1], ARGV[1]) " +
+                    "return redis.call('INCRBY', KEYS[1], ARGV[2])";
+    private final static RedisScript<Long> NEXT_RANGE = new DefaultRedisScript<>(NEXT_RANGE_SCRIPT, Long.class);
+    private final static byte[] NEXT_RANGE_SCRIPT_BYTES = NEXT_RANGE_SCRIPT.getBytes(StandardCharsets.UTF_8);
+
     @Setter
     @Accessors(chain = true)
     private RedisTemplate<String, String> redisTemplate;
@@ -57,29 +95,67 @@ public class RedisRangeManager implements RangeManager {
     @Accessors(chain = true)
     private long stepStart = 0;
 
+    @Override
+    public Range nextRange(String name) throws SequenceException {
+        return nextRange(name, step);
+    }
+
+    @Override
+    public Range nextRange(String name, int step) throws SequenceException {
+        Long max;
+        try {
+            max = redisTemplate.execute(NEXT_RANGE, Collections.singletonList(getRealKey(name)),
+                    String.valueOf(stepStart), String.valueOf(step));
+        } catch (DataAccessException e) {
+            throw new SequenceException(e);
+        }
+        return toRange(name, max, step);
+    }
+
     /**
-     * 标记业务key是否存在，如果false，在取nextRange时，会取check一把
-     * 这个boolean只为提高性能，不用每次都取redis check
+     * 通过pipeline在一次网络往返内批量获取区间
+     *
+     * @param names 区间名
+     * @return 区间名与区间的映射
+     * @throws SequenceException 异常
      */
-    private volatile boolean keyAlreadyExist;
-
     @Override
-    public Range nextRange(String name) throws SequenceException {
-        String key = getRealKey(name);
-        if (!keyAlreadyExist) {
-            Boolean isExists = redisTemplate.hasKey(key);
-            if (isExists == null || !isExists) {
-                // 第一次不存在，进行初始化   setIfAbsent不存在就set，存在就忽略
-                redisTemplate.opsForValue().setIfAbsent(key, String.valueOf(stepStart));
+    @SuppressWarnings("unchecked")
+    public Map<String, Range> nextRanges(Collection<String> names) throws SequenceException {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(names));
+        if (distinct.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        RedisSerializer<String> argsSerializer = (RedisSerializer<String>) redisTemplate.getValueSerializer();
+        byte[] start = argsSerializer.serialize(String.valueOf(stepStart));
+        byte[] increment = argsSerializer.serialize(String.valueOf(step));
+        List<Object> results;
+        try {
+            results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String name : distinct) {
+                    connection.eval(NEXT_RANGE_SCRIPT_BYTES, ReturnType.INTEGER, 1,
+                            keySerializer.serialize(getRealKey(name)), start, increment);
+                }
+                return null;
+            });
+        } catch (UnsupportedOperationException e) {
+            // 连接不支持pipeline（如Jedis集群连接），逐个获取
+            Map<String, Range> ranges = new LinkedHashMap<>(distinct.size() * 4 / 3 + 1);
+            for (String name : distinct) {
+                ranges.put(name, nextRange(name, step));
             }
-            keyAlreadyExist = true;
+            return ranges;
+        } catch (DataAccessException e) {
+            throw new SequenceException(e);
         }
-        Long max = redisTemplate.opsForValue().increment(key, step);
-        if (max == null) {
-            throw new SequenceException("redis写入数据错误，请检查连接");
+        Map<String, Range> ranges = new LinkedHashMap<>(distinct.size() * 4 / 3 + 1);
+        for (int i = 0; i < distinct.size(); ++i) {
+            String name = distinct.get(i);
+            Object max = i < results.size() ? results.get(i) : null;
+            ranges.put(name, toRange(name, max instanceof Number ? ((Number) max).longValue() : null, step));
         }
-        long min = max - step + 1;
-        return new Range(min, max);
+        return ranges;
     }
 
     @Override
@@ -87,6 +163,14 @@ public class RedisRangeManager implements RangeManager {
         checkParam();
     }
 
+    private Range toRange(String name, Long max, int step) {
+        if (max == null) {
+            throw new SequenceException(Formatter.format("redis写入数据错误，请检查连接 [{}]", name));
+        }
+        long min = max - step + 1;
+        return new Range(min, max);
+    }
+
     private void checkParam() {
         Assert.notNull(redisTemplate, "[RedisRangeManager-redisTemplate] is null");
         if (step <= 0) {
@@ -29,6 +29,11 @@ import org.lan.iti.cloud.sequence.range.RangeManager;
  * @url https://noahlan.com
  */
 public interface RangeSequence extends Sequence {
+    /**
+     * {@link #nextStr()} 默认格式：日期 + 5位补零序列号
+     */
+    SequenceFormat DEFAULT_FORMAT = SequenceFormat.compile("yyyyMMdd{seq:05}");
+
     /**
      * 设置区间管理器
      *
@@ -52,4 +52,38 @@ public interface Sequence {
      * @throws SequenceException 生成异常
      */
     String nextStr(String format) throws SequenceException;
+
+    /**
+     * 生成下一个序列号（预编译模板）
+     *
+     * @param format 模板
+     * @return 带格式的序列号
+     * @throws SequenceException 生成异常
+     */
+    default String nextStr(SequenceFormat format) throws SequenceException {
+        return format.format(next());
+    }
+
+    /**
+     * 生成下一个序列号，以 {@link #nextStr()} 的格式追加到 {@link StringBuilder}
+     *
+     * @param sb 目标
+     * @return 目标
+     * @throws SequenceException 生成异常
+     */
+    default StringBuilder appendNext(StringBuilder sb) throws SequenceException {
+        return sb.append(nextStr());
+    }
+
+    /**
+     * 生成下一个序列号，按预编译模板追加到 {@link StringBuilder}
+     *
+     * @param sb     目标
+     * @param format 模板
+     * @return 目标
+     * @throws SequenceException 生成异常
+     */
+    default StringBuilder appendNext(StringBuilder sb, SequenceFormat format) throws SequenceException {
+        return format.formatTo(sb, next());
+    }
 }
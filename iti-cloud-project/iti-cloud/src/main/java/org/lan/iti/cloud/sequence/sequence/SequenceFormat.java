@@ -0,0 +1,262 @@
+/*
+ *
+ *  * Copyright (c) [2019-2020] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.sequence.sequence;
+
+import org.lan.iti.common.core.util.Formatter;
+import org.lan.iti.common.core.util.SystemClock;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 预编译的序列号模板
+ * <p>
+ * 模板由日期格式（{@link DateTimeFormatter} 语法，字面量使用单引号包裹）与一个序列号占位符组成，
+ * 如 {@code yyyyMMdd{seq:05}}、{@code 'ORD'yyMMdd{seq:08}'-A'}。
+ * 日期部分按天缓存，序列号直接按位补零写入 {@link StringBuilder}，格式化时不再产生中间对象
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public final class SequenceFormat {
+    private static final String PLACEHOLDER = "{seq";
+
+    /**
+     * 日期模板中不允许出现的时间字段，否则无法按天缓存
+     */
+    private static final String TIME_FIELDS = "aBhKkHmsSAnN";
+
+    private final String pattern;
+    private final DateTimeFormatter prefixFormatter;
+    private final DateTimeFormatter suffixFormatter;
+    private final int width;
+    private final ZoneId zone;
+
+    /**
+     * 当日缓存的日期部分
+     */
+    private volatile DayCache cache;
+
+    private SequenceFormat(String pattern, DateTimeFormatter prefixFormatter, DateTimeFormatter suffixFormatter,
+                           int width, ZoneId zone) {
+        this.pattern = pattern;
+        this.prefixFormatter = prefixFormatter;
+        this.suffixFormatter = suffixFormatter;
+        this.width = width;
+        this.zone = zone;
+    }
+
+    /**
+     * 使用系统默认时区编译模板
+     *
+     * @param pattern 模板
+     * @return 序列号模板
+     */
+    public static SequenceFormat compile(String pattern) {
+        return compile(pattern, ZoneId.systemDefault());
+    }
+
+    /**
+     * 编译模板
+     *
+     * @param pattern 模板
+     * @param zone    日期所在时区
+     * @return 序列号模板
+     */
+    public static SequenceFormat compile(String pattern, ZoneId zone) {
+        int start = pattern.indexOf(PLACEHOLDER);
+        int end = start < 0 ? -1 : pattern.indexOf('}', start);
+        if (end < 0 || pattern.indexOf(PLACEHOLDER, end) >= 0) {
+            throw new IllegalArgumentException(Formatter.format("模板 [{}] 必须包含且仅包含一个 {seq} 占位符", pattern));
+        }
+        String spec = pattern.substring(start + PLACEHOLDER.length(), end);
+        int width = 0;
+        if (!spec.isEmpty()) {
+            if (spec.charAt(0) != ':') {
+                throw new IllegalArgumentException(Formatter.format("模板 [{}] 序列号占位符格式错误", pattern));
+            }
+            try {
+                width = Integer.parseInt(spec.substring(1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(Formatter.format("模板 [{}] 序列号宽度错误", pattern));
+            }
+        }
+        return new SequenceFormat(pattern,
+                toFormatter(pattern, pattern.substring(0, start)),
+                toFormatter(pattern, pattern.substring(end + 1)),
+                width, zone);
+    }
+
+    private static DateTimeFormatter toFormatter(String pattern, String datePattern) {
+        if (datePattern.isEmpty()) {
+            return null;
+        }
+        boolean quoted = false;
+        for (int i = 0; i < datePattern.length(); ++i) {
+            char c = datePattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted && TIME_FIELDS.indexOf(c) >= 0) {
+                throw new IllegalArgumentException(Formatter.format("模板 [{}] 仅支持日期字段，不支持 [{}]", pattern, c));
+            }
+        }
+        return DateTimeFormatter.ofPattern(datePattern);
+    }
+
+    /**
+     * 格式化序列号
+     *
+     * @param value 序列号
+     * @return 格式化结果
+     */
+    public String format(long value) {
+        return format(null, value);
+    }
+
+    /**
+     * 以指定日期格式化序列号
+     *
+     * @param date  日期部分使用的日期，为null时使用当前日期
+     * @param value 序列号
+     * @return 格式化结果
+     */
+    public String format(LocalDate date, long value) {
+        DayCache day = dayOf(date);
+        StringBuilder sb = new StringBuilder(day.prefix.length() + Math.max(width, 19) + day.suffix.length());
+        return append(day, sb, value).toString();
+    }
+
+    /**
+     * 格式化序列号并追加到 {@link StringBuilder}
+     *
+     * @param sb    目标
+     * @param value 序列号
+     * @return 目标
+     */
+    public StringBuilder formatTo(StringBuilder sb, long value) {
+        return append(currentDay(), sb, value);
+    }
+
+    /**
+     * 以指定日期格式化序列号并追加到 {@link StringBuilder}
+     *
+     * @param sb    目标
+     * @param date  日期部分使用的日期，为null时使用当前日期
+     * @param value 序列号
+     * @return 目标
+     */
+    public StringBuilder formatTo(StringBuilder sb, LocalDate date, long value) {
+        return append(dayOf(date), sb, value);
+    }
+
+    /**
+     * 序列号补零后追加到 {@link StringBuilder}
+     *
+     * @param sb    目标
+     * @param value 序列号
+     * @param width 最小宽度
+     * @return 目标
+     */
+    public static StringBuilder appendPadded(StringBuilder sb, long value, int width) {
+        if (value >= 0) {
+            for (int i = stringSize(value); i < width; ++i) {
+                sb.append('0');
+            }
+        }
+        return sb.append(value);
+    }
+
+    private StringBuilder append(DayCache day, StringBuilder sb, long value) {
+        sb.append(day.prefix);
+        appendPadded(sb, value, width);
+        return sb.append(day.suffix);
+    }
+
+    private DayCache currentDay() {
+        long now = SystemClock.now();
+        DayCache day = cache;
+        if (day == null || now >= day.nextDay || now < day.today) {
+            day = newDay(Instant.ofEpochMilli(now).atZone(zone).toLocalDate());
+            cache = day;
+        }
+        return day;
+    }
+
+    private DayCache dayOf(LocalDate date) {
+        if (date == null) {
+            return currentDay();
+        }
+        DayCache cached = cache;
+        if (cached != null && date.equals(cached.date)) {
+            return cached;
+        }
+        // 跨天前取得的序列号仍按所属日期格式化，不替换当日缓存
+        DayCache day = newDay(date);
+        if (cached == null || date.isAfter(cached.date)) {
+            cache = day;
+        }
+        return day;
+    }
+
+    private DayCache newDay(LocalDate date) {
+        return new DayCache(date,
+                date.atStartOfDay(zone).toInstant().toEpochMilli(),
+                date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli(),
+                prefixFormatter == null ? "" : prefixFormatter.format(date),
+                suffixFormatter == null ? "" : suffixFormatter.format(date));
+    }
+
+    private static int stringSize(long value) {
+        long p = 10;
+        for (int i = 1; i < 19; ++i) {
+            if (value < p) {
+                return i;
+            }
+            p = 10 * p;
+        }
+        return 19;
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+
+    /**
+     * 当日格式化结果缓存
+     */
+    private static final class DayCache {
+        private final LocalDate date;
+        private final long today;
+        private final long nextDay;
+        private final String prefix;
+        private final String suffix;
+
+        private DayCache(LocalDate date, long today, long nextDay, String prefix, String suffix) {
+            this.date = date;
+            this.today = today;
+            this.nextDay = nextDay;
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+    }
+}
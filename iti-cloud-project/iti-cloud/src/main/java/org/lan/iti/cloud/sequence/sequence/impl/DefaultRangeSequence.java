@@ -18,21 +18,26 @@
 
 package org.lan.iti.cloud.sequence.sequence.impl;
 
-import cn.hutool.core.date.DatePattern;
-import cn.hutool.core.date.DateUtil;
+import lombok.Setter;
+import lombok.experimental.Accessors;
 import org.lan.iti.common.core.util.Formatter;
 import org.lan.iti.cloud.sequence.exception.SequenceException;
 import org.lan.iti.cloud.sequence.range.Name;
 import org.lan.iti.cloud.sequence.range.Range;
 import org.lan.iti.cloud.sequence.range.RangeManager;
 import org.lan.iti.cloud.sequence.sequence.RangeSequence;
+import org.lan.iti.cloud.sequence.sequence.SequenceFormat;
 
-import java.util.Date;
+import java.time.Duration;
+import java.util.concurrent.Executor;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 序列号区间生成器接口默认实现
+ * <p>
+ * 名称变化（如 {@link org.lan.iti.cloud.sequence.range.impl.name.DateName} 跨天）时立即切换到新名称的区间，
+ * 并在切换前提前预热下一周期的首个区间
  *
  * @author NorthLan
  * @date 2020-05-06
@@ -44,6 +49,11 @@ public class DefaultRangeSequence implements RangeSequence {
      */
     private final Lock lock = new ReentrantLock();
 
+    /**
+     * 下一周期区间预热器
+     */
+    private final RangePrewarmer prewarmer = new RangePrewarmer();
+
     /**
      * 序列号区间管理器
      */
@@ -52,13 +62,27 @@ public class DefaultRangeSequence implements RangeSequence {
     /**
      * 当前序列号区间
      */
-    private volatile Range currentRange;
+    private volatile NamedRange currentRange;
 
     /**
      * 需要获取区间的名称
      */
     private Name name;
 
+    /**
+     * 名称切换前提前预热下一周期区间的时间，为0时不预热
+     */
+    @Setter
+    @Accessors(chain = true)
+    private Duration prewarmAhead = Duration.ofSeconds(5);
+
+    /**
+     * 预热线程池
+     */
+    @Setter
+    @Accessors(chain = true)
+    private Executor executor = RangePrewarmer.DEFAULT_EXECUTOR;
+
     @Override
     public void setRangeManager(RangeManager rangeManager) {
         this.rangeManager = rangeManager;
@@ -71,52 +95,90 @@ public class DefaultRangeSequence implements RangeSequence {
 
     @Override
     public long next() throws SequenceException {
-        String name = this.name.create();
-
-        // 当前区间不存在，重新获取一个区间
-        if (currentRange == null) {
-            lock.lock();
-            try {
-                if (null == currentRange) {
-                    currentRange = rangeManager.nextRange(name);
-                }
-            } finally {
-                lock.unlock();
-            }
-        }
-        // 当value值为-1时，表明区间的序列号已经分配完，需要重新获取区间
-        long value = currentRange.getAndIncrement();
-        if (value == -1) {
-            lock.lock();
-            try {
-                for (; ; ) {
-                    if (currentRange.isOver()) {
-                        currentRange = rangeManager.nextRange(name);
-                    }
-                    // 可能会死循环,需要一个重试机制
-                    value = currentRange.getAndIncrement();
-                    if (value == -1) {
-                        continue;
-                    }
-                    break;
-                }
-            } finally {
-                lock.unlock();
-            }
-        }
-        if (value < 0) {
-            throw new SequenceException(Formatter.format("序列号溢出 [{}]", value));
-        }
-        return value;
+        return next(null, null);
     }
 
     @Override
     public String nextStr() throws SequenceException {
-        return String.format("%s%05d", DateUtil.format(new Date(), DatePattern.PURE_DATE_FORMAT), next());
+        return nextStr(DEFAULT_FORMAT);
+    }
+
+    @Override
+    public StringBuilder appendNext(StringBuilder sb) throws SequenceException {
+        return appendNext(sb, DEFAULT_FORMAT);
+    }
+
+    @Override
+    public String nextStr(SequenceFormat format) throws SequenceException {
+        StringBuilder sb = new StringBuilder(32);
+        next(sb, format);
+        return sb.toString();
+    }
+
+    @Override
+    public StringBuilder appendNext(StringBuilder sb, SequenceFormat format) throws SequenceException {
+        next(sb, format);
+        return sb;
     }
 
     @Override
     public String nextStr(String format) throws SequenceException {
         return String.format(format, next());
     }
+
+    /**
+     * 生成下一个序列号
+     *
+     * @param sb     不为null时按模板追加序列号，日期部分取自序列号所属区间的周期，而非格式化时的当前日期
+     * @param format 模板
+     * @return 序列号
+     */
+    private long next(StringBuilder sb, SequenceFormat format) {
+        prewarmer.prewarm(name, prewarmAhead.toMillis(), executor, rangeManager::nextRange);
+        for (; ; ) {
+            NamedRange current = currentRange;
+            // 当前区间不存在或名称已变化，重新获取一个区间
+            if (current == null || !current.matches(name.create())) {
+                switchRange(current);
+                continue;
+            }
+            // 当value值为-1时，表明区间的序列号已经分配完，需要重新获取区间
+            long value = current.getRange().getAndIncrement();
+            if (value == -1) {
+                switchRange(current);
+                continue;
+            }
+            if (value < 0) {
+                throw new SequenceException(Formatter.format("序列号溢出 [{}]", value));
+            }
+            if (sb != null) {
+                format.formatTo(sb, current.getDate(), value);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * 切换区间
+     *
+     * @param expired 已失效的区间
+     */
+    private void switchRange(NamedRange expired) {
+        lock.lock();
+        try {
+            if (currentRange != expired) {
+                // 已被其他线程切换
+                return;
+            }
+            // 锁内重新读取名称，避免持有旧名称的线程切回上一周期
+            String key = name.create();
+            if (expired != null && expired.matches(key) && !expired.getRange().isOver()) {
+                return;
+            }
+            Range range = prewarmer.take(key);
+            currentRange = NamedRange.of(name, key, range == null ? rangeManager.nextRange(key) : range);
+        } finally {
+            lock.unlock();
+        }
+    }
 }
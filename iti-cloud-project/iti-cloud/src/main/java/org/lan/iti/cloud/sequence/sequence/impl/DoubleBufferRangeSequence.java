@@ -0,0 +1,315 @@
+/*
+ *
+ *  * Copyright (c) [2019-2020] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.sequence.sequence.impl;
+
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.lan.iti.cloud.sequence.exception.SequenceException;
+import org.lan.iti.cloud.sequence.range.Name;
+import org.lan.iti.cloud.sequence.range.Range;
+import org.lan.iti.cloud.sequence.range.RangeManager;
+import org.lan.iti.cloud.sequence.sequence.RangeSequence;
+import org.lan.iti.cloud.sequence.sequence.SequenceFormat;
+import org.lan.iti.common.core.util.Formatter;
+import org.lan.iti.common.core.util.SystemClock;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 双Buffer序列号区间生成器
+ * <p>
+ * 当前区间消耗到一定比例时，由后台线程提前获取下一区间，区间用尽时直接切换，
+ * 调用方无需等待DB/Redis往返；步长根据区间实际消耗时长动态伸缩。
+ * 名称变化（如跨天）时丢弃旧名称的区间，并在切换前提前预热下一周期的首个区间
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@Slf4j
+public class DoubleBufferRangeSequence implements RangeSequence {
+    /**
+     * 切换区间时加一把独占锁，仅在预取未完成时才会等待
+     */
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * 下一周期区间预热器
+     */
+    private final RangePrewarmer prewarmer = new RangePrewarmer();
+
+    /**
+     * 序列号区间管理器
+     */
+    private RangeManager rangeManager;
+
+    /**
+     * 需要获取区间的名称
+     */
+    private Name name;
+
+    /**
+     * 当前序列号区间
+     */
+    private volatile NamedRange currentRange;
+
+    /**
+     * 正在预取或已预取完成的下一区间
+     */
+    private final AtomicReference<CompletableFuture<NamedRange>> nextRange = new AtomicReference<>();
+
+    /**
+     * 初始步长，同时作为动态步长下限
+     */
+    @Setter
+    @Accessors(chain = true)
+    private int step = 1000;
+
+    /**
+     * 动态步长上限
+     */
+    @Setter
+    @Accessors(chain = true)
+    private int maxStep = 1000000;
+
+    /**
+     * 当前区间消耗比例达到该值时预取下一区间
+     */
+    @Setter
+    @Accessors(chain = true)
+    private double prefetchRatio = 0.1;
+
+    /**
+     * 期望单个区间的消耗时长
+     */
+    @Setter
+    @Accessors(chain = true)
+    private Duration segmentDuration = Duration.ofMinutes(15);
+
+    /**
+     * 名称切换前提前预热下一周期区间的时间，为0时不预热
+     */
+    @Setter
+    @Accessors(chain = true)
+    private Duration prewarmAhead = Duration.ofSeconds(5);
+
+    /**
+     * 预取线程池
+     */
+    @Setter
+    @Accessors(chain = true)
+    private Executor executor = RangePrewarmer.DEFAULT_EXECUTOR;
+
+    /**
+     * 当前动态步长
+     */
+    private volatile int currentStep;
+
+    /**
+     * 上次获取区间的时间
+     */
+    private long lastFetchTime;
+
+    @Override
+    public void setRangeManager(RangeManager rangeManager) {
+        this.rangeManager = rangeManager;
+    }
+
+    @Override
+    public void setName(Name name) {
+        this.name = name;
+    }
+
+    @Override
+    public long next() throws SequenceException {
+        return next(null, null);
+    }
+
+    @Override
+    public String nextStr() throws SequenceException {
+        return nextStr(DEFAULT_FORMAT);
+    }
+
+    @Override
+    public StringBuilder appendNext(StringBuilder sb) throws SequenceException {
+        return appendNext(sb, DEFAULT_FORMAT);
+    }
+
+    @Override
+    public String nextStr(SequenceFormat format) throws SequenceException {
+        StringBuilder sb = new StringBuilder(32);
+        next(sb, format);
+        return sb.toString();
+    }
+
+    @Override
+    public StringBuilder appendNext(StringBuilder sb, SequenceFormat format) throws SequenceException {
+        next(sb, format);
+        return sb;
+    }
+
+    @Override
+    public String nextStr(String format) throws SequenceException {
+        return String.format(format, next());
+    }
+
+    /**
+     * 生成下一个序列号
+     *
+     * @param sb     不为null时按模板追加序列号，日期部分取自序列号所属区间的周期，而非格式化时的当前日期
+     * @param format 模板
+     * @return 序列号
+     */
+    private long next(StringBuilder sb, SequenceFormat format) {
+        prewarmer.prewarm(name, prewarmAhead.toMillis(), executor, this::prewarmRange);
+        for (; ; ) {
+            NamedRange current = currentRange;
+            // 当前区间不存在或名称已变化，切换区间
+            if (current == null || !current.matches(name.create())) {
+                switchRange(current);
+                continue;
+            }
+            // 当value值为-1时，表明区间的序列号已经分配完，切换到下一区间
+            long value = current.getRange().getAndIncrement();
+            if (value == -1) {
+                switchRange(current);
+                continue;
+            }
+            if (value < 0) {
+                throw new SequenceException(Formatter.format("序列号溢出 [{}]", value));
+            }
+            if (nextRange.get() == null && shouldPrefetch(current.getRange(), value)) {
+                prefetch(current);
+            }
+            if (sb != null) {
+                format.formatTo(sb, current.getDate(), value);
+            }
+            return value;
+        }
+    }
+
+    private boolean shouldPrefetch(Range range, long value) {
+        return value - range.getMin() >= (range.getMax() - range.getMin() + 1) * prefetchRatio;
+    }
+
+    /**
+     * 异步预取下一区间，同一时刻只会有一个预取任务
+     *
+     * @param current 触发预取时的当前区间
+     */
+    private void prefetch(NamedRange current) {
+        CompletableFuture<NamedRange> future = new CompletableFuture<>();
+        if (current != currentRange || !nextRange.compareAndSet(null, future)) {
+            return;
+        }
+        String key = current.getName();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(NamedRange.of(name, key, fetchRange(key)));
+                } catch (Throwable e) {
+                    log.warn("[DoubleBufferRangeSequence] prefetch range failed, will retry on switch.", e);
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 切换到下一区间，预取已完成时无需等待
+     *
+     * @param expired 已用尽或名称已变化的区间
+     */
+    private void switchRange(NamedRange expired) {
+        lock.lock();
+        try {
+            if (currentRange != expired) {
+                // 已被其他线程切换
+                return;
+            }
+            // 锁内重新读取名称，避免持有旧名称的线程切回上一周期
+            String key = name.create();
+            if (expired != null && expired.matches(key) && !expired.getRange().isOver()) {
+                return;
+            }
+            NamedRange range = null;
+            CompletableFuture<NamedRange> future = nextRange.getAndSet(null);
+            if (future != null) {
+                try {
+                    range = future.join();
+                } catch (CompletionException e) {
+                    // 预取失败，同步重新获取
+                }
+            }
+            if (range == null || !range.matches(key)) {
+                // 预取的区间属于上一周期，直接丢弃
+                Range prewarmed = prewarmer.take(key);
+                range = NamedRange.of(name, key, prewarmed == null ? fetchRange(key) : prewarmed);
+            }
+            currentRange = range;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 以动态步长获取区间
+     * <p>
+     * 上一区间消耗时长小于期望时长时步长加倍，超过两倍期望时长时步长减半
+     *
+     * @param key 名称
+     * @return 区间
+     */
+    private synchronized Range fetchRange(String key) {
+        long now = SystemClock.now();
+        if (currentStep == 0) {
+            currentStep = step;
+        } else {
+            long duration = now - lastFetchTime;
+            long expected = segmentDuration.toMillis();
+            if (duration < expected) {
+                currentStep = (int) Math.min((long) currentStep * 2, Math.max(maxStep, step));
+            } else if (duration >= expected * 2) {
+                currentStep = Math.max(currentStep / 2, step);
+            }
+        }
+        Range range = rangeManager.nextRange(key, currentStep);
+        lastFetchTime = now;
+        return range;
+    }
+
+    /**
+     * 以当前动态步长预热下一周期区间，不影响步长调整
+     *
+     * @param key 下一周期名称
+     * @return 区间
+     */
+    private Range prewarmRange(String key) {
+        return rangeManager.nextRange(key, Math.max(currentStep, step));
+    }
+}
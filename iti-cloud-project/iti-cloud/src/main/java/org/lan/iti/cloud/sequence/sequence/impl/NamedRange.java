@@ -0,0 +1,76 @@
+/*
+ *
+ *  * Copyright (c) [2019-2020] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.sequence.sequence.impl;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.lan.iti.cloud.sequence.range.Name;
+import org.lan.iti.cloud.sequence.range.Range;
+import org.lan.iti.cloud.sequence.range.RollingName;
+
+import java.time.LocalDate;
+
+/**
+ * 带名称的序列号区间，名称变化（如跨天）时区间随之失效
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@Getter
+@AllArgsConstructor
+final class NamedRange {
+    /**
+     * 区间所属名称
+     */
+    private final String name;
+
+    /**
+     * 序列号区间
+     */
+    private final Range range;
+
+    /**
+     * 名称所属周期的日期，非滚动名称时为null
+     */
+    private final LocalDate date;
+
+    /**
+     * 创建带名称的区间，日期由滚动名称解析
+     *
+     * @param name  名称生成器
+     * @param key   区间所属名称
+     * @param range 序列号区间
+     * @return 带名称的区间
+     */
+    static NamedRange of(Name name, String key, Range range) {
+        LocalDate date = name instanceof RollingName ? ((RollingName) name).dateOf(key) : null;
+        return new NamedRange(key, range, date);
+    }
+
+    /**
+     * 区间是否可用于指定名称
+     *
+     * @param name 当前名称
+     * @return 是否可用
+     */
+    boolean matches(String name) {
+        return this.name.equals(name);
+    }
+}
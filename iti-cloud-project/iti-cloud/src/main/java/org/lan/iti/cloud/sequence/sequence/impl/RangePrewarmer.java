@@ -0,0 +1,121 @@
+/*
+ *
+ *  * Copyright (c) [2019-2020] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.sequence.sequence.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.lan.iti.cloud.sequence.range.Name;
+import org.lan.iti.cloud.sequence.range.Range;
+import org.lan.iti.cloud.sequence.range.RollingName;
+import org.lan.iti.common.core.support.NamedThreadFactory;
+import org.lan.iti.common.core.util.SystemClock;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 滚动名称的区间预热器
+ * <p>
+ * 在 {@link RollingName} 切换前的一小段时间内，异步获取下一周期的首个区间，
+ * 避免切换时刻所有实例同时回源获取区间
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@Slf4j
+final class RangePrewarmer {
+    /**
+     * 默认异步线程池，所有序列号生成器共享
+     */
+    static final Executor DEFAULT_EXECUTOR;
+
+    static {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new NamedThreadFactory("iti-sequence-prefetch", true));
+        executor.allowCoreThreadTimeOut(true);
+        DEFAULT_EXECUTOR = executor;
+    }
+
+    /**
+     * 已预热的区间，key为下一周期名称
+     */
+    private final Map<String, Range> prewarmed = new ConcurrentHashMap<>();
+
+    /**
+     * 已触发预热的切换时间，每个周期只预热一次
+     */
+    private final AtomicLong prewarmedRollover = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * 临近切换时间时异步预热下一周期区间
+     *
+     * @param name        名称
+     * @param aheadMillis 提前预热的时间（毫秒），不大于0时不预热
+     * @param executor    异步线程池
+     * @param fetcher     区间获取方法
+     */
+    void prewarm(Name name, long aheadMillis, Executor executor, Function<String, Range> fetcher) {
+        if (aheadMillis <= 0 || !(name instanceof RollingName)) {
+            return;
+        }
+        RollingName rollingName = (RollingName) name;
+        long rollover = rollingName.nextRolloverTime();
+        long prewarmed = prewarmedRollover.get();
+        if (prewarmed == rollover || SystemClock.now() < rollover - aheadMillis
+                || !prewarmedRollover.compareAndSet(prewarmed, rollover)) {
+            return;
+        }
+        String next = rollingName.createNext();
+        try {
+            executor.execute(() -> {
+                try {
+                    this.prewarmed.put(next, fetcher.apply(next));
+                } catch (Throwable e) {
+                    log.warn("[RangePrewarmer] prewarm range [{}] failed, will fetch on rollover.", next, e);
+                }
+            });
+        } catch (Throwable e) {
+            log.warn("[RangePrewarmer] prewarm range [{}] rejected, will fetch on rollover.", next, e);
+        }
+    }
+
+    /**
+     * 取出指定名称的预热区间，同时清理其它周期遗留的区间
+     *
+     * @param name 名称
+     * @return 预热区间，不存在时返回null
+     */
+    Range take(String name) {
+        if (prewarmed.isEmpty()) {
+            return null;
+        }
+        Range range = prewarmed.remove(name);
+        if (range != null) {
+            prewarmed.clear();
+        }
+        return range;
+    }
+}
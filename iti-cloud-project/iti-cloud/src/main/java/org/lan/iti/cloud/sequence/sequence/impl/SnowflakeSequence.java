@@ -56,6 +56,11 @@ public class SnowflakeSequence implements Sequence {
         return String.valueOf(next());
     }
 
+    @Override
+    public StringBuilder appendNext(StringBuilder sb) throws SequenceException {
+        return sb.append(next());
+    }
+
     @Override
     public String nextStr(String format) throws SequenceException {
         return String.format(format, next());
@@ -0,0 +1,339 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.util;
+
+import org.springframework.beans.FatalBeanException;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ClassUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 预编译的 Bean 属性复制器
+ * <p>
+ * 每个 (源类型, 目标类型) 只解析一次属性，匹配规则与 Spring {@code BeanUtils.copyProperties} 一致
+ * （目标可写、源可读、泛型类型可赋值，支持链式 setter）。
+ * getter/setter/无参构造器通过 {@link LambdaMetafactory} 生成直接调用的函数，
+ * 无法生成时（非 public、类加载器不可见等）退化为 {@link MethodHandle} 调用。
+ * <p>
+ * 实例线程安全，通过 {@link #of(Class, Class)} 获取缓存的实例。
+ * 缓存通过 {@link ClassValue} 挂在源类型（或目标类型）上，不会因静态缓存而阻止业务类的类加载器被卸载。
+ * <p>
+ * 属性读写抛出的异常与 {@code BeanUtils.copyProperties} 一致包装为 {@link FatalBeanException}，
+ * 例如将 null 复制给基本类型的属性。
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public final class BeanMapper<S, T> {
+    /**
+     * 目标类型对源类型的类加载器可见（同一或父类加载器）时，挂在源类型上，按目标类型索引
+     */
+    private static final ClassValue<Map<Class<?>, BeanMapper<?, ?>>> BY_SOURCE = new MapperClassValue();
+    /**
+     * 源类型对目标类型的类加载器可见时，挂在目标类型上，按源类型索引
+     */
+    private static final ClassValue<Map<Class<?>, BeanMapper<?, ?>>> BY_TARGET = new MapperClassValue();
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final Class<S> sourceType;
+    private final Class<T> targetType;
+    private final String[] names;
+    private final Function<Object, Object>[] getters;
+    private final BiConsumer<Object, Object>[] setters;
+    private final Supplier<Object> constructor;
+
+    @SuppressWarnings("unchecked")
+    private BeanMapper(Class<S> sourceType, Class<T> targetType) {
+        this.sourceType = sourceType;
+        this.targetType = targetType;
+
+        List<String> nameList = new ArrayList<>();
+        List<Function<Object, Object>> getterList = new ArrayList<>();
+        List<BiConsumer<Object, Object>> setterList = new ArrayList<>();
+        for (PropertyDescriptor targetPd : org.springframework.beans.BeanUtils.getPropertyDescriptors(targetType)) {
+            Method writeMethod = targetPd.getWriteMethod();
+            if (writeMethod == null) {
+                continue;
+            }
+            PropertyDescriptor sourcePd = org.springframework.beans.BeanUtils.getPropertyDescriptor(sourceType, targetPd.getName());
+            Method readMethod = sourcePd == null ? null : sourcePd.getReadMethod();
+            if (readMethod == null || !isAssignable(readMethod, writeMethod)) {
+                continue;
+            }
+            nameList.add(targetPd.getName());
+            getterList.add(getter(readMethod));
+            setterList.add(setter(writeMethod));
+        }
+        this.names = nameList.toArray(new String[0]);
+        this.getters = getterList.toArray(new Function[0]);
+        this.setters = setterList.toArray(new BiConsumer[0]);
+        this.constructor = constructor(targetType);
+    }
+
+    /**
+     * 获取（并缓存）复制器
+     * <p>
+     * 源类型与目标类型来自互不可见的类加载器时不缓存，每次创建新的实例
+     *
+     * @param sourceType 源类型
+     * @param targetType 目标类型
+     * @return 复制器
+     */
+    @SuppressWarnings("unchecked")
+    public static <S, T> BeanMapper<S, T> of(Class<S> sourceType, Class<T> targetType) {
+        BeanMapper<?, ?> mapper = BY_SOURCE.get(sourceType).get(targetType);
+        if (mapper == null) {
+            mapper = BY_TARGET.get(targetType).get(sourceType);
+        }
+        if (mapper == null) {
+            if (ClassUtils.isCacheSafe(targetType, sourceType.getClassLoader())) {
+                mapper = BY_SOURCE.get(sourceType).computeIfAbsent(targetType, k -> new BeanMapper<>(sourceType, targetType));
+            } else if (ClassUtils.isCacheSafe(sourceType, targetType.getClassLoader())) {
+                mapper = BY_TARGET.get(targetType).computeIfAbsent(sourceType, k -> new BeanMapper<>(sourceType, targetType));
+            } else {
+                mapper = new BeanMapper<>(sourceType, targetType);
+            }
+        }
+        return (BeanMapper<S, T>) mapper;
+    }
+
+    /**
+     * 通过目标类型的 public 无参构造器创建实例
+     *
+     * @return 目标实例
+     * @throws FatalBeanException 无 public 无参构造器或构造失败
+     */
+    @SuppressWarnings("unchecked")
+    public T newInstance() {
+        if (constructor == null) {
+            throw new FatalBeanException("No public no-arg constructor found for " + targetType.getName());
+        }
+        return (T) constructor.get();
+    }
+
+    /**
+     * 复制全部匹配属性（包括 null 值）
+     */
+    public void copy(S source, T target) {
+        for (int i = 0; i < getters.length; i++) {
+            try {
+                setters[i].accept(target, getters[i].apply(source));
+            } catch (RuntimeException e) {
+                throw copyFailed(i, e);
+            }
+        }
+    }
+
+    /**
+     * 仅复制源对象中非 null 的属性
+     */
+    public void copyNonNull(S source, T target) {
+        for (int i = 0; i < getters.length; i++) {
+            try {
+                Object value = getters[i].apply(source);
+                if (value != null) {
+                    setters[i].accept(target, value);
+                }
+            } catch (RuntimeException e) {
+                throw copyFailed(i, e);
+            }
+        }
+    }
+
+    /**
+     * 创建目标实例并复制属性
+     *
+     * @param source 源对象
+     * @return 目标对象，源对象为 null 时返回 null
+     */
+    public T map(S source) {
+        if (source == null) {
+            return null;
+        }
+        T target = newInstance();
+        copy(source, target);
+        return target;
+    }
+
+    /**
+     * 批量转换，输出列表按源列表大小预分配，null 元素原样保留为 null
+     *
+     * @param sources 源对象列表
+     * @return 目标对象列表
+     */
+    public List<T> mapList(List<? extends S> sources) {
+        List<T> result = new ArrayList<>(sources.size());
+        for (S source : sources) {
+            result.add(map(source));
+        }
+        return result;
+    }
+
+    public Class<S> getSourceType() {
+        return sourceType;
+    }
+
+    public Class<T> getTargetType() {
+        return targetType;
+    }
+
+    private FatalBeanException copyFailed(int index, Throwable e) {
+        return new FatalBeanException("Could not copy property '" + names[index] + "' from source to target", e);
+    }
+
+    /**
+     * 与 Spring BeanUtils.copyProperties 相同的可赋值判断
+     */
+    private static boolean isAssignable(Method readMethod, Method writeMethod) {
+        ResolvableType sourceResolvableType = ResolvableType.forMethodReturnType(readMethod);
+        ResolvableType targetResolvableType = ResolvableType.forMethodParameter(writeMethod, 0);
+        return sourceResolvableType.hasUnresolvableGenerics() || targetResolvableType.hasUnresolvableGenerics() ?
+                ClassUtils.isAssignable(writeMethod.getParameterTypes()[0], readMethod.getReturnType()) :
+                targetResolvableType.isAssignableFrom(sourceResolvableType);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getter(Method method) {
+        if (canLink(method)) {
+            try {
+                MethodHandle handle = LOOKUP.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply",
+                        MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class),
+                        handle,
+                        MethodType.methodType(ClassUtils.resolvePrimitiveIfNecessary(method.getReturnType()), method.getDeclaringClass()));
+                return (Function<Object, Object>) site.getTarget().invoke();
+            } catch (Throwable ignored) {
+                // 退化为 MethodHandle
+            }
+        }
+        MethodHandle handle = unreflect(method).asType(MethodType.methodType(Object.class, Object.class));
+        return bean -> {
+            try {
+                return handle.invokeExact(bean);
+            } catch (Throwable e) {
+                throw new FatalBeanException("Could not read property from " + method, e);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(Method method) {
+        if (canLink(method)) {
+            try {
+                MethodHandle handle = LOOKUP.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        handle,
+                        MethodType.methodType(void.class, method.getDeclaringClass(),
+                                ClassUtils.resolvePrimitiveIfNecessary(method.getParameterTypes()[0])));
+                return (BiConsumer<Object, Object>) site.getTarget().invoke();
+            } catch (Throwable ignored) {
+                // 退化为 MethodHandle
+            }
+        }
+        MethodHandle handle = unreflect(method).asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return (bean, value) -> {
+            try {
+                handle.invokeExact(bean, value);
+            } catch (Throwable e) {
+                throw new FatalBeanException("Could not write property to " + method, e);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> constructor(Class<?> type) {
+        Constructor<?> ctor;
+        try {
+            ctor = type.getConstructor();
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+        if (Modifier.isAbstract(type.getModifiers())) {
+            return null;
+        }
+        if (Modifier.isPublic(type.getModifiers()) && isVisible(type)) {
+            try {
+                MethodHandle handle = LOOKUP.unreflectConstructor(ctor);
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get",
+                        MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class),
+                        handle,
+                        MethodType.methodType(type));
+                return (Supplier<Object>) site.getTarget().invoke();
+            } catch (Throwable ignored) {
+                // 退化为反射
+            }
+        }
+        return () -> {
+            try {
+                return ctor.newInstance();
+            } catch (Exception e) {
+                throw new FatalBeanException("Could not instantiate " + type.getName(), e);
+            }
+        };
+    }
+
+    /**
+     * LambdaMetafactory 生成的类位于本类的类加载器中，要求方法及其声明类为 public 且对本类可见
+     */
+    private static boolean canLink(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        return Modifier.isPublic(method.getModifiers())
+                && Modifier.isPublic(declaringClass.getModifiers())
+                && isVisible(declaringClass);
+    }
+
+    private static boolean isVisible(Class<?> type) {
+        return ClassUtils.isVisible(type, BeanMapper.class.getClassLoader());
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        try {
+            if (!method.isAccessible()) {
+                method.setAccessible(true);
+            }
+            return LOOKUP.unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new FatalBeanException("Could not access " + method, e);
+        }
+    }
+
+    private static final class MapperClassValue extends ClassValue<Map<Class<?>, BeanMapper<?, ?>>> {
+        @Override
+        protected Map<Class<?>, BeanMapper<?, ?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    }
+}
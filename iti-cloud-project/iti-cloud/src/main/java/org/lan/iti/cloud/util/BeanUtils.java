@@ -27,6 +27,7 @@ import org.springframework.beans.BeanWrapper;
 import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.PropertyAccessorFactory;
 import org.springframework.cglib.beans.BeanCopier;
+import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
 import java.beans.PropertyDescriptor;
@@ -34,7 +35,6 @@ import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 /**
  * Bean 工具类
@@ -61,7 +61,7 @@ public class BeanUtils {
     }
 
     public static void copyPropertiesNonNull(Object source, Object target) {
-        org.springframework.beans.BeanUtils.copyProperties(source, target, getNullPropertyNames(source));
+        mapper(source, target).copyNonNull(source, target);
     }
 
     public static String[] getNullPropertyNames(Object source) {
@@ -78,9 +78,14 @@ public class BeanUtils {
     }
 
     public static void copyProperties(Object source, Object target) {
-        // getBeanCopier(source.getClass(), target.getClass(), false).copy(source, target, null);
-        // 因为使用了链式调用,BeanCopier无法复制属性(cglib使用方法签名),在写出更好的方法之前,暂时使用Spring BeanUtils
-        org.springframework.beans.BeanUtils.copyProperties(source, target);
+        // 因为使用了链式调用,BeanCopier无法复制属性(cglib使用方法签名),使用与Spring BeanUtils规则一致的预编译复制器
+        mapper(source, target).copy(source, target);
+    }
+
+    private static BeanMapper<Object, Object> mapper(Object source, Object target) {
+        Assert.notNull(source, "Source must not be null");
+        Assert.notNull(target, "Target must not be null");
+        return (BeanMapper<Object, Object>) BeanMapper.of(source.getClass(), target.getClass());
     }
 
     /***
@@ -93,12 +98,16 @@ public class BeanUtils {
         if (source == null) {
             return null;
         }
+        return convert(source, (BeanMapper<Object, T>) BeanMapper.of(source.getClass(), target));
+    }
+
+    private static <T> T convert(Object source, BeanMapper<Object, T> mapper) {
         T result = null;
         try {
-            result = target.getConstructor().newInstance();
-            copyProperties(source, result);
+            result = mapper.newInstance();
+            mapper.copy(source, result);
         } catch (Exception e) {
-            log.warn("对象转换异常, class=" + target.getName());
+            log.warn("对象转换异常, class=" + mapper.getTargetType().getName());
         }
         return result;
     }
@@ -113,10 +122,20 @@ public class BeanUtils {
         if (CollectionUtils.isEmpty(sourceList)) {
             return Collections.emptyList();
         }
-        return Optional.of(sourceList)
-                .orElse(new ArrayList<>())
-                .stream().map(m -> convert(m, target))
-                .collect(Collectors.toList());
+        List<T> result = new ArrayList<>(sourceList.size());
+        BeanMapper<Object, T> mapper = null;
+        for (Object source : sourceList) {
+            if (source == null) {
+                result.add(null);
+                continue;
+            }
+            // 列表元素通常为同一类型，仅在类型变化时重新查找复制器
+            if (mapper == null || mapper.getSourceType() != source.getClass()) {
+                mapper = (BeanMapper<Object, T>) BeanMapper.of(source.getClass(), target);
+            }
+            result.add(convert(source, mapper));
+        }
+        return result;
     }
 
     /***
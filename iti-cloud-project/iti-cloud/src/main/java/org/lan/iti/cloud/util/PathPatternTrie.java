@@ -0,0 +1,194 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.util;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import java.util.*;
+
+/**
+ * 预编译的路径模式前缀树
+ * <p>
+ * 按每个模式开头的字面量路径段建树，模式挂在其第一个通配段（含 *、?、{）之前的节点上。
+ * 匹配时只沿请求路径向下走，并仅对沿途节点上的候选模式调用 {@link PathMatcher#match(String, String)} 做最终确认，
+ * 因此结果与逐个模式匹配完全一致，但大多数请求只需几次 HashMap 查找。
+ * 使用默认 {@link AntPathMatcher} 时，最后一段以字面量结尾的模式（如 {@code /**}{@code /*.js}）会先比较路径后缀，不符合的无需正则匹配。
+ * <p>
+ * 构建后只读，线程安全。
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class PathPatternTrie {
+    private final PathMatcher matcher;
+    /**
+     * 是否可按字面量后缀预筛选，仅对大小写敏感的默认 AntPathMatcher 成立
+     */
+    private final boolean suffixCheck;
+    private final Node root = new Node();
+    private final int size;
+
+    public PathPatternTrie(Collection<String> patterns) {
+        this(patterns, new AntPathMatcher(), true);
+    }
+
+    public PathPatternTrie(Collection<String> patterns, PathMatcher matcher) {
+        this(patterns, matcher, false);
+    }
+
+    private PathPatternTrie(Collection<String> patterns, PathMatcher matcher, boolean suffixCheck) {
+        this.matcher = matcher;
+        this.suffixCheck = suffixCheck;
+        int count = 0;
+        for (String pattern : patterns) {
+            if (pattern != null) {
+                add(pattern);
+                count++;
+            }
+        }
+        this.size = count;
+    }
+
+    /**
+     * @return 模式数量
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 是否有任一模式匹配该路径
+     *
+     * @param path 请求路径
+     * @return 是否匹配
+     */
+    public boolean matches(String path) {
+        if (size == 0 || path == null) {
+            return false;
+        }
+        Node node = root;
+        int start = 0;
+        final int length = path.length();
+        // 去掉末尾分隔符后的长度，即最后一个路径段的结束位置
+        int end = length;
+        while (end > 0 && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        while (true) {
+            if (node.patterns != null) {
+                for (Candidate candidate : node.patterns) {
+                    String suffix = candidate.suffix;
+                    if (suffix != null && !path.regionMatches(end - suffix.length(), suffix, 0, suffix.length())) {
+                        continue;
+                    }
+                    if (matcher.match(candidate.pattern, path)) {
+                        return true;
+                    }
+                }
+            }
+            if (node.children == null) {
+                return false;
+            }
+            // 下一个非空路径段
+            while (start < length && path.charAt(start) == '/') {
+                start++;
+            }
+            if (start >= length) {
+                return false;
+            }
+            int next = path.indexOf('/', start);
+            if (next < 0) {
+                next = length;
+            }
+            node = node.children.get(path.substring(start, next));
+            if (node == null) {
+                return false;
+            }
+            start = next;
+        }
+    }
+
+    private void add(String pattern) {
+        Node node = root;
+        String[] tokens = pattern.split("/");
+        for (String token : tokens) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            if (!isLiteral(token)) {
+                break;
+            }
+            if (node.children == null) {
+                node.children = new HashMap<>(4);
+            }
+            node = node.children.computeIfAbsent(token, k -> new Node());
+        }
+        if (node.patterns == null) {
+            node.patterns = new ArrayList<>(1);
+        }
+        node.patterns.add(new Candidate(pattern, suffixCheck ? suffix(pattern, tokens) : null));
+    }
+
+    /**
+     * 模式最后一段中最后一个通配符之后的字面量（无通配符时为整段）；AntPathMatcher 总是用最后一段匹配路径的最后一段
+     */
+    private static String suffix(String pattern, String[] tokens) {
+        if (tokens.length == 0 || pattern.endsWith("/")) {
+            return null;
+        }
+        String last = tokens[tokens.length - 1];
+        if (last.isEmpty() || "**".equals(last) || last.indexOf('{') >= 0) {
+            return null;
+        }
+        int wildcard = Math.max(last.lastIndexOf('*'), last.lastIndexOf('?'));
+        String suffix = last.substring(wildcard + 1);
+        return suffix.isEmpty() ? null : suffix;
+    }
+
+    private static boolean isLiteral(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c == '*' || c == '?' || c == '{') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Node {
+        private Map<String, Node> children;
+        private List<Candidate> patterns;
+    }
+
+    private static class Candidate {
+        private final String pattern;
+        private final String suffix;
+
+        Candidate(String pattern, String suffix) {
+            this.pattern = pattern;
+            this.suffix = suffix;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package org.lan.iti.cloud.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.lan.iti.cloud.util.PathPatternTrie;
+import org.lan.iti.common.core.api.ApiResult;
+import org.springframework.boot.autoconfigure.data.web.SpringDataWebProperties;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpAsyncRequestControl;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.util.AntPathMatcher;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class ApiResultWrapperAdviceTest {
+    private static final List<String> EXCLUDE_PATH = Arrays.asList(
+            "/actuator/**", "/swagger-resources/**", "/v2/api-docs", "/v3/api-docs/**", "/webjars/**",
+            "/doc.html", "/error", "/oauth/**", "/api/*/export", "/api/files/{id}/raw",
+            "/**/*.js", "/static/**", "/favicon.ico", "/health", "/metrics/*");
+
+    public String user() {
+        return "user";
+    }
+
+    @IgnoreResponseBodyWrapper
+    public String ignored() {
+        return "ignored";
+    }
+
+    @Test
+    public void trie() {
+        PathPatternTrie trie = new PathPatternTrie(EXCLUDE_PATH);
+        AntPathMatcher matcher = new AntPathMatcher();
+        for (String path : Arrays.asList("/actuator", "/actuator/health", "/v2/api-docs", "/v2/api-docs/x",
+                "/api/user/export", "/api/user/1", "/api/files/1/raw", "/a/b/c.js", "/a/b/c.css", "/",
+                "", "//actuator//info", "/metrics/jvm", "/metrics/jvm/gc", "actuator/info", "/error/",
+                "/api/x/export/", "/a/b.js/", "/a/b.js//", "/doc.html/", "/api/files/1/raw/", "/favicon.ico")) {
+            Assertions.assertEquals(EXCLUDE_PATH.stream().anyMatch(it -> matcher.match(it, path)), trie.matches(path), path);
+        }
+    }
+
+    @Test
+    public void supports() throws Exception {
+        ApiResultWrapperProperties properties = properties();
+        ApiResultWrapperAdvice advice = new ApiResultWrapperAdvice(new ObjectMapper(), properties, new SpringDataWebProperties());
+        Assertions.assertTrue(advice.supports(returnType("user"), MappingJackson2HttpMessageConverter.class));
+        Assertions.assertFalse(advice.supports(returnType("ignored"), MappingJackson2HttpMessageConverter.class));
+
+        // 配置重新绑定后重新判定
+        properties.setExcludeClasses(Arrays.asList(ApiResultWrapperAdviceTest.class.getName()));
+        Assertions.assertFalse(advice.supports(returnType("user"), MappingJackson2HttpMessageConverter.class));
+    }
+
+    @Test
+    public void stringBody() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ApiResultWrapperAdvice advice = new ApiResultWrapperAdvice(objectMapper, properties(), new SpringDataWebProperties());
+        Response response = new Response();
+        Object written = advice.beforeBodyWrite("\"quoted\" 中文", returnType("user"), MediaType.TEXT_PLAIN,
+                StringHttpMessageConverter.class, new Request(URI.create("http://localhost/api/user")), response);
+
+        Assertions.assertNull(written);
+        Assertions.assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        Assertions.assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(ApiResult.ok("\"quoted\" 中文"))),
+                objectMapper.readTree(response.body.toByteArray()));
+    }
+
+    @Test
+    public void streamBody() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ApiResultWrapperAdvice advice = new ApiResultWrapperAdvice(objectMapper, properties(), new SpringDataWebProperties());
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Map<String, Object>> stream = IntStream.range(0, 1000)
+                .mapToObj(i -> Collections.<String, Object>singletonMap("id", i))
+                .onClose(() -> closed.set(true));
+
+        Object written = advice.beforeBodyWrite(stream, returnType("user"), MediaType.APPLICATION_JSON,
+                MappingJackson2HttpMessageConverter.class, new Request(URI.create("http://localhost/api/user")), new Response());
+        String json = objectMapper.writeValueAsString(written);
+
+        List<Map<String, Object>> expected = IntStream.range(0, 1000)
+                .mapToObj(i -> Collections.<String, Object>singletonMap("id", i))
+                .collect(Collectors.toList());
+        Assertions.assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(ApiResult.ok(expected))), objectMapper.readTree(json));
+        Assertions.assertTrue(closed.get());
+    }
+
+    /**
+     * 基准测试，默认不随单元测试执行
+     */
+    @Test
+    @Tag("benchmark")
+    public void benchmark() throws Exception {
+        ApiResultWrapperProperties properties = properties();
+        ApiResultWrapperAdvice advice = new ApiResultWrapperAdvice(new ObjectMapper(), properties, new SpringDataWebProperties());
+        MethodParameter returnType = returnType("user");
+        ServerHttpRequest request = new Request(URI.create("http://localhost/api/user/1"));
+        Object body = new Object();
+        AntPathMatcher matcher = new AntPathMatcher();
+        int loops = 200_000;
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                // 原实现：每次调用都匹配包名、读取注解并逐个匹配 excludePath
+                boolean supported = properties.getExcludePackages().stream().noneMatch(it -> matcher.match(it, returnType.getDeclaringClass().getPackage().getName()))
+                        && !properties.getExcludeClasses().contains(returnType.getDeclaringClass().getName())
+                        && !returnType.getMethod().isAnnotationPresent(IgnoreResponseBodyWrapper.class)
+                        && !returnType.getDeclaringClass().isAnnotationPresent(IgnoreResponseBodyWrapper.class);
+                if (supported && properties.getExcludePath().stream().noneMatch(it -> matcher.match(it, request.getURI().getPath()))) {
+                    ApiResult.ok(body);
+                }
+            }
+            long legacy = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                if (advice.supports(returnType, MappingJackson2HttpMessageConverter.class)) {
+                    advice.beforeBodyWrite(body, returnType, MediaType.APPLICATION_JSON, MappingJackson2HttpMessageConverter.class, request, null);
+                }
+            }
+            long cached = System.nanoTime() - start;
+            System.out.printf("wrapper per call: legacy %d ns, cached %d ns%n", legacy / loops, cached / loops);
+        }
+    }
+
+    private static ApiResultWrapperProperties properties() {
+        ApiResultWrapperProperties properties = new ApiResultWrapperProperties();
+        properties.setExcludePath(EXCLUDE_PATH);
+        properties.setExcludePackages(Arrays.asList("org.springframework.**", "springfox.**", "com.alibaba.**"));
+        return properties;
+    }
+
+    private static MethodParameter returnType(String method) throws NoSuchMethodException {
+        return new MethodParameter(ApiResultWrapperAdviceTest.class.getMethod(method), -1);
+    }
+
+    private static class Response implements ServerHttpResponse {
+        private final HttpHeaders headers = new HttpHeaders();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        @Override
+        public void setStatusCode(HttpStatus status) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+    private static class Request implements ServerHttpRequest {
+        private final URI uri;
+
+        Request(URI uri) {
+            this.uri = uri;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        public String getMethodValue() {
+            return "GET";
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return HttpHeaders.EMPTY;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return null;
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public ServerHttpAsyncRequestControl getAsyncRequestControl(ServerHttpResponse response) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package org.lan.iti.cloud.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lan.iti.cloud.tenant.TenantContextHolder;
+import org.mockito.Mockito;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class ITITwoLevelCacheManagerTest {
+    private static final String CHANNEL = "iti:cache:invalidation";
+
+    private InMemoryCacheWriter writer;
+    private List<ITITwoLevelCacheManager> nodes;
+
+    @BeforeEach
+    public void setUp() {
+        writer = new InMemoryCacheWriter();
+        nodes = new ArrayList<>();
+        nodes.add(node());
+        nodes.add(node());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TenantContextHolder.clear();
+    }
+
+    @Test
+    public void readThrough() {
+        Cache a = nodes.get(0).getCache("dict#600");
+        Assertions.assertNotNull(a);
+        a.put("k", "v1");
+        int reads = writer.reads.get();
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertEquals("v1", a.get("k", String.class));
+        }
+        // 写入节点直接回填 L1
+        Assertions.assertEquals(reads, writer.reads.get());
+
+        Cache b = nodes.get(1).getCache("dict#600");
+        Assertions.assertNotNull(b);
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertEquals("v1", b.get("k", String.class));
+        }
+        // 其它节点仅首次读取 Redis
+        Assertions.assertEquals(reads + 1, writer.reads.get());
+
+        Assertions.assertEquals("loaded", b.get("other", () -> "loaded"));
+        Assertions.assertEquals("loaded", a.get("other", () -> "ignored"));
+    }
+
+    @Test
+    public void invalidation() {
+        Cache a = nodes.get(0).getCache("dict");
+        Cache b = nodes.get(1).getCache("dict");
+        a.put("k", "v1");
+        Assertions.assertEquals("v1", b.get("k", String.class));
+
+        a.put("k", "v2");
+        Assertions.assertEquals("v2", b.get("k", String.class));
+
+        b.evict("k");
+        Assertions.assertNull(a.get("k"));
+
+        a.put("k1", "v1");
+        a.put("k2", "v2");
+        Assertions.assertEquals("v1", b.get("k1", String.class));
+        b.clear();
+        Assertions.assertNull(a.get("k1"));
+        Assertions.assertNull(a.get("k2"));
+    }
+
+    @Test
+    public void copyOnWrite() {
+        Cache a = nodes.get(0).getCache("dict");
+        List<String> value = new ArrayList<>(Arrays.asList("v1", "v2"));
+        a.put("k", value);
+        value.add("v3");
+        // L1 保存写入时的副本，调用方之后的修改不可见
+        Assertions.assertEquals(Arrays.asList("v1", "v2"), a.get("k", List.class));
+        Assertions.assertEquals(Arrays.asList("v1", "v2"), nodes.get(1).getCache("dict").get("k", List.class));
+
+        List<String> loaded = new ArrayList<>(Collections.singletonList("loaded"));
+        Assertions.assertSame(loaded, a.get("other", () -> loaded));
+        loaded.clear();
+        Assertions.assertEquals(Collections.singletonList("loaded"), a.get("other", List.class));
+    }
+
+    @Test
+    public void nonStringKey() {
+        Cache a = nodes.get(0).getCache("dict");
+        Cache b = nodes.get(1).getCache("dict");
+        a.put(42L, "v1");
+        Assertions.assertEquals("v1", b.get(42L, String.class));
+        // L1 与 L2 的 key 转换一致
+        Assertions.assertEquals("v1", b.get("42", String.class));
+
+        a.put(42L, "v2");
+        Assertions.assertEquals("v2", b.get(42L, String.class));
+        a.evict(42L);
+        Assertions.assertNull(b.get(42L));
+    }
+
+    @Test
+    public void malformedMessage() {
+        Cache a = nodes.get(0).getCache("dict");
+        a.put("k", "v1");
+        nodes.get(0).onMessage(new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "garbage".getBytes(StandardCharsets.UTF_8)), null);
+        Assertions.assertEquals("v1", a.get("k", String.class));
+    }
+
+    @Test
+    public void tenant() {
+        TenantContextHolder.setTenantId("1");
+        Cache tenant1 = nodes.get(0).getCache("config#600#30");
+        tenant1.put("k", "tenant1");
+        TenantContextHolder.setTenantId("2");
+        Cache tenant2 = nodes.get(0).getCache("config#600#30");
+        Assertions.assertNotSame(tenant1, tenant2);
+        Assertions.assertEquals("2:config", tenant2.getName());
+        Assertions.assertNull(tenant2.get("k"));
+        tenant2.put("k", "tenant2");
+
+        TenantContextHolder.setTenantId("1");
+        Cache remote = nodes.get(1).getCache("config#600#30");
+        Assertions.assertEquals("tenant1", remote.get("k", String.class));
+        tenant2.evict("k");
+        // 其它租户的失效消息不影响本租户
+        Assertions.assertEquals("tenant1", remote.get("k", String.class));
+    }
+
+    private ITITwoLevelCacheManager node() {
+        RedisConnection connection = Mockito.mock(RedisConnection.class);
+        Mockito.when(connection.publish(Mockito.any(), Mockito.any())).thenAnswer(invocation -> {
+            byte[] channel = invocation.getArgument(0);
+            byte[] body = invocation.getArgument(1);
+            for (ITITwoLevelCacheManager node : nodes) {
+                node.onMessage(new DefaultMessage(channel, body), null);
+            }
+            return (long) nodes.size();
+        });
+        RedisConnectionFactory connectionFactory = Mockito.mock(RedisConnectionFactory.class);
+        Mockito.when(connectionFactory.getConnection()).thenReturn(connection);
+
+        ITIRedisCacheManager redisCacheManager = new ITIRedisCacheManager(writer,
+                RedisCacheConfiguration.defaultCacheConfig(), Collections.emptyMap(), true);
+        ITITwoLevelCacheManager cacheManager = new ITITwoLevelCacheManager(redisCacheManager, connectionFactory,
+                CHANNEL, 1000, Duration.ofMinutes(1));
+        cacheManager.afterPropertiesSet();
+        return cacheManager;
+    }
+
+    /**
+     * 内存中的 RedisCacheWriter，多个节点共享以模拟同一 Redis
+     */
+    static class InMemoryCacheWriter implements RedisCacheWriter {
+        final Map<ByteBuffer, byte[]> store = new ConcurrentHashMap<>();
+        final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public void put(String name, byte[] key, byte[] value, Duration ttl) {
+            store.put(ByteBuffer.wrap(key), value);
+        }
+
+        @Override
+        public byte[] get(String name, byte[] key) {
+            reads.incrementAndGet();
+            return store.get(ByteBuffer.wrap(key));
+        }
+
+        @Override
+        public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+            return store.putIfAbsent(ByteBuffer.wrap(key), value);
+        }
+
+        @Override
+        public void remove(String name, byte[] key) {
+            store.remove(ByteBuffer.wrap(key));
+        }
+
+        @Override
+        public void clean(String name, byte[] pattern) {
+            // pattern 为 prefix*
+            String prefix = new String(pattern, 0, pattern.length - 1, StandardCharsets.UTF_8);
+            store.keySet().removeIf(key -> new String(key.array(), StandardCharsets.UTF_8).startsWith(prefix));
+        }
+
+        @Override
+        public void clearStatistics(String name) {
+        }
+
+        @Override
+        public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector cacheStatisticsCollector) {
+            return this;
+        }
+
+        @Override
+        public CacheStatistics getCacheStatistics(String cacheName) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
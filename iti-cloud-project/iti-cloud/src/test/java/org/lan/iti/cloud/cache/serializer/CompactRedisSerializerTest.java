@@ -0,0 +1,283 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package org.lan.iti.cloud.cache.serializer;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.lan.iti.common.core.api.ApiResult;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class CompactRedisSerializerTest {
+    private final CompactRedisSerializer serializer = CompactRedisSerializer.smile(null, 4096, true);
+    private final JdkSerializationRedisSerializer jdk = new JdkSerializationRedisSerializer();
+
+    @Test
+    public void roundTrip() {
+        assertRoundTrip("text");
+        assertRoundTrip(1L);
+        assertRoundTrip(1);
+        assertRoundTrip(new BigDecimal("3.14"));
+        assertRoundTrip(new Date(1700000000000L));
+        assertRoundTrip(LocalDateTime.of(2026, 10, 18, 12, 30));
+        assertRoundTrip(Arrays.asList(1L, "a", 2.5));
+        assertRoundTrip(Collections.singletonMap("k", 1L));
+        assertRoundTrip(user(1));
+        assertRoundTrip(page(20));
+        long[] array = {1L, 2L, 3L};
+        byte[] bytes = serializer.serialize(array);
+        Assertions.assertEquals(CompactRedisSerializer.FORMAT_JACKSON, bytes[1] & CompactRedisSerializer.FORMAT_MASK);
+        Assertions.assertArrayEquals(array, (long[]) serializer.deserialize(bytes));
+        Assertions.assertNull(serializer.deserialize(serializer.serialize(null)));
+        // Spring Cache 依赖单例判断
+        Assertions.assertSame(NullValue.INSTANCE, serializer.deserialize(serializer.serialize(NullValue.INSTANCE)));
+    }
+
+    @Test
+    public void jdkFallback() {
+        Immutable immutable = new Immutable("a", 1);
+        byte[] bytes = serializer.serialize(immutable);
+        Assertions.assertEquals(CompactRedisSerializer.FORMAT_JDK, bytes[1] & CompactRedisSerializer.FORMAT_MASK);
+        Assertions.assertEquals(immutable, serializer.deserialize(bytes));
+
+        Token token = new Token();
+        token.value = "token";
+        bytes = serializer.serialize(token);
+        Assertions.assertEquals(CompactRedisSerializer.FORMAT_JDK, bytes[1] & CompactRedisSerializer.FORMAT_MASK);
+        Assertions.assertEquals("token", ((Token) serializer.deserialize(bytes)).value);
+    }
+
+    @Test
+    public void lossyFallback() {
+        // 没有 getter 的字段经 Jackson 往返会丢失，未重写 equals 时无法确认，使用 JDK 序列化
+        Opaque opaque = new Opaque("secret");
+        byte[] bytes = serializer.serialize(opaque);
+        Assertions.assertEquals(CompactRedisSerializer.FORMAT_JDK, bytes[1] & CompactRedisSerializer.FORMAT_MASK);
+        Assertions.assertEquals("secret", ((Opaque) serializer.deserialize(bytes)).value);
+
+        // 往返结果与原值不相等
+        Partial partial = new Partial("name", "secret");
+        bytes = serializer.serialize(partial);
+        Assertions.assertEquals(CompactRedisSerializer.FORMAT_JDK, bytes[1] & CompactRedisSerializer.FORMAT_MASK);
+        Assertions.assertEquals(partial, serializer.deserialize(bytes));
+
+        // 不可 JDK 序列化的空 bean 直接失败，不写入空对象
+        Assertions.assertThrows(SerializationException.class, () -> serializer.serialize(new Object()));
+    }
+
+    @Test
+    public void allowedTypes() {
+        URI uri = URI.create("https://noahlan.com");
+        // 不在允许范围内的类型无法经 Jackson 往返，改用 JDK 序列化
+        byte[] bytes = serializer.serialize(uri);
+        Assertions.assertEquals(CompactRedisSerializer.FORMAT_JDK, bytes[1] & CompactRedisSerializer.FORMAT_MASK);
+        Assertions.assertEquals(uri, serializer.deserialize(bytes));
+
+        CompactRedisSerializer allowed = CompactRedisSerializer.smile(null, -1, true, Collections.singletonList("java.net."));
+        bytes = allowed.serialize(uri);
+        Assertions.assertEquals(CompactRedisSerializer.FORMAT_JACKSON, bytes[1] & CompactRedisSerializer.FORMAT_MASK);
+        Assertions.assertEquals(uri, allowed.deserialize(bytes));
+        // 数据中的类型名不在允许范围内时拒绝读取
+        byte[] untrusted = bytes;
+        Assertions.assertThrows(SerializationException.class, () -> serializer.deserialize(untrusted));
+    }
+
+    @Test
+    public void compression() {
+        ApiResult<List<User>> large = page(200);
+        byte[] bytes = serializer.serialize(large);
+        Assertions.assertTrue((bytes[1] & CompactRedisSerializer.FLAG_DEFLATE) != 0);
+        Assertions.assertEquals(large, serializer.deserialize(bytes));
+
+        byte[] small = serializer.serialize(user(1));
+        Assertions.assertEquals(0, small[1] & CompactRedisSerializer.FLAG_DEFLATE);
+    }
+
+    @Test
+    public void migration() {
+        User user = user(7);
+        Assertions.assertEquals(user, serializer.deserialize(jdk.serialize(user)));
+
+        CompactRedisSerializer strict = CompactRedisSerializer.smile(null, -1, false);
+        Assertions.assertThrows(SerializationException.class, () -> strict.deserialize(jdk.serialize(user)));
+        Assertions.assertThrows(SerializationException.class, () -> strict.deserialize(new byte[]{1, 2, 3}));
+    }
+
+    /**
+     * 与 JDK 序列化的体积与耗时对比（非严格基准）
+     * <p>
+     * 基准测试，默认不随单元测试执行
+     */
+    @Test
+    @Tag("benchmark")
+    public void benchmark() {
+        List<Object> payloads = Arrays.asList(user(1), page(10), page(100));
+        CompactRedisSerializer uncompressed = CompactRedisSerializer.smile(null, -1, true);
+        for (Object payload : payloads) {
+            int rounds = 2000;
+            for (int i = 0; i < 200; i++) {
+                jdk.deserialize(jdk.serialize(payload));
+                serializer.deserialize(serializer.serialize(payload));
+                uncompressed.deserialize(uncompressed.serialize(payload));
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                jdk.deserialize(jdk.serialize(payload));
+            }
+            long jdkTime = (System.nanoTime() - start) / rounds;
+            start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                serializer.deserialize(serializer.serialize(payload));
+            }
+            long compactTime = (System.nanoTime() - start) / rounds;
+            start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                uncompressed.deserialize(uncompressed.serialize(payload));
+            }
+            long uncompressedTime = (System.nanoTime() - start) / rounds;
+            System.out.printf("%s: jdk %d bytes %d ns, smile %d bytes %d ns, smile+deflate %d bytes %d ns%n",
+                    payload instanceof ApiResult ? "ApiResult(" + ((List<?>) ((ApiResult<?>) payload).getData()).size() + ")" : "User",
+                    jdk.serialize(payload).length, jdkTime,
+                    uncompressed.serialize(payload).length, uncompressedTime,
+                    serializer.serialize(payload).length, compactTime);
+        }
+    }
+
+    private void assertRoundTrip(Object value) {
+        Object copy = serializer.deserialize(serializer.serialize(value));
+        Assertions.assertEquals(value, copy);
+        Assertions.assertEquals(value.getClass(), copy.getClass());
+    }
+
+    private static User user(int i) {
+        return new User()
+                .setId((long) i)
+                .setName("user-" + i)
+                .setEmail("user-" + i + "@example.com")
+                .setEnabled(i % 2 == 0)
+                .setBalance(new BigDecimal("1024.50"))
+                .setCreateTime(LocalDateTime.of(2026, 1, 1, 0, 0).plusMinutes(i))
+                .setRoles(new ArrayList<>(Arrays.asList("admin", "user")));
+    }
+
+    private static ApiResult<List<User>> page(int size) {
+        List<User> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            users.add(user(i));
+        }
+        return ApiResult.ok(users);
+    }
+
+    @Data
+    @Accessors(chain = true)
+    public static class User implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long id;
+        private String name;
+        private String email;
+        private boolean enabled;
+        private BigDecimal balance;
+        private LocalDateTime createTime;
+        private List<String> roles;
+    }
+
+    /**
+     * 无默认构造器，Jackson 无法反序列化
+     */
+    @Data
+    public static class Immutable implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        private final int value;
+    }
+
+    /**
+     * 私有字段且没有 getter，未重写 equals
+     */
+    public static class Opaque implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private String value;
+
+        public Opaque() {
+        }
+
+        Opaque(String value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * 仅部分字段有 getter/setter
+     */
+    @EqualsAndHashCode
+    public static class Partial implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private String name;
+        private String secret;
+
+        public Partial() {
+        }
+
+        Partial(String name, String secret) {
+            this.name = name;
+            this.secret = secret;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class Token implements Externalizable {
+        private String value;
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+            out.writeUTF(value);
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException {
+            value = in.readUTF();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package org.lan.iti.cloud.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyFilter;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.lan.iti.cloud.jackson.dynamicfilter.annotation.ITIFilter;
+import org.lan.iti.cloud.jackson.dynamicfilter.annotation.ITIFilters;
+import org.lan.iti.cloud.jackson.dynamicfilter.resolver.ITIFiltersResolver;
+import org.lan.iti.cloud.jackson.dynamicfilter.support.DynamicFilterMixin;
+import org.lan.iti.cloud.jackson.dynamicfilter.support.DynamicFilterProvider;
+
+import java.util.*;
+
+/**
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class DynamicFilterTest {
+
+    @Data
+    @AllArgsConstructor
+    public static class User {
+        private Long id;
+        private String name;
+        private String password;
+        private String avatar;
+        private String email;
+    }
+
+    @ITIFilter(type = Object.class, excludes = {"password", "avatar"})
+    @ITIFilter(type = User.class, includes = "avatar")
+    public void annotated() {
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().addMixIn(Object.class, DynamicFilterMixin.class);
+
+    private static ITIFilters annotation() throws NoSuchMethodException {
+        return DynamicFilterTest.class.getMethod("annotated").getAnnotation(ITIFilters.class);
+    }
+
+    private static ObjectWriter writer(PropertyFilter filter) {
+        return MAPPER.writer(new DynamicFilterProvider(filter));
+    }
+
+    @Test
+    public void filter() throws Exception {
+        ObjectWriter writer = writer(new ITIFiltersResolver().apply(annotation()));
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("user", new User(1L, "lan", "secret", "a.png", "lan@noahlan.com"));
+        String json = writer.writeValueAsString(payload);
+        Assertions.assertFalse(json.contains("password"));
+        Assertions.assertTrue(json.contains("avatar"));
+        Assertions.assertTrue(json.contains("email"));
+    }
+
+    @Test
+    public void sameAsLegacy() throws Exception {
+        List<User> rows = rows(100);
+        ITIFilters annotation = annotation();
+        Assertions.assertEquals(writer(new LegacyFilter(annotation)).writeValueAsString(rows),
+                writer(new ITIFiltersResolver().apply(annotation)).writeValueAsString(rows));
+    }
+
+    /**
+     * 基准测试，默认不随单元测试执行
+     */
+    @Test
+    @Tag("benchmark")
+    public void benchmark() throws Exception {
+        List<User> rows = rows(10_000);
+        ITIFilters annotation = annotation();
+        ObjectWriter unfiltered = writer(null);
+        ObjectWriter compiled = writer(new ITIFiltersResolver().apply(annotation));
+        ObjectWriter legacy = writer(new LegacyFilter(annotation));
+
+        for (int round = 0; round < 3; round++) {
+            System.out.printf("10k rows: unfiltered %d us, legacy filter %d us, compiled filter %d us%n",
+                    time(unfiltered, rows), time(legacy, rows), time(compiled, rows));
+        }
+    }
+
+    private static List<User> rows(int size) {
+        List<User> rows = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            rows.add(new User(i, "user-" + i, "password-" + i, "avatar-" + i, "user" + i + "@noahlan.com"));
+        }
+        return rows;
+    }
+
+    private static long time(ObjectWriter writer, List<User> rows) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            writer.writeValueAsBytes(rows);
+        }
+        return (System.nanoTime() - start) / 10_000;
+    }
+
+    /**
+     * 原实现：每个字段都重新合并 include/exclude 集合
+     */
+    private static class LegacyFilter extends SimpleBeanPropertyFilter {
+        private final Map<Class<?>, Set<String>> includeMap = new HashMap<>();
+        private final Map<Class<?>, Set<String>> excludeMap = new HashMap<>();
+
+        LegacyFilter(ITIFilters filters) {
+            for (ITIFilter it : filters.value()) {
+                includeMap.put(it.type(), new LinkedHashSet<>(Arrays.asList(it.includes())));
+                excludeMap.put(it.type(), new LinkedHashSet<>(Arrays.asList(it.excludes())));
+            }
+        }
+
+        @Override
+        public void serializeAsField(Object pojo, JsonGenerator jgen, SerializerProvider provider, PropertyWriter writer) throws Exception {
+            Set<String> includeFields = new HashSet<>();
+            for (Map.Entry<Class<?>, Set<String>> entry : includeMap.entrySet()) {
+                if (entry.getKey().isAssignableFrom(pojo.getClass())) {
+                    includeFields.addAll(entry.getValue());
+                }
+            }
+            Set<String> excludeFields = new HashSet<>();
+            for (Map.Entry<Class<?>, Set<String>> entry : excludeMap.entrySet()) {
+                if (entry.getKey().isAssignableFrom(pojo.getClass())) {
+                    excludeFields.addAll(entry.getValue());
+                }
+            }
+            if (!excludeFields.contains(writer.getName()) || includeFields.contains(writer.getName())) {
+                writer.serializeAsField(pojo, jgen, provider);
+            }
+        }
+    }
+}
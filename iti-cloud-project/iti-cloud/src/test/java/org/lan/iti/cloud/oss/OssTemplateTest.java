@@ -0,0 +1,386 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package org.lan.iti.cloud.oss;
+
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.*;
+import com.amazonaws.util.BinaryUtils;
+import com.amazonaws.util.IOUtils;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class OssTemplateTest {
+    private static final int PART_SIZE = 64 * 1024;
+    private static final int CONCURRENCY = 3;
+
+    @Test
+    public void smallUnknownSize() throws Exception {
+        InMemoryS3 s3 = new InMemoryS3();
+        OssTemplate template = new OssTemplate(s3, PART_SIZE, CONCURRENCY);
+        byte[] data = random(1000);
+        template.putObject("b", "small", new ByteArrayInputStream(data));
+        Assertions.assertArrayEquals(data, s3.objects.get("b/small"));
+        Assertions.assertEquals(0, s3.initiated.get());
+    }
+
+    @Test
+    public void smallKnownSize() throws Exception {
+        InMemoryS3 s3 = new InMemoryS3();
+        OssTemplate template = new OssTemplate(s3, PART_SIZE, CONCURRENCY);
+        byte[] data = random(PART_SIZE - 1);
+        template.putObject("b", "small", new ByteArrayInputStream(data), data.length, "text/plain");
+        Assertions.assertArrayEquals(data, s3.objects.get("b/small"));
+        Assertions.assertEquals(0, s3.initiated.get());
+    }
+
+    @Test
+    public void multipart() throws Exception {
+        InMemoryS3 s3 = new InMemoryS3();
+        OssTemplate template = new OssTemplate(s3, PART_SIZE, CONCURRENCY);
+        byte[] data = random(PART_SIZE * 10 + 123);
+        // 大小未知
+        template.putObject("b", "large", new ByteArrayInputStream(data));
+        Assertions.assertArrayEquals(data, s3.objects.get("b/large"));
+        Assertions.assertEquals(11, s3.uploadedParts.get());
+        Assertions.assertTrue(s3.peakInFlight.get() <= CONCURRENCY, "in flight " + s3.peakInFlight.get());
+
+        // 大小已知，恰好为分片整数倍
+        data = random(PART_SIZE * 4);
+        template.putObject("b", "exact", new ByteArrayInputStream(data), data.length, "application/octet-stream");
+        Assertions.assertArrayEquals(data, s3.objects.get("b/exact"));
+        Assertions.assertEquals(2, s3.initiated.get());
+    }
+
+    @Test
+    public void resume() throws Exception {
+        InMemoryS3 s3 = new InMemoryS3();
+        OssTemplate template = new OssTemplate(s3, PART_SIZE, CONCURRENCY);
+        byte[] data = random(PART_SIZE * 8 + 7);
+        s3.failPart = 6;
+        OssUploadException e = Assertions.assertThrows(OssUploadException.class,
+                () -> template.putObject("b", "resume", new ByteArrayInputStream(data)));
+        Assertions.assertNotNull(e.getUploadId());
+        Assertions.assertNull(s3.objects.get("b/resume"));
+
+        s3.failPart = -1;
+        int before = s3.uploadedParts.get();
+        template.resumeObject("b", "resume", e.getUploadId(), new ByteArrayInputStream(data));
+        Assertions.assertArrayEquals(data, s3.objects.get("b/resume"));
+        // 已上传的分片不再重复上传
+        Assertions.assertTrue(s3.uploadedParts.get() - before < 9);
+    }
+
+    @Test
+    public void resumeWithoutMd5() throws Exception {
+        InMemoryS3 s3 = new InMemoryS3();
+        OssTemplate template = new OssTemplate(s3, PART_SIZE, CONCURRENCY);
+        byte[] data = random(PART_SIZE * 8 + 7);
+        s3.failPart = 6;
+        OssUploadException e = Assertions.assertThrows(OssUploadException.class,
+                () -> template.putObject("b", "resume", new ByteArrayInputStream(data)));
+
+        // 分片 ETag 非 MD5 格式时无法校验内容，全部重新上传
+        s3.failPart = -1;
+        s3.md5ETag = false;
+        int before = s3.uploadedParts.get();
+        template.resumeObject("b", "resume", e.getUploadId(), new ByteArrayInputStream(data));
+        Assertions.assertArrayEquals(data, s3.objects.get("b/resume"));
+        Assertions.assertEquals(9, s3.uploadedParts.get() - before);
+    }
+
+    @Test
+    public void abort() {
+        InMemoryS3 s3 = new InMemoryS3();
+        OssTemplate template = new OssTemplate(s3, PART_SIZE, CONCURRENCY);
+        s3.failPart = 2;
+        OssUploadException e = Assertions.assertThrows(OssUploadException.class,
+                () -> template.putObject("b", "abort", new ByteArrayInputStream(random(PART_SIZE * 3))));
+        template.abortUpload("b", "abort", e.getUploadId());
+        Assertions.assertTrue(s3.uploads.isEmpty());
+    }
+
+    @Test
+    public void range() throws Exception {
+        InMemoryS3 s3 = new InMemoryS3();
+        OssTemplate template = new OssTemplate(s3, PART_SIZE, CONCURRENCY);
+        byte[] data = random(100);
+        template.putObject("b", "range", new ByteArrayInputStream(data), data.length, "application/octet-stream");
+        try (S3Object object = template.getObject("b", "range", 10, 19)) {
+            Assertions.assertArrayEquals(Arrays.copyOfRange(data, 10, 20), IOUtils.toByteArray(object.getObjectContent()));
+        }
+        try (S3Object object = template.getObject("b", "range", 90)) {
+            Assertions.assertArrayEquals(Arrays.copyOfRange(data, 90, 100), IOUtils.toByteArray(object.getObjectContent()));
+        }
+    }
+
+    @Test
+    public void listObjects() {
+        InMemoryS3 s3 = new InMemoryS3();
+        OssTemplate template = new OssTemplate(s3, PART_SIZE, CONCURRENCY);
+        for (int i = 0; i < 2500; i++) {
+            s3.objects.put("b/archive/" + String.format("%05d", i), new byte[0]);
+        }
+        for (int i = 0; i < 3; i++) {
+            s3.objects.put("b/archive/dir" + i + "/file", new byte[0]);
+        }
+        s3.objects.put("b/other", new byte[0]);
+
+        // 递归遍历所有分页
+        List<String> keys = template.getAllObjectsByPrefix("b", "archive/", true).stream()
+                .map(S3ObjectSummary::getKey)
+                .collect(Collectors.toList());
+        Assertions.assertEquals(2503, keys.size());
+        Assertions.assertEquals(3, s3.listRequests.get());
+
+        // 惰性：只消费第一页时最多额外预取一页
+        s3.listRequests.set(0);
+        try (Stream<S3ObjectSummary> objects = template.listObjects("b", "archive/", true)) {
+            Assertions.assertEquals(10, objects.limit(10).count());
+        }
+        Assertions.assertTrue(s3.listRequests.get() <= 2);
+
+        // 非递归
+        Assertions.assertEquals(2500, template.getAllObjectsByPrefix("b", "archive/", false).size());
+        try (Stream<String> prefixes = template.listCommonPrefixes("b", "archive/")) {
+            Assertions.assertEquals(Arrays.asList("archive/dir0/", "archive/dir1/", "archive/dir2/"),
+                    prefixes.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void removeObjects() {
+        InMemoryS3 s3 = new InMemoryS3();
+        OssTemplate template = new OssTemplate(s3, PART_SIZE, CONCURRENCY);
+        for (int i = 0; i < 2500; i++) {
+            s3.objects.put("b/tmp/" + i, new byte[0]);
+        }
+        s3.objects.put("b/keep", new byte[0]);
+        Assertions.assertTrue(template.removeObjectsByPrefix("b", "tmp/").isEmpty());
+        Assertions.assertEquals(3, s3.deleteRequests.get());
+        Assertions.assertEquals(Collections.singleton("b/keep"), s3.objects.keySet());
+
+        List<MultiObjectDeleteException.DeleteError> errors = template.removeObjects("b", Arrays.asList("keep", "missing"));
+        Assertions.assertEquals(1, errors.size());
+        Assertions.assertEquals("missing", errors.get(0).getKey());
+    }
+
+    @Test
+    public void getBucket() {
+        InMemoryS3 s3 = new InMemoryS3();
+        OssTemplate template = new OssTemplate(s3, PART_SIZE, CONCURRENCY);
+        Assertions.assertEquals("b", template.getBucket("b").map(Bucket::getName).orElse(null));
+        Assertions.assertFalse(template.getBucket("missing").isPresent());
+    }
+
+    private static byte[] random(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    /**
+     * 内存中的 S3 兼容实现，仅覆盖测试用到的接口
+     */
+    static class InMemoryS3 extends AbstractAmazonS3 {
+        final Map<String, byte[]> objects = new ConcurrentSkipListMap<>();
+        final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+        final AtomicInteger initiated = new AtomicInteger();
+        final AtomicInteger uploadedParts = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger peakInFlight = new AtomicInteger();
+        final AtomicInteger listRequests = new AtomicInteger();
+        final AtomicInteger deleteRequests = new AtomicInteger();
+        volatile int failPart = -1;
+        volatile boolean md5ETag = true;
+
+        @Override
+        @SneakyThrows
+        public PutObjectResult putObject(PutObjectRequest request) {
+            objects.put(request.getBucketName() + "/" + request.getKey(), read(request.getInputStream()));
+            return new PutObjectResult();
+        }
+
+        @Override
+        public InitiateMultipartUploadResult initiateMultipartUpload(InitiateMultipartUploadRequest request) {
+            initiated.incrementAndGet();
+            String uploadId = UUID.randomUUID().toString();
+            uploads.put(uploadId, new ConcurrentHashMap<>());
+            InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+            result.setUploadId(uploadId);
+            return result;
+        }
+
+        @Override
+        @SneakyThrows
+        public UploadPartResult uploadPart(UploadPartRequest request) {
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+                if (request.getPartNumber() == failPart) {
+                    throw new IllegalStateException("part " + failPart + " failed");
+                }
+                byte[] data = read(request.getInputStream());
+                Assertions.assertEquals(request.getPartSize(), data.length);
+                uploads.get(request.getUploadId()).put(request.getPartNumber(), data);
+                uploadedParts.incrementAndGet();
+                UploadPartResult result = new UploadPartResult();
+                result.setPartNumber(request.getPartNumber());
+                result.setETag(md5(data));
+                return result;
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        @Override
+        public PartListing listParts(ListPartsRequest request) {
+            PartListing listing = new PartListing();
+            List<PartSummary> parts = new ArrayList<>();
+            uploads.get(request.getUploadId()).forEach((number, data) -> {
+                PartSummary part = new PartSummary();
+                part.setPartNumber(number);
+                part.setSize(data.length);
+                part.setETag(md5ETag ? md5(data) : md5(data) + "-1");
+                parts.add(part);
+            });
+            listing.setParts(parts);
+            return listing;
+        }
+
+        @Override
+        @SneakyThrows
+        public CompleteMultipartUploadResult completeMultipartUpload(CompleteMultipartUploadRequest request) {
+            Map<Integer, byte[]> parts = uploads.remove(request.getUploadId());
+            java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+            int last = 0;
+            for (PartETag etag : request.getPartETags()) {
+                Assertions.assertTrue(etag.getPartNumber() > last);
+                last = etag.getPartNumber();
+                byte[] data = parts.get(etag.getPartNumber());
+                Assertions.assertEquals(md5(data), etag.getETag());
+                out.write(data);
+            }
+            objects.put(request.getBucketName() + "/" + request.getKey(), out.toByteArray());
+            return new CompleteMultipartUploadResult();
+        }
+
+        @Override
+        public void abortMultipartUpload(AbortMultipartUploadRequest request) {
+            uploads.remove(request.getUploadId());
+        }
+
+        @Override
+        public S3Object getObject(GetObjectRequest request) {
+            byte[] data = objects.get(request.getBucketName() + "/" + request.getKey());
+            long[] range = request.getRange();
+            int start = range == null ? 0 : (int) range[0];
+            int end = range == null || range[1] == Long.MAX_VALUE - 1 ? data.length - 1 : (int) Math.min(range[1], data.length - 1);
+            S3Object object = new S3Object();
+            object.setObjectContent(new ByteArrayInputStream(Arrays.copyOfRange(data, start, end + 1)));
+            return object;
+        }
+
+        @Override
+        public boolean doesBucketExistV2(String bucketName) {
+            return "b".equals(bucketName);
+        }
+
+        @Override
+        public ListObjectsV2Result listObjectsV2(ListObjectsV2Request request) {
+            listRequests.incrementAndGet();
+            String base = request.getBucketName() + "/";
+            String prefix = request.getPrefix() == null ? "" : request.getPrefix();
+            int maxKeys = request.getMaxKeys() == null ? 1000 : request.getMaxKeys();
+            String after = request.getContinuationToken();
+            ListObjectsV2Result result = new ListObjectsV2Result();
+            int count = 0;
+            String last = null;
+            for (String fullKey : objects.keySet()) {
+                if (!fullKey.startsWith(base + prefix)) {
+                    continue;
+                }
+                String key = fullKey.substring(base.length());
+                String delimiter = request.getDelimiter();
+                int index = delimiter == null ? -1 : key.indexOf(delimiter, prefix.length());
+                String entry = index < 0 ? key : key.substring(0, index + 1);
+                if (after != null && entry.compareTo(after) <= 0 || entry.equals(last)) {
+                    continue;
+                }
+                if (count == maxKeys) {
+                    result.setTruncated(true);
+                    result.setNextContinuationToken(last);
+                    break;
+                }
+                if (index < 0) {
+                    S3ObjectSummary summary = new S3ObjectSummary();
+                    summary.setKey(key);
+                    result.getObjectSummaries().add(summary);
+                } else {
+                    result.getCommonPrefixes().add(entry);
+                }
+                last = entry;
+                count++;
+            }
+            return result;
+        }
+
+        @Override
+        public DeleteObjectsResult deleteObjects(DeleteObjectsRequest request) {
+            deleteRequests.incrementAndGet();
+            Assertions.assertTrue(request.getKeys().size() <= OssTemplate.MAX_DELETE_BATCH);
+            List<MultiObjectDeleteException.DeleteError> errors = new ArrayList<>();
+            for (DeleteObjectsRequest.KeyVersion key : request.getKeys()) {
+                if (objects.remove(request.getBucketName() + "/" + key.getKey()) == null) {
+                    MultiObjectDeleteException.DeleteError error = new MultiObjectDeleteException.DeleteError();
+                    error.setKey(key.getKey());
+                    error.setCode("NoSuchKey");
+                    errors.add(error);
+                }
+            }
+            if (!errors.isEmpty()) {
+                throw new MultiObjectDeleteException(errors, Collections.emptyList());
+            }
+            return new DeleteObjectsResult(Collections.emptyList());
+        }
+
+        private static byte[] read(InputStream stream) throws java.io.IOException {
+            return IOUtils.toByteArray(stream);
+        }
+
+        @SneakyThrows
+        private static String md5(byte[] data) {
+            return BinaryUtils.toHex(MessageDigest.getInstance("MD5").digest(data));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.sequence;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.lan.iti.cloud.sequence.range.Range;
+import org.lan.iti.cloud.sequence.range.impl.db.DbRangeManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 基于内嵌H2的区间分配测试
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class DbRangeManagerTest {
+    private JdbcConnectionPool dataSource;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = JdbcConnectionPool.create("jdbc:h2:mem:sequence;DB_CLOSE_DELAY=-1", "sa", "");
+        dataSource.setMaxConnections(64);
+        new JdbcTemplate(dataSource).execute("CREATE TABLE IF NOT EXISTS public.iti_sequence(" +
+                "name VARCHAR(128) PRIMARY KEY, value BIGINT NOT NULL, create_time TIMESTAMP, update_time TIMESTAMP)");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        new JdbcTemplate(dataSource).execute("DROP TABLE public.iti_sequence");
+        dataSource.dispose();
+    }
+
+    private DbRangeManager rangeManager() {
+        DbRangeManager rangeManager = new DbRangeManager(dataSource);
+        rangeManager.setStep(100)
+                .setRetryTimes(50)
+                .init();
+        return rangeManager;
+    }
+
+    @Test
+    public void batchTest() {
+        DbRangeManager rangeManager = rangeManager();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) {
+            names.add("tenant_" + i);
+        }
+        Map<String, Range> first = rangeManager.nextRanges(names);
+        Map<String, Range> second = rangeManager.nextRanges(names);
+        Assertions.assertEquals(names.size(), first.size());
+        for (String name : names) {
+            Assertions.assertEquals(1, first.get(name).getMin());
+            Assertions.assertEquals(100, first.get(name).getMax());
+            Assertions.assertEquals(101, second.get(name).getMin());
+        }
+        Assertions.assertEquals(201, rangeManager.nextRange("tenant_0").getMin());
+    }
+
+    @Test
+    public void batchOrderTest() {
+        DbRangeManager rangeManager = new DbRangeManager(dataSource);
+        rangeManager.setStep(100)
+                .setBatchSize(2)
+                .init();
+        List<String> names = new ArrayList<>();
+        for (int i = 9; i >= 0; --i) {
+            names.add("order_" + i);
+        }
+        Map<String, Range> ranges = rangeManager.nextRanges(names);
+        // 内部按名称排序加锁，结果仍保持调用方顺序
+        Assertions.assertEquals(names, new ArrayList<>(ranges.keySet()));
+        for (String name : names) {
+            Assertions.assertEquals(1, ranges.get(name).getMin());
+        }
+    }
+
+    @Test
+    public void contentionTest() throws InterruptedException {
+        DbRangeManager rangeManager = rangeManager();
+        int threads = 8;
+        int perThread = 50;
+        Set<Long> mins = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; ++t) {
+            executor.execute(() -> {
+                for (int i = 0; i < perThread; ++i) {
+                    mins.add(rangeManager.nextRange("hot").getMin());
+                }
+                latch.countDown();
+            });
+        }
+        latch.await();
+        executor.shutdown();
+        Assertions.assertEquals(threads * perThread, mins.size());
+        // 冲突均在重试内解决，成功的更新首尾相接
+        Assertions.assertEquals(0, rangeManager.getRetryExhaustedCount());
+        Assertions.assertTrue(rangeManager.getContentionCount() >= 0);
+        Assertions.assertEquals(threads * perThread * 100 + 1, rangeManager.nextRange("hot").getMin());
+    }
+
+    /**
+     * 冷启动时逐个获取与批量获取的耗时对比
+     * <p>
+     * 基准测试，默认不随单元测试执行
+     */
+    @Test
+    @Tag("benchmark")
+    public void benchmarkTest() {
+        DbRangeManager rangeManager = rangeManager();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 5000; ++i) {
+            names.add("biz_" + i);
+        }
+        // 初始化所有区间
+        rangeManager.nextRanges(names);
+
+        long start = System.nanoTime();
+        for (String name : names) {
+            rangeManager.nextRange(name);
+        }
+        long sequential = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        rangeManager.nextRanges(names);
+        long batch = System.nanoTime() - start;
+
+        System.out.printf("names=%d sequential=%dms batch=%dms%n", names.size(), sequential / 1000000, batch / 1000000);
+    }
+}
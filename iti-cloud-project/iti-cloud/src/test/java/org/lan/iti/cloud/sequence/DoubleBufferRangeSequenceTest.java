@@ -0,0 +1,133 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.sequence;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.lan.iti.cloud.sequence.exception.SequenceException;
+import org.lan.iti.cloud.sequence.range.Range;
+import org.lan.iti.cloud.sequence.range.RangeManager;
+import org.lan.iti.cloud.sequence.range.impl.name.DefaultName;
+import org.lan.iti.cloud.sequence.sequence.impl.DoubleBufferRangeSequence;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class DoubleBufferRangeSequenceTest {
+
+    /**
+     * 模拟存在往返延迟的区间管理器
+     */
+    private static class SlowRangeManager implements RangeManager {
+        private final AtomicLong value = new AtomicLong();
+        private final AtomicInteger fetchCount = new AtomicInteger();
+
+        @Override
+        public Range nextRange(String name) throws SequenceException {
+            return nextRange(name, 100);
+        }
+
+        @Override
+        public Range nextRange(String name, int step) throws SequenceException {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                throw new SequenceException(e);
+            }
+            fetchCount.incrementAndGet();
+            long max = value.addAndGet(step);
+            return new Range(max - step + 1, max);
+        }
+
+        @Override
+        public void init() {
+        }
+    }
+
+    @Test
+    public void concurrentUniqueTest() throws InterruptedException {
+        SlowRangeManager rangeManager = new SlowRangeManager();
+        DoubleBufferRangeSequence sequence = new DoubleBufferRangeSequence()
+                .setStep(100)
+                .setMaxStep(10000)
+                .setSegmentDuration(Duration.ofSeconds(1));
+        sequence.setName(new DefaultName("test"));
+        sequence.setRangeManager(rangeManager);
+
+        int threads = 8;
+        int perThread = 20000;
+        Set<Long> values = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; ++t) {
+            executor.execute(() -> {
+                for (int i = 0; i < perThread; ++i) {
+                    values.add(sequence.next());
+                }
+                latch.countDown();
+            });
+        }
+        latch.await();
+        executor.shutdown();
+
+        Assertions.assertEquals(threads * perThread, values.size());
+        // 步长随消耗速度增长，区间获取次数远小于固定步长时的 1600 次
+        Assertions.assertTrue(rangeManager.fetchCount.get() < 100);
+    }
+
+    /**
+     * 仅实现 {@link RangeManager#nextRange(String)} 的管理器，按自身步长返回区间
+     */
+    @Test
+    public void fixedStepRangeManager() {
+        AtomicLong value = new AtomicLong();
+        RangeManager rangeManager = new RangeManager() {
+            @Override
+            public Range nextRange(String name) throws SequenceException {
+                long max = value.addAndGet(10);
+                return new Range(max - 9, max);
+            }
+
+            @Override
+            public void init() {
+            }
+        };
+        Assertions.assertEquals(10, rangeManager.nextRange("test", 500).getMax());
+
+        DoubleBufferRangeSequence sequence = new DoubleBufferRangeSequence()
+                .setStep(100)
+                .setSegmentDuration(Duration.ofSeconds(1));
+        sequence.setName(new DefaultName("test"));
+        sequence.setRangeManager(rangeManager);
+        for (long i = 11; i <= 100; i++) {
+            Assertions.assertEquals(i, sequence.next());
+        }
+    }
+}
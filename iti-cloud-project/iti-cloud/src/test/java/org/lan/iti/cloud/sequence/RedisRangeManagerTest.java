@@ -0,0 +1,199 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.sequence;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lan.iti.cloud.sequence.exception.SequenceException;
+import org.lan.iti.cloud.sequence.range.Range;
+import org.lan.iti.cloud.sequence.range.impl.redis.RedisRangeManager;
+import org.mockito.Mockito;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Redis区间分配测试
+ * <p>
+ * 以模拟的 {@link RedisConnection} 按脚本语义（SETNX起始值后INCRBY步长）执行EVAL，
+ * 校验区间计算、溢出处理与pipeline结果映射
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class RedisRangeManagerTest {
+    private static final String KEY_PREFIX = "x_sequence_";
+
+    private Map<String, Long> store;
+    private AtomicInteger pipelines;
+    private boolean pipelineSupported;
+
+    @BeforeEach
+    public void setUp() {
+        store = new HashMap<>();
+        pipelines = new AtomicInteger();
+        pipelineSupported = true;
+    }
+
+    @Test
+    public void nextRange() {
+        RedisRangeManager rangeManager = rangeManager(100, 10);
+        Range first = rangeManager.nextRange("order");
+        Assertions.assertEquals(11, first.getMin());
+        Assertions.assertEquals(110, first.getMax());
+        Range second = rangeManager.nextRange("order");
+        Assertions.assertEquals(111, second.getMin());
+        Assertions.assertEquals(210, second.getMax());
+        Range custom = rangeManager.nextRange("order", 5);
+        Assertions.assertEquals(211, custom.getMin());
+        Assertions.assertEquals(215, custom.getMax());
+    }
+
+    @Test
+    public void nextRanges() {
+        RedisRangeManager rangeManager = rangeManager(100, 0);
+        store.put(KEY_PREFIX + "b", 1000L);
+        Map<String, Range> ranges = rangeManager.nextRanges(Arrays.asList("c", "b", "a", "b"));
+        // 一次pipeline，去重后保持调用方顺序，结果逐个对应
+        Assertions.assertEquals(1, pipelines.get());
+        Assertions.assertEquals(Arrays.asList("c", "b", "a"), new ArrayList<>(ranges.keySet()));
+        Assertions.assertEquals(1, ranges.get("c").getMin());
+        Assertions.assertEquals(1001, ranges.get("b").getMin());
+        Assertions.assertEquals(1100, ranges.get("b").getMax());
+        Assertions.assertEquals(1, ranges.get("a").getMin());
+        Assertions.assertEquals(101, rangeManager.nextRange("a").getMin());
+        Assertions.assertTrue(rangeManager.nextRanges(new ArrayList<>()).isEmpty());
+    }
+
+    @Test
+    public void pipelineUnsupported() {
+        pipelineSupported = false;
+        RedisRangeManager rangeManager = rangeManager(10, 0);
+        Map<String, Range> ranges = rangeManager.nextRanges(Arrays.asList("x", "y"));
+        Assertions.assertEquals(0, pipelines.get());
+        Assertions.assertEquals(1, ranges.get("x").getMin());
+        Assertions.assertEquals(10, ranges.get("y").getMax());
+    }
+
+    @Test
+    public void overflow() {
+        RedisRangeManager rangeManager = rangeManager(100, 0);
+        store.put(KEY_PREFIX + "full", Long.MAX_VALUE - 50);
+        Assertions.assertThrows(SequenceException.class, () -> rangeManager.nextRange("full"));
+        Assertions.assertThrows(SequenceException.class, () -> rangeManager.nextRanges(Arrays.asList("ok", "full")));
+        Assertions.assertEquals(Long.MAX_VALUE - 50, store.get(KEY_PREFIX + "full"));
+
+        Range last = rangeManager.nextRange("full", 50);
+        Assertions.assertEquals(Long.MAX_VALUE - 49, last.getMin());
+        Assertions.assertEquals(Long.MAX_VALUE, last.getMax());
+    }
+
+    private RedisRangeManager rangeManager(int step, long stepStart) {
+        RedisConnectionFactory factory = Mockito.mock(RedisConnectionFactory.class);
+        Mockito.when(factory.getConnection()).thenAnswer(invocation -> connection());
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(factory);
+        RedisRangeManager rangeManager = new RedisRangeManager();
+        rangeManager.setRedisTemplate(redisTemplate)
+                .setStep(step)
+                .setStepStart(stepStart)
+                .init();
+        return rangeManager;
+    }
+
+    private RedisConnection connection() {
+        List<Object> pipelined = new ArrayList<>();
+        boolean[] pipelining = new boolean[1];
+        RuntimeException[] pipelineError = new RuntimeException[1];
+        return Mockito.mock(RedisConnection.class, invocation -> {
+            switch (invocation.getMethod().getName()) {
+                case "openPipeline":
+                    if (!pipelineSupported) {
+                        throw new UnsupportedOperationException("Pipeline is currently not supported");
+                    }
+                    pipelines.incrementAndGet();
+                    pipelining[0] = true;
+                    return null;
+                case "isPipelined":
+                    return pipelining[0];
+                case "closePipeline":
+                    pipelining[0] = false;
+                    List<Object> results = new ArrayList<>(pipelined);
+                    pipelined.clear();
+                    if (pipelineError[0] != null) {
+                        RuntimeException error = pipelineError[0];
+                        pipelineError[0] = null;
+                        throw new RedisPipelineException(error, results);
+                    }
+                    return results;
+                case "eval":
+                case "evalSha":
+                    // script/sha, returnType, numKeys, KEYS[1], ARGV[1], ARGV[2]（可变参数已展开）
+                    Object[] args = invocation.getArguments();
+                    try {
+                        Long max = nextRange(string(args[3]), Long.parseLong(string(args[4])), Long.parseLong(string(args[5])));
+                        if (pipelining[0]) {
+                            pipelined.add(max);
+                            return null;
+                        }
+                        return max;
+                    } catch (RuntimeException e) {
+                        if (pipelining[0]) {
+                            pipelineError[0] = e;
+                            pipelined.add(e);
+                            return null;
+                        }
+                        throw e;
+                    }
+                default:
+                    return Mockito.RETURNS_DEFAULTS.answer(invocation);
+            }
+        });
+    }
+
+    /**
+     * 脚本语义：SETNX key start; INCRBY key step
+     */
+    private Long nextRange(String key, long start, long step) {
+        long current = store.computeIfAbsent(key, k -> start);
+        long max;
+        try {
+            max = Math.addExact(current, step);
+        } catch (ArithmeticException e) {
+            throw new RedisSystemException("ERR increment or decrement would overflow", e);
+        }
+        store.put(key, max);
+        return max;
+    }
+
+    private static String string(Object bytes) {
+        return new String((byte[]) bytes, StandardCharsets.UTF_8);
+    }
+}
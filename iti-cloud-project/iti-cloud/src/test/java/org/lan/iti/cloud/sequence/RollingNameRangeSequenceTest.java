@@ -0,0 +1,179 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.sequence;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.lan.iti.cloud.sequence.exception.SequenceException;
+import org.lan.iti.cloud.sequence.range.Range;
+import org.lan.iti.cloud.sequence.range.RangeManager;
+import org.lan.iti.cloud.sequence.range.RollingName;
+import org.lan.iti.cloud.sequence.range.impl.name.DateName;
+import org.lan.iti.cloud.sequence.sequence.RangeSequence;
+import org.lan.iti.cloud.sequence.sequence.SequenceFormat;
+import org.lan.iti.cloud.sequence.sequence.impl.DefaultRangeSequence;
+import org.lan.iti.cloud.sequence.sequence.impl.DoubleBufferRangeSequence;
+import org.lan.iti.common.core.util.SystemClock;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class RollingNameRangeSequenceTest {
+
+    /**
+     * 可手动切换周期的名称
+     */
+    private static class ManualRollingName implements RollingName {
+        private volatile int day = 1;
+        private volatile long rolloverTime = Long.MAX_VALUE;
+
+        @Override
+        public String create() {
+            return "test-" + day;
+        }
+
+        @Override
+        public String createNext() {
+            return "test-" + (day + 1);
+        }
+
+        @Override
+        public long nextRolloverTime() {
+            return rolloverTime;
+        }
+
+        @Override
+        public LocalDate dateOf(String name) {
+            return LocalDate.of(2020, 1, Integer.parseInt(name.substring("test-".length())));
+        }
+
+        void rollover() {
+            day++;
+            rolloverTime = Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * 按名称独立分配区间并记录获取顺序的区间管理器
+     */
+    private static class RecordingRangeManager implements RangeManager {
+        private final Map<String, AtomicLong> values = new ConcurrentHashMap<>();
+        private final List<String> fetched = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Range nextRange(String name) throws SequenceException {
+            return nextRange(name, 10);
+        }
+
+        @Override
+        public Range nextRange(String name, int step) throws SequenceException {
+            fetched.add(name);
+            long max = values.computeIfAbsent(name, k -> new AtomicLong()).addAndGet(step);
+            return new Range(max - step + 1, max);
+        }
+
+        @Override
+        public void init() {
+        }
+    }
+
+    @Test
+    public void defaultRolloverTest() {
+        rolloverTest(new DefaultRangeSequence().setExecutor(Runnable::run));
+    }
+
+    @Test
+    public void doubleBufferRolloverTest() {
+        rolloverTest(new DoubleBufferRangeSequence().setStep(10).setExecutor(Runnable::run));
+    }
+
+    private void rolloverTest(RangeSequence sequence) {
+        ManualRollingName name = new ManualRollingName();
+        RecordingRangeManager rangeManager = new RecordingRangeManager();
+        sequence.setName(name);
+        sequence.setRangeManager(rangeManager);
+
+        for (int i = 1; i <= 5; ++i) {
+            Assertions.assertEquals(i, sequence.next());
+        }
+        Assertions.assertFalse(rangeManager.fetched.contains("test-2"));
+
+        // 临近切换，预热次日区间
+        name.rolloverTime = SystemClock.now() + 1000;
+        Assertions.assertEquals(6, sequence.next());
+        Assertions.assertTrue(rangeManager.fetched.contains("test-2"));
+        int fetchCount = rangeManager.fetched.size();
+
+        // 切换后当前区间未用尽也立即从新名称的首个区间开始，且直接使用预热区间
+        name.rollover();
+        Assertions.assertEquals(1, sequence.next());
+        Assertions.assertEquals(2, sequence.next());
+        Assertions.assertEquals(fetchCount, rangeManager.fetched.size());
+    }
+
+    @Test
+    public void defaultDatePrefixTest() {
+        datePrefixTest(new DefaultRangeSequence().setExecutor(Runnable::run));
+    }
+
+    @Test
+    public void doubleBufferDatePrefixTest() {
+        datePrefixTest(new DoubleBufferRangeSequence().setStep(10).setExecutor(Runnable::run));
+    }
+
+    /**
+     * 格式化的日期取自序列号所属区间的周期，而非格式化时的当前日期
+     */
+    private void datePrefixTest(RangeSequence sequence) {
+        ManualRollingName name = new ManualRollingName();
+        sequence.setName(name);
+        sequence.setRangeManager(new RecordingRangeManager());
+
+        Assertions.assertEquals("2020010100001", sequence.nextStr());
+        Assertions.assertEquals("2020010100002", sequence.appendNext(new StringBuilder()).toString());
+        SequenceFormat format = SequenceFormat.compile("yyyy-MM-dd'#'{seq}");
+        Assertions.assertEquals("2020-01-01#3", sequence.nextStr(format));
+        name.rollover();
+        Assertions.assertEquals("2020010200001", sequence.nextStr());
+        Assertions.assertEquals("2020-01-02#2", sequence.appendNext(new StringBuilder(), format).toString());
+    }
+
+    @Test
+    public void dateNameTest() {
+        DateName name = new DateName("order-");
+        LocalDate today = LocalDate.now();
+        Assertions.assertEquals("order-" + today, name.create());
+        Assertions.assertEquals("order-" + today.plusDays(1), name.createNext());
+        Assertions.assertSame(name.create(), name.create());
+        Assertions.assertTrue(name.nextRolloverTime() > SystemClock.now());
+        Assertions.assertEquals(today, name.dateOf(name.create()));
+        Assertions.assertEquals(today.plusDays(1), name.dateOf(name.createNext()));
+        Assertions.assertNull(name.dateOf("other-" + today));
+        Assertions.assertEquals(today, new DateName().dateOf(new DateName().create()));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.cloud.sequence;
+
+import cn.hutool.core.date.DatePattern;
+import cn.hutool.core.date.DateUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.lan.iti.cloud.sequence.sequence.SequenceFormat;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+/**
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class SequenceFormatTest {
+
+    @Test
+    public void formatTest() {
+        String today = DateUtil.format(new Date(), DatePattern.PURE_DATE_FORMAT);
+        SequenceFormat format = SequenceFormat.compile("yyyyMMdd{seq:05}");
+        Assertions.assertEquals(today + "00042", format.format(42));
+        Assertions.assertEquals(today + "1234567", format.format(1234567));
+        Assertions.assertEquals(String.format("%s%05d", today, 0), format.format(0));
+
+        SequenceFormat withLiteral = SequenceFormat.compile("'ORD'yyMMdd{seq:08}'-A'");
+        String shortDate = LocalDate.now().format(DateTimeFormatter.ofPattern("yyMMdd"));
+        Assertions.assertEquals("ORD" + shortDate + "00000007-A", withLiteral.format(7));
+
+        Assertions.assertEquals("99", SequenceFormat.compile("{seq}").format(99));
+        Assertions.assertEquals("x:007", SequenceFormat.compile("{seq:03}").formatTo(new StringBuilder("x:"), 7).toString());
+        Assertions.assertEquals(String.valueOf(Long.MAX_VALUE), SequenceFormat.compile("{seq:05}").format(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void compileErrorTest() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SequenceFormat.compile("yyyyMMdd"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SequenceFormat.compile("{seq}{seq}"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SequenceFormat.compile("{seq:x}"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SequenceFormat.compile("yyyyMMddHH{seq}"));
+    }
+
+    @Test
+    public void dateTest() {
+        SequenceFormat format = SequenceFormat.compile("'ORD'yyMMdd{seq:05}");
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        // 指定日期时不使用当前日期，且不影响当日缓存
+        Assertions.assertEquals("ORD" + yesterday.format(DateTimeFormatter.ofPattern("yyMMdd")) + "00042",
+                format.format(yesterday, 42));
+        Assertions.assertEquals(format.format(42), format.format(LocalDate.now(), 42));
+        Assertions.assertEquals(format.format(7), format.format(null, 7));
+    }
+
+    /**
+     * 基准测试，默认不随单元测试执行
+     */
+    @Test
+    @Tag("benchmark")
+    public void throughputTest() {
+        int n = 1000000;
+        SequenceFormat format = SequenceFormat.compile("yyyyMMdd{seq:05}");
+        // 预热
+        long sink = 0;
+        for (int i = 0; i < n; ++i) {
+            sink += String.format("%s%05d", DateUtil.format(new Date(), DatePattern.PURE_DATE_FORMAT), i).length();
+            sink += format.format(i).length();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < n; ++i) {
+            sink += String.format("%s%05d", DateUtil.format(new Date(), DatePattern.PURE_DATE_FORMAT), i).length();
+        }
+        long stringFormat = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < n; ++i) {
+            sink += format.format(i).length();
+        }
+        long compiled = System.nanoTime() - start;
+
+        StringBuilder sb = new StringBuilder(32);
+        start = System.nanoTime();
+        for (int i = 0; i < n; ++i) {
+            sb.setLength(0);
+            sink += format.formatTo(sb, i).length();
+        }
+        long appended = System.nanoTime() - start;
+
+        System.out.println("String.format: " + stringFormat / n + " ns/op");
+        System.out.println("SequenceFormat.format: " + compiled / n + " ns/op");
+        System.out.println("SequenceFormat.formatTo: " + appended / n + " ns/op");
+        Assertions.assertTrue(sink > 0);
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package org.lan.iti.cloud.util;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.FatalBeanException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class BeanMapperTest {
+
+    @Test
+    public void copy() {
+        Source source = source(1);
+        Target expected = new Target();
+        Target actual = new Target();
+        org.springframework.beans.BeanUtils.copyProperties(source, expected);
+        BeanUtils.copyProperties(source, actual);
+        Assertions.assertEquals(expected, actual);
+        Assertions.assertEquals("name-1", actual.getName());
+        Assertions.assertEquals(1, actual.getAge());
+        Assertions.assertEquals(Long.valueOf(1), actual.getScore());
+        // List<Integer> -> List<String> 泛型不匹配，与 Spring 一致不复制
+        Assertions.assertNull(actual.getTags());
+    }
+
+    @Test
+    public void copyNonNull() {
+        Source source = source(2).setName(null);
+        Target target = new Target().setName("keep").setRemark("remark");
+        BeanUtils.copyPropertiesNonNull(source, target);
+        Assertions.assertEquals("keep", target.getName());
+        Assertions.assertEquals(2, target.getAge());
+        Assertions.assertEquals("remark", target.getRemark());
+
+        BeanUtils.copyProperties(source, target);
+        Assertions.assertNull(target.getName());
+    }
+
+    @Test
+    public void nullToPrimitive() {
+        Source source = source(4).setScore(null);
+        Target target = new Target().setScore(7);
+        // 与 Spring 一致包装为 FatalBeanException
+        Assertions.assertThrows(FatalBeanException.class,
+                () -> org.springframework.beans.BeanUtils.copyProperties(source, new Target()));
+        FatalBeanException e = Assertions.assertThrows(FatalBeanException.class,
+                () -> BeanMapper.of(Source.class, Target.class).copy(source, target));
+        Assertions.assertTrue(e.getMessage().contains("'score'"));
+
+        BeanMapper.of(Source.class, Target.class).copyNonNull(source, target);
+        Assertions.assertEquals(7, target.getScore());
+    }
+
+    @Test
+    public void cached() {
+        Assertions.assertSame(BeanMapper.of(Source.class, Target.class), BeanMapper.of(Source.class, Target.class));
+        Assertions.assertNotSame(BeanMapper.of(Source.class, Target.class), BeanMapper.of(Target.class, Source.class));
+        Assertions.assertSame(BeanMapper.of(Target.class, Source.class), BeanMapper.of(Target.class, Source.class));
+    }
+
+    @Test
+    public void nonPublic() {
+        Hidden hidden = new Hidden();
+        hidden.setName("hidden");
+        Target target = BeanUtils.convert(hidden, Target.class);
+        Assertions.assertNotNull(target);
+        Assertions.assertEquals("hidden", target.getName());
+        // 非 public 类型退化为 MethodHandle / 反射
+        Hidden converted = BeanUtils.convert(source(3), Hidden.class);
+        Assertions.assertNotNull(converted);
+        Assertions.assertEquals("name-3", converted.getName());
+        // 无 public 无参构造器时与原实现一致返回 null
+        Assertions.assertNull(BeanUtils.convert(source(3), Integer.class));
+    }
+
+    @Test
+    public void convertList() {
+        List<Object> sources = new ArrayList<>();
+        sources.add(source(1));
+        sources.add(null);
+        sources.add(source(2));
+        List<Target> targets = BeanUtils.convertList(sources, Target.class);
+        Assertions.assertEquals(3, targets.size());
+        Assertions.assertEquals("name-1", targets.get(0).getName());
+        Assertions.assertNull(targets.get(1));
+        Assertions.assertEquals(2, targets.get(2).getAge());
+        Assertions.assertEquals(Collections.emptyList(), BeanUtils.convertList(null, Target.class));
+    }
+
+    /**
+     * 与 Spring BeanUtils.copyProperties 的简单耗时对比（非严格基准）
+     * <p>
+     * 基准测试，默认不随单元测试执行
+     */
+    @Test
+    @Tag("benchmark")
+    public void benchmark() {
+        List<Source> sources = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            sources.add(source(i));
+        }
+        int rounds = 200;
+        for (int i = 0; i < 20; i++) {
+            reflective(sources);
+            BeanUtils.convertList(sources, Target.class);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            reflective(sources);
+        }
+        long reflective = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            BeanUtils.convertList(sources, Target.class);
+        }
+        long compiled = System.nanoTime() - start;
+        int total = rounds * sources.size();
+        System.out.printf("spring copyProperties: %d ns/op, BeanMapper: %d ns/op%n",
+                reflective / total, compiled / total);
+    }
+
+    private static List<Target> reflective(List<Source> sources) {
+        List<Target> result = new ArrayList<>();
+        for (Source source : sources) {
+            Target target = new Target();
+            org.springframework.beans.BeanUtils.copyProperties(source, target);
+            result.add(target);
+        }
+        return result;
+    }
+
+    private static Source source(int i) {
+        return new Source()
+                .setName("name-" + i)
+                .setAge(i)
+                .setScore((long) i)
+                .setTags(Arrays.asList(i, i + 1));
+    }
+
+    @Data
+    @Accessors(chain = true)
+    public static class Source {
+        private String name;
+        private int age;
+        private Long score;
+        private List<Integer> tags;
+    }
+
+    @Data
+    @Accessors(chain = true)
+    public static class Target {
+        private String name;
+        private Integer age;
+        private long score;
+        private List<String> tags;
+        private String remark;
+    }
+
+    @Data
+    static class Hidden {
+        private String name;
+    }
+}
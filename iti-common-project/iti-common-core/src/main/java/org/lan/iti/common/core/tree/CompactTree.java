@@ -0,0 +1,298 @@
+/*
+ *
+ *  * Copyright (c) [2019-2020] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package org.lan.iti.common.core.tree;
+
+import cn.hutool.core.lang.Assert;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * 紧凑树节点
+ * <p>
+ * 与 {@link Tree} 不同，核心属性（id、parentId、name、weight、children）以字段存储，扩展属性按需分配，
+ * 适用于节点数量大且需要长期缓存的树。JSON 序列化结构与 {@link Tree} 相同，属性名取自 {@link TreeNodeConfig}。
+ * <p>
+ * 通过 {@link #index(List)} 建立的 ID 索引在整棵树（森林）的节点间共享，{@link #getNode(Object)} 为 O(1)，
+ * {@link #getParentsName(Object, boolean)} 为 O(depth)；修改树结构后需重新调用 {@link #index(List)}。
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@JsonSerialize(using = CompactTree.Serializer.class)
+public class CompactTree<T> implements Node<T>, Serializable {
+    private static final long serialVersionUID = 2637129405184325806L;
+
+    private final TreeNodeConfig treeNodeConfig;
+
+    private T id;
+    private T parentId;
+    private CharSequence name;
+    private Comparable<?> weight;
+    private List<CompactTree<T>> children;
+    private Map<String, Object> extra;
+
+    @Getter
+    private CompactTree<T> parent;
+
+    private transient Map<T, CompactTree<T>> index;
+
+    public CompactTree() {
+        this(null);
+    }
+
+    public CompactTree(TreeNodeConfig treeNodeConfig) {
+        if (treeNodeConfig == null) {
+            treeNodeConfig = TreeNodeConfig.DEFAULT_CONFIG;
+        }
+        this.treeNodeConfig = treeNodeConfig;
+    }
+
+    /**
+     * 为一组顶层节点及其全部子节点建立共享的 ID 索引
+     *
+     * @param roots 顶层节点
+     * @param <T>   ID类型
+     * @return ID索引
+     */
+    public static <T> Map<T, CompactTree<T>> index(List<CompactTree<T>> roots) {
+        final Map<T, CompactTree<T>> index = new HashMap<>();
+        final Deque<CompactTree<T>> stack = new ArrayDeque<>(roots);
+        while (!stack.isEmpty()) {
+            CompactTree<T> node = stack.pop();
+            index.putIfAbsent(node.id, node);
+            node.index = index;
+            if (node.children != null) {
+                node.children.forEach(stack::push);
+            }
+        }
+        return index;
+    }
+
+    // region utils
+
+    /**
+     * 获取ID对应的节点，如果有多个ID相同的节点，只返回第一个。<br>
+     * 此方法只查找此节点及子节点，已建立索引时为 O(1) 查找加 O(depth) 的祖先校验。
+     *
+     * @param id ID
+     * @return 节点
+     */
+    public CompactTree<T> getNode(T id) {
+        if (index != null) {
+            CompactTree<T> node = index.get(id);
+            for (CompactTree<T> p = node; p != null; p = p.parent) {
+                if (p == this) {
+                    return node;
+                }
+            }
+            return null;
+        }
+        // 未建立索引 深度优先遍历
+        final Deque<CompactTree<T>> stack = new ArrayDeque<>();
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            CompactTree<T> node = stack.pop();
+            if (ObjectUtil.equal(id, node.id)) {
+                return node;
+            }
+            if (node.children != null) {
+                for (int i = node.children.size() - 1; i >= 0; i--) {
+                    stack.push(node.children.get(i));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取所有父节点名称列表,从某节点开始
+     *
+     * <p>
+     * 比如有个人在研发1部，他上面有研发部，接着上面有技术中心<br>
+     * 返回结果就是：[研发一部, 研发中心, 技术中心]
+     *
+     * @param id                 节点ID
+     * @param includeCurrentNode 是否包含当前节点的名称
+     * @return 所有父节点名称列表
+     */
+    public List<CharSequence> getParentsName(T id, boolean includeCurrentNode) {
+        final CompactTree<T> node = getNode(id);
+        return null == node ? new ArrayList<>() : node.getParentsName(includeCurrentNode);
+    }
+
+    /**
+     * 获取所有父节点名称列表,从本节点开始
+     *
+     * @param includeCurrentNode 是否包含当前节点的名称
+     * @return 所有父节点名称列表
+     */
+    public List<CharSequence> getParentsName(boolean includeCurrentNode) {
+        final List<CharSequence> result = new ArrayList<>();
+        if (includeCurrentNode) {
+            result.add(this.name);
+        }
+        for (CompactTree<T> p = this.parent; p != null; p = p.parent) {
+            result.add(p.name);
+        }
+        return result;
+    }
+    // endregion
+
+    // region public
+
+    /**
+     * 设置父节点
+     *
+     * @param parent 父节点
+     * @return this
+     */
+    public CompactTree<T> setParent(CompactTree<T> parent) {
+        this.parent = parent;
+        if (null != parent) {
+            this.parentId = parent.id;
+        }
+        return this;
+    }
+
+    public List<CompactTree<T>> getChildren() {
+        return children;
+    }
+
+    public CompactTree<T> setChildren(List<CompactTree<T>> children) {
+        this.children = children;
+        return this;
+    }
+
+    public TreeNodeConfig getTreeNodeConfig() {
+        return treeNodeConfig;
+    }
+
+    /**
+     * 扩展属性
+     *
+     * @param key   键
+     * @param value 扩展值
+     */
+    public CompactTree<T> putExtra(String key, Object value) {
+        Assert.isTrue(StrUtil.isNotEmpty(key), "key must be not empty!");
+        if (extra == null) {
+            extra = new LinkedHashMap<>(4);
+        }
+        extra.put(key, value);
+        return this;
+    }
+
+    /**
+     * 获取扩展属性
+     *
+     * @param key 键
+     * @return 扩展值
+     */
+    public Object getExtra(String key) {
+        return extra == null ? null : extra.get(key);
+    }
+
+    /**
+     * @return 全部扩展属性（只读），无扩展属性时为空Map
+     */
+    public Map<String, Object> getExtra() {
+        return extra == null ? Collections.emptyMap() : Collections.unmodifiableMap(extra);
+    }
+    // endregion
+
+    // region override
+    @Override
+    public T getId() {
+        return id;
+    }
+
+    @Override
+    public CompactTree<T> setId(T id) {
+        this.id = id;
+        return this;
+    }
+
+    @Override
+    public T getParentId() {
+        return parentId;
+    }
+
+    @Override
+    public CompactTree<T> setParentId(T parentId) {
+        this.parentId = parentId;
+        return this;
+    }
+
+    @Override
+    public CharSequence getName() {
+        return name;
+    }
+
+    @Override
+    public CompactTree<T> setName(CharSequence name) {
+        this.name = name;
+        return this;
+    }
+
+    @Override
+    public Comparable<?> getWeight() {
+        return weight;
+    }
+
+    @Override
+    public CompactTree<T> setWeight(Comparable<?> weight) {
+        this.weight = weight;
+        return this;
+    }
+    // endregion
+
+    /**
+     * 按 {@link Tree} 的属性顺序输出：id、parentId、weight、name、扩展属性、children
+     */
+    public static class Serializer extends JsonSerializer<CompactTree<?>> {
+
+        @Override
+        public void serialize(CompactTree<?> value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            TreeNodeConfig config = value.treeNodeConfig;
+            gen.writeStartObject();
+            serializers.defaultSerializeField(config.getIdKey(), value.id, gen);
+            serializers.defaultSerializeField(config.getParentIdKey(), value.parentId, gen);
+            serializers.defaultSerializeField(config.getWeightKey(), value.weight, gen);
+            serializers.defaultSerializeField(config.getNameKey(), value.name, gen);
+            if (value.extra != null) {
+                for (Map.Entry<String, Object> entry : value.extra.entrySet()) {
+                    serializers.defaultSerializeField(entry.getKey(), entry.getValue(), gen);
+                }
+            }
+            if (value.children != null) {
+                serializers.defaultSerializeField(config.getChildrenKey(), value.children, gen);
+            }
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ *
+ *  * Copyright (c) [2019-2020] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package org.lan.iti.common.core.tree;
+
+import cn.hutool.core.lang.Assert;
+import cn.hutool.core.util.ObjectUtil;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * 已构建树的 ID 索引，支持在不重建的情况下增量增加、移动、删除节点
+ * <p>
+ * 子节点按权重保持有序，新节点插入到同权重节点之后；增量操作不受 {@link TreeNodeConfig#getDeep()} 限制。
+ * 非线程安全，并发修改需由调用方加锁。
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class TreeIndex<T> {
+    /**
+     * 最顶层父id值
+     */
+    @Getter
+    private final T rootParentId;
+
+    /**
+     * 顶层节点列表
+     */
+    @Getter
+    private final List<Tree<T>> roots;
+
+    private final Map<T, Tree<T>> nodes = new HashMap<>();
+
+    public TreeIndex(List<Tree<T>> roots, T rootParentId) {
+        this.roots = roots;
+        this.rootParentId = rootParentId;
+        roots.forEach(this::index);
+    }
+
+    /**
+     * 获取ID对应的节点
+     *
+     * @param id ID
+     * @return 节点，不存在返回null
+     */
+    public Tree<T> getNode(T id) {
+        return nodes.get(id);
+    }
+
+    /**
+     * @return 节点总数
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * 按节点的 parentId 挂载新节点（可带子节点）
+     *
+     * @param node 节点
+     * @return this
+     */
+    public TreeIndex<T> add(Tree<T> node) {
+        Assert.notNull(node, "node must be not null!");
+        Assert.isFalse(nodes.containsKey(node.getId()), "node {} already exists!", node.getId());
+        insert(node, node.getParentId());
+        index(node);
+        return this;
+    }
+
+    /**
+     * 将节点（连同其子树）移动到新的父节点下
+     *
+     * @param id          节点ID
+     * @param newParentId 新父节点ID，等于 {@link #getRootParentId()} 时移动到顶层
+     * @return 被移动的节点
+     */
+    public Tree<T> move(T id, T newParentId) {
+        Tree<T> node = nodes.get(id);
+        Assert.notNull(node, "node {} not found!", id);
+        for (Tree<T> p = nodes.get(newParentId); p != null; p = p.getParent()) {
+            Assert.isFalse(p == node, "cannot move node {} under its own subtree!", id);
+        }
+        detach(node);
+        insert(node, newParentId);
+        return node;
+    }
+
+    /**
+     * 删除节点及其子树
+     *
+     * @param id 节点ID
+     * @return 被删除的节点，不存在返回null
+     */
+    public Tree<T> remove(T id) {
+        Tree<T> node = nodes.get(id);
+        if (node == null) {
+            return null;
+        }
+        detach(node);
+        unindex(node);
+        return node;
+    }
+
+    private void insert(Tree<T> node, T parentId) {
+        List<Tree<T>> siblings;
+        if (ObjectUtil.equal(rootParentId, parentId)) {
+            siblings = roots;
+            node.setParent(null);
+            node.setParentId(parentId);
+        } else {
+            Tree<T> parent = nodes.get(parentId);
+            Assert.notNull(parent, "parent node {} not found!", parentId);
+            siblings = parent.getChildren();
+            if (siblings == null) {
+                siblings = new ArrayList<>();
+                parent.setChildren(siblings);
+            }
+            node.setParent(parent);
+        }
+        siblings.add(upperBound(siblings, node), node);
+    }
+
+    private void detach(Tree<T> node) {
+        Tree<T> parent = node.getParent();
+        List<Tree<T>> siblings = parent == null ? roots : parent.getChildren();
+        for (int i = 0; i < siblings.size(); i++) {
+            if (siblings.get(i) == node) {
+                siblings.remove(i);
+                break;
+            }
+        }
+    }
+
+    private void index(Tree<T> root) {
+        Deque<Tree<T>> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Tree<T> node = stack.pop();
+            nodes.put(node.getId(), node);
+            List<Tree<T>> children = node.getChildren();
+            if (children != null) {
+                children.forEach(stack::push);
+            }
+        }
+    }
+
+    private void unindex(Tree<T> root) {
+        Deque<Tree<T>> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Tree<T> node = stack.pop();
+            nodes.remove(node.getId());
+            List<Tree<T>> children = node.getChildren();
+            if (children != null) {
+                children.forEach(stack::push);
+            }
+        }
+    }
+
+    /**
+     * 有序列表中第一个大于 node 的位置
+     */
+    private static <T> int upperBound(List<Tree<T>> siblings, Tree<T> node) {
+        int low = 0;
+        int high = siblings.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (siblings.get(mid).compareTo(node) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
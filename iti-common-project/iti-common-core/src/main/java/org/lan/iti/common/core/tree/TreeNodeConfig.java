@@ -49,4 +49,6 @@ public class TreeNodeConfig implements Serializable {
     private String childrenKey = "children";
     // 可以配置递归深度 从0开始计算 默认此配置为空,即不限制
     private Integer deep;
+    // 节点数达到此值时使用 ForkJoin 并行组装子树 默认为空,即始终串行
+    private Integer parallelThreshold;
 }
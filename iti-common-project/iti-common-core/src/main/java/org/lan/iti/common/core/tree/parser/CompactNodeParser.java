@@ -0,0 +1,38 @@
+/*
+ *
+ *  * Copyright (c) [2019-2020] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package org.lan.iti.common.core.tree.parser;
+
+import org.lan.iti.common.core.tree.CompactTree;
+
+/**
+ * 紧凑树节点解析器
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@FunctionalInterface
+public interface CompactNodeParser<T, E> {
+    /**
+     * 解析
+     *
+     * @param source 源数据
+     * @param tree   紧凑树节点
+     */
+    void parse(T source, CompactTree<E> tree);
+}
@@ -19,6 +19,7 @@
 package org.lan.iti.common.core.tree.parser;
 
 import cn.hutool.core.map.MapUtil;
+import org.lan.iti.common.core.tree.CompactTree;
 import org.lan.iti.common.core.tree.Tree;
 import org.lan.iti.common.core.tree.TreeNode;
 
@@ -31,7 +32,7 @@ import java.util.Map;
  * @date 2020-04-28
  * @url https://noahlan.com
  */
-public class DefaultNodeParser<T> implements NodeParser<TreeNode<T>, T> {
+public class DefaultNodeParser<T> implements NodeParser<TreeNode<T>, T>, CompactNodeParser<TreeNode<T>, T> {
     @Override
     public void parse(TreeNode<T> source, Tree<T> tree) {
         tree.setId(source.getId());
@@ -45,4 +46,18 @@ public class DefaultNodeParser<T> implements NodeParser<TreeNode<T>, T> {
             extra.forEach(tree::putExtra);
         }
     }
+
+    @Override
+    public void parse(TreeNode<T> source, CompactTree<T> tree) {
+        tree.setId(source.getId());
+        tree.setParentId(source.getParentId());
+        tree.setWeight(source.getWeight());
+        tree.setName(source.getName());
+
+        // 扩展字段
+        final Map<String, Object> extra = source.getExtra();
+        if (MapUtil.isNotEmpty(extra)) {
+            extra.forEach(tree::putExtra);
+        }
+    }
 }
@@ -16,10 +16,13 @@
 
 package org.lan.iti.common.core.util;
 
+import org.lan.iti.common.core.util.clock.CachedClockSource;
+import org.lan.iti.common.core.util.clock.ClockSource;
+import org.lan.iti.common.core.util.clock.RealClockSource;
+
 import java.sql.Timestamp;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.Iterator;
+import java.util.ServiceLoader;
 
 /**
  * 高并发场景下System.currentTimeMillis()的性能问题的优化
@@ -32,6 +35,9 @@ import java.util.concurrent.TimeUnit;
  * <p>1000万：480,12,40.0%</p>
  * <p>100万：50,10,5.0%</p>
  * <p>
+ * 时钟源按以下顺序确定：{@link #setSource(ClockSource)} 手动设置；{@code META-INF/services} 注册的 {@link ClockSource}；
+ * 系统属性 {@value #RESOLUTION_PROPERTY} 指定精度（毫秒，0表示实时时钟）的 {@link CachedClockSource}，默认精度1毫秒
+ * <p>
  * see： http://git.oschina.net/yu120/sequence
  *
  * @author NorthLan
@@ -39,87 +45,75 @@ import java.util.concurrent.TimeUnit;
  * @url https://noahlan.com
  */
 public class SystemClock {
-
     /**
-     * 时钟更新间隔，单位毫秒
+     * 默认缓存时钟精度的系统属性
      */
-    private final long period;
+    public static final String RESOLUTION_PROPERTY = "iti.clock.resolution";
 
-    /**
-     * 现在时刻的毫秒数
-     */
-    private volatile long currentTimeMillis;
+    private static volatile ClockSource source;
 
     /**
-     * 现在时刻的纳秒数
+     * 默认创建的缓存时钟，替换时钟源时需要关闭
      */
-    private volatile long nanoTime;
+    private static CachedClockSource defaultSource;
 
-    /**
-     * 构造
-     *
-     * @param period 时钟更新间隔，单位毫秒
-     */
-    private SystemClock(long period) {
-        this.period = period;
-        this.nanoTime = System.nanoTime();
-        this.currentTimeMillis = System.currentTimeMillis();
-        scheduleClockUpdating();
+    private SystemClock() {
     }
 
     /**
-     * 开启计时器线程
+     * @return 当前时钟源
      */
-    private void scheduleClockUpdating() {
-        ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(2, runnable -> {
-            Thread thread = new Thread(runnable, "System Clock");
-            thread.setDaemon(true);
-            return thread;
-        });
-        scheduler.scheduleAtFixedRate(() -> this.currentTimeMillis = System.currentTimeMillis(), 0, period, TimeUnit.MILLISECONDS);
-        scheduler.scheduleAtFixedRate(() -> this.nanoTime = System.nanoTime(), 0, period, TimeUnit.NANOSECONDS);
+    public static ClockSource getSource() {
+        ClockSource current = source;
+        return current != null ? current : initSource();
     }
 
     /**
-     * @return 当前时间毫秒数
-     */
-    private long currentTimeMillis() {
-        return currentTimeMillis;
-    }
-
-    private long nanoTime() {
-        return nanoTime;
-    }
-
-    //------------------------------------------------------------------------ static
-
-    /**
-     * 单例持有器
+     * 替换时钟源
+     *
+     * @param clockSource 时钟源
      */
-    private static class InstanceHolder {
-        public static final SystemClock INSTANCE = new SystemClock(1);
+    public static synchronized void setSource(ClockSource clockSource) {
+        if (clockSource == null) {
+            throw new IllegalArgumentException("clockSource must not be null");
+        }
+        if (defaultSource != null && defaultSource != clockSource) {
+            defaultSource.close();
+            defaultSource = null;
+        }
+        source = clockSource;
     }
 
-    /**
-     * 单例实例
-     *
-     * @return 单例实例
-     */
-    private static SystemClock instance() {
-        return SystemClock.InstanceHolder.INSTANCE;
+    private static synchronized ClockSource initSource() {
+        if (source == null) {
+            Iterator<ClockSource> it = ServiceLoader.load(ClockSource.class).iterator();
+            if (it.hasNext()) {
+                source = it.next();
+            } else {
+                long resolution = Long.getLong(RESOLUTION_PROPERTY, 1L);
+                if (resolution > 0) {
+                    defaultSource = new CachedClockSource(resolution);
+                    source = defaultSource;
+                } else {
+                    source = RealClockSource.INSTANCE;
+                }
+            }
+        }
+        return source;
     }
 
     /**
      * @return 当前时间
      */
     public static long now() {
-        return instance().currentTimeMillis();
+        ClockSource current = source;
+        return current != null ? current.millis() : initSource().millis();
     }
 
     /**
      * @return 当前时间字符串表现形式
      */
     public static String nowDate() {
-        return new Timestamp(instance().currentTimeMillis()).toString();
+        return new Timestamp(now()).toString();
     }
-}
\ No newline at end of file
+}
@@ -18,18 +18,27 @@
 
 package org.lan.iti.common.core.util;
 
-import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.ObjectUtil;
+import lombok.RequiredArgsConstructor;
 import lombok.experimental.UtilityClass;
+import org.lan.iti.common.core.tree.CompactTree;
+import org.lan.iti.common.core.tree.Node;
 import org.lan.iti.common.core.tree.Tree;
+import org.lan.iti.common.core.tree.TreeIndex;
 import org.lan.iti.common.core.tree.TreeNode;
 import org.lan.iti.common.core.tree.TreeNodeConfig;
+import org.lan.iti.common.core.tree.parser.CompactNodeParser;
 import org.lan.iti.common.core.tree.parser.DefaultNodeParser;
 import org.lan.iti.common.core.tree.parser.NodeParser;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 /**
  * 树结构 工具
@@ -79,7 +88,13 @@ public class TreeUtils {
     }
 
     /**
-     * 树构建（递归）
+     * 树构建
+     * <p>
+     * 一次遍历按 parentId 建立子节点索引，每个父节点的子节点只排序一次，整体为 O(n)（不含排序）。
+     * 节点数达到 {@link TreeNodeConfig#getParallelThreshold()} 时，各子树在 ForkJoin 公共池中并行组装。
+     * <p>
+     * ID 重复时，同一组子节点只会挂到源数据中第一个该ID的节点下，由此导致的环路会被忽略；
+     * 归属在单线程的分组阶段确定，与是否并行组装无关。
      *
      * @param list           源数据集合
      * @param parentId       最顶层父id值 一般为 0 之类
@@ -90,55 +105,213 @@ public class TreeUtils {
      * @return 构建完成的树节点列表
      */
     public <T, E> List<Tree<E>> build(List<T> list, E parentId, TreeNodeConfig treeNodeConfig, NodeParser<T, E> nodeParser) {
-        final List<Tree<E>> treeList = new ArrayList<>();
-        Tree<E> tree;
-        for (T obj : list) {
-            tree = new Tree<>(treeNodeConfig);
+        return build(list, parentId, treeNodeConfig, obj -> {
+            Tree<E> tree = new Tree<>(treeNodeConfig);
             nodeParser.parse(obj, tree);
-            treeList.add(tree);
+            return tree;
+        }, (node, children) -> {
+            for (Tree<E> child : children) {
+                child.setParent(node);
+            }
+            node.setChildren(children);
+        });
+    }
+
+    /**
+     * 构建树并建立 ID 索引，用于后续增量增加、移动、删除节点
+     *
+     * @param list           源数据集合
+     * @param parentId       最顶层父id值 一般为 0 之类
+     * @param treeNodeConfig 配置
+     * @param nodeParser     转换器
+     * @param <T>            转换的实体 为数据源里的对象类型
+     * @param <E>            ID类型
+     * @return 树索引
+     */
+    public <T, E> TreeIndex<E> buildIndex(List<T> list, E parentId, TreeNodeConfig treeNodeConfig, NodeParser<T, E> nodeParser) {
+        return new TreeIndex<>(build(list, parentId, treeNodeConfig, nodeParser), parentId);
+    }
+
+    /**
+     * 紧凑树构建
+     *
+     * @param list     源数据集合
+     * @param parentId 最顶层父id值 一般为 0 之类
+     * @param <E>      ID类型
+     * @return 构建完成并已建立索引的树节点列表
+     * @see CompactTree
+     */
+    public <E> List<CompactTree<E>> buildCompact(List<TreeNode<E>> list, E parentId) {
+        return buildCompact(list, parentId, TreeNodeConfig.DEFAULT_CONFIG, new DefaultNodeParser<>());
+    }
+
+    /**
+     * 紧凑树构建，算法同 {@link #build(List, Object, TreeNodeConfig, NodeParser)}，构建完成后建立共享 ID 索引
+     *
+     * @param list           源数据集合
+     * @param parentId       最顶层父id值 一般为 0 之类
+     * @param treeNodeConfig 配置
+     * @param nodeParser     转换器
+     * @param <T>            转换的实体 为数据源里的对象类型
+     * @param <E>            ID类型
+     * @return 构建完成并已建立索引的树节点列表
+     */
+    public <T, E> List<CompactTree<E>> buildCompact(List<T> list, E parentId, TreeNodeConfig treeNodeConfig, CompactNodeParser<T, E> nodeParser) {
+        List<CompactTree<E>> roots = build(list, parentId, treeNodeConfig, obj -> {
+            CompactTree<E> tree = new CompactTree<>(treeNodeConfig);
+            nodeParser.parse(obj, tree);
+            return tree;
+        }, (node, children) -> {
+            for (CompactTree<E> child : children) {
+                child.setParent(node);
+            }
+            node.setChildren(children);
+        });
+        CompactTree.index(roots);
+        return roots;
+    }
+
+    /**
+     * {@link Tree} 与 {@link CompactTree} 共用的构建过程：单线程分组，再逐层（或并行）组装
+     *
+     * @param list           源数据集合
+     * @param parentId       最顶层父id值
+     * @param treeNodeConfig 配置
+     * @param factory        创建并解析节点
+     * @param linker         将已排序的子节点挂载到父节点
+     * @return 构建完成的树节点列表
+     */
+    private <T, E, N extends Node<E>> List<N> build(List<T> list, E parentId, TreeNodeConfig treeNodeConfig,
+                                                    Function<T, N> factory, BiConsumer<N, List<N>> linker) {
+        final Map<E, Group<N>> groups = new HashMap<>(Math.max(16, (int) (list.size() / .75f) + 1));
+        N tree;
+        for (T obj : list) {
+            tree = factory.apply(obj);
+            groups.computeIfAbsent(tree.getId(), k -> new Group<>()).claim(tree);
+            groups.computeIfAbsent(tree.getParentId(), k -> new Group<>()).add(tree);
         }
 
-        List<Tree<E>> finalTreeList = new ArrayList<>();
-        for (Tree<E> node : treeList) {
-            if (parentId.equals(node.getParentId())) {
-                finalTreeList.add(node);
-                innerBuild(treeList, node, 0, treeNodeConfig.getDeep());
+        Group<N> rootGroup = groups.remove(parentId);
+        List<N> roots = rootGroup == null ? null : rootGroup.children;
+        if (roots == null) {
+            return new ArrayList<>();
+        }
+        // 同权重时保持源数据顺序，与逐层排序的结果一致
+        roots.sort(null);
+
+        final Assembly<E, N> assembly = new Assembly<>(groups, linker, treeNodeConfig.getDeep());
+        final Integer parallelThreshold = treeNodeConfig.getParallelThreshold();
+        if (parallelThreshold != null && list.size() >= parallelThreshold) {
+            ForkJoinPool.commonPool().invoke(new AssembleTask<>(assembly, roots, 0));
+        } else {
+            assembly.assemble(roots, 0);
+        }
+        return roots;
+    }
+
+    /**
+     * 同一ID下的节点分组：以该ID为父ID的子节点，以及源数据中第一个该ID的节点（子节点的归属）
+     */
+    private static final class Group<N> {
+        private N owner;
+        private List<N> children;
+
+        void claim(N node) {
+            if (owner == null) {
+                owner = node;
             }
         }
 
-        // 内存每层已经排过了 这是最外层排序
-        finalTreeList = finalTreeList.stream().sorted().collect(Collectors.toList());
-        return finalTreeList;
+        void add(N child) {
+            if (children == null) {
+                children = new ArrayList<>();
+            }
+            children.add(child);
+        }
     }
 
     /**
-     * 递归处理
-     *
-     * @param treeNodes  数据集合
-     * @param parentNode 当前节点
-     * @param deep       已递归深度
-     * @param maxDeep    最大递归深度 可能为null即不限制
+     * 组装过程，只读访问分组结果，并行组装时无需同步
      */
-    private <T> void innerBuild(List<Tree<T>> treeNodes, Tree<T> parentNode, int deep, Integer maxDeep) {
-        if (CollUtil.isEmpty(treeNodes)) {
-            return;
+    @RequiredArgsConstructor
+    private static final class Assembly<E, N extends Node<E>> {
+        private final Map<E, Group<N>> groups;
+        private final BiConsumer<N, List<N>> linker;
+        /**
+         * 最大递归深度 可能为null即不限制
+         */
+        private final Integer maxDeep;
+
+        /**
+         * 逐层组装（广度优先，无递归）
+         *
+         * @param level 当前层节点
+         * @param deep  当前层深度
+         */
+        void assemble(List<N> level, int deep) {
+            while (!level.isEmpty() && (maxDeep == null || deep < maxDeep)) {
+                List<N> next = new ArrayList<>();
+                for (N node : level) {
+                    List<N> children = attach(node);
+                    if (children != null) {
+                        next.addAll(children);
+                    }
+                }
+                level = next;
+                deep++;
+            }
         }
-        if (maxDeep != null && deep >= maxDeep) {
-            return;
+
+        /**
+         * 为节点挂载（已排序的）子节点
+         *
+         * @return 子节点列表，无子节点或子节点归属于其他同ID节点时返回null
+         */
+        List<N> attach(N node) {
+            Group<N> group = groups.get(node.getId());
+            if (group == null || group.owner != node || group.children == null) {
+                return null;
+            }
+            List<N> children = group.children;
+            children.sort(null);
+            linker.accept(node, children);
+            return children;
         }
-        // 每层排序 TreeNodeMap 实现了Comparable接口
-        treeNodes = treeNodes.stream().sorted().collect(Collectors.toList());
-        for (Tree<T> childNode : treeNodes) {
-            if (parentNode.getId().equals(childNode.getParentId())) {
-                List<Tree<T>> children = parentNode.getChildren();
-                if (children == null) {
-                    children = new ArrayList<>();
-                    parentNode.setChildren(children);
+    }
+
+    /**
+     * 并行组装时按节点拆分任务的层数，更深的子树在各自任务中串行组装
+     */
+    private static final int PARALLEL_DEEP = 3;
+
+    /**
+     * 并行组装任务
+     */
+    @RequiredArgsConstructor
+    private static class AssembleTask<E, N extends Node<E>> extends RecursiveAction {
+        private static final long serialVersionUID = 4431306253171640411L;
+
+        private final Assembly<E, N> assembly;
+        private final List<N> nodes;
+        private final int deep;
+
+        @Override
+        protected void compute() {
+            if (deep >= PARALLEL_DEEP) {
+                assembly.assemble(nodes, deep);
+                return;
+            }
+            if (assembly.maxDeep != null && deep >= assembly.maxDeep) {
+                return;
+            }
+            List<AssembleTask<E, N>> tasks = new ArrayList<>();
+            for (N node : nodes) {
+                List<N> children = assembly.attach(node);
+                if (children != null) {
+                    tasks.add(new AssembleTask<>(assembly, children, deep + 1));
                 }
-                children.add(childNode);
-                childNode.setParent(parentNode);
-                innerBuild(treeNodes, childNode, deep + 1, maxDeep);
             }
+            invokeAll(tasks);
         }
     }
     // endregion
@@ -159,8 +332,12 @@ public class TreeUtils {
         }
 
         // 查找子节点
+        final List<Tree<T>> children = node.getChildren();
+        if (null == children) {
+            return null;
+        }
         Tree<T> childNode;
-        for (Tree<T> child : node.getChildren()) {
+        for (Tree<T> child : children) {
             childNode = child.getNode(id);
             if (null != childNode) {
                 return childNode;
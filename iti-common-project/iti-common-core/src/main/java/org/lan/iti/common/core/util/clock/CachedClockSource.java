@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) [2019-2020] [NorthLan](lan6995@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lan.iti.common.core.util.clock;
+
+import org.lan.iti.common.core.support.NamedThreadFactory;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存时钟
+ * <p>
+ * 由一个后台守护线程按固定精度刷新时间，读取时仅为一次 volatile 读，精度越低后台开销越小
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class CachedClockSource implements ClockSource, AutoCloseable {
+    /**
+     * 时钟精度，单位毫秒
+     */
+    private final long resolution;
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * 现在时刻的毫秒数
+     */
+    private volatile long currentTimeMillis;
+
+    /**
+     * 构造
+     *
+     * @param resolution 时钟精度，单位毫秒
+     */
+    public CachedClockSource(long resolution) {
+        if (resolution <= 0) {
+            throw new IllegalArgumentException("resolution must be positive");
+        }
+        this.resolution = resolution;
+        this.currentTimeMillis = System.currentTimeMillis();
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("iti-system-clock", true));
+        scheduler.scheduleAtFixedRate(() -> this.currentTimeMillis = System.currentTimeMillis(), resolution, resolution, TimeUnit.MILLISECONDS);
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public long millis() {
+        return currentTimeMillis;
+    }
+
+    public long getResolution() {
+        return resolution;
+    }
+
+    /**
+     * 停止后台刷新线程
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
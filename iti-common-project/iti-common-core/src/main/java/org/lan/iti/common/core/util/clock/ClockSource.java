@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) [2019-2020] [NorthLan](lan6995@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lan.iti.common.core.util.clock;
+
+/**
+ * 时钟源SPI
+ * <p>
+ * 默认由 {@link org.lan.iti.common.core.util.SystemClock} 持有，可通过 {@code META-INF/services} 注册自定义实现，
+ * 或直接注入到需要时间的组件中
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ * @see RealClockSource
+ * @see CachedClockSource
+ * @see VirtualClockSource
+ */
+@FunctionalInterface
+public interface ClockSource {
+
+    /**
+     * 当前时间
+     *
+     * @return 时间戳（毫秒）
+     */
+    long millis();
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) [2019-2020] [NorthLan](lan6995@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lan.iti.common.core.util.clock;
+
+/**
+ * 实时时钟，每次调用 {@link System#currentTimeMillis()}
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public final class RealClockSource implements ClockSource {
+    public static final RealClockSource INSTANCE = new RealClockSource();
+
+    private RealClockSource() {
+    }
+
+    @Override
+    public long millis() {
+        return System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) [2019-2020] [NorthLan](lan6995@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.lan.iti.common.core.util.clock;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 虚拟时钟，时间仅由调用方推进，用于测试时钟回拨、跨天等场景
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class VirtualClockSource implements ClockSource {
+    private final AtomicLong currentTimeMillis;
+
+    public VirtualClockSource() {
+        this(System.currentTimeMillis());
+    }
+
+    public VirtualClockSource(long millis) {
+        this.currentTimeMillis = new AtomicLong(millis);
+    }
+
+    @Override
+    public long millis() {
+        return currentTimeMillis.get();
+    }
+
+    /**
+     * 设置当前时间
+     *
+     * @param millis 时间戳（毫秒）
+     */
+    public void set(long millis) {
+        currentTimeMillis.set(millis);
+    }
+
+    /**
+     * 推进时间，可为负数以模拟时钟回拨
+     *
+     * @param duration 时长
+     * @return 推进后的时间
+     */
+    public long advance(Duration duration) {
+        return currentTimeMillis.addAndGet(duration.toMillis());
+    }
+}
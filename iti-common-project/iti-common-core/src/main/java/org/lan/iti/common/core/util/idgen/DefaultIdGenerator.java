@@ -97,6 +97,16 @@ public class DefaultIdGenerator implements IGenerator {
         return delegate.nextLong();
     }
 
+    @Override
+    public long[] nextLongs(int n) throws IdGeneratorException {
+        return delegate.nextLongs(n);
+    }
+
+    @Override
+    public void nextBlock(long[] dst) throws IdGeneratorException {
+        delegate.nextBlock(dst);
+    }
+
     @Override
     public String nextStr(String format) throws IdGeneratorException {
         return delegate.nextStr(format);
@@ -36,6 +36,36 @@ public interface IGenerator {
      */
     long nextLong() throws IdGeneratorException;
 
+    /**
+     * 批量生成ID
+     *
+     * @param n 个数
+     * @return n个ID
+     * @throws IdGeneratorException 异常信息
+     */
+    default long[] nextLongs(int n) throws IdGeneratorException {
+        if (n < 0) {
+            throw new IdGeneratorException("n must not be negative: {}", n);
+        }
+        long[] ids = new long[n];
+        nextBlock(ids);
+        return ids;
+    }
+
+    /**
+     * 批量生成ID并填满目标数组
+     * <p>
+     * 实现类应尽可能一次性预留连续的ID段
+     *
+     * @param dst 目标数组
+     * @throws IdGeneratorException 异常信息
+     */
+    default void nextBlock(long[] dst) throws IdGeneratorException {
+        for (int i = 0; i < dst.length; ++i) {
+            dst[i] = nextLong();
+        }
+    }
+
     /**
      * 生成String类型的ID{@code String.format(format, nextLong())}
      *
@@ -44,6 +44,14 @@ public class IdGenerator {
         return getInstance().nextLong();
     }
 
+    public static long[] nextLongs(int n) throws IdGeneratorException {
+        return getInstance().nextLongs(n);
+    }
+
+    public static void nextBlock(long[] dst) throws IdGeneratorException {
+        getInstance().nextBlock(dst);
+    }
+
     public static String nextStr() throws IdGeneratorException {
         return getInstance().nextStr();
     }
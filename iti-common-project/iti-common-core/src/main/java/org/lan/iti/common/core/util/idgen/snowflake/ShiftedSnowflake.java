@@ -37,27 +37,16 @@ public class ShiftedSnowflake extends Snowflake {
         super(options);
     }
 
+    /**
+     * 不借用时间戳，序列数用尽时等待下一毫秒
+     */
     @Override
-    public long nextLong() {
-        synchronized (syncLock) {
-            long currentTimeTick = getCurrentTimeTick();
-
-            if (lastTimeTick == currentTimeTick) {
-                if (currentSeqNumber++ > maxSeqNumber) {
-                    this.currentSeqNumber = minSeqNumber;
-                    currentTimeTick = getNextTimeTick();
-                }
-            } else {
-                this.currentSeqNumber = minSeqNumber;
-            }
-
-            if (currentTimeTick < lastTimeTick) {
-                throw new IdGeneratorException("Time error for {} milliseconds", lastTimeTick - currentTimeTick);
-            }
-
-            lastTimeTick = currentTimeTick;
+    protected int overCostAllowance() {
+        return 0;
+    }
 
-            return ((currentTimeTick << timestampShift) + (workerId << seqBitLength) + (int) currentSeqNumber);
-        }
+    @Override
+    protected long nextTurnBackId() throws IdGeneratorException {
+        throw new IdGeneratorException("Time error for {} milliseconds", getLastTimeTick() - getCurrentTimeTick());
     }
 }
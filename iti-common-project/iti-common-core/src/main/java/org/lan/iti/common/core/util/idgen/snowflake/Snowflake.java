@@ -19,17 +19,36 @@
 package org.lan.iti.common.core.util.idgen.snowflake;
 
 import org.lan.iti.common.core.util.SystemClock;
+import org.lan.iti.common.core.util.clock.ClockSource;
+import org.lan.iti.common.core.util.clock.RealClockSource;
 import org.lan.iti.common.core.util.idgen.IGenerator;
 import org.lan.iti.common.core.util.idgen.exception.IdGeneratorException;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * 雪花ID生成器
+ * <p>
+ * 时间戳与序列数打包存放于每个实例独有的 {@link AtomicLong} 中，通过CAS分配，不再竞争全局锁
  *
  * @author NorthLan
  * @date 2021-04-27
  * @url https://noahlan.com
  */
 public class Snowflake implements IGenerator {
+    /**
+     * 时间回拨状态中 回拨次序 所占位数
+     */
+    private static final int TURN_BACK_INDEX_BITS = 3;
+    private static final long TURN_BACK_INDEX_MASK = (1L << TURN_BACK_INDEX_BITS) - 1;
+    private static final long TURN_BACK_ACTIVE = 1L << TURN_BACK_INDEX_BITS;
+    private static final int TURN_BACK_TICK_SHIFT = TURN_BACK_INDEX_BITS + 1;
+
+    /**
+     * 分配时发生时钟回拨的标记
+     */
+    private static final long TURNED_BACK = -1L;
+
     /**
      * 基础时间
      */
@@ -70,19 +89,28 @@ public class Snowflake implements IGenerator {
      */
     protected final boolean useSystemClock;
 
+    /**
+     * 时钟源
+     */
+    protected final ClockSource clock;
 
     protected final byte timestampShift;
-    protected final static byte[] syncLock = new byte[0];
 
-    protected short currentSeqNumber;
-    protected long lastTimeTick = 0;
-    protected long turnBackTimeTick = 0;
-    protected byte turnBackIndex = 0;
+    /**
+     * 打包状态中序列数所占位数，比序列数位长多一位，用于存放 maxSeqNumber + 1 (表示当前时间戳已用尽)
+     */
+    private final int stateSeqBits;
+    private final long stateSeqMask;
+
+    /**
+     * 打包状态：高位为最后分配的时间戳，低位为下一个可用序列数
+     */
+    private final AtomicLong state;
 
-    protected boolean overCost = false;
-    protected int overCostCountInOneTerm = 0;
-    protected int genCountInOneTerm = 0;
-    protected int termIndex = 0;
+    /**
+     * 时钟回拨状态：高位为回拨时间戳，低位为回拨次序及是否处于回拨中
+     */
+    private final AtomicLong turnBack = new AtomicLong();
 
     public Snowflake() {
         this(new SnowflakeOptions());
@@ -93,126 +121,170 @@ public class Snowflake implements IGenerator {
         this.workerIdBitLength = options.getWorkerIdBitLength();
         this.workerId = options.getWorkerId();
         this.seqBitLength = options.getSeqBitLength();
-        this.maxSeqNumber = options.getMaxSeqNumber();
+        // 0 表示取最大值 2^seqBitLength-1
+        this.maxSeqNumber = options.getMaxSeqNumber() > 0 ? options.getMaxSeqNumber() : (1 << seqBitLength) - 1;
         this.useSystemClock = options.isUseSystemClock();
+        if (options.getClock() != null) {
+            this.clock = options.getClock();
+        } else {
+            this.clock = useSystemClock ? SystemClock::now : RealClockSource.INSTANCE;
+        }
         this.minSeqNumber = options.getMinSeqNumber();
         this.topOverCostCount = options.getTopOverCostCount();
         //
         this.timestampShift = (byte) (workerIdBitLength + seqBitLength);
-        this.currentSeqNumber = minSeqNumber;
+        this.stateSeqBits = seqBitLength + 1;
+        this.stateSeqMask = (1L << stateSeqBits) - 1;
+        this.state = new AtomicLong(pack(0, minSeqNumber));
     }
 
-    private void endOverCostAction(long timeTick) {
-        if (this.termIndex > 10000) {
-            this.termIndex = 0;
+    @Override
+    public long nextLong() throws IdGeneratorException {
+        long reserved = reserve(1);
+        if (reserved == TURNED_BACK) {
+            return nextTurnBackId();
         }
+        return calc(reserved >>> stateSeqBits, (int) (reserved & stateSeqMask));
     }
 
-    private long nextOverCostId() {
-        // 漂移
-        long currentTimeTick = getCurrentTimeTick();
-
-        if (currentTimeTick > this.lastTimeTick) {
-            endOverCostAction(currentTimeTick);
-
-            this.lastTimeTick = currentTimeTick;
-            this.currentSeqNumber = minSeqNumber;
-            this.overCost = false;
-            this.overCostCountInOneTerm = 0;
-            this.genCountInOneTerm = 0;
-
-            return calc(this.lastTimeTick);
-        }
-
-        if (this.overCostCountInOneTerm >= this.topOverCostCount) {
-            endOverCostAction(currentTimeTick);
-
-            this.lastTimeTick = getNextTimeTick();
-            this.currentSeqNumber = minSeqNumber;
-            this.overCost = false;
-            this.overCostCountInOneTerm = 0;
-            this.genCountInOneTerm = 0;
-
-            return calc(lastTimeTick);
-        }
-
-        if (currentSeqNumber > maxSeqNumber) {
-            this.lastTimeTick++;
-            this.currentSeqNumber = minSeqNumber;
-            this.overCost = true;
-            this.overCostCountInOneTerm++;
-            this.genCountInOneTerm++;
-
-            return calc(lastTimeTick);
+    @Override
+    public void nextBlock(long[] dst) throws IdGeneratorException {
+        int filled = 0;
+        while (filled < dst.length) {
+            long reserved = reserve(dst.length - filled);
+            if (reserved == TURNED_BACK) {
+                dst[filled++] = nextTurnBackId();
+                continue;
+            }
+            int seq = (int) (reserved & stateSeqMask);
+            int count = Math.min(dst.length - filled, maxSeqNumber - seq + 1);
+            long first = calc(reserved >>> stateSeqBits, seq);
+            for (int i = 0; i < count; ++i) {
+                dst[filled++] = first + i;
+            }
         }
-
-        return calc(lastTimeTick);
     }
 
-    private long nextNormalId() {
-        long currentTimeTick = getCurrentTimeTick();
+    @Override
+    public String nextStr(String format) throws IdGeneratorException {
+        return String.format(format, this.nextLong());
+    }
 
-        // 时钟回拨 闰秒问题
-        if (currentTimeTick < this.lastTimeTick) {
-            if (this.turnBackTimeTick < 1) {
-                this.turnBackTimeTick = this.lastTimeTick - 1;
-                this.turnBackIndex++;
+    @Override
+    public String nextStr() throws IdGeneratorException {
+        return String.valueOf(this.nextLong());
+    }
 
-                // 每毫秒序列数的前5位是预留位，0用于手工新值，1-4是时间回拨次序
-                // 支持4次回拨次序（避免回拨重叠导致ID重复），可无限次回拨（次序循环使用）
-                if (this.turnBackIndex > 4) {
-                    this.turnBackIndex = 1;
-                }
+    /**
+     * 通过CAS预留至多 n 个连续序列数（同一时间戳内）
+     *
+     * @param n 期望预留个数
+     * @return 打包的起始时间戳与起始序列数，实际预留个数为 {@code min(n, maxSeqNumber - seq + 1)}；
+     * 发生时钟回拨时返回 {@link #TURNED_BACK}
+     */
+    private long reserve(int n) {
+        final int allowance = overCostAllowance();
+        for (; ; ) {
+            long current = state.get();
+            long lastTimeTick = current >>> stateSeqBits;
+            int lastSeq = (int) (current & stateSeqMask);
+            long currentTimeTick = getCurrentTimeTick();
+
+            long timeTick;
+            int seq;
+            if (currentTimeTick > lastTimeTick) {
+                timeTick = currentTimeTick;
+                seq = minSeqNumber;
+            } else if (lastTimeTick - currentTimeTick > allowance) {
+                // 时钟回拨 闰秒问题（超出漂移所能借用的时间范围）
+                return TURNED_BACK;
+            } else if (lastSeq <= maxSeqNumber) {
+                timeTick = lastTimeTick;
+                seq = lastSeq;
+            } else if (lastTimeTick - currentTimeTick < allowance) {
+                // 漂移，借用下一个时间戳
+                timeTick = lastTimeTick + 1;
+                seq = minSeqNumber;
+            } else {
+                // 漂移次数已达上限，等待时钟追上
+                timeTick = getNextTimeTick(lastTimeTick);
+                seq = minSeqNumber;
+            }
+            int count = Math.min(n, maxSeqNumber - seq + 1);
+            if (state.compareAndSet(current, pack(timeTick, seq + count))) {
+                endTurnBack();
+                return pack(timeTick, seq);
             }
-            return calcTurnBackId(this.turnBackTimeTick);
         }
+    }
 
-        // 时间追平时，turnBackIndex 清零
-        if (this.turnBackTimeTick > 0) {
-            this.turnBackTimeTick = 0;
+    /**
+     * 时钟回拨时生成ID
+     * <p>
+     * 每毫秒序列数的前5位是预留位，0用于手工新值，1-4是时间回拨次序
+     * 支持4次回拨次序（避免回拨重叠导致ID重复），可无限次回拨（次序循环使用）
+     *
+     * @return ID
+     */
+    protected long nextTurnBackId() throws IdGeneratorException {
+        for (; ; ) {
+            long current = turnBack.get();
+            long index = current & TURN_BACK_INDEX_MASK;
+            if ((current & TURN_BACK_ACTIVE) == 0) {
+                // 开始一次新的回拨
+                index = index >= 4 ? 1 : index + 1;
+                long timeTick = getLastTimeTick() - 1;
+                turnBack.compareAndSet(current, (timeTick << TURN_BACK_TICK_SHIFT) | TURN_BACK_ACTIVE | index);
+                continue;
+            }
+            long timeTick = current >>> TURN_BACK_TICK_SHIFT;
+            if (turnBack.compareAndSet(current, ((timeTick + 1) << TURN_BACK_TICK_SHIFT) | TURN_BACK_ACTIVE | index)) {
+                return (timeTick << this.timestampShift) + (this.workerId << this.seqBitLength) + index;
+            }
         }
+    }
 
-        if (currentTimeTick > lastTimeTick) {
-            this.lastTimeTick = currentTimeTick;
-            this.currentSeqNumber = minSeqNumber;
-            return calc(lastTimeTick);
+    /**
+     * 时间追平时结束回拨状态，保留回拨次序
+     */
+    private void endTurnBack() {
+        long current = turnBack.get();
+        if ((current & TURN_BACK_ACTIVE) != 0) {
+            turnBack.compareAndSet(current, current & TURN_BACK_INDEX_MASK);
         }
+    }
 
-        if (currentSeqNumber > maxSeqNumber) {
-            this.termIndex++;
-            this.lastTimeTick++;
-            this.currentSeqNumber = minSeqNumber;
-            this.overCost = true;
-            this.overCostCountInOneTerm = 1;
-            this.genCountInOneTerm = 1;
-
-            return calc(this.lastTimeTick);
-        }
-        return calc(this.lastTimeTick);
+    /**
+     * 序列数用尽时最多可借用的时间戳个数（漂移）
+     *
+     * @return 最大漂移次数
+     */
+    protected int overCostAllowance() {
+        return this.topOverCostCount;
     }
 
-    protected long calc(long timeTick) {
-        long result = ((timeTick << this.timestampShift) +
+    protected long calc(long timeTick, int seq) {
+        return (timeTick << this.timestampShift) +
                 (this.workerId << this.seqBitLength) +
-                (int) this.currentSeqNumber);
-        this.currentSeqNumber++;
-        return result;
+                seq;
     }
 
-    protected long calcTurnBackId(long timeTick) {
-        long result = ((timeTick << this.timestampShift) +
-                (this.workerId << this.seqBitLength) +
-                this.turnBackIndex);
-        this.turnBackTimeTick++;
-        return result;
+    /**
+     * @return 最后分配的时间戳
+     */
+    protected long getLastTimeTick() {
+        return state.get() >>> stateSeqBits;
+    }
+
+    private long pack(long timeTick, int seq) {
+        return (timeTick << stateSeqBits) | seq;
     }
 
     protected long getCurrentTimeTick() {
-        long millis = this.useSystemClock ? SystemClock.now() : System.currentTimeMillis();
-        return millis - this.baseTime;
+        return this.clock.millis() - this.baseTime;
     }
 
-    protected long getNextTimeTick() {
+    protected long getNextTimeTick(long lastTimeTick) {
         long tempTimeTick = getCurrentTimeTick();
 
         while (tempTimeTick <= lastTimeTick) {
@@ -220,21 +292,4 @@ public class Snowflake implements IGenerator {
         }
         return tempTimeTick;
     }
-
-    @Override
-    public long nextLong() throws IdGeneratorException {
-        synchronized (syncLock) {
-            return overCost ? nextOverCostId() : nextNormalId();
-        }
-    }
-
-    @Override
-    public String nextStr(String format) throws IdGeneratorException {
-        return String.format(format, this.nextLong());
-    }
-
-    @Override
-    public String nextStr() throws IdGeneratorException {
-        return String.valueOf(this.nextLong());
-    }
 }
@@ -20,6 +20,7 @@ package org.lan.iti.common.core.util.idgen.snowflake;
 
 import lombok.Data;
 import lombok.experimental.Accessors;
+import org.lan.iti.common.core.util.clock.ClockSource;
 
 /**
  * 雪花算法参数
@@ -83,6 +84,11 @@ public class SnowflakeOptions {
      */
     private boolean useSystemClock = true;
 
+    /**
+     * 时钟源，为空时根据 {@link #useSystemClock} 选择优化后的系统时钟或实时时钟
+     */
+    private ClockSource clock;
+
     public long getBaseTime() {
         return this.baseTime != 0 ? this.baseTime : System.currentTimeMillis();
     }
@@ -0,0 +1,171 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package org.lan.iti.common.core.tree;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.lan.iti.common.core.util.TreeUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class CompactTreeTest {
+
+    private static List<TreeNode<Integer>> nodes(int size) {
+        Random random = new Random(size);
+        List<TreeNode<Integer>> list = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            int parentId = i <= 30 ? 0 : 1 + random.nextInt(i - 1);
+            TreeNode<Integer> node = new TreeNode<>(i, parentId, "region-" + i, random.nextInt(5));
+            if (i % 10 == 0) {
+                node.setExtra(Collections.singletonMap("code", "C" + i));
+            }
+            list.add(node);
+        }
+        return list;
+    }
+
+    @Test
+    public void sameJson() throws Exception {
+        List<TreeNode<Integer>> list = nodes(500);
+        ObjectMapper mapper = new ObjectMapper();
+        Assertions.assertEquals(mapper.writeValueAsString(TreeUtils.build(list, 0)),
+                mapper.writeValueAsString(TreeUtils.buildCompact(list, 0)));
+    }
+
+    @Test
+    public void lookup() {
+        List<TreeNode<Integer>> list = nodes(500);
+        List<Tree<Integer>> trees = TreeUtils.build(list, 0);
+        List<CompactTree<Integer>> compacts = TreeUtils.buildCompact(list, 0);
+        for (int i = 0; i < trees.size(); i++) {
+            Tree<Integer> tree = trees.get(i);
+            CompactTree<Integer> compact = compacts.get(i);
+            for (int id = 1; id <= 500; id++) {
+                Tree<Integer> expected = tree.getNode(id);
+                CompactTree<Integer> actual = compact.getNode(id);
+                Assertions.assertEquals(expected == null, actual == null);
+                if (expected != null) {
+                    Assertions.assertEquals(expected.getParentsName(true), actual.getParentsName(true));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void layout() throws Exception {
+        // 节点只有固定字段，不继承 Map，不含子节点时不创建集合
+        Assertions.assertFalse(Map.class.isAssignableFrom(CompactTree.class));
+        int fields = 0;
+        for (Field field : CompactTree.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                fields++;
+            }
+        }
+        Assertions.assertEquals(9, fields);
+
+        Field extra = CompactTree.class.getDeclaredField("extra");
+        Field index = CompactTree.class.getDeclaredField("index");
+        extra.setAccessible(true);
+        index.setAccessible(true);
+
+        List<CompactTree<Integer>> roots = TreeUtils.buildCompact(nodes(500), 0);
+        // 所有节点共享同一个 ID 索引
+        Object shared = index.get(roots.get(0));
+        Assertions.assertEquals(500, ((Map<?, ?>) shared).size());
+        int count = 0;
+        Deque<CompactTree<Integer>> stack = new ArrayDeque<>(roots);
+        while (!stack.isEmpty()) {
+            CompactTree<Integer> node = stack.pop();
+            count++;
+            Assertions.assertSame(shared, index.get(node));
+            if (node.getId() % 10 == 0) {
+                Assertions.assertEquals(1, ((Map<?, ?>) extra.get(node)).size());
+            } else {
+                Assertions.assertNull(extra.get(node));
+            }
+            if (node.getChildren() != null) {
+                Assertions.assertFalse(node.getChildren().isEmpty());
+                node.getChildren().forEach(stack::push);
+            }
+        }
+        Assertions.assertEquals(500, count);
+    }
+
+    /**
+     * 基准测试，默认不随单元测试执行
+     */
+    @Test
+    @Tag("benchmark")
+    public void benchmark() {
+        int size = 100_000;
+        List<TreeNode<Integer>> list = nodes(size);
+
+        long before = usedMemory();
+        List<Tree<Integer>> trees = TreeUtils.build(list, 0);
+        long treeBytes = usedMemory() - before;
+
+        before = usedMemory();
+        List<CompactTree<Integer>> compacts = TreeUtils.buildCompact(list, 0);
+        long compactBytes = usedMemory() - before;
+        System.out.printf("%d nodes: Tree %d bytes/node, CompactTree %d bytes/node (incl. index)%n",
+                size, treeBytes / size, compactBytes / size);
+
+        Random random = new Random(1);
+        int loops = 2000;
+        long start = System.nanoTime();
+        for (int i = 0; i < loops; i++) {
+            int id = 1 + random.nextInt(size);
+            for (Tree<Integer> tree : trees) {
+                if (tree.getNode(id) != null) {
+                    break;
+                }
+            }
+        }
+        long dfs = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < loops; i++) {
+            int id = 1 + random.nextInt(size);
+            for (CompactTree<Integer> tree : compacts) {
+                if (tree.getNode(id) != null) {
+                    break;
+                }
+            }
+        }
+        long indexed = System.nanoTime() - start;
+        System.out.printf("getNode: Tree %d ns/op, CompactTree %d ns/op%n", dfs / loops, indexed / loops);
+        // 保持引用 避免被提前回收
+        Assertions.assertEquals(trees.size(), compacts.size());
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
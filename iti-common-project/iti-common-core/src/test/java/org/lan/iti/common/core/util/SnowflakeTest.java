@@ -18,16 +18,27 @@
 
 package org.lan.iti.common.core.util;
 
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.lan.iti.common.core.util.idgen.IGenerator;
 import org.lan.iti.common.core.util.idgen.IdGenerator;
+import org.lan.iti.common.core.util.idgen.snowflake.ShiftedSnowflake;
+import org.lan.iti.common.core.util.idgen.snowflake.Snowflake;
 import org.lan.iti.common.core.util.idgen.snowflake.SnowflakeOptions;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 /**
@@ -74,4 +85,109 @@ public class SnowflakeTest {
         System.out.println(repeat.size());
         System.out.println(list.size());
     }
+
+    @Test
+    public void blockTest() {
+        SnowflakeOptions options = new SnowflakeOptions()
+                .setBaseTime(System.currentTimeMillis() - 1000)
+                .setMethod(SnowflakeOptions.Method.COMMON);
+        for (IGenerator generator : new IGenerator[]{new Snowflake(options), new ShiftedSnowflake(options)}) {
+            long[] ids = generator.nextLongs(10000);
+            Assertions.assertEquals(10000, ids.length);
+            for (int i = 1; i < ids.length; ++i) {
+                Assertions.assertTrue(ids[i] > ids[i - 1]);
+            }
+            Assertions.assertTrue(generator.nextLong() > ids[ids.length - 1]);
+        }
+    }
+
+    @Test
+    public void concurrentUniqueTest() throws InterruptedException {
+        Snowflake snowflake = new Snowflake(new SnowflakeOptions()
+                .setBaseTime(System.currentTimeMillis() - 1000));
+        int threads = 16;
+        int perThread = 20000;
+        long[][] results = new long[threads][];
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; ++t) {
+            final int index = t;
+            executor.execute(() -> {
+                long[] ids = new long[perThread];
+                for (int i = 0; i < perThread; i += 100) {
+                    if (i % 200 == 0) {
+                        long[] block = new long[100];
+                        snowflake.nextBlock(block);
+                        System.arraycopy(block, 0, ids, i, 100);
+                    } else {
+                        for (int j = 0; j < 100; ++j) {
+                            ids[i + j] = snowflake.nextLong();
+                        }
+                    }
+                }
+                results[index] = ids;
+                latch.countDown();
+            });
+        }
+        latch.await();
+        executor.shutdown();
+
+        Set<Long> unique = new HashSet<>(threads * perThread);
+        Arrays.stream(results).flatMapToLong(Arrays::stream).forEach(unique::add);
+        Assertions.assertEquals(threads * perThread, unique.size());
+    }
+
+    /**
+     * 吞吐对比：CAS实例级生成器 vs 全局锁（原实现方式）
+     * <p>
+     * 基准测试，默认不随单元测试执行
+     */
+    @Test
+    @Tag("benchmark")
+    public void throughputTest() throws InterruptedException {
+        SnowflakeOptions options = new SnowflakeOptions()
+                .setBaseTime(System.currentTimeMillis() - 1000)
+                .setSeqBitLength((byte) 12)
+                .setWorkerIdBitLength((byte) 6)
+                .setMethod(SnowflakeOptions.Method.COMMON);
+        Object globalLock = SnowflakeTest.class;
+        for (int threads : new int[]{1, 8, 64}) {
+            Snowflake cas = new Snowflake(options);
+            Snowflake locked = new Snowflake(options);
+            long casOps = measure(threads, cas::nextLong);
+            long lockedOps = measure(threads, () -> {
+                synchronized (globalLock) {
+                    return locked.nextLong();
+                }
+            });
+            long blockOps = measure(threads, () -> {
+                long[] block = new long[64];
+                cas.nextBlock(block);
+                return block[63];
+            }) * 64;
+            System.out.printf("threads=%d cas=%d ops/s locked=%d ops/s block(64)=%d ids/s%n",
+                    threads, casOps, lockedOps, blockOps);
+        }
+    }
+
+    private long measure(int threads, LongSupplier supplier) throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+        for (int t = 0; t < threads; ++t) {
+            executor.execute(() -> {
+                long blackhole = 0;
+                while (System.nanoTime() < deadline) {
+                    blackhole ^= supplier.getAsLong();
+                    ops.increment();
+                }
+                if (blackhole == 42) {
+                    System.out.print("");
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        return ops.sum() * 2;
+    }
 }
@@ -0,0 +1,182 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.common.core.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.lan.iti.common.core.util.clock.CachedClockSource;
+import org.lan.iti.common.core.util.clock.ClockSource;
+import org.lan.iti.common.core.util.clock.RealClockSource;
+import org.lan.iti.common.core.util.clock.VirtualClockSource;
+import org.lan.iti.common.core.util.idgen.snowflake.Snowflake;
+import org.lan.iti.common.core.util.idgen.snowflake.SnowflakeOptions;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class SystemClockTest {
+
+    @Test
+    public void virtualClockTest() {
+        SnowflakeOptions options = new SnowflakeOptions();
+        VirtualClockSource clock = new VirtualClockSource(options.getBaseTime() + 1_000_000L);
+        options.setClock(clock);
+        Snowflake snowflake = new Snowflake(options);
+        long id = snowflake.nextLong();
+        // 时间戳完全由虚拟时钟决定
+        Assertions.assertEquals(1_000_000L, id >>> (options.getWorkerIdBitLength() + options.getSeqBitLength()));
+
+        clock.advance(Duration.ofMillis(10));
+        long next = snowflake.nextLong();
+        Assertions.assertTrue(next > id);
+    }
+
+    @Test
+    public void cachedClockTest() throws InterruptedException {
+        try (CachedClockSource clock = new CachedClockSource(5)) {
+            long start = clock.millis();
+            Thread.sleep(50);
+            Assertions.assertTrue(clock.millis() > start);
+            Assertions.assertTrue(Math.abs(System.currentTimeMillis() - clock.millis()) < 1000);
+        }
+    }
+
+    /**
+     * 各时钟模式的单次调用耗时与后台刷新线程的CPU开销
+     * <p>
+     * 基准测试，默认不随单元测试执行
+     */
+    @Test
+    @Tag("benchmark")
+    public void throughputTest() throws InterruptedException {
+        int n = 50_000_000;
+        VirtualClockSource virtual = new VirtualClockSource();
+        try (CachedClockSource cached1 = new CachedClockSource(1);
+             CachedClockSource cached10 = new CachedClockSource(10)) {
+            ClockSource[] clocks = {RealClockSource.INSTANCE, cached1, cached10, virtual};
+            String[] names = {"real", "cached(1ms)", "cached(10ms)", "virtual"};
+            for (int i = 0; i < clocks.length; ++i) {
+                // 预热
+                call(clocks[i], n);
+                long start = System.nanoTime();
+                long sink = call(clocks[i], n);
+                long cost = System.nanoTime() - start;
+                System.out.printf("%s: %.2f ns/op (%d)%n", names[i], (double) cost / n, sink & 1);
+            }
+        }
+
+        // 后台线程CPU开销
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assertions.assertTrue(threads.isThreadCpuTimeSupported());
+        threads.setThreadCpuTimeEnabled(true);
+        long window = 1000;
+        System.out.printf("idle: %d ms cpu / %d ms%n", cpuDuring(threads, window), window);
+        try (CachedClockSource ignored = new CachedClockSource(1)) {
+            System.out.printf("cached(1ms): %d ms cpu / %d ms%n", cpuDuring(threads, window), window);
+        }
+        try (CachedClockSource ignored = new CachedClockSource(10)) {
+            System.out.printf("cached(10ms): %d ms cpu / %d ms%n", cpuDuring(threads, window), window);
+        }
+        // 旧实现：额外以1纳秒周期刷新 nanoTime
+        ScheduledThreadPoolExecutor legacy = new ScheduledThreadPoolExecutor(2);
+        legacy.scheduleAtFixedRate(System::currentTimeMillis, 0, 1, TimeUnit.MILLISECONDS);
+        legacy.scheduleAtFixedRate(System::nanoTime, 0, 1, TimeUnit.NANOSECONDS);
+        try {
+            System.out.printf("legacy(1ms + 1ns): %d ms cpu / %d ms%n", cpuDuring(threads, window), window);
+        } finally {
+            legacy.shutdownNow();
+        }
+    }
+
+    @Test
+    public void cachedClockCloseTest() throws InterruptedException {
+        CachedClockSource clock = new CachedClockSource(1);
+        Assertions.assertEquals(1, clock.getResolution());
+        clock.close();
+        Thread.sleep(20);
+        long frozen = clock.millis();
+        Thread.sleep(20);
+        // 关闭后不再刷新
+        Assertions.assertEquals(frozen, clock.millis());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new CachedClockSource(0));
+    }
+
+    @Test
+    public void virtualClockAdvanceTest() {
+        VirtualClockSource clock = new VirtualClockSource(1000);
+        Assertions.assertEquals(1010, clock.advance(Duration.ofMillis(10)));
+        // 负数模拟时钟回拨
+        Assertions.assertEquals(990, clock.advance(Duration.ofMillis(-20)));
+        clock.set(5);
+        Assertions.assertEquals(5, clock.millis());
+    }
+
+    @Test
+    public void systemClockSourceTest() {
+        VirtualClockSource clock = new VirtualClockSource(42);
+        SystemClock.setSource(clock);
+        try {
+            Assertions.assertSame(clock, SystemClock.getSource());
+            Assertions.assertEquals(42, SystemClock.now());
+            clock.advance(Duration.ofDays(1));
+            Assertions.assertEquals(42 + 86_400_000L, SystemClock.now());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> SystemClock.setSource(null));
+        } finally {
+            SystemClock.setSource(RealClockSource.INSTANCE);
+        }
+    }
+
+    private static long call(ClockSource clock, int n) {
+        long sink = 0;
+        for (int i = 0; i < n; ++i) {
+            sink += clock.millis();
+        }
+        return sink;
+    }
+
+    /**
+     * 窗口期内所有存活线程（不含当前线程）的CPU时间
+     */
+    private static long cpuDuring(ThreadMXBean threads, long millis) throws InterruptedException {
+        long start = otherThreadsCpuTime(threads);
+        Thread.sleep(millis);
+        return TimeUnit.NANOSECONDS.toMillis(otherThreadsCpuTime(threads) - start);
+    }
+
+    private static long otherThreadsCpuTime(ThreadMXBean threads) {
+        long self = Thread.currentThread().getId();
+        long total = 0;
+        for (long id : threads.getAllThreadIds()) {
+            long cpu = id == self ? -1 : threads.getThreadCpuTime(id);
+            if (cpu > 0) {
+                total += cpu;
+            }
+        }
+        return total;
+    }
+}
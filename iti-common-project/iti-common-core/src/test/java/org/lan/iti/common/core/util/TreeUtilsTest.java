@@ -0,0 +1,201 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package org.lan.iti.common.core.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.lan.iti.common.core.tree.Tree;
+import org.lan.iti.common.core.tree.TreeIndex;
+import org.lan.iti.common.core.tree.TreeNode;
+import org.lan.iti.common.core.tree.TreeNodeConfig;
+import org.lan.iti.common.core.tree.parser.DefaultNodeParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class TreeUtilsTest {
+
+    /**
+     * 随机生成树：每个节点的父节点为之前生成的任意节点
+     */
+    private static List<TreeNode<Integer>> nodes(int size, long seed) {
+        Random random = new Random(seed);
+        List<TreeNode<Integer>> list = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            int parentId = i == 1 || random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(i - 1);
+            list.add(new TreeNode<>(i, parentId, "node-" + i, random.nextInt(5)));
+        }
+        // 打乱源数据顺序
+        java.util.Collections.shuffle(list, random);
+        return list;
+    }
+
+    /**
+     * 原逐层全量排序的递归实现，用于对比
+     */
+    private static List<Tree<Integer>> legacyBuild(List<TreeNode<Integer>> list, Integer parentId, Integer maxDeep) {
+        List<Tree<Integer>> treeList = new ArrayList<>();
+        for (TreeNode<Integer> obj : list) {
+            Tree<Integer> tree = new Tree<>();
+            new DefaultNodeParser<Integer>().parse(obj, tree);
+            treeList.add(tree);
+        }
+        List<Tree<Integer>> result = new ArrayList<>();
+        for (Tree<Integer> node : treeList) {
+            if (parentId.equals(node.getParentId())) {
+                result.add(node);
+                legacyInnerBuild(treeList, node, 0, maxDeep);
+            }
+        }
+        return result.stream().sorted().collect(Collectors.toList());
+    }
+
+    private static void legacyInnerBuild(List<Tree<Integer>> treeNodes, Tree<Integer> parentNode, int deep, Integer maxDeep) {
+        if (maxDeep != null && deep >= maxDeep) {
+            return;
+        }
+        treeNodes = treeNodes.stream().sorted().collect(Collectors.toList());
+        for (Tree<Integer> childNode : treeNodes) {
+            if (parentNode.getId().equals(childNode.getParentId())) {
+                List<Tree<Integer>> children = parentNode.getChildren();
+                if (children == null) {
+                    children = new ArrayList<>();
+                    parentNode.setChildren(children);
+                }
+                children.add(childNode);
+                childNode.setParent(parentNode);
+                legacyInnerBuild(treeNodes, childNode, deep + 1, maxDeep);
+            }
+        }
+    }
+
+    @Test
+    public void sameAsLegacy() {
+        List<TreeNode<Integer>> list = nodes(1000, 1);
+        Assertions.assertEquals(legacyBuild(list, 0, null), TreeUtils.build(list, 0));
+        Assertions.assertEquals(legacyBuild(list, 0, 2),
+                TreeUtils.build(list, 0, new TreeNodeConfig().setDeep(2), new DefaultNodeParser<>()));
+        Assertions.assertEquals(TreeUtils.build(list, 0),
+                TreeUtils.build(list, 0, new TreeNodeConfig().setParallelThreshold(1), new DefaultNodeParser<>()));
+    }
+
+    @Test
+    public void cycle() {
+        List<TreeNode<Integer>> list = new ArrayList<>();
+        list.add(new TreeNode<>(1, 0, "a", 0));
+        list.add(new TreeNode<>(2, 1, "b", 0));
+        // 重复ID 构成环
+        list.add(new TreeNode<>(1, 2, "c", 0));
+        List<Tree<Integer>> roots = TreeUtils.build(list, 0);
+        Assertions.assertEquals(1, roots.size());
+        Assertions.assertEquals(1, roots.get(0).getChildren().size());
+    }
+
+    @Test
+    public void duplicateId() {
+        List<TreeNode<Integer>> list = nodes(1000, 4);
+        // 不同子树中出现重复ID，子节点只归属于源数据中第一个该ID的节点
+        for (int i = 0; i < 50; i++) {
+            TreeNode<Integer> node = list.get(i * 10);
+            int parentId = node.getId() == 1 ? 0 : 1;
+            list.add(new TreeNode<>(node.getId(), parentId, "dup-" + i, 0));
+        }
+        TreeNodeConfig parallel = new TreeNodeConfig().setParallelThreshold(1);
+        List<Tree<Integer>> expected = TreeUtils.build(list, 0);
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertEquals(expected, TreeUtils.build(list, 0, parallel, new DefaultNodeParser<>()));
+        }
+        // 所有节点均已挂载，重复的节点没有子节点
+        int count = 0;
+        java.util.Deque<Tree<Integer>> stack = new java.util.ArrayDeque<>(expected);
+        while (!stack.isEmpty()) {
+            Tree<Integer> node = stack.pop();
+            count++;
+            if (node.getName().toString().startsWith("dup-")) {
+                Assertions.assertNull(node.getChildren());
+            } else if (node.getChildren() != null) {
+                node.getChildren().forEach(stack::push);
+            }
+        }
+        Assertions.assertEquals(list.size(), count);
+    }
+
+    @Test
+    public void incremental() {
+        List<TreeNode<Integer>> list = new ArrayList<>();
+        list.add(new TreeNode<>(1, 0, "技术中心", 0));
+        list.add(new TreeNode<>(2, 1, "研发部", 1));
+        list.add(new TreeNode<>(3, 2, "研发一部", 0));
+        list.add(new TreeNode<>(4, 0, "市场中心", 1));
+        TreeIndex<Integer> index = TreeUtils.buildIndex(list, 0, TreeNodeConfig.DEFAULT_CONFIG, new DefaultNodeParser<>());
+        Assertions.assertEquals(4, index.size());
+
+        // add
+        Tree<Integer> node = new Tree<Integer>().setId(5).setParentId(1).setName("测试部").setWeight(0);
+        index.add(node);
+        Assertions.assertSame(node, index.getNode(1).getChildren().get(0));
+        Assertions.assertEquals(3, index.getNode(2).getChildren().get(0).getParentsName(true).size());
+
+        // move
+        index.move(2, 4);
+        Assertions.assertEquals(1, index.getNode(1).getChildren().size());
+        Assertions.assertEquals("市场中心", index.getNode(3).getParentsName(false).get(1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> index.move(4, 3));
+
+        // remove
+        index.remove(4);
+        Assertions.assertEquals(2, index.size());
+        Assertions.assertNull(index.getNode(3));
+        Assertions.assertEquals(1, index.getRoots().size());
+    }
+
+    /**
+     * 基准测试，默认不随单元测试执行
+     */
+    @Test
+    @Tag("benchmark")
+    public void benchmark() {
+        List<TreeNode<Integer>> small = nodes(2000, 2);
+        long start = System.nanoTime();
+        legacyBuild(small, 0, null);
+        long legacy = System.nanoTime() - start;
+        start = System.nanoTime();
+        TreeUtils.build(small, 0);
+        long linear = System.nanoTime() - start;
+        System.out.printf("2k nodes: legacy %d ms, indexed %d ms%n", legacy / 1_000_000, linear / 1_000_000);
+
+        List<TreeNode<Integer>> large = nodes(200_000, 3);
+        for (int i = 0; i < 3; i++) {
+            start = System.nanoTime();
+            TreeUtils.build(large, 0);
+            long sequential = System.nanoTime() - start;
+            start = System.nanoTime();
+            TreeUtils.build(large, 0, new TreeNodeConfig().setParallelThreshold(10_000), new DefaultNodeParser<>());
+            long parallel = System.nanoTime() - start;
+            System.out.printf("200k nodes: sequential %d ms, parallel %d ms%n", sequential / 1_000_000, parallel / 1_000_000);
+        }
+    }
+}
@@ -19,12 +19,11 @@
 package org.lan.iti.iha.oauth2.token;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 import org.lan.iti.common.core.util.StringPool;
+import org.lan.iti.iha.security.json.IhaJson;
+import org.lan.iti.iha.security.json.JsonCodec;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -39,18 +38,12 @@ import java.util.Map;
 @UtilityClass
 @Slf4j
 public class AccessTokenHelper {
-
-    private static ObjectMapper createMapper() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        return objectMapper;
-    }
+    private static final JsonCodec<AccessToken> CODEC = IhaJson.codec(AccessToken.class);
 
     public static AccessToken toAccessToken(String jsonStr) {
-        ObjectMapper objectMapper = createMapper();
         AccessToken result = null;
         try {
-            result = objectMapper.readValue(jsonStr, AccessToken.class);
+            result = CODEC.read(jsonStr);
         } catch (JsonProcessingException e) {
             log.warn("serialize to AccessToken failed.", e);
         }
@@ -58,10 +51,9 @@ public class AccessTokenHelper {
     }
 
     public static AccessToken toAccessToken(Map<String, Object> map) {
-        ObjectMapper objectMapper = createMapper();
         AccessToken result = null;
         try {
-            result = objectMapper.convertValue(map, AccessToken.class);
+            result = CODEC.fromMap(map);
         } catch (IllegalArgumentException e) {
             log.warn("deserialize to AccessToken failed.", e);
         }
@@ -69,11 +61,9 @@ public class AccessTokenHelper {
     }
 
     public static Map<String, Object> toMap(AccessToken accessToken) {
-        ObjectMapper objectMapper = createMapper();
         Map<String, Object> result;
         try {
-            result = objectMapper.convertValue(accessToken, new TypeReference<Map<String, Object>>() {
-            });
+            result = CODEC.toMap(accessToken);
         } catch (IllegalArgumentException e) {
             log.warn("deserialize to Map<String, Object> failed.", e);
             result = new HashMap<>();
@@ -82,10 +72,9 @@ public class AccessTokenHelper {
     }
 
     public static String toJsonString(AccessToken accessToken) {
-        ObjectMapper objectMapper = createMapper();
         String result = StringPool.EMPTY;
         try {
-            result = objectMapper.writeValueAsString(accessToken);
+            result = CODEC.write(accessToken);
         } catch (JsonProcessingException e) {
             log.warn("writeValueAsString failed.", e);
         }
@@ -23,10 +23,6 @@ import cn.hutool.core.util.RandomUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.crypto.SecureUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.xkcoding.http.HttpUtil;
 import lombok.experimental.UtilityClass;
 import org.lan.iti.iha.oauth2.GrantType;
 import org.lan.iti.iha.oauth2.OAuth2Config;
@@ -37,9 +33,14 @@ import org.lan.iti.iha.oauth2.pkce.CodeChallengeMethod;
 import org.lan.iti.iha.oauth2.security.OAuth2RequestParameter;
 import org.lan.iti.iha.security.IhaSecurity;
 import org.lan.iti.iha.security.exception.authentication.AuthenticationException;
+import org.lan.iti.iha.security.http.HttpRequest;
+import org.lan.iti.iha.security.http.HttpResponse;
+import org.lan.iti.iha.security.http.HttpTransports;
+import org.lan.iti.iha.security.json.IhaJson;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * OAuth Strategy Util
@@ -200,18 +201,35 @@ public class OAuth2Util {
      * @return Kv
      */
     public static Map<String, Object> request(OAuth2EndpointMethodType endpointMethodType, String url, Map<String, String> params) {
-        String res;
+        return toMap(HttpTransports.get().execute(createRequest(endpointMethodType, url, params)));
+    }
+
+    /**
+     * Asynchronous variant of {@link #request(OAuth2EndpointMethodType, String, Map)}
+     *
+     * @param endpointMethodType Oauth2EndpointMethodType
+     * @param url                request Url
+     * @param params             Request parameters
+     * @return Kv
+     */
+    public static CompletableFuture<Map<String, Object>> requestAsync(OAuth2EndpointMethodType endpointMethodType, String url, Map<String, String> params) {
+        return HttpTransports.get().executeAsync(createRequest(endpointMethodType, url, params)).thenApply(OAuth2Util::toMap);
+    }
+
+    private static HttpRequest createRequest(OAuth2EndpointMethodType endpointMethodType, String url, Map<String, String> params) {
+        HttpRequest request;
         if (null == endpointMethodType || OAuth2EndpointMethodType.GET == endpointMethodType) {
-            res = HttpUtil.get(url, params, false);
+            request = HttpRequest.get(url).query(params);
         } else {
-            res = HttpUtil.post(url, params, false);
+            request = HttpRequest.post(url).form(params);
         }
+        return request.header("Accept", HttpRequest.APPLICATION_JSON);
+    }
+
+    private static Map<String, Object> toMap(HttpResponse response) {
         Map<String, Object> result;
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            result = objectMapper.readValue(res, new TypeReference<Map<String, Object>>() {
-            });
+            result = IhaJson.readMap(response.getBody());
         } catch (JsonProcessingException e) {
             result = new HashMap<>();
         }
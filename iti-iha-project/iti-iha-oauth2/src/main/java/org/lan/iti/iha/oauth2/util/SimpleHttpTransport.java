@@ -0,0 +1,138 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.oauth2.util;
+
+import com.xkcoding.http.config.HttpConfig;
+import com.xkcoding.http.exception.SimpleHttpException;
+import com.xkcoding.http.support.AbstractHttp;
+import com.xkcoding.http.support.HttpHeader;
+import com.xkcoding.http.util.MapUtil;
+import org.lan.iti.iha.security.http.HttpRequest;
+import org.lan.iti.iha.security.http.HttpResponse;
+import org.lan.iti.iha.security.http.HttpTransport;
+import org.lan.iti.iha.security.http.HttpTransportException;
+import org.lan.iti.iha.security.http.HttpTransports;
+
+import java.util.Map;
+
+/**
+ * 基于 {@link HttpTransport} 的 simple-http 实现
+ * <p>
+ * JustAuth 等通过 {@code com.xkcoding.http.HttpUtil} 访问第三方平台的组件，
+ * 使用 {@code HttpUtil.setHttp(new SimpleHttpTransport())} 后共享 IHA 的连接池、超时与统计
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class SimpleHttpTransport extends AbstractHttp {
+    private static final String JSON = "application/json;charset=UTF-8";
+
+    private final HttpTransport transport;
+
+    public SimpleHttpTransport() {
+        this(null);
+    }
+
+    /**
+     * @param transport 传输，为null时使用 {@link HttpTransports#get()}
+     */
+    public SimpleHttpTransport(HttpTransport transport) {
+        super(new HttpConfig());
+        this.transport = transport;
+    }
+
+    @Override
+    public String get(String url) {
+        return get(url, null, false);
+    }
+
+    @Override
+    public String get(String url, Map<String, String> params, boolean encode) {
+        return get(url, params, null, encode);
+    }
+
+    @Override
+    public String get(String url, Map<String, String> params, HttpHeader header, boolean encode) {
+        String query = MapUtil.parseMapToString(params, encode);
+        if (query != null && !query.isEmpty()) {
+            url = url + (url.indexOf('?') < 0 ? "?" : "&") + query;
+        }
+        return exec(headers(HttpRequest.get(url), header));
+    }
+
+    @Override
+    public String post(String url) {
+        return exec(HttpRequest.post(url));
+    }
+
+    @Override
+    public String post(String url, String data) {
+        return post(url, data, null);
+    }
+
+    @Override
+    public String post(String url, String data, HttpHeader header) {
+        HttpRequest request = HttpRequest.post(url);
+        if (data != null && !data.isEmpty()) {
+            request.body(data, JSON);
+        }
+        return exec(headers(request, header));
+    }
+
+    @Override
+    public String post(String url, Map<String, String> params, boolean encode) {
+        return post(url, params, null, encode);
+    }
+
+    @Override
+    public String post(String url, Map<String, String> params, HttpHeader header, boolean encode) {
+        HttpRequest request = HttpRequest.post(url);
+        if (params != null && !params.isEmpty()) {
+            if (encode) {
+                request.form(params);
+            } else {
+                // 参数已由调用方编码，原样拼接
+                request.body(MapUtil.parseMapToString(params, false), HttpRequest.FORM_URLENCODED);
+            }
+        }
+        return exec(headers(request, header));
+    }
+
+    private static HttpRequest headers(HttpRequest request, HttpHeader header) {
+        if (header != null && header.getHeaders() != null) {
+            header.getHeaders().forEach(request::header);
+        }
+        return request;
+    }
+
+    private String exec(HttpRequest request) {
+        HttpTransport httpTransport = transport == null ? HttpTransports.get() : transport;
+        HttpResponse response;
+        try {
+            response = httpTransport.execute(request);
+        } catch (HttpTransportException e) {
+            throw new SimpleHttpException(e);
+        }
+        if (!response.isSuccessful()) {
+            throw new SimpleHttpException("Unexpected code " + response);
+        }
+        return response.getBody();
+    }
+}
@@ -18,7 +18,12 @@
 
 package org.lan.iti.iha.oauth2;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.lan.iti.iha.oauth2.token.AccessToken;
 import org.lan.iti.iha.oauth2.token.AccessTokenHelper;
@@ -67,4 +72,56 @@ public class AccessTokenHelperTest {
         System.out.println(AccessTokenHelper.toAccessToken(accessTokenMap));
         System.out.println(AccessTokenHelper.toAccessToken(accessTokenStr));
     }
+
+    @Test
+    public void roundTrip() {
+        Map<String, Object> map = AccessTokenHelper.toMap(accessToken);
+        Assertions.assertEquals("accessToken", map.get("access_token"));
+        Assertions.assertFalse(map.containsKey("user_id"));
+        Assertions.assertEquals(accessToken, AccessTokenHelper.toAccessToken(map));
+        Assertions.assertEquals(accessToken, AccessTokenHelper.toAccessToken(AccessTokenHelper.toJsonString(accessToken)));
+        Assertions.assertEquals(legacyToAccessToken(accessTokenMap), AccessTokenHelper.toAccessToken(accessTokenMap));
+        Assertions.assertEquals(legacyToMap(accessToken), map);
+    }
+
+    /**
+     * 每次调用创建 ObjectMapper 与共享编解码器的对比（非严格基准）
+     * <p>
+     * 基准测试，默认不随单元测试执行
+     */
+    @Test
+    @Tag("benchmark")
+    public void benchmark() {
+        int loops = 20_000;
+        for (int round = 0; round < 2; round++) {
+            long begin = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                legacyToAccessToken(legacyToMap(accessToken));
+            }
+            long legacy = System.nanoTime() - begin;
+
+            begin = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                AccessTokenHelper.toAccessToken(AccessTokenHelper.toMap(accessToken));
+            }
+            long shared = System.nanoTime() - begin;
+            System.out.printf("toMap + toAccessToken: new ObjectMapper %d ns/op, shared codec %d ns/op%n",
+                    legacy / loops, shared / loops);
+        }
+    }
+
+    private static ObjectMapper legacyMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return objectMapper;
+    }
+
+    private static Map<String, Object> legacyToMap(AccessToken accessToken) {
+        return legacyMapper().convertValue(accessToken, new TypeReference<Map<String, Object>>() {
+        });
+    }
+
+    private static AccessToken legacyToAccessToken(Map<String, Object> map) {
+        return legacyMapper().convertValue(map, AccessToken.class);
+    }
 }
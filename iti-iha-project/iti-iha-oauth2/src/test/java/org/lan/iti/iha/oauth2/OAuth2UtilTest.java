@@ -0,0 +1,117 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.oauth2;
+
+import com.sun.net.httpserver.HttpServer;
+import com.xkcoding.http.exception.SimpleHttpException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lan.iti.iha.oauth2.enums.OAuth2EndpointMethodType;
+import org.lan.iti.iha.oauth2.util.OAuth2Util;
+import org.lan.iti.iha.oauth2.util.SimpleHttpTransport;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于本地模拟 IdP 的令牌交换测试
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class OAuth2UtilTest {
+    private HttpServer server;
+    private String tokenUri;
+
+    @BeforeEach
+    public void start() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        tokenUri = "http://127.0.0.1:" + server.getAddress().getPort() + "/oauth/token";
+        server.createContext("/oauth/token", exchange -> {
+            boolean post = "POST".equals(exchange.getRequestMethod());
+            byte[] bytes = ("{\"access_token\":\"at\",\"token_type\":\"bearer\",\"expires_in\":3600,\"post\":" + post + "}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        server.createContext("/oauth/echo", exchange -> {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int n;
+            while ((n = exchange.getRequestBody().read(buffer)) != -1) {
+                body.write(buffer, 0, n);
+            }
+            byte[] bytes = body.toByteArray();
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        server.createContext("/oauth/error", exchange -> {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stop() {
+        server.stop(0);
+    }
+
+    @Test
+    public void exchange() throws Exception {
+        Map<String, String> params = new HashMap<>();
+        params.put("grant_type", "authorization_code");
+        params.put("code", "c0de");
+
+        Map<String, Object> token = OAuth2Util.request(OAuth2EndpointMethodType.POST, tokenUri, params);
+        Assertions.assertEquals("at", token.get("access_token"));
+        Assertions.assertEquals(true, token.get("post"));
+
+        token = OAuth2Util.requestAsync(OAuth2EndpointMethodType.GET, tokenUri, params).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(false, token.get("post"));
+
+        SimpleHttpTransport simpleHttp = new SimpleHttpTransport();
+        Assertions.assertTrue(simpleHttp.post(tokenUri, params, false).contains("\"access_token\":\"at\""));
+        Assertions.assertThrows(SimpleHttpException.class, () -> simpleHttp.get(tokenUri.replace("token", "error")));
+    }
+
+    @Test
+    public void simpleHttpEncode() {
+        String echoUri = tokenUri.replace("token", "echo");
+        SimpleHttpTransport simpleHttp = new SimpleHttpTransport();
+        Assertions.assertEquals("redirect_uri=https%3A%2F%2Fapp%2Fcb",
+                simpleHttp.post(echoUri, Collections.singletonMap("redirect_uri", "https://app/cb"), true));
+        // 调用方已编码的参数不再重复编码
+        Assertions.assertEquals("redirect_uri=https%3A%2F%2Fapp%2Fcb",
+                simpleHttp.post(echoUri, Collections.singletonMap("redirect_uri", "https%3A%2F%2Fapp%2Fcb"), false));
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.oidc;
+
+import cn.hutool.core.util.StrUtil;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.lan.iti.common.core.support.NamedThreadFactory;
+import org.lan.iti.iha.security.http.HttpRequest;
+import org.lan.iti.iha.security.http.HttpResponse;
+import org.lan.iti.iha.security.http.HttpTransports;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * OIDC 元数据缓存（Discovery 文档、JWKS 文档）
+ * <p>
+ * 按 URL 缓存远程文档：
+ * <ul>
+ *     <li>有效期遵循响应的 Cache-Control（max-age / s-maxage），缺省时使用 defaultTtl</li>
+ *     <li>过期后在 stale-while-revalidate 窗口内直接返回旧文档并在后台刷新（携带 If-None-Match）</li>
+ *     <li>同一 URL 的并发未命中合并为一次请求</li>
+ *     <li>刷新失败时继续返回最后一次成功的文档，并在 errorBackoff 内不再重试</li>
+ * </ul>
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@Slf4j
+public class OidcMetadataCache {
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(15);
+    public static final Duration DEFAULT_STALE_WHILE_REVALIDATE = Duration.ofMinutes(5);
+    public static final Duration DEFAULT_ERROR_BACKOFF = Duration.ofSeconds(10);
+    public static final Duration MAX_TTL = Duration.ofDays(1);
+
+    private static volatile OidcMetadataCache defaultInstance;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Getter
+    private final Duration defaultTtl;
+    @Getter
+    private final Duration staleWhileRevalidate;
+    @Getter
+    private final Duration errorBackoff;
+    private final Executor executor;
+    private final Fetcher fetcher;
+    private final LongSupplier clock;
+
+    public OidcMetadataCache() {
+        this(DEFAULT_TTL, DEFAULT_STALE_WHILE_REVALIDATE, DEFAULT_ERROR_BACKOFF, null);
+    }
+
+    /**
+     * @param defaultTtl           响应未声明 max-age 时的有效期
+     * @param staleWhileRevalidate 过期后后台刷新期间允许返回旧文档的时长
+     * @param errorBackoff         刷新失败后继续使用旧文档、暂停重试的时长
+     * @param executor             后台刷新执行器，为null时使用共享的守护线程池
+     */
+    public OidcMetadataCache(Duration defaultTtl, Duration staleWhileRevalidate, Duration errorBackoff, Executor executor) {
+        this(defaultTtl, staleWhileRevalidate, errorBackoff, executor, OidcMetadataCache::httpGet, System::currentTimeMillis);
+    }
+
+    OidcMetadataCache(Duration defaultTtl, Duration staleWhileRevalidate, Duration errorBackoff,
+                      Executor executor, Fetcher fetcher, LongSupplier clock) {
+        this.defaultTtl = defaultTtl;
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.errorBackoff = errorBackoff;
+        this.executor = executor == null ? RefreshExecutorHolder.EXECUTOR : executor;
+        this.fetcher = fetcher;
+        this.clock = clock;
+    }
+
+    /**
+     * @return 进程内共享的缓存
+     */
+    public static OidcMetadataCache getDefault() {
+        OidcMetadataCache cache = defaultInstance;
+        if (cache == null) {
+            synchronized (OidcMetadataCache.class) {
+                cache = defaultInstance;
+                if (cache == null) {
+                    cache = new OidcMetadataCache();
+                    defaultInstance = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * 替换共享缓存（如需调整有效期）
+     *
+     * @param cache 缓存
+     */
+    public static void setDefault(OidcMetadataCache cache) {
+        defaultInstance = cache;
+    }
+
+    /**
+     * 获取 IdP Discovery 文档
+     *
+     * @param issuer IdP 地址
+     * @return discovery
+     */
+    public OidcDiscovery getDiscovery(String issuer) {
+        return get(issuer.concat(OidcConstants.DISCOVERY_URL), OidcUtil::parseDiscovery);
+    }
+
+    /**
+     * 获取 IdP 的 JWKS 文档
+     *
+     * @param issuer IdP 地址
+     * @return jwks json
+     */
+    public String getJwks(String issuer) {
+        String jwksUri = getDiscovery(issuer).getJwksUri();
+        if (StrUtil.isBlank(jwksUri)) {
+            throw new SecurityException("Missing jwks_uri in IDP discovery: " + issuer);
+        }
+        return get(jwksUri, Function.identity());
+    }
+
+    /**
+     * 获取文档
+     *
+     * @param url    文档地址
+     * @param parser 文档解析，仅在内容变化时执行
+     * @param <T>    文档类型
+     * @return 文档
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String url, Function<String, T> parser) {
+        Entry entry = entries.computeIfAbsent(url, Entry::new);
+        Document document = entry.document;
+        long now = clock.getAsLong();
+        if (document == null) {
+            return (T) join(entry.refresh(parser)).value;
+        }
+        if (now < document.expiresAt) {
+            return (T) document.value;
+        }
+        CompletableFuture<Document> refresh = entry.refreshAsync(parser);
+        if (now < document.expiresAt + staleWhileRevalidate.toMillis()) {
+            return (T) document.value;
+        }
+        // 超出 stale-while-revalidate 窗口，等待刷新；失败时 refresh 返回最后一次成功的文档
+        return (T) join(refresh).value;
+    }
+
+    /**
+     * 移除缓存
+     *
+     * @param url 文档地址
+     */
+    public void evict(String url) {
+        entries.remove(url);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private static Document join(CompletableFuture<Document> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    long expiresIn(String cacheControl) {
+        long ttl = -1;
+        if (StrUtil.isNotBlank(cacheControl)) {
+            for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+                directive = directive.trim();
+                if ("no-store".equals(directive) || "no-cache".equals(directive)) {
+                    return 0;
+                }
+                int eq = directive.indexOf('=');
+                if (eq > 0) {
+                    String name = directive.substring(0, eq).trim();
+                    if ("s-maxage".equals(name) || ("max-age".equals(name) && ttl < 0)) {
+                        try {
+                            ttl = Long.parseLong(directive.substring(eq + 1).trim().replace("\"", "")) * 1000L;
+                        } catch (NumberFormatException ignored) {
+                            // 非法值按未声明处理
+                        }
+                    }
+                }
+            }
+        }
+        if (ttl < 0) {
+            ttl = defaultTtl.toMillis();
+        }
+        return Math.min(ttl, MAX_TTL.toMillis());
+    }
+
+    static Response httpGet(String url, String etag) {
+        HttpResponse response = HttpTransports.get().execute(HttpRequest.get(url).header("If-None-Match", etag));
+        return new Response(response.getStatus(), response.getBody(),
+                response.header("ETag"), response.header("Cache-Control"));
+    }
+
+    /**
+     * 远程文档获取
+     */
+    @FunctionalInterface
+    interface Fetcher {
+        Response fetch(String url, String etag) throws Exception;
+    }
+
+    static final class Response {
+        final int status;
+        final String body;
+        final String etag;
+        final String cacheControl;
+
+        Response(int status, String body, String etag, String cacheControl) {
+            this.status = status;
+            this.body = body;
+            this.etag = etag;
+            this.cacheControl = cacheControl;
+        }
+    }
+
+    private static final class Document {
+        final Object value;
+        final String etag;
+        final long expiresAt;
+
+        Document(Object value, String etag, long expiresAt) {
+            this.value = value;
+            this.etag = etag;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final class Entry {
+        private final String url;
+        private volatile Document document;
+        private CompletableFuture<Document> inflight;
+
+        Entry(String url) {
+            this.url = url;
+        }
+
+        CompletableFuture<Document> refreshAsync(Function<String, ?> parser) {
+            return start(parser, true);
+        }
+
+        CompletableFuture<Document> refresh(Function<String, ?> parser) {
+            return start(parser, false);
+        }
+
+        /**
+         * 合并并发刷新：同一时刻每个 URL 至多一个请求
+         */
+        private CompletableFuture<Document> start(Function<String, ?> parser, boolean async) {
+            CompletableFuture<Document> future;
+            synchronized (this) {
+                if (inflight != null) {
+                    return inflight;
+                }
+                future = inflight = new CompletableFuture<>();
+            }
+            Runnable task = () -> {
+                try {
+                    future.complete(fetch(parser));
+                } catch (Throwable ex) {
+                    future.completeExceptionally(ex);
+                } finally {
+                    synchronized (this) {
+                        inflight = null;
+                    }
+                }
+            };
+            if (async) {
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException ex) {
+                    task.run();
+                }
+            } else {
+                task.run();
+            }
+            return future;
+        }
+
+        private Document fetch(Function<String, ?> parser) {
+            Document previous = this.document;
+            Document next;
+            try {
+                Response response = fetcher.fetch(url, previous == null ? null : previous.etag);
+                long expiresAt = clock.getAsLong() + expiresIn(response.cacheControl);
+                if (response.status == 304 && previous != null) {
+                    next = new Document(previous.value, previous.etag, expiresAt);
+                } else if (response.status >= 200 && response.status < 300) {
+                    next = new Document(parser.apply(response.body), response.etag, expiresAt);
+                } else {
+                    throw new SecurityException("Unexpected status " + response.status + " from " + url);
+                }
+            } catch (Exception e) {
+                if (previous == null) {
+                    throw e instanceof SecurityException ? (SecurityException) e
+                            : new SecurityException("Cannot access " + url, e);
+                }
+                log.warn("[OidcMetadataCache] refresh {} failed, serving last good document.", url, e);
+                next = new Document(previous.value, previous.etag, clock.getAsLong() + errorBackoff.toMillis());
+            }
+            this.document = next;
+            return next;
+        }
+    }
+
+    private static final class RefreshExecutorHolder {
+        static final ExecutorService EXECUTOR;
+
+        static {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2,
+                    60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                    new NamedThreadFactory("iha-oidc-refresh", true));
+            executor.allowCoreThreadTimeOut(true);
+            EXECUTOR = executor;
+        }
+    }
+}
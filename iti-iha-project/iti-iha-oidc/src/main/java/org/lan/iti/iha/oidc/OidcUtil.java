@@ -20,10 +20,9 @@ package org.lan.iti.iha.oidc;
 
 import cn.hutool.core.util.StrUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.xkcoding.http.HttpUtil;
 import lombok.experimental.UtilityClass;
+import org.lan.iti.iha.security.json.IhaJson;
+import org.lan.iti.iha.security.json.JsonCodec;
 
 /**
  * @author NorthLan
@@ -32,9 +31,12 @@ import lombok.experimental.UtilityClass;
  */
 @UtilityClass
 public class OidcUtil {
+    private static final JsonCodec<OidcDiscovery> DISCOVERY_CODEC = IhaJson.codec(OidcDiscovery.class);
 
     /**
      * Get the IDP service configuration
+     * <p>
+     * The document is cached by {@link OidcMetadataCache} according to its Cache-Control header
      *
      * @param issuer IDP identity providers
      * @return OidcDiscoveryDto
@@ -43,18 +45,25 @@ public class OidcUtil {
         if (StrUtil.isBlank(issuer)) {
             throw new SecurityException("Missing IDP Discovery Url.");
         }
-        String discoveryUrl = issuer.concat(OidcConstants.DISCOVERY_URL);
+        return OidcMetadataCache.getDefault().getDiscovery(issuer);
+    }
 
-        String response;
-        try {
-            response = HttpUtil.get(discoveryUrl);
-        } catch (Exception e) {
-            throw new SecurityException("Cannot access discovery url: " + discoveryUrl);
+    /**
+     * Get the IDP json web key set
+     *
+     * @param issuer IDP identity providers
+     * @return jwks json
+     */
+    public static String getJwks(String issuer) {
+        if (StrUtil.isBlank(issuer)) {
+            throw new SecurityException("Missing IDP Discovery Url.");
         }
+        return OidcMetadataCache.getDefault().getJwks(issuer);
+    }
+
+    static OidcDiscovery parseDiscovery(String response) {
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            return objectMapper.readValue(response, OidcDiscovery.class);
+            return DISCOVERY_CODEC.read(response);
         } catch (JsonProcessingException e) {
             throw new SecurityException("Unable to parse IDP service discovery configuration information.");
         }
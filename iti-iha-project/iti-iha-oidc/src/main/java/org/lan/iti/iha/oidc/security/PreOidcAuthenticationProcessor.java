@@ -60,7 +60,6 @@ public class PreOidcAuthenticationProcessor extends AbstractOidcAuthenticationPr
         String issuer = oidcConfig.getIssuer();
 
         OidcDiscovery discovery = OidcUtil.getOidcDiscovery(issuer);
-        // TODO cache oidc discovery
 
         if (StringUtil.hasEmpty(
                 discovery.getTokenEndpoint(),
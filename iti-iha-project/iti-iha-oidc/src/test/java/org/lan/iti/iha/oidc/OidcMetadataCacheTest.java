@@ -0,0 +1,204 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.oidc;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 基于本地 HTTP 桩的 OIDC 元数据缓存测试
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class OidcMetadataCacheTest {
+    private HttpServer server;
+    private String issuer;
+    private final AtomicInteger discoveryHits = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private final AtomicBoolean down = new AtomicBoolean();
+    private final AtomicReference<String> cacheControl = new AtomicReference<>("public, max-age=60");
+    private final AtomicReference<String> tokenEndpoint = new AtomicReference<>("/token");
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+
+    @BeforeEach
+    public void start() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        issuer = "http://127.0.0.1:" + server.getAddress().getPort();
+        server.createContext(OidcConstants.DISCOVERY_URL, exchange -> {
+            discoveryHits.incrementAndGet();
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (down.get()) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            String etag = "\"" + tokenEndpoint.get().hashCode() + "\"";
+            exchange.getResponseHeaders().add("ETag", etag);
+            exchange.getResponseHeaders().add("Cache-Control", cacheControl.get());
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = ("{\"issuer\":\"" + issuer + "\",\"authorization_endpoint\":\"" + issuer + "/authorize\","
+                    + "\"token_endpoint\":\"" + issuer + tokenEndpoint.get() + "\",\"jwks_uri\":\"" + issuer + "/jwks\","
+                    + "\"unknown_field\":true}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/jwks", exchange -> {
+            byte[] body = "{\"keys\":[]}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stop() {
+        server.stop(0);
+    }
+
+    private OidcMetadataCache newCache() {
+        // 同步执行后台刷新，便于断言
+        return new OidcMetadataCache(OidcMetadataCache.DEFAULT_TTL, Duration.ofSeconds(30), Duration.ofSeconds(10),
+                Runnable::run, OidcMetadataCache::httpGet, now::get);
+    }
+
+    @Test
+    public void cacheControl() {
+        OidcMetadataCache cache = newCache();
+        OidcDiscovery discovery = cache.getDiscovery(issuer);
+        Assertions.assertEquals(issuer + "/token", discovery.getTokenEndpoint());
+        Assertions.assertSame(discovery, cache.getDiscovery(issuer));
+        Assertions.assertEquals(1, discoveryHits.get());
+
+        // max-age 内不再请求
+        now.addAndGet(59_000);
+        cache.getDiscovery(issuer);
+        Assertions.assertEquals(1, discoveryHits.get());
+
+        // 过期后带 If-None-Match 重新验证，304 时沿用已解析的文档
+        now.addAndGet(2_000);
+        Assertions.assertSame(discovery, cache.getDiscovery(issuer));
+        Assertions.assertEquals(2, discoveryHits.get());
+        Assertions.assertEquals(1, notModified.get());
+
+        Assertions.assertEquals("{\"keys\":[]}", cache.getJwks(issuer));
+        Assertions.assertEquals(30_000, cache.expiresIn("no-transform, max-age=30"));
+        Assertions.assertEquals(120_000, cache.expiresIn("max-age=30, s-maxage=120"));
+        Assertions.assertEquals(0, cache.expiresIn("no-store"));
+        Assertions.assertEquals(OidcMetadataCache.DEFAULT_TTL.toMillis(), cache.expiresIn(null));
+    }
+
+    @Test
+    public void staleWhileRevalidate() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            OidcMetadataCache cache = new OidcMetadataCache(OidcMetadataCache.DEFAULT_TTL, Duration.ofSeconds(30),
+                    Duration.ofSeconds(10), executor, OidcMetadataCache::httpGet, now::get);
+            OidcDiscovery first = cache.getDiscovery(issuer);
+
+            // 过期但处于窗口内：立即返回旧文档，后台刷新到新内容
+            tokenEndpoint.set("/token2");
+            gate = new CountDownLatch(1);
+            now.addAndGet(61_000);
+            Assertions.assertSame(first, cache.getDiscovery(issuer));
+            gate.countDown();
+            executor.submit(() -> null).get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals(issuer + "/token2", cache.getDiscovery(issuer).getTokenEndpoint());
+            Assertions.assertEquals(2, discoveryHits.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void lastGoodOnError() {
+        OidcMetadataCache cache = newCache();
+        OidcDiscovery discovery = cache.getDiscovery(issuer);
+
+        down.set(true);
+        now.addAndGet(10 * 60_000);
+        Assertions.assertSame(discovery, cache.getDiscovery(issuer));
+        Assertions.assertEquals(2, discoveryHits.get());
+        // errorBackoff 内不重试
+        cache.getDiscovery(issuer);
+        Assertions.assertEquals(2, discoveryHits.get());
+
+        // 恢复后重新获取
+        down.set(false);
+        now.addAndGet(11_000);
+        cache.getDiscovery(issuer);
+        Assertions.assertEquals(3, discoveryHits.get());
+
+        // 从未成功时抛出异常
+        OidcMetadataCache empty = newCache();
+        down.set(true);
+        Assertions.assertThrows(SecurityException.class, () -> empty.getDiscovery(issuer));
+    }
+
+    @Test
+    public void coalesce() throws Exception {
+        OidcMetadataCache cache = newCache();
+        gate = new CountDownLatch(1);
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<OidcDiscovery>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> cache.getDiscovery(issuer)));
+            }
+            Thread.sleep(200);
+            gate.countDown();
+            OidcDiscovery discovery = futures.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<OidcDiscovery> future : futures) {
+                Assertions.assertSame(discovery, future.get(5, TimeUnit.SECONDS));
+            }
+            Assertions.assertEquals(1, discoveryHits.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
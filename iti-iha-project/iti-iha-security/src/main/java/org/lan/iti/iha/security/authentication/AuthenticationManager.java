@@ -24,9 +24,13 @@ import org.lan.iti.iha.security.exception.authentication.BadCredentialsException
 import org.lan.iti.iha.security.exception.authentication.DisabledException;
 import org.lan.iti.iha.security.exception.authentication.LockedException;
 import org.lan.iti.iha.security.mgt.RequestParameter;
+import org.lan.iti.iha.security.processor.AuthenticationExecutors;
 import org.lan.iti.iha.security.processor.AuthenticationProcessor;
 import org.lan.iti.iha.security.processor.ProcessorManager;
 
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
 /**
  * Processes an {@link Authentication} request.
  *
@@ -69,4 +73,17 @@ public interface AuthenticationManager {
      */
     @NotNull
     Authentication authenticate(RequestParameter parameter) throws AuthenticationException;
+
+    /**
+     * 异步认证，与 {@link #authenticate(RequestParameter)} 契约一致，失败时以异常完成
+     * <p>
+     * 默认实现在 executor 中执行同步认证，executor 拒绝任务时以 {@link java.util.concurrent.RejectedExecutionException} 异常完成
+     *
+     * @param parameter the authentication request object
+     * @param executor  阻塞型处理器的执行器
+     * @return a fully authenticated object including credentials
+     */
+    default CompletionStage<Authentication> authenticateAsync(RequestParameter parameter, Executor executor) {
+        return AuthenticationExecutors.supplyAsync(() -> authenticate(parameter), executor);
+    }
 }
@@ -28,11 +28,14 @@ import org.lan.iti.iha.security.exception.authentication.AuthenticationException
 import org.lan.iti.iha.security.exception.authentication.ProviderNotFoundException;
 import org.lan.iti.iha.security.exception.authentication.UnsupportedAuthenticationException;
 import org.lan.iti.iha.security.mgt.RequestParameter;
+import org.lan.iti.iha.security.processor.AuthenticationExecutors;
 import org.lan.iti.iha.security.processor.AuthenticationProcessor;
 import org.lan.iti.iha.security.processor.ProcessorManager;
 
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * default process manager
@@ -86,6 +89,25 @@ public class DefaultAuthenticationManager implements AuthenticationManager {
                 lastException = ex;
             }
         }
+        return complete(parameter, result, lastException);
+    }
+
+    @Override
+    public CompletionStage<Authentication> authenticateAsync(RequestParameter parameter, Executor executor) {
+        ProcessorManager processorManager = getProcessorManager(parameter.getProcessorType());
+        if (processorManager == null) {
+            return AuthenticationExecutors.failed(UnsupportedAuthenticationException.getDefaultInstance());
+        }
+        return processorManager.processAsync(parameter, executor).handle((result, ex) -> {
+            Throwable cause = AuthenticationExecutors.unwrap(ex);
+            if (cause != null && !(cause instanceof AuthenticationException)) {
+                throw ex instanceof RuntimeException ? (RuntimeException) ex : new IllegalStateException(cause);
+            }
+            return complete(parameter, result, (AuthenticationException) cause);
+        });
+    }
+
+    private Authentication complete(RequestParameter parameter, Authentication result, AuthenticationException lastException) {
         if (result != null) {
             if (this.eraseCredentialsAfterAuthentication && (result instanceof CredentialsContainer)) {
                 // Authentication is complete. Remove credentials and other secret data
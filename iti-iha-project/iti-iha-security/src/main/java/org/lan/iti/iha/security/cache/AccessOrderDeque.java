@@ -0,0 +1,82 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.cache;
+
+/**
+ * 按访问顺序排列的双向链表，队首为最久未访问的条目，非线程安全
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+final class AccessOrderDeque {
+    private final Node head = Node.sentinel();
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    Node peekFirst() {
+        return head.nextInAccessOrder == head ? null : head.nextInAccessOrder;
+    }
+
+    /**
+     * 获取后继节点
+     *
+     * @param node 节点
+     * @return 后继节点，已到队尾时返回null
+     */
+    Node next(Node node) {
+        return node.nextInAccessOrder == head ? null : node.nextInAccessOrder;
+    }
+
+    void addLast(Node node) {
+        node.prevInAccessOrder = head.prevInAccessOrder;
+        node.nextInAccessOrder = head;
+        head.prevInAccessOrder.nextInAccessOrder = node;
+        head.prevInAccessOrder = node;
+        size++;
+    }
+
+    void remove(Node node) {
+        node.prevInAccessOrder.nextInAccessOrder = node.nextInAccessOrder;
+        node.nextInAccessOrder.prevInAccessOrder = node.prevInAccessOrder;
+        node.prevInAccessOrder = node.nextInAccessOrder = null;
+        size--;
+    }
+
+    Node pollFirst() {
+        Node first = peekFirst();
+        if (first != null) {
+            remove(first);
+        }
+        return first;
+    }
+
+    void moveToLast(Node node) {
+        remove(node);
+        addLast(node);
+    }
+
+    void clear() {
+        head.prevInAccessOrder = head.nextInAccessOrder = head;
+        size = 0;
+    }
+}
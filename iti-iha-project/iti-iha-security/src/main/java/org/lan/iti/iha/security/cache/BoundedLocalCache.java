@@ -0,0 +1,349 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.cache;
+
+import cn.hutool.core.util.StrUtil;
+import org.lan.iti.common.core.util.clock.ClockSource;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 有界本地缓存
+ * <p>
+ * <ul>
+ *     <li>读操作无锁：直接读取 {@link ConcurrentHashMap}，访问记录写入有损读缓冲区后批量回放</li>
+ *     <li>W-TinyLFU 淘汰：新条目先进入 1% 的 LRU 窗口，溢出后与主区（SLRU）最久未访问的条目按
+ *     {@link FrequencySketch} 估算的访问频率竞争，频率更高者留下</li>
+ *     <li>按条目过期：过期时间由分层 {@link TimerWheel} 管理，维护时只处理到期的桶，不再全量扫描</li>
+ * </ul>
+ * 写操作与维护在淘汰锁内串行执行；读缓冲区写满时由读线程尝试获取锁执行维护
+ * <p>
+ * 最大条目数不大于0时不限容量，不记录访问也不按容量淘汰，条目仅在过期后移除（{@link IhaCacheConfig#maximumSize} 默认值）
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class BoundedLocalCache implements Cache {
+    private static final double PERCENT_WINDOW = 0.01d;
+    private static final double PERCENT_MAIN_PROTECTED = 0.80d;
+
+    private final ConcurrentHashMap<String, Node> data = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final ReadBuffer readBuffer = new ReadBuffer();
+
+    private final boolean bounded;
+    private final long maximumSize;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final long defaultExpire;
+    private final ClockSource clock;
+
+    // guarded by evictionLock
+    private final AccessOrderDeque window = new AccessOrderDeque();
+    private final AccessOrderDeque probation = new AccessOrderDeque();
+    private final AccessOrderDeque protectedDeque = new AccessOrderDeque();
+    private final FrequencySketch sketch;
+    private final TimerWheel timerWheel;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder expirationCount = new LongAdder();
+
+    public BoundedLocalCache() {
+        this(IhaCacheConfig.maximumSize, IhaCacheConfig.expire, IhaCacheConfig.clock);
+    }
+
+    /**
+     * 构造
+     *
+     * @param maximumSize   最大条目数，不大于0时不限容量
+     * @param defaultExpire 默认过期时间，单位毫秒
+     * @param clock         时钟源
+     */
+    public BoundedLocalCache(long maximumSize, long defaultExpire, ClockSource clock) {
+        this.bounded = maximumSize > 0;
+        this.maximumSize = bounded ? maximumSize : Long.MAX_VALUE;
+        this.windowMaximum = bounded ? Math.max(1, (long) (maximumSize * PERCENT_WINDOW)) : Long.MAX_VALUE;
+        this.protectedMaximum = bounded ? (long) ((maximumSize - windowMaximum) * PERCENT_MAIN_PROTECTED) : Long.MAX_VALUE;
+        this.defaultExpire = defaultExpire;
+        this.clock = clock;
+        this.sketch = bounded ? new FrequencySketch(maximumSize) : null;
+        this.timerWheel = new TimerWheel(clock.millis());
+    }
+
+    @Override
+    public void put(String key, Object value) {
+        put(key, value, defaultExpire, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void put(String key, Object value, long expire, TimeUnit timeUnit) {
+        long expireTime = clock.millis() + timeUnit.toMillis(expire);
+        evictionLock.lock();
+        try {
+            Node node = data.get(key);
+            if (node == null) {
+                node = new Node(key, value, expireTime);
+                data.put(key, node);
+                onAdd(node);
+            } else {
+                node.value = value;
+                node.expireTime = expireTime;
+                timerWheel.reschedule(node);
+                onAccess(node);
+            }
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public Object get(String key) {
+        if (StrUtil.isEmpty(key)) {
+            return null;
+        }
+        Node node = data.get(key);
+        if (node == null) {
+            missCount.increment();
+            return null;
+        }
+        if (isExpired(node)) {
+            missCount.increment();
+            tryMaintenance();
+            return null;
+        }
+        Object value = node.value;
+        hitCount.increment();
+        if (bounded && readBuffer.offer(node) == ReadBuffer.FULL && tryMaintenance()) {
+            // 缓冲区已清空，重新记录本次访问
+            readBuffer.offer(node);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        if (StrUtil.isEmpty(key)) {
+            return false;
+        }
+        Node node = data.get(key);
+        return node != null && !isExpired(node);
+    }
+
+    @Override
+    public Collection<String> keys() {
+        return Collections.unmodifiableSet(data.keySet());
+    }
+
+    @Override
+    public void evict(String... keys) {
+        evictionLock.lock();
+        try {
+            for (String key : keys) {
+                Node node = data.remove(key);
+                if (node != null) {
+                    onRemove(node);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            readBuffer.drainTo(node -> {
+            });
+            for (Node node : data.values()) {
+                node.alive = false;
+            }
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedDeque.clear();
+            timerWheel.clear();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 立即执行维护：回放访问记录、移除过期条目、按容量淘汰
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * @return 当前条目数（含尚未清理的过期条目）
+     */
+    public long estimatedSize() {
+        return data.size();
+    }
+
+    /**
+     * @return 统计快照
+     */
+    public CacheStats stats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(), expirationCount.sum(), data.size());
+    }
+
+    private boolean isExpired(Node node) {
+        return clock.millis() > node.expireTime;
+    }
+
+    private boolean tryMaintenance() {
+        if (evictionLock.tryLock()) {
+            try {
+                maintenance();
+                return true;
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        return false;
+    }
+
+    private void maintenance() {
+        readBuffer.drainTo(this::onAccess);
+        timerWheel.advance(clock.millis(), this::expire);
+        if (bounded) {
+            evictEntries();
+        }
+    }
+
+    private void onAdd(Node node) {
+        if (bounded) {
+            sketch.increment(node.key);
+            node.queueType = Node.WINDOW;
+            window.addLast(node);
+        }
+        timerWheel.schedule(node);
+    }
+
+    private void onAccess(Node node) {
+        if (!bounded || !node.alive) {
+            return;
+        }
+        sketch.increment(node.key);
+        switch (node.queueType) {
+            case Node.WINDOW:
+                window.moveToLast(node);
+                break;
+            case Node.PROBATION:
+                // 主区内再次被访问，晋升到保护区，保护区溢出时最久未访问的条目降级
+                probation.remove(node);
+                node.queueType = Node.PROTECTED;
+                protectedDeque.addLast(node);
+                if (protectedDeque.size() > protectedMaximum) {
+                    Node demoted = protectedDeque.pollFirst();
+                    demoted.queueType = Node.PROBATION;
+                    probation.addLast(demoted);
+                }
+                break;
+            default:
+                protectedDeque.moveToLast(node);
+                break;
+        }
+    }
+
+    private void onRemove(Node node) {
+        node.alive = false;
+        if (bounded) {
+            queueOf(node).remove(node);
+        }
+        timerWheel.deschedule(node);
+    }
+
+    private void expire(Node node) {
+        if (data.remove(node.key, node)) {
+            onRemove(node);
+            expirationCount.increment();
+        }
+    }
+
+    /**
+     * 窗口溢出的条目进入试用区成为候选者，超出容量时候选者与试用区队首的牺牲者比较访问频率
+     */
+    private void evictEntries() {
+        int candidates = 0;
+        Node candidate = null;
+        while (window.size() > windowMaximum) {
+            Node node = window.pollFirst();
+            node.queueType = Node.PROBATION;
+            probation.addLast(node);
+            if (candidate == null) {
+                candidate = node;
+            }
+            candidates++;
+        }
+
+        while (window.size() + probation.size() + protectedDeque.size() > maximumSize) {
+            Node victim = probation.peekFirst();
+            if (candidates == 0 || victim == null) {
+                if (victim == null) {
+                    victim = protectedDeque.peekFirst() != null ? protectedDeque.peekFirst() : window.peekFirst();
+                }
+                evictNode(victim);
+                continue;
+            }
+            if (victim == candidate || sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                Node next = probation.next(candidate);
+                evictNode(candidate);
+                candidate = next;
+                candidates--;
+            } else {
+                evictNode(victim);
+            }
+        }
+    }
+
+    private void evictNode(Node node) {
+        if (data.remove(node.key, node)) {
+            evictionCount.increment();
+        }
+        onRemove(node);
+    }
+
+    private AccessOrderDeque queueOf(Node node) {
+        switch (node.queueType) {
+            case Node.WINDOW:
+                return window;
+            case Node.PROBATION:
+                return probation;
+            default:
+                return protectedDeque;
+        }
+    }
+}
@@ -20,6 +20,7 @@ package org.lan.iti.iha.security.cache;
 
 import java.util.Collection;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * IHA cache
@@ -82,4 +83,14 @@ public interface Cache {
      * clear cache
      */
     void clear();
+
+    /**
+     * Execute a group of puts/evicts as one batch, remote implementations may send them in a single round trip.
+     * Reads inside the batch are not guaranteed to observe the writes of the same batch.
+     *
+     * @param operations operations on the batch view of this cache
+     */
+    default void batch(Consumer<Cache> operations) {
+        operations.accept(this);
+    }
 }
@@ -0,0 +1,68 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 缓存统计快照
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CacheStats {
+    /**
+     * 命中次数
+     */
+    private final long hitCount;
+
+    /**
+     * 未命中次数（含已过期）
+     */
+    private final long missCount;
+
+    /**
+     * 因容量淘汰的条目数
+     */
+    private final long evictionCount;
+
+    /**
+     * 因过期移除的条目数
+     */
+    private final long expirationCount;
+
+    /**
+     * 当前条目数
+     */
+    private final long size;
+
+    /**
+     * @return 命中率，无请求时为1
+     */
+    public double hitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+}
@@ -19,6 +19,8 @@
 package org.lan.iti.iha.security.cache;
 
 import lombok.experimental.UtilityClass;
+import org.lan.iti.common.core.util.SystemClock;
+import org.lan.iti.common.core.util.clock.ClockSource;
 
 import java.time.Duration;
 
@@ -40,4 +42,16 @@ public class IhaCacheConfig {
      * If you customize the implemented iha cache interface, you can ignore this config.
      */
     public static boolean schedulePrune = true;
+
+    /**
+     * The maximum number of entries held by {@link BoundedLocalCache}.
+     * By default (0) the cache is unbounded and entries are only removed when they expire, so live tokens and
+     * authorization codes are never evicted for capacity. Set a positive value to enable W-TinyLFU size eviction.
+     */
+    public static long maximumSize = 0;
+
+    /**
+     * The clock used to compute cache expiration, defaults to the coarse-grained {@link SystemClock}
+     */
+    public static ClockSource clock = SystemClock::now;
 }
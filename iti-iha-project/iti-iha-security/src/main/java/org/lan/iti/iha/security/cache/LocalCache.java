@@ -38,7 +38,9 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * @author NorthLan
  * @date 2021-07-05
  * @url https://noahlan.com
+ * @deprecated 无容量上限且所有实例共享数据，使用 {@link BoundedLocalCache}
  */
+@Deprecated
 public class LocalCache implements Cache {
     private static final Map<String, CacheObj> LOCAL_CACHE = new ConcurrentHashMap<>();
     // 公平可重入读写锁
@@ -193,11 +195,11 @@ public class LocalCache implements Cache {
         CacheObj(Object data, long expire) {
             this.data = data;
             // The actual expiration time is equal to the current time plus the validity period
-            this.expire = System.currentTimeMillis() + expire;
+            this.expire = IhaCacheConfig.clock.millis() + expire;
         }
 
         boolean isExpired() {
-            return System.currentTimeMillis() > this.expire;
+            return IhaCacheConfig.clock.millis() > this.expire;
         }
 
         public Object getData() {
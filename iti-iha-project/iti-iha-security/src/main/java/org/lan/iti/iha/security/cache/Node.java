@@ -0,0 +1,68 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.cache;
+
+/**
+ * {@link BoundedLocalCache} 缓存条目
+ * <p>
+ * value 与过期时间可被无锁读取；队列与时间轮链表仅在淘汰锁内访问
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+final class Node {
+    static final int WINDOW = 0;
+    static final int PROBATION = 1;
+    static final int PROTECTED = 2;
+
+    final String key;
+    volatile Object value;
+
+    /**
+     * 过期时间戳（毫秒）
+     */
+    volatile long expireTime;
+
+    // guarded by evictionLock
+    int queueType;
+    boolean alive = true;
+    Node prevInAccessOrder;
+    Node nextInAccessOrder;
+    Node prevInWheel;
+    Node nextInWheel;
+
+    Node(String key, Object value, long expireTime) {
+        this.key = key;
+        this.value = value;
+        this.expireTime = expireTime;
+    }
+
+    /**
+     * 创建链表哨兵
+     *
+     * @return 哨兵节点
+     */
+    static Node sentinel() {
+        Node sentinel = new Node(null, null, 0);
+        sentinel.prevInAccessOrder = sentinel.nextInAccessOrder = sentinel;
+        sentinel.prevInWheel = sentinel.nextInWheel = sentinel;
+        return sentinel;
+    }
+}
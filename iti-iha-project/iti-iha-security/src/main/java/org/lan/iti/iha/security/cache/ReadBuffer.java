@@ -0,0 +1,117 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 分段有损读缓冲区
+ * <p>
+ * 读操作无锁写入按线程分段的环形缓冲区，缓冲区已满或竞争失败时直接丢弃该次访问记录；
+ * 由持有淘汰锁的线程批量回放到淘汰策略中
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+final class ReadBuffer {
+    static final int SUCCESS = 0;
+    static final int FAILED = 1;
+    static final int FULL = 2;
+
+    private static final int BUFFER_SIZE = 16;
+    private static final int BUFFER_MASK = BUFFER_SIZE - 1;
+    private static final int STRIPES;
+    private static final int STRIPE_MASK;
+
+    static {
+        int stripes = Math.min(4 * Runtime.getRuntime().availableProcessors(), 64);
+        STRIPES = 1 << -Integer.numberOfLeadingZeros(stripes - 1);
+        STRIPE_MASK = STRIPES - 1;
+    }
+
+    private final RingBuffer[] buffers = new RingBuffer[STRIPES];
+
+    ReadBuffer() {
+        for (int i = 0; i < STRIPES; ++i) {
+            buffers[i] = new RingBuffer();
+        }
+    }
+
+    /**
+     * 记录一次访问
+     *
+     * @param node 访问的条目
+     * @return {@link #SUCCESS}、{@link #FAILED} 或 {@link #FULL}
+     */
+    int offer(Node node) {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return buffers[(hash >>> 16) & STRIPE_MASK].offer(node);
+    }
+
+    /**
+     * 回放所有访问记录，只能由持有淘汰锁的线程调用
+     *
+     * @param consumer 访问处理
+     */
+    void drainTo(Consumer<Node> consumer) {
+        for (RingBuffer buffer : buffers) {
+            buffer.drainTo(consumer);
+        }
+    }
+
+    private static final class RingBuffer {
+        private final AtomicReferenceArray<Node> elements = new AtomicReferenceArray<>(BUFFER_SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter;
+
+        int offer(Node node) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            if (tail - head >= BUFFER_SIZE) {
+                return FULL;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                elements.lazySet((int) (tail & BUFFER_MASK), node);
+                return SUCCESS;
+            }
+            return FAILED;
+        }
+
+        void drainTo(Consumer<Node> consumer) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            while (head < tail) {
+                int index = (int) (head & BUFFER_MASK);
+                Node node = elements.get(index);
+                if (node == null) {
+                    // 生产者尚未完成写入
+                    break;
+                }
+                elements.lazySet(index, null);
+                consumer.accept(node);
+                head++;
+            }
+            readCounter = head;
+        }
+    }
+}
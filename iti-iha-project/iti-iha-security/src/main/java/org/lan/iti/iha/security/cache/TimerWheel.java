@@ -0,0 +1,140 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮，按过期时间将条目分桶，推进时仅处理到期的桶，非线程安全
+ * <p>
+ * 各层桶的跨度约为 1秒、1分钟、1小时、18小时，超出 3 天的条目放入溢出桶，推进到期后重新分桶
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+final class TimerWheel {
+    private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+
+    /**
+     * 各层单个桶的跨度（2的幂，毫秒）
+     */
+    private static final int[] SHIFT = {10, 16, 22, 26, 28};
+
+    private final Node[][] wheel;
+
+    /**
+     * 上次推进的时间
+     */
+    private long time;
+
+    TimerWheel(long now) {
+        this.time = now;
+        this.wheel = new Node[BUCKETS.length][];
+        for (int i = 0; i < BUCKETS.length; ++i) {
+            wheel[i] = new Node[BUCKETS[i]];
+            for (int j = 0; j < BUCKETS[i]; ++j) {
+                wheel[i][j] = Node.sentinel();
+            }
+        }
+    }
+
+    /**
+     * 推进时间轮，处理到期的桶
+     *
+     * @param now     当前时间
+     * @param expirer 过期条目处理
+     */
+    void advance(long now, Consumer<Node> expirer) {
+        long previous = time;
+        time = now;
+        for (int i = 0; i < SHIFT.length; ++i) {
+            long previousTicks = previous >>> SHIFT[i];
+            long currentTicks = now >>> SHIFT[i];
+            if (currentTicks - previousTicks <= 0) {
+                break;
+            }
+            expire(i, previousTicks, currentTicks - previousTicks, expirer);
+        }
+    }
+
+    private void expire(int index, long previousTicks, long delta, Consumer<Node> expirer) {
+        Node[] buckets = wheel[index];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(1 + delta, buckets.length);
+        int start = (int) (previousTicks & mask);
+        int end = start + steps;
+        for (int i = start; i < end; ++i) {
+            Node sentinel = buckets[i & mask];
+            Node node = sentinel.nextInWheel;
+            sentinel.prevInWheel = sentinel.nextInWheel = sentinel;
+            while (node != sentinel) {
+                Node next = node.nextInWheel;
+                node.prevInWheel = node.nextInWheel = null;
+                if (node.expireTime - time > 0) {
+                    schedule(node);
+                } else {
+                    expirer.accept(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    void schedule(Node node) {
+        Node sentinel = findBucket(node.expireTime);
+        node.prevInWheel = sentinel.prevInWheel;
+        node.nextInWheel = sentinel;
+        sentinel.prevInWheel.nextInWheel = node;
+        sentinel.prevInWheel = node;
+    }
+
+    void reschedule(Node node) {
+        deschedule(node);
+        schedule(node);
+    }
+
+    void deschedule(Node node) {
+        if (node.nextInWheel != null) {
+            node.nextInWheel.prevInWheel = node.prevInWheel;
+            node.prevInWheel.nextInWheel = node.nextInWheel;
+            node.prevInWheel = node.nextInWheel = null;
+        }
+    }
+
+    void clear() {
+        for (Node[] buckets : wheel) {
+            for (Node sentinel : buckets) {
+                sentinel.prevInWheel = sentinel.nextInWheel = sentinel;
+            }
+        }
+    }
+
+    private Node findBucket(long expireTime) {
+        long duration = expireTime - time;
+        int last = wheel.length - 1;
+        for (int i = 0; i < last; ++i) {
+            if (duration < 1L << SHIFT[i + 1]) {
+                long ticks = expireTime >>> SHIFT[i];
+                return wheel[i][(int) (ticks & (wheel[i].length - 1))];
+            }
+        }
+        return wheel[last][0];
+    }
+}
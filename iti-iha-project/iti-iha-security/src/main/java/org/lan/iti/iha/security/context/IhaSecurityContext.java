@@ -24,8 +24,8 @@ import org.lan.iti.iha.security.authentication.AuthenticationChecker;
 import org.lan.iti.iha.security.authentication.AuthenticationManager;
 import org.lan.iti.iha.security.authentication.DefaultAuthenticationChecker;
 import org.lan.iti.iha.security.authentication.DefaultAuthenticationManager;
+import org.lan.iti.iha.security.cache.BoundedLocalCache;
 import org.lan.iti.iha.security.cache.Cache;
-import org.lan.iti.iha.security.cache.LocalCache;
 import org.lan.iti.iha.security.clientdetails.ClientDetailsService;
 import org.lan.iti.iha.security.config.SecurityConfig;
 import org.lan.iti.iha.security.jwt.DefaultJwtServiceImpl;
@@ -33,8 +33,11 @@ import org.lan.iti.iha.security.jwt.JwtService;
 import org.lan.iti.iha.security.mgt.DefaultSecurityManager;
 import org.lan.iti.iha.security.mgt.SecurityManager;
 import org.lan.iti.iha.security.pipeline.PipelineManager;
+import org.lan.iti.iha.security.processor.AuthenticationExecutors;
 import org.lan.iti.iha.security.userdetails.UserDetailsService;
 
+import java.util.concurrent.Executor;
+
 /**
  * Security Context
  *
@@ -50,6 +53,8 @@ public class IhaSecurityContext {
     private AuthenticationManager authenticationManager = new DefaultAuthenticationManager();
     private PipelineManager pipelineManager = new PipelineManager();
     private SecurityConfig config = new SecurityConfig();
+    // blocking processors in async authentication
+    private Executor authenticationExecutor = AuthenticationExecutors.getDefault();
 
     // support service
     private JwtService jwtService = new DefaultJwtServiceImpl();
@@ -57,6 +62,6 @@ public class IhaSecurityContext {
     private UserDetailsService userDetailsService;
     private ClientDetailsService clientDetailsService;
 
-    // caching
-    private Cache cache = new LocalCache();
+    // caching, unbounded and expiry-only unless IhaCacheConfig.maximumSize is set
+    private Cache cache = new BoundedLocalCache();
 }
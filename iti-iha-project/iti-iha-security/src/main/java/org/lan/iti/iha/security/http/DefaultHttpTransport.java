@@ -0,0 +1,306 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.http;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.lan.iti.iha.security.processor.AuthenticationExecutors;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * 默认 HTTP 传输
+ * <p>
+ * 运行时为 JDK 11+ 时使用 java.net.http.HttpClient：原生异步、按 host 复用连接，https 下协商 HTTP/2；
+ * 否则使用 HttpURLConnection 在执行器中完成请求，完整读取响应以复用 JDK 的 keep-alive 连接池。
+ * JDK 的 keep-alive 连接池每个目标默认仅保留5个空闲连接，并发较高时可通过系统属性
+ * {@code -Dhttp.maxConnections=20} 调整（进程级，首次建立连接前生效）
+ * <p>
+ * 超时按 IdP（host）配置，每次请求按 IdP 记录延迟与错误
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@Slf4j
+public class DefaultHttpTransport implements HttpTransport {
+    @Getter
+    private final HttpTransportConfig config;
+    @Getter
+    private final HttpMetrics metrics = new HttpMetrics();
+    private final Engine engine;
+
+    public DefaultHttpTransport() {
+        this(new HttpTransportConfig());
+    }
+
+    public DefaultHttpTransport(HttpTransportConfig config) {
+        this(config, AuthenticationExecutors.getDefault());
+    }
+
+    /**
+     * @param config   配置
+     * @param executor HttpURLConnection 实现的执行器
+     */
+    public DefaultHttpTransport(HttpTransportConfig config, Executor executor) {
+        this.config = config;
+        Engine http2 = config.isHttp2() ? JdkHttpClientEngine.create() : null;
+        this.engine = http2 != null ? http2 : new UrlConnectionEngine(executor);
+    }
+
+    /**
+     * @return 是否使用 java.net.http.HttpClient
+     */
+    public boolean isHttpClientEngine() {
+        return engine instanceof JdkHttpClientEngine;
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> executeAsync(HttpRequest request) {
+        URI uri;
+        try {
+            uri = URI.create(request.getUrl());
+        } catch (IllegalArgumentException e) {
+            return AuthenticationExecutors.failed(new HttpTransportException("Invalid url: " + request.getUrl(), e));
+        }
+        String hostKey = uri.getPort() < 0 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+        HttpTransportConfig.Timeouts timeouts = config.timeouts(uri.getHost(), hostKey);
+        Duration readTimeout = request.getTimeout() == null ? timeouts.getReadTimeout() : request.getTimeout();
+        long begin = System.nanoTime();
+        CompletableFuture<HttpResponse> future;
+        try {
+            future = engine.execute(uri, request, timeouts.getConnectTimeout(), readTimeout);
+        } catch (RuntimeException e) {
+            future = AuthenticationExecutors.failed(e);
+        }
+        return future.handle((response, ex) -> {
+            metrics.record(hostKey, System.nanoTime() - begin, ex == null ? response : null);
+            if (ex == null) {
+                return response;
+            }
+            Throwable cause = AuthenticationExecutors.unwrap(ex);
+            if (cause instanceof HttpTransportException) {
+                throw (HttpTransportException) cause;
+            }
+            throw new HttpTransportException("Request failed: " + request, cause);
+        });
+    }
+
+    private interface Engine {
+        CompletableFuture<HttpResponse> execute(URI uri, HttpRequest request, Duration connectTimeout, Duration readTimeout);
+    }
+
+    /**
+     * HttpURLConnection 实现
+     */
+    private static final class UrlConnectionEngine implements Engine {
+        private final Executor executor;
+
+        UrlConnectionEngine(Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public CompletableFuture<HttpResponse> execute(URI uri, HttpRequest request, Duration connectTimeout, Duration readTimeout) {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return exchange(uri.toURL(), request, connectTimeout, readTimeout);
+                } catch (IOException e) {
+                    throw new HttpTransportException("Request failed: " + request, e);
+                }
+            }, executor);
+        }
+
+        private HttpResponse exchange(URL url, HttpRequest request, Duration connectTimeout, Duration readTimeout) throws IOException {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout((int) connectTimeout.toMillis());
+            connection.setReadTimeout((int) readTimeout.toMillis());
+            connection.setRequestMethod(request.getMethod());
+            connection.setInstanceFollowRedirects(true);
+            request.getHeaders().forEach(connection::setRequestProperty);
+            if (request.getBody() != null) {
+                byte[] body = request.getBody().getBytes(StandardCharsets.UTF_8);
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(body.length);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body);
+                }
+            }
+            int status = connection.getResponseCode();
+            Map<String, List<String>> headers = connection.getHeaderFields();
+            // 读完并关闭响应流（不调用 disconnect），连接归还 keep-alive 缓存
+            String body;
+            try (InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream()) {
+                body = in == null ? "" : read(in);
+            }
+            return new HttpResponse(status, headers, body);
+        }
+
+        private static String read(InputStream in) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * java.net.http.HttpClient 实现（JDK 11+，反射调用以兼容 Java 8 编译）
+     * <p>
+     * 每种连接超时对应一个共享的 HttpClient，连接池与 HTTP/2 多路复用由其管理
+     */
+    private static final class JdkHttpClientEngine implements Engine {
+        private final Map<Duration, Object> clients = new ConcurrentHashMap<>();
+
+        private final Method newClientBuilder;
+        private final Method clientVersion;
+        private final Method clientConnectTimeout;
+        private final Method clientFollowRedirects;
+        private final Method clientBuild;
+        private final Method newRequestBuilder;
+        private final Method requestVersion;
+        private final Method requestTimeout;
+        private final Method requestHeader;
+        private final Method requestMethod;
+        private final Method requestBuild;
+        private final Method ofString;
+        private final Method noBody;
+        private final Method sendAsync;
+        private final Method statusCode;
+        private final Method responseHeaders;
+        private final Method headersMap;
+        private final Method responseBody;
+        private final Object http2;
+        private final Object http11;
+        private final Object redirectNormal;
+        private final Object stringHandler;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private JdkHttpClientEngine() throws ReflectiveOperationException {
+            Class<?> client = Class.forName("java.net.http.HttpClient");
+            Class<?> clientBuilder = Class.forName("java.net.http.HttpClient$Builder");
+            Class<?> version = Class.forName("java.net.http.HttpClient$Version");
+            Class<?> redirect = Class.forName("java.net.http.HttpClient$Redirect");
+            Class<?> request = Class.forName("java.net.http.HttpRequest");
+            Class<?> requestBuilder = Class.forName("java.net.http.HttpRequest$Builder");
+            Class<?> bodyPublisher = Class.forName("java.net.http.HttpRequest$BodyPublisher");
+            Class<?> bodyPublishers = Class.forName("java.net.http.HttpRequest$BodyPublishers");
+            Class<?> bodyHandler = Class.forName("java.net.http.HttpResponse$BodyHandler");
+            Class<?> bodyHandlers = Class.forName("java.net.http.HttpResponse$BodyHandlers");
+            Class<?> response = Class.forName("java.net.http.HttpResponse");
+            Class<?> headers = Class.forName("java.net.http.HttpHeaders");
+
+            this.newClientBuilder = client.getMethod("newBuilder");
+            this.clientVersion = clientBuilder.getMethod("version", version);
+            this.clientConnectTimeout = clientBuilder.getMethod("connectTimeout", Duration.class);
+            this.clientFollowRedirects = clientBuilder.getMethod("followRedirects", redirect);
+            this.clientBuild = clientBuilder.getMethod("build");
+            this.newRequestBuilder = request.getMethod("newBuilder", URI.class);
+            this.requestVersion = requestBuilder.getMethod("version", version);
+            this.requestTimeout = requestBuilder.getMethod("timeout", Duration.class);
+            this.requestHeader = requestBuilder.getMethod("header", String.class, String.class);
+            this.requestMethod = requestBuilder.getMethod("method", String.class, bodyPublisher);
+            this.requestBuild = requestBuilder.getMethod("build");
+            this.ofString = bodyPublishers.getMethod("ofString", String.class);
+            this.noBody = bodyPublishers.getMethod("noBody");
+            this.sendAsync = client.getMethod("sendAsync", request, bodyHandler);
+            this.statusCode = response.getMethod("statusCode");
+            this.responseHeaders = response.getMethod("headers");
+            this.headersMap = headers.getMethod("map");
+            this.responseBody = response.getMethod("body");
+            this.http2 = Enum.valueOf((Class) version, "HTTP_2");
+            this.http11 = Enum.valueOf((Class) version, "HTTP_1_1");
+            this.redirectNormal = Enum.valueOf((Class) redirect, "NORMAL");
+            this.stringHandler = bodyHandlers.getMethod("ofString").invoke(null);
+        }
+
+        static JdkHttpClientEngine create() {
+            try {
+                return new JdkHttpClientEngine();
+            } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+                log.debug("java.net.http.HttpClient is not available, fallback to HttpURLConnection.");
+                return null;
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public CompletableFuture<HttpResponse> execute(URI uri, HttpRequest request, Duration connectTimeout, Duration readTimeout) {
+            try {
+                Object builder = newRequestBuilder.invoke(null, uri);
+                // 明文 http 不做 h2c 升级，避免部分 IdP 不兼容 Upgrade 请求
+                requestVersion.invoke(builder, "https".equalsIgnoreCase(uri.getScheme()) ? http2 : http11);
+                requestTimeout.invoke(builder, readTimeout);
+                for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                    requestHeader.invoke(builder, header.getKey(), header.getValue());
+                }
+                Object publisher = request.getBody() == null ? noBody.invoke(null) : ofString.invoke(null, request.getBody());
+                requestMethod.invoke(builder, request.getMethod(), publisher);
+                Object httpRequest = requestBuild.invoke(builder);
+                CompletableFuture<Object> future = (CompletableFuture<Object>) sendAsync.invoke(client(connectTimeout), httpRequest, stringHandler);
+                return future.thenApply(this::toResponse);
+            } catch (InvocationTargetException e) {
+                return AuthenticationExecutors.failed(e.getCause());
+            } catch (ReflectiveOperationException e) {
+                return AuthenticationExecutors.failed(e);
+            }
+        }
+
+        private Object client(Duration connectTimeout) {
+            return clients.computeIfAbsent(connectTimeout, timeout -> {
+                try {
+                    Object builder = newClientBuilder.invoke(null);
+                    clientVersion.invoke(builder, http2);
+                    clientConnectTimeout.invoke(builder, timeout);
+                    clientFollowRedirects.invoke(builder, redirectNormal);
+                    return clientBuild.invoke(builder);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private HttpResponse toResponse(Object response) {
+            try {
+                Object headers = headersMap.invoke(responseHeaders.invoke(response));
+                return new HttpResponse((Integer) statusCode.invoke(response),
+                        (Map<String, List<String>>) headers, (String) responseBody.invoke(response));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
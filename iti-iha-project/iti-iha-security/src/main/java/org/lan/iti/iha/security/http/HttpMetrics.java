@@ -0,0 +1,140 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.http;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按 IdP（host:port）统计的请求延迟与错误
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class HttpMetrics {
+    private final ConcurrentMap<String, Recorder> recorders = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次请求
+     *
+     * @param host     host:port
+     * @param nanos    耗时
+     * @param response 响应，网络异常时为null
+     */
+    public void record(String host, long nanos, HttpResponse response) {
+        Recorder recorder = recorders.get(host);
+        if (recorder == null) {
+            recorder = recorders.computeIfAbsent(host, h -> new Recorder());
+        }
+        recorder.requests.increment();
+        recorder.totalNanos.add(nanos);
+        recorder.maxNanos.accumulate(nanos);
+        if (response == null) {
+            recorder.failures.increment();
+        } else if (response.getStatus() >= 500) {
+            recorder.serverErrors.increment();
+        }
+    }
+
+    /**
+     * @param host host:port
+     * @return 统计快照，无请求时返回null
+     */
+    public Stats get(String host) {
+        Recorder recorder = recorders.get(host);
+        return recorder == null ? null : recorder.snapshot();
+    }
+
+    /**
+     * @return 全部 IdP 的统计快照
+     */
+    public Map<String, Stats> snapshot() {
+        Map<String, Stats> result = new TreeMap<>();
+        recorders.forEach((host, recorder) -> result.put(host, recorder.snapshot()));
+        return Collections.unmodifiableMap(result);
+    }
+
+    public void reset() {
+        recorders.clear();
+    }
+
+    private static final class Recorder {
+        final LongAdder requests = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder serverErrors = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        Stats snapshot() {
+            return new Stats(requests.sum(), failures.sum(), serverErrors.sum(), totalNanos.sum(), maxNanos.get());
+        }
+    }
+
+    /**
+     * 统计快照
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class Stats {
+        /**
+         * 请求数
+         */
+        private final long requestCount;
+
+        /**
+         * 网络异常（连接失败、超时等）次数
+         */
+        private final long failureCount;
+
+        /**
+         * 5xx 响应次数
+         */
+        private final long serverErrorCount;
+
+        private final long totalNanos;
+        private final long maxNanos;
+
+        public double averageMillis() {
+            return requestCount == 0 ? 0 : (double) totalNanos / requestCount / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        public double maxMillis() {
+            return (double) maxNanos / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        /**
+         * @return 错误率（网络异常 + 5xx）
+         */
+        public double errorRate() {
+            return requestCount == 0 ? 0 : (double) (failureCount + serverErrorCount) / requestCount;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.http;
+
+import lombok.Getter;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * HTTP 请求
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@Getter
+public class HttpRequest {
+    public static final String CONTENT_TYPE = "Content-Type";
+    public static final String FORM_URLENCODED = "application/x-www-form-urlencoded;charset=UTF-8";
+    public static final String APPLICATION_JSON = "application/json";
+
+    private final String method;
+    private String url;
+    private final Map<String, String> headers = new LinkedHashMap<>();
+    private String body;
+
+    /**
+     * 本次请求的响应超时，为null时使用 IdP 配置
+     */
+    private Duration timeout;
+
+    public HttpRequest(String method, String url) {
+        this.method = method;
+        this.url = url;
+    }
+
+    public static HttpRequest get(String url) {
+        return new HttpRequest("GET", url);
+    }
+
+    public static HttpRequest post(String url) {
+        return new HttpRequest("POST", url);
+    }
+
+    public HttpRequest header(String name, String value) {
+        if (value != null) {
+            this.headers.put(name, value);
+        }
+        return this;
+    }
+
+    /**
+     * 追加 URL 查询参数（UTF-8 编码）
+     *
+     * @param params 参数
+     * @return this
+     */
+    public HttpRequest query(Map<String, String> params) {
+        String query = encode(params);
+        if (!query.isEmpty()) {
+            this.url = url + (url.indexOf('?') < 0 ? "?" : "&") + query;
+        }
+        return this;
+    }
+
+    /**
+     * 以 application/x-www-form-urlencoded 提交参数
+     *
+     * @param params 参数
+     * @return this
+     */
+    public HttpRequest form(Map<String, String> params) {
+        return body(encode(params), FORM_URLENCODED);
+    }
+
+    public HttpRequest body(String body, String contentType) {
+        this.body = body;
+        return header(CONTENT_TYPE, contentType);
+    }
+
+    public HttpRequest timeout(Duration timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    public Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    static String encode(Map<String, String> params) {
+        if (params == null || params.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> entry : params.entrySet()) {
+            if (entry.getKey() == null) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append('&');
+            }
+            sb.append(urlEncode(entry.getKey())).append('=');
+            if (entry.getValue() != null) {
+                sb.append(urlEncode(entry.getValue()));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String urlEncode(String value) {
+        try {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + url;
+    }
+}
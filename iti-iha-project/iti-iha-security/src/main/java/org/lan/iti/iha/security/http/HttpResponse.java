@@ -0,0 +1,73 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.http;
+
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * HTTP 响应
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@Getter
+public class HttpResponse {
+    private final int status;
+
+    /**
+     * 响应头，名称不区分大小写
+     */
+    private final Map<String, List<String>> headers;
+    private final String body;
+
+    public HttpResponse(int status, Map<String, List<String>> headers, String body) {
+        this.status = status;
+        Map<String, List<String>> copy = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (headers != null) {
+            headers.forEach((name, values) -> {
+                if (name != null) {
+                    copy.put(name, values);
+                }
+            });
+        }
+        this.headers = Collections.unmodifiableMap(copy);
+        this.body = body;
+    }
+
+    /**
+     * @param name 名称
+     * @return 第一个值，不存在时返回null
+     */
+    public String header(String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    public boolean isSuccessful() {
+        return status >= 200 && status < 300;
+    }
+
+    @Override
+    public String toString() {
+        return "HttpResponse(status=" + status + ")";
+    }
+}
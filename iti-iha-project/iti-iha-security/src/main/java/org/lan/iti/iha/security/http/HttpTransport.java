@@ -0,0 +1,61 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.http;
+
+import org.lan.iti.common.extension.IExtension;
+import org.lan.iti.common.extension.annotation.Extension;
+import org.lan.iti.iha.security.processor.AuthenticationExecutors;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * HTTP 传输扩展点
+ * <p>
+ * OAuth2/OIDC/第三方登录模块访问 IdP 时使用，可通过 ExtensionLoader 或 {@link HttpTransports#set} 替换
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@Extension
+public interface HttpTransport extends IExtension<Object> {
+
+    /**
+     * 异步执行请求，网络异常时以异常完成；非 2xx 响应正常返回
+     *
+     * @param request 请求
+     * @return 响应
+     */
+    CompletableFuture<HttpResponse> executeAsync(HttpRequest request);
+
+    /**
+     * 同步执行请求
+     *
+     * @param request 请求
+     * @return 响应
+     */
+    default HttpResponse execute(HttpRequest request) {
+        return AuthenticationExecutors.join(executeAsync(request));
+    }
+
+    @Override
+    default boolean matches(Object params) {
+        return true;
+    }
+}
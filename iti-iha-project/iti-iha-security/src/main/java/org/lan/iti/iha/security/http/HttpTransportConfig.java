@@ -0,0 +1,87 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.http;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HTTP 传输配置
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@Data
+@Accessors(chain = true)
+public class HttpTransportConfig {
+    /**
+     * 默认超时
+     */
+    private Timeouts defaults = new Timeouts(Duration.ofSeconds(5), Duration.ofSeconds(10));
+
+    /**
+     * 按 IdP 配置的超时，key 为 host 或 host:port
+     */
+    private Map<String, Timeouts> hosts = new HashMap<>();
+
+    /**
+     * 是否优先使用 HTTP/2（运行时为 JDK 11+ 且为 https 时生效）
+     */
+    private boolean http2 = true;
+
+    public HttpTransportConfig host(String host, Duration connectTimeout, Duration readTimeout) {
+        this.hosts.put(host, new Timeouts(connectTimeout, readTimeout));
+        return this;
+    }
+
+    /**
+     * @param host    host
+     * @param hostKey host:port
+     * @return 匹配的超时配置
+     */
+    public Timeouts timeouts(String host, String hostKey) {
+        Timeouts timeouts = hosts.get(hostKey);
+        if (timeouts == null) {
+            timeouts = hosts.get(host);
+        }
+        return timeouts == null ? defaults : timeouts;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Timeouts {
+        /**
+         * 建立连接超时
+         */
+        private Duration connectTimeout;
+
+        /**
+         * 响应超时
+         */
+        private Duration readTimeout;
+    }
+}
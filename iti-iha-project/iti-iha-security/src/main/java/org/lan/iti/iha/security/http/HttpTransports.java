@@ -0,0 +1,57 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.http;
+
+import lombok.experimental.UtilityClass;
+import org.lan.iti.common.extension.ExtensionLoader;
+
+/**
+ * 共享 HTTP 传输
+ * <p>
+ * 优先使用 ExtensionLoader 加载的 {@link HttpTransport}，否则使用 {@link DefaultHttpTransport}
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@UtilityClass
+public class HttpTransports {
+    private static volatile HttpTransport transport;
+
+    public static HttpTransport get() {
+        HttpTransport result = transport;
+        if (result == null) {
+            synchronized (HttpTransports.class) {
+                result = transport;
+                if (result == null) {
+                    result = ExtensionLoader.getLoader(HttpTransport.class).getFirst();
+                    if (result == null) {
+                        result = new DefaultHttpTransport();
+                    }
+                    transport = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    public static void set(HttpTransport httpTransport) {
+        transport = httpTransport;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.json;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import lombok.experimental.UtilityClass;
+import org.lan.iti.common.core.util.JacksonHelper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * IHA 共享 JSON 设施
+ * <p>
+ * 持有进程内共享的 ObjectMapper，并按类型缓存预热好的 {@link JsonCodec}，
+ * 避免每次调用创建 ObjectMapper 丢弃 Jackson 的序列化器/反序列化器缓存
+ * <p>
+ * 共享 ObjectMapper 仅用于创建不可变的 ObjectReader/ObjectWriter，不要修改其配置
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@UtilityClass
+public class IhaJson {
+    public static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {
+    };
+
+    /**
+     * 忽略未知属性
+     */
+    private static final ObjectMapper MAPPER = JacksonHelper.create();
+
+    /**
+     * 忽略未知属性，属性名使用下划线风格
+     */
+    private static final ObjectMapper SNAKE_CASE_MAPPER = JacksonHelper.create()
+            .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+
+    private static final ObjectReader MAP_READER = MAPPER.readerFor(MAP_TYPE);
+    private static final ObjectWriter WRITER = MAPPER.writer();
+
+    private static final ConcurrentMap<Class<?>, JsonCodec<?>> CODECS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, JsonCodec<?>> SNAKE_CASE_CODECS = new ConcurrentHashMap<>();
+
+    /**
+     * 获取指定类型的编解码器，首次获取时创建并预热
+     *
+     * @param type 类型
+     * @param <T>  类型
+     * @return 编解码器
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> JsonCodec<T> codec(Class<T> type) {
+        JsonCodec<T> codec = (JsonCodec<T>) CODECS.get(type);
+        if (codec == null) {
+            codec = (JsonCodec<T>) CODECS.computeIfAbsent(type, t -> new JsonCodec<>(MAPPER, t, MAP_READER));
+        }
+        return codec;
+    }
+
+    /**
+     * 获取指定类型的编解码器，属性名强制使用下划线风格
+     *
+     * @param type 类型
+     * @param <T>  类型
+     * @return 编解码器
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> JsonCodec<T> snakeCaseCodec(Class<T> type) {
+        JsonCodec<T> codec = (JsonCodec<T>) SNAKE_CASE_CODECS.get(type);
+        if (codec == null) {
+            codec = (JsonCodec<T>) SNAKE_CASE_CODECS.computeIfAbsent(type,
+                    t -> new JsonCodec<>(SNAKE_CASE_MAPPER, t, SNAKE_CASE_MAPPER.readerFor(MAP_TYPE)));
+        }
+        return codec;
+    }
+
+    /**
+     * 按运行时类型转换为 Map
+     *
+     * @param value 对象
+     * @return map
+     * @throws IllegalArgumentException 转换失败
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> toMap(Object value) {
+        if (value == null) {
+            return null;
+        }
+        return codec((Class<Object>) value.getClass()).toMap(value);
+    }
+
+    /**
+     * 解析 JSON 对象
+     *
+     * @param json json
+     * @return map
+     */
+    public static Map<String, Object> readMap(String json) throws JsonProcessingException {
+        return MAP_READER.readValue(json);
+    }
+
+    /**
+     * 按运行时类型序列化
+     *
+     * @param value 对象
+     * @return json
+     */
+    public static String write(Object value) throws JsonProcessingException {
+        return WRITER.writeValueAsString(value);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 单一类型的不可变 JSON 编解码器
+ * <p>
+ * 创建时即解析根类型的序列化器/反序列化器；
+ * 与 Map 之间的转换直接经由 token 缓冲，不生成 JSON 文本或 JsonNode 树
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public final class JsonCodec<T> {
+    @Getter
+    private final Class<T> type;
+    private final ObjectMapper mapper;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+    private final ObjectReader mapReader;
+    private final ObjectWriter mapWriter;
+
+    JsonCodec(ObjectMapper mapper, Class<T> type, ObjectReader mapReader) {
+        this.type = type;
+        this.mapper = mapper;
+        this.reader = mapper.readerFor(type);
+        this.writer = mapper.writerFor(type);
+        this.mapReader = mapReader;
+        this.mapWriter = mapper.writerFor(Map.class);
+    }
+
+    public T read(String json) throws JsonProcessingException {
+        return reader.readValue(json);
+    }
+
+    public String write(T value) throws JsonProcessingException {
+        return writer.writeValueAsString(value);
+    }
+
+    /**
+     * 转换为 Map
+     *
+     * @param value 对象
+     * @return map
+     * @throws IllegalArgumentException 转换失败
+     */
+    public Map<String, Object> toMap(T value) {
+        if (value == null) {
+            return null;
+        }
+        try (TokenBuffer buffer = new TokenBuffer(mapper, false)) {
+            writer.writeValue(buffer, value);
+            try (JsonParser parser = buffer.asParser()) {
+                return mapReader.readValue(parser);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 从 Map 转换
+     *
+     * @param map map
+     * @return 对象
+     * @throws IllegalArgumentException 转换失败
+     */
+    public T fromMap(Map<String, ?> map) {
+        if (map == null) {
+            return null;
+        }
+        try (TokenBuffer buffer = new TokenBuffer(mapper, false)) {
+            mapWriter.writeValue(buffer, map);
+            try (JsonParser parser = buffer.asParser()) {
+                return reader.readValue(parser);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package org.lan.iti.iha.security.jwt;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jose4j.jwk.HttpsJwks;
+import org.jose4j.jwk.JsonWebKeySet;
+import org.jose4j.jwk.PublicJsonWebKey;
+import org.jose4j.jwt.consumer.JwtConsumer;
+import org.jose4j.jwt.consumer.JwtConsumerBuilder;
+import org.jose4j.keys.resolvers.HttpsJwksVerificationKeyResolver;
+import org.jose4j.keys.resolvers.JwksVerificationKeyResolver;
+import org.jose4j.lang.JoseException;
+import org.lan.iti.common.core.util.StringUtil;
+import org.lan.iti.common.core.util.SystemClock;
+import org.lan.iti.iha.security.cache.BoundedLocalCache;
+import org.lan.iti.iha.security.exception.jwt.InvalidJwksException;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * JWT 密钥材料缓存
+ * <p>
+ * 缓存解析后的 {@link JsonWebKeySet}、{@link PublicJsonWebKey} 以及构建好的 {@link JwtConsumer}，
+ * 避免每次签发/校验令牌都重新解析 JWKS 并重建 RSA/EC 密钥。
+ * <p>
+ * 缓存键仅由 clientId、keyId 与算法组成，不包含 JWKS 内容；每个条目记录构建时所用的 JWKS 字符串，
+ * 命中时先按引用比较，{@link JwtConfig} 未被替换时无需任何与 JWKS 大小相关的计算，
+ * 引用不同时再比较内容，内容变化（如轮换密钥）则重新构建并替换该条目。
+ * 各缓存均为 {@link BoundedLocalCache}，容量超过 {@link #MAXIMUM_SIZE} 时按 W-TinyLFU 逐条淘汰，常用的密钥不受影响，
+ * 也可通过 {@link JwtUtil#invalidateKeyCache()} 主动失效。
+ * <p>
+ * HTTPS JWKS 端点按 URL 共享同一个 {@link HttpsJwks}，并由后台线程定时刷新，请求线程不会因缓存过期而同步拉取；
+ * 被淘汰且不再被任何 consumer 引用的 {@link HttpsJwks} 回收后，其刷新任务随之取消。
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@Slf4j
+final class JwtKeyCache {
+    /**
+     * 单个缓存的最大条目数
+     */
+    static final int MAXIMUM_SIZE = 256;
+    /**
+     * 缓存条目的过期时间（毫秒），到期后重新解析
+     */
+    static final long EXPIRE = TimeUnit.DAYS.toMillis(1);
+    /**
+     * HTTPS JWKS 后台刷新间隔（秒）
+     */
+    static final long JWKS_REFRESH_INTERVAL = TimeUnit.MINUTES.toSeconds(10);
+
+    private static final String SEPARATOR = "\n";
+
+    private static final BoundedLocalCache KEY_SETS = newCache();
+    private static final BoundedLocalCache PUBLIC_KEYS = newCache();
+    private static final BoundedLocalCache PARSE_CONSUMERS = newCache();
+    private static final BoundedLocalCache VALIDATE_CONSUMERS = newCache();
+    private static final BoundedLocalCache HTTPS_JWKS = newCache();
+
+    private static volatile ScheduledExecutorService refresher;
+
+    private JwtKeyCache() {
+    }
+
+    static JsonWebKeySet keySet(String clientId, String jwksJson) {
+        if (StringUtil.isEmpty(jwksJson)) {
+            throw new InvalidJwksException();
+        }
+        return computeIfAbsent(KEY_SETS, String.valueOf(clientId), jwksJson,
+                () -> JwtUtil.JsonWebKeyResolver.createJsonWebKeySet(jwksJson));
+    }
+
+    static PublicJsonWebKey publicKey(String clientId, String keyId, String jwksJson, TokenAlgorithms tokenAlgorithms) {
+        TokenAlgorithms algorithms = algorithms(tokenAlgorithms);
+        PublicJsonWebKey key = computeIfAbsent(PUBLIC_KEYS, key(clientId, keyId, algorithms), jwksJson,
+                () -> JwtUtil.JsonWebKeyResolver.findPublicJsonWebKey(keySet(clientId, jwksJson), keyId, algorithms));
+        if (null == key) {
+            throw new InvalidJwksException("Unable to create public json web key.");
+        }
+        return key;
+    }
+
+    /**
+     * 仅校验签名与时间的 consumer，用于 {@link JwtUtil#parseJwtToken}
+     */
+    static JwtConsumer parseConsumer(String clientId, String keyId, String jwksJson, TokenAlgorithms tokenAlgorithms) {
+        TokenAlgorithms algorithms = algorithms(tokenAlgorithms);
+        return computeIfAbsent(PARSE_CONSUMERS, key(clientId, keyId, algorithms), jwksJson, () -> new JwtConsumerBuilder()
+                .setSkipDefaultAudienceValidation()
+                // allow some leeway in validating time based claims to account for clock skew
+                .setAllowedClockSkewInSeconds(30)
+                // verify the signature with the public key
+                .setVerificationKey(publicKey(clientId, keyId, jwksJson, algorithms).getPublicKey())
+                .build());
+    }
+
+    /**
+     * 校验 iss/aud/iat/exp 的 consumer，用于 {@link JwtUtil#validateJwtToken}
+     * <p>
+     * subject 随用户变化，不参与缓存键，由调用方在 consumer 处理完成后自行比较；
+     * issuer 与 jwksUrl 决定 consumer 的校验规则，因此与 clientId、keyId、算法一同组成缓存键
+     */
+    static JwtConsumer validateConsumer(String clientId, String issuer, String jwksUrl, JwtConfig jwtConfig) {
+        String keyId = jwtConfig.getJwksKeyId();
+        String jwksJson = jwtConfig.getJwksJson();
+        TokenAlgorithms algorithms = algorithms(jwtConfig.getTokenSigningAlg());
+        JwtVerificationType verificationType = jwtConfig.getJwtVerificationType();
+        String key = key(clientId, keyId, algorithms) + SEPARATOR + verificationType + SEPARATOR + issuer + SEPARATOR + jwksUrl;
+        return computeIfAbsent(VALIDATE_CONSUMERS, key, jwksJson, () -> {
+            JwtConsumerBuilder builder = new JwtConsumerBuilder()
+                    .setRequireIssuedAt()
+                    // the JWT must have an expiration time
+                    .setRequireExpirationTime()
+                    // the JWT must have a subject claim
+                    .setRequireSubject()
+                    // whom the JWT needs to have been issued by
+                    .setExpectedIssuer(issuer)
+                    // to whom the JWT is intended for
+                    .setExpectedAudience(clientId)
+                    // allow some leeway in validating time based claims to account for clock skew
+                    .setAllowedClockSkewInSeconds(120);
+
+            if (verificationType == JwtVerificationType.HTTPS_JWKS_ENDPOINT && StringUtil.isNotEmpty(jwksUrl)) {
+                builder.setVerificationKeyResolver(httpsResolver(jwksUrl));
+            } else if (verificationType == JwtVerificationType.JWKS) {
+                builder.setVerificationKeyResolver(new JwksVerificationKeyResolver(keySet(clientId, jwksJson).getJsonWebKeys()));
+            } else {
+                builder.setVerificationKey(publicKey(clientId, keyId, jwksJson, algorithms).getPublicKey());
+            }
+            return builder.build();
+        });
+    }
+
+    /**
+     * 按 URL 共享的 HTTPS JWKS 解析器
+     */
+    static HttpsJwksVerificationKeyResolver httpsResolver(String jwksUrl) {
+        SharedHttpsJwks shared = computeIfAbsent(HTTPS_JWKS, jwksUrl, jwksUrl, () -> new SharedHttpsJwks(jwksUrl));
+        return shared.resolver;
+    }
+
+    static void clear() {
+        KEY_SETS.clear();
+        PUBLIC_KEYS.clear();
+        PARSE_CONSUMERS.clear();
+        VALIDATE_CONSUMERS.clear();
+        synchronized (HTTPS_JWKS) {
+            for (String jwksUrl : HTTPS_JWKS.keys()) {
+                Entry<?> entry = (Entry<?>) HTTPS_JWKS.get(jwksUrl);
+                if (entry != null) {
+                    ((SharedHttpsJwks) entry.value).cancel();
+                }
+            }
+            HTTPS_JWKS.clear();
+        }
+    }
+
+    private static BoundedLocalCache newCache() {
+        return new BoundedLocalCache(MAXIMUM_SIZE, EXPIRE, SystemClock::now);
+    }
+
+    private static TokenAlgorithms algorithms(TokenAlgorithms tokenAlgorithms) {
+        return null == tokenAlgorithms ? TokenAlgorithms.RS256 : tokenAlgorithms;
+    }
+
+    private static String key(String clientId, String keyId, TokenAlgorithms tokenAlgorithms) {
+        return clientId + SEPARATOR + keyId + SEPARATOR + tokenAlgorithms;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V computeIfAbsent(BoundedLocalCache cache, String key, String source, Supplier<? extends V> loader) {
+        // 命中且来源未变时无锁读取；否则按缓存加锁，同一条目只加载一次，来源变化时替换旧条目
+        Entry<V> entry = (Entry<V>) cache.get(key);
+        if (entry != null && entry.matches(source)) {
+            return entry.value;
+        }
+        synchronized (cache) {
+            entry = (Entry<V>) cache.get(key);
+            if (entry != null && entry.matches(source)) {
+                return entry.value;
+            }
+            V value = loader.get();
+            if (value != null) {
+                cache.put(key, new Entry<>(source, value));
+            }
+            return value;
+        }
+    }
+
+    private static ScheduledExecutorService refresher() {
+        ScheduledExecutorService executor = refresher;
+        if (executor == null) {
+            synchronized (JwtKeyCache.class) {
+                executor = refresher;
+                if (executor == null) {
+                    ScheduledThreadPoolExecutor stpe = new ScheduledThreadPoolExecutor(1, runnable -> {
+                        Thread thread = new Thread(runnable, "iti-jwks-refresh");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    stpe.setRemoveOnCancelPolicy(true);
+                    refresher = executor = stpe;
+                }
+            }
+        }
+        return executor;
+    }
+
+    private static final class SharedHttpsJwks {
+        private final HttpsJwksVerificationKeyResolver resolver;
+        private final ScheduledFuture<?> task;
+
+        SharedHttpsJwks(String jwksUrl) {
+            HttpsJwks jwks = new HttpsJwks(jwksUrl);
+            // 后台刷新周期内缓存始终有效，请求线程只在首次或遇到未知 kid 时才会同步拉取
+            jwks.setDefaultCacheDuration(JWKS_REFRESH_INTERVAL * 2);
+            this.resolver = new HttpsJwksVerificationKeyResolver(jwks);
+            // 刷新任务只弱引用 HttpsJwks，淘汰后不再被 consumer 使用时即可回收
+            Refresh refresh = new Refresh(jwks);
+            this.task = refresh.task = refresher().scheduleWithFixedDelay(refresh,
+                    JWKS_REFRESH_INTERVAL, JWKS_REFRESH_INTERVAL, TimeUnit.SECONDS);
+        }
+
+        void cancel() {
+            task.cancel(false);
+        }
+    }
+
+    private static final class Refresh implements Runnable {
+        private final WeakReference<HttpsJwks> jwks;
+        private final String location;
+        private volatile ScheduledFuture<?> task;
+
+        Refresh(HttpsJwks jwks) {
+            this.jwks = new WeakReference<>(jwks);
+            this.location = jwks.getLocation();
+        }
+
+        @Override
+        public void run() {
+            HttpsJwks current = jwks.get();
+            if (current == null) {
+                task.cancel(false);
+                return;
+            }
+            try {
+                current.refresh();
+            } catch (JoseException | IOException e) {
+                log.warn("[JwtKeyCache] refresh jwks from {} failed.", location, e);
+            }
+        }
+    }
+
+    /**
+     * 缓存条目，记录构建时所用的 JWKS 以便发现配置变更
+     */
+    private static final class Entry<V> {
+        private final String source;
+        private final V value;
+
+        Entry(String source, V value) {
+            this.source = source;
+            this.value = value;
+        }
+
+        boolean matches(String source) {
+            // 同一个 JwtConfig 返回同一个字符串，按引用比较即可；仅在配置被替换时才比较内容
+            return this.source == source || Objects.equals(this.source, source);
+        }
+    }
+}
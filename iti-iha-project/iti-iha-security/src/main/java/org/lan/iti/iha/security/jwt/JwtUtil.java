@@ -27,12 +27,8 @@ import org.jose4j.jwt.MalformedClaimException;
 import org.jose4j.jwt.NumericDate;
 import org.jose4j.jwt.consumer.InvalidJwtException;
 import org.jose4j.jwt.consumer.JwtConsumer;
-import org.jose4j.jwt.consumer.JwtConsumerBuilder;
 import org.jose4j.keys.EcKeyUtil;
 import org.jose4j.keys.RsaKeyUtil;
-import org.jose4j.keys.resolvers.HttpsJwksVerificationKeyResolver;
-import org.jose4j.keys.resolvers.JwksVerificationKeyResolver;
-import org.jose4j.keys.resolvers.VerificationKeyResolver;
 import org.jose4j.lang.JoseException;
 import org.lan.iti.common.core.util.StringUtil;
 import org.lan.iti.iha.security.IhaSecurity;
@@ -62,10 +58,14 @@ public class JwtUtil {
         if (null == jwtConfig) {
             throw new JwtException("Unable to create Jwt Token: jwt config cannot be empty.");
         }
-        return createJwtToken(claims, jwtConfig.getJwksKeyId(), jwtConfig.getJwksJson(), jwtConfig.getTokenSigningAlg());
+        return createJwtToken(claims, clientId, jwtConfig.getJwksKeyId(), jwtConfig.getJwksJson(), jwtConfig.getTokenSigningAlg());
     }
 
     public static String createJwtToken(JwtClaims claims, String keyId, String jwksJson, TokenAlgorithms tokenAlgorithms) {
+        return createJwtToken(claims, null, keyId, jwksJson, tokenAlgorithms);
+    }
+
+    private static String createJwtToken(JwtClaims claims, String clientId, String keyId, String jwksJson, TokenAlgorithms tokenAlgorithms) {
         Assert.notNull(claims, "claims cannot null");
         Assert.notEmpty(keyId, "keyId cannot null");
         Assert.notEmpty(jwksJson, "jwksJson cannot null");
@@ -81,8 +81,10 @@ public class JwtUtil {
         // The payload of the JWS is JSON content of the JWT Claims
         jws.setPayload(claims.toJson());
 
-        PublicJsonWebKey publicJsonWebKey = JsonWebKeyResolver.createPublicJsonWebKey(keyId, jwksJson, tokenAlgorithms);
-        if (null == publicJsonWebKey) {
+        PublicJsonWebKey publicJsonWebKey;
+        try {
+            publicJsonWebKey = JwtKeyCache.publicKey(clientId, keyId, jwksJson, tokenAlgorithms);
+        } catch (InvalidJwksException e) {
             throw new InvalidJwksException("Unable to create Jwt Token: Unable to create public json web key.");
         }
         // The JWT is signed using the private key
@@ -172,19 +174,13 @@ public class JwtUtil {
             throw new InvalidJwksException("Unable to parse Jwt Token: jwt config cannot be empty.");
         }
 
-        PublicJsonWebKey publicJsonWebKey = JsonWebKeyResolver.createPublicJsonWebKey(keyId, jwksJson, tokenAlgorithms);
-        if (null == publicJsonWebKey) {
+        JwtConsumer jwtConsumer;
+        try {
+            // consumers are built once per key material and reused, they are thread safe
+            jwtConsumer = JwtKeyCache.parseConsumer(null, keyId, jwksJson, tokenAlgorithms);
+        } catch (InvalidJwksException e) {
             throw new InvalidJwksException("Unable to create Jwt Token: Unable to create public json web key.");
         }
-        JwtConsumer jwtConsumer = new JwtConsumerBuilder()
-                .setSkipDefaultAudienceValidation()
-                // whom the JWT needs to have been issued by
-                // allow some leeway in validating time based claims to account for clock skew
-                .setAllowedClockSkewInSeconds(30)
-                // verify the signature with the public key
-                .setVerificationKey(publicJsonWebKey.getPublicKey())
-                // create the JwtConsumer instance
-                .build();
 
         try {
             //  Validate the JWT and process it to the Claims
@@ -214,51 +210,29 @@ public class JwtUtil {
         if (null == jwtConfig) {
             throw new InvalidJwksException("Unable to validate Jwt Token: jwt config cannot be empty.");
         }
-        JwtConsumerBuilder jwtConsumerBuilder = new JwtConsumerBuilder();
-
-        JwtVerificationType jwtVerificationType = jwtConfig.getJwtVerificationType();
-        if (null != jwtVerificationType) {
-            if (jwtVerificationType == JwtVerificationType.HTTPS_JWKS_ENDPOINT) {
-                // The HttpsJwks retrieves and caches keys from a the given HTTPS JWKS endpoint.
-                // Because it retains the JWKs after fetching them, it can and should be reused
-                // to improve efficiency by reducing the number of outbound calls the the endpoint.
-                VerificationKeyResolver verificationKeyResolver = new HttpsJwksVerificationKeyResolver(new HttpsJwks(jwksUrl));
-                jwtConsumerBuilder.setVerificationKeyResolver(verificationKeyResolver);
-            } else if (jwtVerificationType == JwtVerificationType.JWKS) {
-                // There's also a key resolver that selects from among a given list of JWKs using the Key ID
-                // and other factors provided in the header of the JWS/JWT.
-                JsonWebKeySet jsonWebKeySet = JsonWebKeyResolver.createJsonWebKeySet(jwtConfig.getJwksJson());
-                JwksVerificationKeyResolver jwksResolver = new JwksVerificationKeyResolver(jsonWebKeySet.getJsonWebKeys());
-                jwtConsumerBuilder.setVerificationKeyResolver(jwksResolver);
-            }
-        }
-
-        PublicJsonWebKey publicJsonWebKey = JsonWebKeyResolver.createPublicJsonWebKey(jwtConfig.getJwksKeyId(), jwtConfig.getJwksJson(), jwtConfig.getTokenSigningAlg());
-        if (null == publicJsonWebKey) {
+        // The consumer (and its verification key resolver) depends only on the client and the key material,
+        // so it is built once and reused. The shared HttpsJwks retains the fetched JWKs and is refreshed
+        // in the background, which avoids outbound calls to the endpoint on the request path.
+        // The subject is per-user and is compared after the consumer has processed the token.
+        JwtConsumer jwtConsumer;
+        try {
+            jwtConsumer = JwtKeyCache.validateConsumer(clientId, issuer, jwksUrl, jwtConfig);
+        } catch (InvalidJwksException e) {
             throw new InvalidJwksException("Unable to verify Jwt Token: Unable to create public json web key.");
         }
-        JwtConsumer jwtConsumer = jwtConsumerBuilder
-                .setRequireIssuedAt()
-                // the JWT must have an expiration time
-                .setRequireExpirationTime()
-                // the JWT must have a subject claim
-                .setRequireSubject()
-                // whom the JWT needs to have been issued by
-                .setExpectedIssuer(issuer)
-                .setExpectedSubject(StringUtil.isEmpty(userId) ? clientId : userId)
-                // to whom the JWT is intended for
-                .setExpectedAudience(clientId)
-                // allow some leeway in validating time based claims to account for clock skew
-                .setAllowedClockSkewInSeconds(120)
-                // verify the signature with the public key
-                .setVerificationKey(publicJsonWebKey.getPublicKey())
-                // create the JwtConsumer instance
-                .build();
 
         try {
             //  Validate the JWT and process it to the Claims
             JwtClaims jwtClaims = jwtConsumer.processToClaims(jwtToken);
+            String expectedSubject = StringUtil.isEmpty(userId) ? clientId : userId;
+            if (!expectedSubject.equals(jwtClaims.getSubject())) {
+                log.error("Invalid Jwt Token! Subject ({}) doesn't match expected value of {}", jwtClaims.getSubject(), expectedSubject);
+                throw new InvalidJwtTokenException();
+            }
             return jwtClaims.getClaimsMap();
+        } catch (MalformedClaimException e) {
+            log.error("Invalid Jwt Token! ", e);
+            throw new InvalidJwtTokenException();
         } catch (InvalidJwtException e) {
             // InvalidJwtException will be thrown, if the JWT failed processing or validation in anyway.
             // Hopefully with meaningful explanations(s) about what went wrong.
@@ -280,6 +254,15 @@ public class JwtUtil {
         }
     }
 
+    /**
+     * 清空已缓存的 JWKS、公钥与 JwtConsumer，并停止 HTTPS JWKS 的后台刷新
+     * <p>
+     * 缓存条目会在 {@link JwtConfig} 的 JWKS 变化后的首次使用时自动重建，无需调用；仅在需要立即释放旧密钥时使用
+     */
+    public static void invalidateKeyCache() {
+        JwtKeyCache.clear();
+    }
+
     public static class JsonWebKeyResolver {
 
         public static JsonWebKeySet createJsonWebKeySet(String jwksJson) {
@@ -299,8 +282,11 @@ public class JwtUtil {
 
         public static PublicJsonWebKey createPublicJsonWebKey(String keyId, String jwksJson, TokenAlgorithms tokenAlgorithms) {
             tokenAlgorithms = null == tokenAlgorithms ? TokenAlgorithms.RS256 : tokenAlgorithms;
-            JsonWebKeySet jsonWebKeySet = createJsonWebKeySet(jwksJson);
+            return findPublicJsonWebKey(createJsonWebKeySet(jwksJson), keyId, tokenAlgorithms);
+        }
 
+        public static PublicJsonWebKey findPublicJsonWebKey(JsonWebKeySet jsonWebKeySet, String keyId, TokenAlgorithms tokenAlgorithms) {
+            tokenAlgorithms = null == tokenAlgorithms ? TokenAlgorithms.RS256 : tokenAlgorithms;
             switch (tokenAlgorithms.getKeyType()) {
                 case RsaKeyUtil.RSA:
                     return (RsaJsonWebKey) jsonWebKeySet.findJsonWebKey(keyId, tokenAlgorithms.getKeyType(), Use.SIGNATURE, tokenAlgorithms.getAlg());
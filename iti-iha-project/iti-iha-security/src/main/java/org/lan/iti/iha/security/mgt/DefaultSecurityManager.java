@@ -22,12 +22,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.lan.iti.iha.security.IhaSecurity;
 import org.lan.iti.iha.security.authentication.Authentication;
 import org.lan.iti.iha.security.authentication.support.AnonymousAuthenticationToken;
+import org.lan.iti.iha.security.context.SecurityContext;
 import org.lan.iti.iha.security.context.SecurityContextHolder;
 import org.lan.iti.iha.security.exception.authentication.AuthenticationException;
 import org.lan.iti.iha.security.exception.NotInitializedException;
 import org.lan.iti.iha.security.pipeline.PipelineManager;
+import org.lan.iti.iha.security.processor.AuthenticationExecutors;
 
 import javax.annotation.Nonnull;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 /**
  * @author NorthLan
@@ -67,6 +71,59 @@ public class DefaultSecurityManager implements SecurityManager {
         }
     }
 
+    /**
+     * 异步认证
+     * <p>
+     * 前置管道在调用线程执行；认证完成后的管道可能运行在其它线程，
+     * 此时临时绑定调用线程的 {@link SecurityContext}
+     */
+    @Override
+    public CompletionStage<Authentication> authenticateAsync(RequestParameter parameter) {
+        checkState();
+        PipelineManager pipelineManager = IhaSecurity.getContext().getPipelineManager();
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        Thread caller = Thread.currentThread();
+
+        pipelineManager.preAuthentication(parameter);
+        CompletionStage<Authentication> stage;
+        try {
+            stage = IhaSecurity.getContext().getAuthenticationManager()
+                    .authenticateAsync(parameter, IhaSecurity.getContext().getAuthenticationExecutor());
+        } catch (RuntimeException ex) {
+            stage = AuthenticationExecutors.failed(ex);
+        }
+        CompletableFuture<Authentication> result = new CompletableFuture<>();
+        stage.whenComplete((authentication, ex) -> {
+            boolean rebind = Thread.currentThread() != caller;
+            if (rebind) {
+                SecurityContextHolder.setContext(securityContext);
+            }
+            try {
+                Throwable cause = AuthenticationExecutors.unwrap(ex);
+                if (cause == null) {
+                    if (authentication.isAuthenticated()) {
+                        securityContext.setAuthentication(authentication);
+                        pipelineManager.onAuthenticationSuccess(parameter, authentication);
+                    }
+                    result.complete(authentication);
+                    return;
+                }
+                if (cause instanceof AuthenticationException) {
+                    pipelineManager.onAuthenticationFailure(parameter, (AuthenticationException) cause);
+                    securityContext.setAuthentication(null);
+                }
+                result.completeExceptionally(cause);
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                if (rebind) {
+                    SecurityContextHolder.clearContext();
+                }
+            }
+        });
+        return result;
+    }
+
     @Override
     public Authentication check(RequestParameter parameter) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -22,6 +22,7 @@ import org.lan.iti.iha.security.authentication.Authentication;
 import org.lan.iti.iha.security.exception.authentication.AuthenticationException;
 
 import javax.annotation.Nonnull;
+import java.util.concurrent.CompletionStage;
 
 /**
  * Security Manager
@@ -34,6 +35,14 @@ public interface SecurityManager {
     @Nonnull
     Authentication authenticate(RequestParameter parameter) throws AuthenticationException;
 
+    /**
+     * 异步认证，远程调用期间不占用调用线程，认证失败时以 {@link AuthenticationException} 异常完成
+     *
+     * @param parameter 请求参数
+     * @return 认证对象
+     */
+    CompletionStage<Authentication> authenticateAsync(RequestParameter parameter);
+
     Authentication check(RequestParameter parameter);
 
 }
@@ -18,7 +18,6 @@
 
 package org.lan.iti.iha.security.pipeline;
 
-import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -28,41 +27,49 @@ import org.lan.iti.iha.security.mgt.RequestParameter;
 
 import javax.servlet.ServletException;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
+ * Pipeline 管理
+ * <p>
+ * 注册时复制为新的不可变快照，按处理器接口分桶后缓存，事件分发时直接遍历对应数组
+ *
  * @author NorthLan
  * @date 2021/7/29
  * @url https://blog.noahlan.com
  */
 @Slf4j
 @NoArgsConstructor
-@AllArgsConstructor
 public class PipelineManager {
-    private List<Pipeline> pipelines;
+    private volatile Registry registry = new Registry(Collections.emptyList());
+
+    public PipelineManager(List<Pipeline> pipelines) {
+        registerPipeline(pipelines);
+    }
 
     public void registerPipeline(Pipeline... pipelines) {
         registerPipeline(Arrays.asList(pipelines));
     }
 
-    public void registerPipeline(List<Pipeline> pipelines) {
-        if (this.pipelines == null) {
-            this.pipelines = new LinkedList<>();
+    public synchronized void registerPipeline(List<Pipeline> pipelines) {
+        if (pipelines == null || pipelines.isEmpty()) {
+            return;
         }
-        this.pipelines.addAll(pipelines);
+        List<Pipeline> all = new ArrayList<>(this.registry.pipelines);
+        all.addAll(pipelines);
+        this.registry = new Registry(all);
     }
 
     @SuppressWarnings("unchecked")
     @SneakyThrows
     private <T extends Pipeline> void process(Class<T> clazz, ThrowableConsumer<T> consumer) {
-        if (this.pipelines != null) {
-            for (Pipeline pipeline : this.pipelines) {
-                if (clazz.isAssignableFrom(pipeline.getClass())) {
-                    consumer.accept((T) pipeline);
-                }
-            }
+        for (Pipeline pipeline : this.registry.bucket(clazz)) {
+            consumer.accept((T) pipeline);
         }
     }
 
@@ -82,4 +89,35 @@ public class PipelineManager {
     private interface ThrowableConsumer<T extends Pipeline> {
         void accept(T t) throws IOException, ServletException;
     }
+
+    /**
+     * 不可变的注册快照
+     */
+    private static final class Registry {
+        private static final Pipeline[] EMPTY = new Pipeline[0];
+
+        private final List<Pipeline> pipelines;
+
+        /**
+         * 处理器接口 -> 按注册顺序实现该接口的 Pipeline
+         */
+        private final ConcurrentMap<Class<?>, Pipeline[]> buckets = new ConcurrentHashMap<>();
+
+        Registry(List<Pipeline> pipelines) {
+            this.pipelines = pipelines;
+            bucket(PreAuthenticationHandler.class);
+            bucket(AuthenticationSuccessHandler.class);
+            bucket(AuthenticationFailureHandler.class);
+        }
+
+        Pipeline[] bucket(Class<?> clazz) {
+            Pipeline[] bucket = buckets.get(clazz);
+            if (bucket == null) {
+                bucket = buckets.computeIfAbsent(clazz, key -> pipelines.stream()
+                        .filter(key::isInstance)
+                        .toArray(size -> size == 0 ? EMPTY : new Pipeline[size]));
+            }
+            return bucket;
+        }
+    }
 }
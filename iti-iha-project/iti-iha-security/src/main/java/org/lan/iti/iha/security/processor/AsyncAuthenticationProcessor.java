@@ -0,0 +1,84 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.processor;
+
+import org.lan.iti.iha.security.authentication.Authentication;
+import org.lan.iti.iha.security.exception.authentication.AuthenticationException;
+import org.lan.iti.iha.security.mgt.RequestParameter;
+
+import java.util.concurrent.*;
+
+/**
+ * 异步认证处理器
+ * <p>
+ * 适用于需要访问远程服务（IdP、OIDC Discovery、第三方登录等）的处理器，
+ * 远程调用期间不占用请求线程；在同步处理链中使用时等待异步结果
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public interface AsyncAuthenticationProcessor extends AuthenticationProcessor {
+
+    /**
+     * 异步处理流程
+     *
+     * @param parameter      请求参数
+     * @param authentication 认证对象
+     * @param chain          异步处理链
+     * @return 认证对象
+     */
+    CompletionStage<Authentication> processAsync(RequestParameter parameter,
+                                                 Authentication authentication,
+                                                 AsyncProcessChain chain);
+
+    /**
+     * 同步处理链中使用时，等待异步结果；后续链在调用线程上执行，
+     * 避免在远程回调线程（如单线程 I/O 线程）上阻塞
+     */
+    @Override
+    default Authentication process(RequestParameter parameter,
+                                   Authentication authentication,
+                                   ProcessChain chain) throws AuthenticationException {
+        BlockingQueue<Runnable> continuations = new LinkedBlockingQueue<>();
+        CompletableFuture<Authentication> result = processAsync(parameter, authentication, (p, a) -> {
+            CompletableFuture<Authentication> rest = new CompletableFuture<>();
+            continuations.add(() -> {
+                try {
+                    rest.complete(chain.process(p, a));
+                } catch (RuntimeException ex) {
+                    rest.completeExceptionally(ex);
+                }
+            });
+            return rest;
+        }).toCompletableFuture();
+        // 完成时唤醒调用线程
+        result.whenComplete((r, ex) -> continuations.add(() -> {
+        }));
+        try {
+            while (!result.isDone()) {
+                continuations.take().run();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(ex);
+        }
+        return AuthenticationExecutors.join(result);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.processor;
+
+import org.lan.iti.iha.security.authentication.Authentication;
+import org.lan.iti.iha.security.mgt.RequestParameter;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 异步处理链
+ * <p>
+ * 与 {@link ProcessChain} 语义一致，处理失败时以异常完成返回的 {@link CompletionStage}
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public interface AsyncProcessChain {
+
+    /**
+     * 处理链异步处理认证过程
+     *
+     * @param parameter      请求参数
+     * @param authentication 认证对象
+     * @return 认证对象
+     */
+    CompletionStage<Authentication> processAsync(RequestParameter parameter, Authentication authentication);
+}
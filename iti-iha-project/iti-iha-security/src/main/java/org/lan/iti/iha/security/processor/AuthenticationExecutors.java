@@ -0,0 +1,175 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.processor;
+
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import org.lan.iti.common.core.support.NamedThreadFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * 异步认证执行器
+ * <p>
+ * 阻塞型处理器在异步认证中被转移到此执行器执行；
+ * 运行时支持虚拟线程（JDK 21+）时使用虚拟线程，否则使用有界的守护线程池
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@Slf4j
+@UtilityClass
+public class AuthenticationExecutors {
+    /**
+     * 平台线程池的最大线程数
+     */
+    public static final int DEFAULT_MAX_THREADS = 200;
+
+    private volatile ExecutorService defaultExecutor;
+
+    /**
+     * @return 默认执行器（懒加载，进程内共享）
+     */
+    public ExecutorService getDefault() {
+        ExecutorService executor = defaultExecutor;
+        if (executor == null) {
+            synchronized (AuthenticationExecutors.class) {
+                executor = defaultExecutor;
+                if (executor == null) {
+                    executor = newVirtualThreadExecutor();
+                    if (executor == null) {
+                        executor = newPlatformThreadExecutor(DEFAULT_MAX_THREADS);
+                    }
+                    defaultExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * 每个任务一个虚拟线程的执行器
+     *
+     * @return 执行器，运行时不支持虚拟线程时返回null
+     */
+    public ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            log.debug("Virtual threads are not available, fallback to platform threads.");
+            return null;
+        }
+    }
+
+    /**
+     * 有界平台线程池，空闲线程60s后回收，满载时拒绝任务
+     * <p>
+     * 被拒绝的异步认证以 {@link RejectedExecutionException} 异常完成，不会转由提交线程（如 IO 线程）执行阻塞型处理器
+     *
+     * @param maxThreads 最大线程数
+     * @return 执行器
+     */
+    public ExecutorService newPlatformThreadExecutor(int maxThreads) {
+        return newPlatformThreadExecutor(maxThreads, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 有界平台线程池，空闲线程60s后回收
+     *
+     * @param maxThreads       最大线程数
+     * @param rejectionHandler 满载时的拒绝策略
+     * @return 执行器
+     */
+    public ExecutorService newPlatformThreadExecutor(int maxThreads, RejectedExecutionHandler rejectionHandler) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads,
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(maxThreads * 4),
+                new NamedThreadFactory("iha-auth", true),
+                rejectionHandler);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 在 executor 中执行，任务被拒绝时返回以 {@link RejectedExecutionException} 异常完成的 future
+     *
+     * @param supplier 任务
+     * @param executor 执行器
+     * @param <T>      结果类型
+     * @return future
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, executor);
+        } catch (RejectedExecutionException ex) {
+            return failed(ex);
+        }
+    }
+
+    /**
+     * 以异常完成的 {@link CompletableFuture}
+     *
+     * @param ex  异常
+     * @param <T> 结果类型
+     * @return future
+     */
+    public <T> CompletableFuture<T> failed(Throwable ex) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(ex);
+        return future;
+    }
+
+    /**
+     * 去除 {@link CompletionException}/{@link ExecutionException} 包装
+     *
+     * @param ex 异常
+     * @return 原始异常
+     */
+    public Throwable unwrap(Throwable ex) {
+        while ((ex instanceof CompletionException || ex instanceof ExecutionException) && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        return ex;
+    }
+
+    /**
+     * 等待异步结果，原样抛出运行时异常（包括认证异常）
+     *
+     * @param stage 异步结果
+     * @param <T>   结果类型
+     * @return 结果
+     */
+    public <T> T join(CompletionStage<T> stage) {
+        try {
+            return stage.toCompletableFuture().join();
+        } catch (CompletionException | CancellationException ex) {
+            Throwable cause = unwrap(ex);
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+}
@@ -23,27 +23,33 @@ import org.lan.iti.iha.security.authentication.Authentication;
 import org.lan.iti.iha.security.exception.authentication.AuthenticationException;
 import org.lan.iti.iha.security.mgt.RequestParameter;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 
 /**
  * 责任链处理器
+ * <p>
+ * 注册后的处理器按 order 编译为不可变数组，每次处理创建独立的链游标，
+ * 同一类型的处理器可被多个请求线程并发使用
  *
  * @author NorthLan
  * @date 2021/8/3
  * @url https://blog.noahlan.com
  */
 public class ProcessorManager implements ProcessChain {
+    private static final AuthenticationProcessor[] EMPTY = new AuthenticationProcessor[0];
+
     /**
      * 当前类型处理器
      */
     private final List<AuthenticationProcessor> processors = new ArrayList<>();
 
     /**
-     * 是否排过序
+     * 排序后的处理器，注册变化后置为null，下次处理时重新编译
      */
-    private boolean sorted = false;
+    private volatile AuthenticationProcessor[] chain;
 
     /**
      * 当前管理的处理器类型
@@ -55,11 +61,6 @@ public class ProcessorManager implements ProcessChain {
      */
     private final boolean enableExtensionLoad;
 
-    /**
-     * 当前处理链位置
-     */
-    private int index = 0;
-
     public ProcessorManager(String type, boolean enableExtensionLoad) {
         this.type = type;
         this.enableExtensionLoad = enableExtensionLoad;
@@ -75,43 +76,134 @@ public class ProcessorManager implements ProcessChain {
         }
     }
 
-    public ProcessorManager addProcessor(AuthenticationProcessor process) {
+    public synchronized ProcessorManager addProcessor(AuthenticationProcessor process) {
         if (process == null) {
             return this;
         }
         this.processors.add(process);
-        this.sorted = false;
+        this.chain = null;
         return this;
     }
 
+    /**
+     * @return 排序后的处理器（只读）
+     */
     public List<AuthenticationProcessor> getProcessors() {
-        if (!sorted) {
-            this.processors.sort(Comparator.comparingInt(AuthenticationProcessor::getOrder));
-            sorted = true;
-        }
-        return this.processors;
+        return Collections.unmodifiableList(Arrays.asList(compiled()));
     }
 
     public Authentication process(RequestParameter parameter) throws AuthenticationException {
-        resetIndex();
-        return this.process(parameter, null);
+        return new Cursor(compiled()).process(parameter, null);
     }
 
+    /**
+     * 从链首开始处理
+     */
     @Override
     public Authentication process(RequestParameter parameter, Authentication authentication) throws AuthenticationException {
-        // 最后一个处理器已被处理，直接返回
-        if (index >= getProcessors().size()) {
-            return authentication;
+        return new Cursor(compiled()).process(parameter, authentication);
+    }
+
+    /**
+     * 异步处理
+     * <p>
+     * {@link AsyncAuthenticationProcessor} 在当前线程发起并异步完成，
+     * 其余阻塞型处理器（及其后续链）转移到 executor 执行，不占用调用线程
+     *
+     * @param parameter 请求参数
+     * @param executor  阻塞型处理器的执行器
+     * @return 认证对象
+     */
+    public CompletionStage<Authentication> processAsync(RequestParameter parameter, Executor executor) {
+        return new AsyncCursor(compiled(), executor).processAsync(parameter, null);
+    }
+
+    private AuthenticationProcessor[] compiled() {
+        AuthenticationProcessor[] compiled = this.chain;
+        if (compiled == null) {
+            synchronized (this) {
+                compiled = this.chain;
+                if (compiled == null) {
+                    compiled = this.processors.toArray(EMPTY);
+                    // 稳定排序，order 相同时保持注册顺序
+                    Arrays.sort(compiled, Comparator.comparingInt(AuthenticationProcessor::getOrder));
+                    this.chain = compiled;
+                }
+            }
         }
-        AuthenticationProcessor processor = getProcessors().get(index++);
-        if (processor.support(parameter, authentication)) {
-            return processor.process(parameter, authentication, this);
-        } else {
-            return process(parameter, authentication);
+        return compiled;
+    }
+
+    /**
+     * 单次处理的链游标
+     */
+    private static final class Cursor implements ProcessChain {
+        private final AuthenticationProcessor[] processors;
+        private int index;
+
+        Cursor(AuthenticationProcessor[] processors) {
+            this.processors = processors;
+        }
+
+        @Override
+        public Authentication process(RequestParameter parameter, Authentication authentication) throws AuthenticationException {
+            while (index < processors.length) {
+                AuthenticationProcessor processor = processors[index++];
+                if (processor.support(parameter, authentication)) {
+                    return processor.process(parameter, authentication, this);
+                }
+            }
+            // 最后一个处理器已被处理，直接返回
+            return authentication;
         }
     }
 
-    private void resetIndex() {
-        index = 0;
+    /**
+     * 单次异步处理的链游标
+     */
+    private static final class AsyncCursor implements AsyncProcessChain, ProcessChain {
+        private final AuthenticationProcessor[] processors;
+        private final Executor executor;
+        private int index;
+
+        AsyncCursor(AuthenticationProcessor[] processors, Executor executor) {
+            this.processors = processors;
+            this.executor = executor;
+        }
+
+        @Override
+        public CompletionStage<Authentication> processAsync(RequestParameter parameter, Authentication authentication) {
+            try {
+                while (index < processors.length) {
+                    AuthenticationProcessor processor = processors[index++];
+                    if (!processor.support(parameter, authentication)) {
+                        continue;
+                    }
+                    if (processor instanceof AsyncAuthenticationProcessor) {
+                        return ((AsyncAuthenticationProcessor) processor).processAsync(parameter, authentication, this);
+                    }
+                    // 阻塞型处理器，连同其后续链在 executor 中执行
+                    return AuthenticationExecutors.supplyAsync(() -> processor.process(parameter, authentication, this), executor);
+                }
+                return CompletableFuture.completedFuture(authentication);
+            } catch (RuntimeException ex) {
+                return AuthenticationExecutors.failed(ex);
+            }
+        }
+
+        /**
+         * 阻塞型处理器调用的同步视图，已处于 executor 线程中，后续处理器直接在当前线程执行，
+         * 避免嵌套提交导致线程池饥饿
+         */
+        @Override
+        public Authentication process(RequestParameter parameter, Authentication authentication) throws AuthenticationException {
+            while (index < processors.length) {
+                AuthenticationProcessor processor = processors[index++];
+                if (processor.support(parameter, authentication)) {
+                    return processor.process(parameter, authentication, this);
+                }
+            }
+            return authentication;
+        }
     }
 }
@@ -18,11 +18,9 @@
 
 package org.lan.iti.iha.security.userdetails;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
+import org.lan.iti.iha.security.json.IhaJson;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -36,18 +34,10 @@ import java.util.Map;
 @Slf4j
 public class UserDetailsHelper {
 
-    private static ObjectMapper createMapper() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        return objectMapper;
-    }
-
     public static Map<String, Object> toMap(UserDetails userDetails) {
         Map<String, Object> result;
         try {
-            ObjectMapper objectMapper = createMapper();
-            result = objectMapper.convertValue(userDetails, new TypeReference<Map<String, Object>>() {
-            });
+            result = IhaJson.toMap(userDetails);
         } catch (IllegalArgumentException e) {
             log.error("cannot convert UserDetails to Map");
             result = new HashMap<>();
@@ -0,0 +1,92 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.web;
+
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import org.lan.iti.iha.security.IhaSecurity;
+import org.lan.iti.iha.security.authentication.Authentication;
+import org.lan.iti.iha.security.mgt.RequestParameter;
+import org.lan.iti.iha.security.processor.AuthenticationExecutors;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiConsumer;
+
+/**
+ * Servlet 异步认证
+ * <p>
+ * 开启 Servlet 异步上下文后释放容器线程，认证完成时回调并结束异步上下文；
+ * 使用 Spring MVC 时可直接返回 {@link org.lan.iti.iha.security.mgt.SecurityManager#authenticateAsync} 的结果
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+@Slf4j
+@UtilityClass
+public class AsyncAuthenticationSupport {
+    /**
+     * 默认异步超时时间（毫秒）
+     */
+    public static final long DEFAULT_TIMEOUT = 30_000L;
+
+    public CompletionStage<Authentication> authenticate(RequestParameter parameter,
+                                                        BiConsumer<Authentication, Throwable> callback) {
+        return authenticate(parameter, DEFAULT_TIMEOUT, callback);
+    }
+
+    /**
+     * 异步认证
+     *
+     * @param parameter 请求参数，须包含 HttpServletRequest
+     * @param timeout   异步上下文超时时间（毫秒）
+     * @param callback  认证完成回调，用于写出响应；异常已去除包装
+     * @return 认证结果
+     */
+    public CompletionStage<Authentication> authenticate(RequestParameter parameter, long timeout,
+                                                        BiConsumer<Authentication, Throwable> callback) {
+        HttpServletRequest request = parameter.getRequest();
+        AsyncContext asyncContext = null;
+        if (request != null && request.isAsyncSupported()) {
+            asyncContext = request.isAsyncStarted() ? request.getAsyncContext()
+                    : parameter.getResponse() == null ? request.startAsync()
+                    : request.startAsync(request, parameter.getResponse());
+            asyncContext.setTimeout(timeout);
+        }
+        AsyncContext context = asyncContext;
+        CompletionStage<Authentication> stage = IhaSecurity.getSecurityManager().authenticateAsync(parameter);
+        stage.whenComplete((authentication, ex) -> {
+            try {
+                callback.accept(authentication, AuthenticationExecutors.unwrap(ex));
+            } finally {
+                if (context != null) {
+                    try {
+                        context.complete();
+                    } catch (IllegalStateException e) {
+                        // 已超时或已由容器结束
+                        log.debug("Async context already completed.", e);
+                    }
+                }
+            }
+        });
+        return stage;
+    }
+}
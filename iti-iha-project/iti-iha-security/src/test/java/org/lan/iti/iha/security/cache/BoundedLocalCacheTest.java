@@ -0,0 +1,166 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.lan.iti.common.core.util.clock.VirtualClockSource;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class BoundedLocalCacheTest {
+
+    @Test
+    public void basicTest() {
+        BoundedLocalCache cache = new BoundedLocalCache(100, Duration.ofMinutes(1).toMillis(), new VirtualClockSource());
+        cache.put("a", 1);
+        cache.put("b", 2);
+        Assertions.assertEquals(1, cache.get("a"));
+        Assertions.assertTrue(cache.containsKey("b"));
+        Assertions.assertNull(cache.get("c"));
+
+        cache.put("a", 3);
+        Assertions.assertEquals(3, cache.get("a"));
+        cache.evict("a");
+        Assertions.assertNull(cache.get("a"));
+        cache.clear();
+        Assertions.assertEquals(0, cache.estimatedSize());
+
+        CacheStats stats = cache.stats();
+        Assertions.assertEquals(2, stats.getHitCount());
+        Assertions.assertEquals(2, stats.getMissCount());
+    }
+
+    @Test
+    public void expireTest() {
+        VirtualClockSource clock = new VirtualClockSource();
+        BoundedLocalCache cache = new BoundedLocalCache(1000, Duration.ofDays(1).toMillis(), clock);
+        cache.put("token-short", "s", 30, TimeUnit.SECONDS);
+        cache.put("token-hour", "h", 1, TimeUnit.HOURS);
+        cache.put("token-day", "d");
+
+        clock.advance(Duration.ofSeconds(31));
+        Assertions.assertNull(cache.get("token-short"));
+        cache.cleanUp();
+        Assertions.assertEquals(2, cache.estimatedSize());
+
+        clock.advance(Duration.ofHours(1));
+        cache.cleanUp();
+        Assertions.assertEquals(1, cache.estimatedSize());
+        Assertions.assertEquals("d", cache.get("token-day"));
+
+        clock.advance(Duration.ofDays(1));
+        cache.cleanUp();
+        Assertions.assertEquals(0, cache.estimatedSize());
+        Assertions.assertEquals(3, cache.stats().getExpirationCount());
+    }
+
+    @Test
+    public void evictionTest() {
+        int maximumSize = 1000;
+        BoundedLocalCache cache = new BoundedLocalCache(maximumSize, Duration.ofDays(1).toMillis(), new VirtualClockSource());
+        // 热点数据
+        for (int i = 0; i < 100; ++i) {
+            cache.put("hot-" + i, i);
+        }
+        for (int round = 0; round < 5; ++round) {
+            for (int i = 0; i < 100; ++i) {
+                cache.get("hot-" + i);
+            }
+            cache.cleanUp();
+        }
+        // 一次性扫描数据
+        for (int i = 0; i < 10 * maximumSize; ++i) {
+            cache.put("scan-" + i, i);
+        }
+        cache.cleanUp();
+
+        Assertions.assertEquals(maximumSize, cache.estimatedSize());
+        int hotRetained = 0;
+        for (int i = 0; i < 100; ++i) {
+            if (cache.containsKey("hot-" + i)) {
+                hotRetained++;
+            }
+        }
+        Assertions.assertEquals(100, hotRetained);
+        Assertions.assertEquals(10 * maximumSize + 100 - maximumSize, cache.stats().getEvictionCount());
+    }
+
+    @Test
+    public void unboundedTest() {
+        VirtualClockSource clock = new VirtualClockSource();
+        BoundedLocalCache cache = new BoundedLocalCache(0, Duration.ofHours(1).toMillis(), clock);
+        for (int i = 0; i < 10_000; ++i) {
+            cache.put("token-" + i, i);
+            cache.get("token-" + (i / 2));
+        }
+        cache.cleanUp();
+        // 不限容量时不按容量淘汰，仅过期移除
+        Assertions.assertEquals(10_000, cache.estimatedSize());
+        Assertions.assertEquals(0, cache.stats().getEvictionCount());
+        cache.evict("token-0");
+        Assertions.assertFalse(cache.containsKey("token-0"));
+
+        clock.advance(Duration.ofHours(2));
+        cache.cleanUp();
+        Assertions.assertEquals(0, cache.estimatedSize());
+        Assertions.assertEquals(9_999, cache.stats().getExpirationCount());
+    }
+
+    @Test
+    public void concurrentTest() throws InterruptedException {
+        BoundedLocalCache cache = new BoundedLocalCache(500, Duration.ofMinutes(1).toMillis(), new VirtualClockSource());
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; ++t) {
+            int seed = t;
+            executor.execute(() -> {
+                for (int i = 0; i < 100_000; ++i) {
+                    String key = String.valueOf((i * 31 + seed) % 2000);
+                    if (i % 10 == 0) {
+                        cache.put(key, i);
+                    } else {
+                        cache.get(key);
+                    }
+                }
+                latch.countDown();
+            });
+        }
+        latch.await();
+        executor.shutdown();
+        cache.cleanUp();
+
+        Assertions.assertTrue(cache.estimatedSize() <= 500);
+        CacheStats stats = cache.stats();
+        // 2000 个 key 经过 500 的上限，必然发生淘汰；虚拟时钟不前进，不会过期
+        Assertions.assertTrue(stats.getEvictionCount() > 0, stats.toString());
+        Assertions.assertEquals(0, stats.getExpirationCount());
+        Assertions.assertEquals(threads * 90_000L, stats.getHitCount() + stats.getMissCount());
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.http;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 基于本地模拟 IdP 的 HTTP 传输测试
+ *
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class DefaultHttpTransportTest {
+    static {
+        // HttpURLConnection 的 keep-alive 连接池默认每个目标仅保留5个空闲连接，按文档通过系统属性调整
+        if (System.getProperty("http.maxConnections") == null) {
+            System.setProperty("http.maxConnections", "20");
+        }
+    }
+
+    private HttpServer server;
+    private String base;
+    private String hostKey;
+    private final Set<Integer> remotePorts = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    public void start() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        hostKey = "127.0.0.1:" + server.getAddress().getPort();
+        base = "http://" + hostKey;
+        server.createContext("/token", exchange -> {
+            remotePorts.add(exchange.getRemoteAddress().getPort());
+            String body = read(exchange.getRequestBody());
+            String response = "{\"method\":\"" + exchange.getRequestMethod() + "\",\"query\":\""
+                    + exchange.getRequestURI().getRawQuery() + "\",\"body\":\"" + body + "\",\"type\":\""
+                    + exchange.getRequestHeaders().getFirst("Content-Type") + "\"}";
+            byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.createContext("/error", exchange -> {
+            byte[] bytes = "{\"error\":\"server_error\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(503, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stop() {
+        server.stop(0);
+    }
+
+    @Test
+    public void httpClientEngine() throws Exception {
+        DefaultHttpTransport transport = new DefaultHttpTransport(new HttpTransportConfig());
+        // java.net.http.HttpClient 需要 JDK 11+
+        Assumptions.assumeTrue(transport.isHttpClientEngine());
+        verify(transport);
+    }
+
+    @Test
+    public void urlConnectionEngine() throws Exception {
+        DefaultHttpTransport transport = new DefaultHttpTransport(new HttpTransportConfig().setHttp2(false));
+        Assertions.assertFalse(transport.isHttpClientEngine());
+        verify(transport);
+    }
+
+    private void verify(DefaultHttpTransport transport) throws Exception {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("grant_type", "authorization_code");
+        params.put("redirect_uri", "https://app/cb?a=1&b=2");
+
+        HttpResponse post = transport.execute(HttpRequest.post(base + "/token").form(params));
+        Assertions.assertTrue(post.isSuccessful());
+        Assertions.assertEquals("application/json", post.header("content-type"));
+        Assertions.assertTrue(post.getBody().contains("\"method\":\"POST\""));
+        Assertions.assertTrue(post.getBody().contains("redirect_uri=https%3A%2F%2Fapp%2Fcb%3Fa%3D1%26b%3D2"), post.getBody());
+        Assertions.assertTrue(post.getBody().contains("application/x-www-form-urlencoded"));
+
+        HttpResponse get = transport.execute(HttpRequest.get(base + "/token").query(params));
+        Assertions.assertTrue(get.getBody().contains("\"query\":\"grant_type=authorization_code&redirect_uri="), get.getBody());
+
+        // 非 2xx 正常返回
+        Assertions.assertEquals(503, transport.execute(HttpRequest.get(base + "/error")).getStatus());
+
+        // 异步并发请求复用连接
+        remotePorts.clear();
+        List<CompletableFuture<HttpResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(transport.executeAsync(HttpRequest.get(base + "/token")));
+            if (i % 20 == 19) {
+                for (CompletableFuture<HttpResponse> future : futures) {
+                    Assertions.assertEquals(200, future.get(10, TimeUnit.SECONDS).getStatus());
+                }
+                futures.clear();
+            }
+        }
+        Assertions.assertTrue(remotePorts.size() <= 40, "connections: " + remotePorts.size());
+
+        // 按 IdP 配置的超时
+        transport.getConfig().host("127.0.0.1", Duration.ofSeconds(1), Duration.ofMillis(200));
+        ExecutionException ex = Assertions.assertThrows(ExecutionException.class,
+                () -> transport.executeAsync(HttpRequest.get(base + "/slow")).get(10, TimeUnit.SECONDS));
+        Assertions.assertTrue(ex.getCause() instanceof HttpTransportException);
+        Assertions.assertThrows(HttpTransportException.class, () -> transport.execute(HttpRequest.get(base + "/slow")));
+        // 单次请求的超时优先
+        Assertions.assertEquals(204, transport.execute(HttpRequest.get(base + "/slow").timeout(Duration.ofSeconds(5))).getStatus());
+
+        HttpMetrics.Stats stats = transport.getMetrics().get(hostKey);
+        Assertions.assertEquals(206, stats.getRequestCount());
+        Assertions.assertEquals(2, stats.getFailureCount());
+        Assertions.assertEquals(1, stats.getServerErrorCount());
+        Assertions.assertTrue(stats.maxMillis() >= 200);
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.jwt;
+
+import org.jose4j.jwk.JsonWebKeySet;
+import org.jose4j.jwk.PublicJsonWebKey;
+import org.jose4j.jwt.JwtClaims;
+import org.jose4j.jwt.consumer.InvalidJwtException;
+import org.jose4j.jwt.consumer.JwtConsumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class JwtKeyCacheTest {
+    private static final String KEY_ID = "iha-jwk-keyid";
+
+    @AfterEach
+    public void tearDown() {
+        JwtUtil.invalidateKeyCache();
+    }
+
+    @Test
+    public void reuseKeyMaterial() throws InvalidJwtException {
+        String jwksJson = JwkUtil.createRsaJsonWebKeySetJson(KEY_ID, TokenAlgorithms.RS256);
+
+        Assertions.assertSame(JwtKeyCache.publicKey(null, KEY_ID, jwksJson, TokenAlgorithms.RS256),
+                JwtKeyCache.publicKey(null, KEY_ID, new String(jwksJson), null));
+        JwtConsumer consumer = JwtKeyCache.parseConsumer(null, KEY_ID, jwksJson, TokenAlgorithms.RS256);
+        Assertions.assertSame(consumer, JwtKeyCache.parseConsumer(null, KEY_ID, jwksJson, TokenAlgorithms.RS256));
+
+        String token = JwtUtil.createJwtToken(JwtUtil.createClaims("iti", "client", "user", null, 60L),
+                KEY_ID, jwksJson, TokenAlgorithms.RS256);
+        JwtClaims claims = consumer.processToClaims(token);
+        Assertions.assertEquals("user", claims.getClaimValue("sub"));
+
+        // 配置变更（新的 JWKS）后不再命中旧密钥
+        String rotated = JwkUtil.createRsaJsonWebKeySetJson(KEY_ID, TokenAlgorithms.RS256);
+        Assertions.assertNotSame(consumer, JwtKeyCache.parseConsumer(null, KEY_ID, rotated, TokenAlgorithms.RS256));
+        Assertions.assertThrows(InvalidJwtException.class,
+                () -> JwtKeyCache.parseConsumer(null, KEY_ID, rotated, TokenAlgorithms.RS256).processToClaims(token));
+    }
+
+    @Test
+    public void replaceJwtConfig() {
+        JwtConfig jwtConfig = new JwtConfig()
+                .setJwtVerificationType(JwtVerificationType.JWKS)
+                .setJwksJson(JwkUtil.createRsaJsonWebKeySetJson(KEY_ID, TokenAlgorithms.RS256));
+        JwtConsumer consumer = JwtKeyCache.validateConsumer("client", "iti", null, jwtConfig);
+        Assertions.assertSame(consumer, JwtKeyCache.validateConsumer("client", "iti", null, jwtConfig));
+        // 内容相同的新配置仍然命中
+        JwtConfig copy = new JwtConfig()
+                .setJwtVerificationType(JwtVerificationType.JWKS)
+                .setJwksJson(new String(jwtConfig.getJwksJson()));
+        Assertions.assertSame(consumer, JwtKeyCache.validateConsumer("client", "iti", null, copy));
+
+        // 替换为新的 JWKS 后重建，其它 client 的条目不受影响
+        JwtConsumer other = JwtKeyCache.validateConsumer("other", "iti", null, jwtConfig);
+        jwtConfig.setJwksJson(JwkUtil.createRsaJsonWebKeySetJson(KEY_ID, TokenAlgorithms.RS256));
+        JwtConsumer rotated = JwtKeyCache.validateConsumer("client", "iti", null, jwtConfig);
+        Assertions.assertNotSame(consumer, rotated);
+        Assertions.assertSame(rotated, JwtKeyCache.validateConsumer("client", "iti", null, jwtConfig));
+        Assertions.assertSame(other, JwtKeyCache.validateConsumer("other", "iti", null, copy));
+    }
+
+    @Test
+    public void boundedEviction() {
+        String jwksJson = JwkUtil.createRsaJsonWebKeySetJson(KEY_ID, TokenAlgorithms.RS256);
+        JsonWebKeySet keySet = JwtKeyCache.keySet("hot", jwksJson);
+        PublicJsonWebKey hot = JwtKeyCache.publicKey("hot", KEY_ID, jwksJson, TokenAlgorithms.RS256);
+
+        // 超出容量时逐条淘汰而非整体清空，常用的条目保留
+        for (int i = 1; i <= JwtKeyCache.MAXIMUM_SIZE * 2; i++) {
+            JwtKeyCache.keySet("client-" + i, jwksJson);
+            Assertions.assertSame(keySet, JwtKeyCache.keySet("hot", jwksJson));
+            Assertions.assertSame(hot, JwtKeyCache.publicKey("hot", KEY_ID, jwksJson, TokenAlgorithms.RS256));
+        }
+        Assertions.assertSame(keySet, JwtKeyCache.keySet("hot", jwksJson));
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ *
+ *  * Copyright (c) [2019-2021] [NorthLan](lan6995@gmail.com)
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.lan.iti.iha.security.processor;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.lan.iti.iha.security.authentication.AbstractAuthenticationToken;
+import org.lan.iti.iha.security.authentication.Authentication;
+import org.lan.iti.iha.security.exception.authentication.BadCredentialsException;
+import org.lan.iti.iha.security.mgt.RequestParameter;
+import org.lan.iti.iha.security.pipeline.AuthenticationSuccessHandler;
+import org.lan.iti.iha.security.pipeline.PipelineManager;
+import org.lan.iti.iha.security.pipeline.PreAuthenticationHandler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author NorthLan
+ * @date 2026-10-18
+ * @url https://noahlan.com
+ */
+public class ProcessorManagerTest {
+
+    @Test
+    public void order() {
+        ProcessorManager manager = new ProcessorManager("test", false)
+                .addProcessor(new Step("C", 3, null))
+                .addProcessor(new Step("A", 1, null))
+                .addProcessor(new Step("B", 2, "skipB"));
+        Assertions.assertEquals("A:B:C", principal(manager.process(new RequestParameter())));
+        Assertions.assertEquals("A:C", principal(manager.process(new RequestParameter().put("skipB", true))));
+
+        // 注册变化后重新编译
+        manager.addProcessor(new Step("D", 4, null));
+        Assertions.assertEquals("A:B:C:D", principal(manager.process(new RequestParameter())));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> manager.getProcessors().clear());
+    }
+
+    /**
+     * 同一类型的处理链被多个线程并发使用，每个请求的处理结果互不干扰
+     */
+    @Test
+    public void concurrent() throws Exception {
+        ProcessorManager manager = new ProcessorManager("test", false)
+                .addProcessor(new Step("A", 1, null))
+                .addProcessor(new Step("B", 2, "skipB"))
+                .addProcessor(new Step("C", 3, null));
+        int threads = 8;
+        int iterations = 5000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger mismatches = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < iterations; i++) {
+                    boolean skip = random.nextBoolean();
+                    RequestParameter parameter = new RequestParameter();
+                    if (skip) {
+                        parameter.put("skipB", true);
+                    }
+                    String expected = skip ? "A:C" : "A:B:C";
+                    if (!expected.equals(principal(manager.process(parameter)))) {
+                        mismatches.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        Assertions.assertEquals(0, mismatches.get());
+    }
+
+    /**
+     * 不同并发度下的处理吞吐（非严格基准）
+     * <p>
+     * 基准测试，默认不随单元测试执行
+     */
+    @Test
+    @Tag("benchmark")
+    public void throughput() throws Exception {
+        ProcessorManager manager = new ProcessorManager("test", false)
+                .addProcessor(new Step("A", 1, null))
+                .addProcessor(new Step("B", 2, "skipB"))
+                .addProcessor(new Step("C", 3, null));
+        int iterations = 200_000;
+        for (int threads : new int[]{1, 2, 4, 8}) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Callable<Object>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(() -> {
+                    for (int i = 0; i < iterations / threads; i++) {
+                        manager.process(new RequestParameter());
+                    }
+                    return null;
+                });
+            }
+            long begin = System.nanoTime();
+            for (Future<Object> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - begin;
+            executor.shutdown();
+            System.out.printf("%d threads (%d cpus): %d ops/ms%n", threads,
+                    Runtime.getRuntime().availableProcessors(), iterations * 1_000_000L / elapsed);
+        }
+    }
+
+    /**
+     * 异步处理链：异步处理器不占用线程，阻塞型处理器转移到执行器，顺序与同步处理一致
+     */
+    @Test
+    public void async() throws Exception {
+        ScheduledExecutorService idp = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            ProcessorManager manager = new ProcessorManager("test", false)
+                    .addProcessor(new Step("A", 1, null))
+                    .addProcessor(new RemoteStep("R", 2, idp))
+                    .addProcessor(new Step("C", 3, null));
+            Thread caller = Thread.currentThread();
+            Assertions.assertEquals("A:R:C", principal(manager.processAsync(new RequestParameter(), executor)
+                    .toCompletableFuture().get(5, TimeUnit.SECONDS)));
+            // 同步处理链中等待异步处理器
+            Assertions.assertEquals("A:R:C", principal(manager.process(new RequestParameter())));
+
+            // 仅异步处理器时，调用线程立即返回
+            ProcessorManager remoteOnly = new ProcessorManager("remote", false)
+                    .addProcessor(new RemoteStep("R1", 1, idp))
+                    .addProcessor(new RemoteStep("R2", 2, idp));
+            int inFlight = 2000;
+            List<CompletableFuture<Authentication>> futures = new ArrayList<>();
+            for (int i = 0; i < inFlight; i++) {
+                futures.add(remoteOnly.processAsync(new RequestParameter(), executor).toCompletableFuture());
+            }
+            Assertions.assertSame(caller, Thread.currentThread());
+            for (CompletableFuture<Authentication> future : futures) {
+                Assertions.assertEquals("R1:R2", principal(future.get(10, TimeUnit.SECONDS)));
+            }
+
+            // 认证异常原样传递
+            manager.addProcessor(new RemoteStep("fail", 4, idp));
+            ExecutionException ex = Assertions.assertThrows(ExecutionException.class,
+                    () -> manager.processAsync(new RequestParameter(), executor).toCompletableFuture().get(5, TimeUnit.SECONDS));
+            Assertions.assertTrue(ex.getCause() instanceof BadCredentialsException);
+            Assertions.assertThrows(BadCredentialsException.class, () -> manager.process(new RequestParameter()));
+        } finally {
+            idp.shutdownNow();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 执行器满载时拒绝阻塞型处理器，异步结果以异常完成而不占用提交线程
+     */
+    @Test
+    public void saturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = AuthenticationExecutors.newPlatformThreadExecutor(1);
+        try {
+            // 1个线程 + 4个排队任务
+            for (int i = 0; i < 5; i++) {
+                executor.execute(() -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            ProcessorManager manager = new ProcessorManager("test", false)
+                    .addProcessor(new Step("A", 1, null));
+            CompletableFuture<Authentication> future = manager.processAsync(new RequestParameter(), executor).toCompletableFuture();
+            ExecutionException ex = Assertions.assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            Assertions.assertTrue(ex.getCause() instanceof RejectedExecutionException);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void pipelines() {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        PipelineManager pipelineManager = new PipelineManager();
+        pipelineManager.registerPipeline(
+                (PreAuthenticationHandler) parameter -> events.add("pre1"),
+                (AuthenticationSuccessHandler) (parameter, authentication) -> events.add("success1"));
+        pipelineManager.preAuthentication(new RequestParameter());
+        pipelineManager.onAuthenticationSuccess(new RequestParameter(), null);
+        Assertions.assertEquals(java.util.Arrays.asList("pre1", "success1"), events);
+
+        // 注册后生效，按注册顺序分发
+        events.clear();
+        pipelineManager.registerPipeline((PreAuthenticationHandler) parameter -> events.add("pre2"));
+        pipelineManager.preAuthentication(new RequestParameter());
+        pipelineManager.onAuthenticationFailure(new RequestParameter(), null);
+        Assertions.assertEquals(java.util.Arrays.asList("pre1", "pre2"), events);
+    }
+
+    private static String principal(Authentication authentication) {
+        return (String) authentication.getPrincipal();
+    }
+
+    /**
+     * 在认证对象的 principal 上追加自身名称
+     */
+    private static class Step implements AuthenticationProcessor {
+        private final String name;
+        private final int order;
+        private final String skipKey;
+
+        Step(String name, int order, String skipKey) {
+            this.name = name;
+            this.order = order;
+            this.skipKey = skipKey;
+        }
+
+        @Override
+        public boolean support(RequestParameter parameter, Authentication authentication) {
+            return skipKey == null || !parameter.containsKey(skipKey);
+        }
+
+        @Override
+        public Authentication process(RequestParameter parameter, Authentication authentication, ProcessChain chain) {
+            String principal = authentication == null ? name : authentication.getPrincipal() + ":" + name;
+            // 让出CPU，增加线程交错
+            Thread.yield();
+            return chain.process(parameter, new Token(principal));
+        }
+
+        @Override
+        public boolean matches(String params) {
+            return true;
+        }
+
+        @Override
+        public int getOrder() {
+            return order;
+        }
+    }
+
+    /**
+     * 模拟远程调用的异步处理器，在 idp 线程上延迟完成
+     */
+    private static class RemoteStep implements AsyncAuthenticationProcessor {
+        private final String name;
+        private final int order;
+        private final ScheduledExecutorService idp;
+
+        RemoteStep(String name, int order, ScheduledExecutorService idp) {
+            this.name = name;
+            this.order = order;
+            this.idp = idp;
+        }
+
+        @Override
+        public boolean support(RequestParameter parameter, Authentication authentication) {
+            return true;
+        }
+
+        @Override
+        public CompletionStage<Authentication> processAsync(RequestParameter parameter, Authentication authentication, AsyncProcessChain chain) {
+            CompletableFuture<Authentication> remote = new CompletableFuture<>();
+            idp.schedule(() -> {
+                if ("fail".equals(name)) {
+                    remote.completeExceptionally(new BadCredentialsException("rejected by idp"));
+                } else {
+                    String principal = authentication == null ? name : authentication.getPrincipal() + ":" + name;
+                    remote.complete(new Token(principal));
+                }
+            }, 1, TimeUnit.MILLISECONDS);
+            return remote.thenCompose(result -> chain.processAsync(parameter, result));
+        }
+
+        @Override
+        public boolean matches(String params) {
+            return true;
+        }
+
+        @Override
+        public int getOrder() {
+            return order;
+        }
+    }
+
+    private static class Token extends AbstractAuthenticationToken {
+        private final String principal;
+
+        Token(String principal) {
+            this.principal = principal;
+        }
+
+        @Override
+        public Object getPrincipal() {
+            return principal;
+        }
+
+        @Override
+        public Object getCredentials() {
+            return null;
+        }
+    }
+}
@@ -30,10 +30,21 @@ import lombok.NoArgsConstructor;
 import lombok.experimental.Accessors;
 import org.lan.iti.iha.oauth2.OAuth2ParameterNames;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 
 /**
+ * 授权令牌
+ * <p>
+ * 序列化时仅写入非空字段及其位图，用于远程缓存时的紧凑二进制存储；
+ * 字符串以长度 + UTF-8字节写入，不受 {@link ObjectOutput#writeUTF(String)} 65535字节的限制（如较大的JWT）
+ *
  * @author NorthLan
  * @date 2021-07-06
  * @url https://noahlan.com
@@ -45,7 +56,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
 @JsonInclude(JsonInclude.Include.NON_NULL)
-public class AuthorizationToken implements Serializable {
+public class AuthorizationToken implements Externalizable {
     private static final long serialVersionUID = 4062691954040845906L;
 
     /**
@@ -81,4 +92,99 @@ public class AuthorizationToken implements Serializable {
     private String grantType;
     private String clientId;
 
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        String[] strings = strings();
+        Long[] longs = {accessTokenExpiresIn, refreshTokenExpiresIn, idTokenExpiresIn};
+        LocalDateTime[] times = {accessTokenExpiration, refreshTokenExpiration, idTokenExpiration};
+        int flags = 0;
+        int bit = 0;
+        for (String value : strings) {
+            flags |= value != null ? 1 << bit : 0;
+            bit++;
+        }
+        for (Long value : longs) {
+            flags |= value != null ? 1 << bit : 0;
+            bit++;
+        }
+        for (LocalDateTime value : times) {
+            flags |= value != null ? 1 << bit : 0;
+            bit++;
+        }
+        out.writeInt(flags);
+        for (String value : strings) {
+            if (value != null) {
+                writeString(out, value);
+            }
+        }
+        for (Long value : longs) {
+            if (value != null) {
+                out.writeLong(value);
+            }
+        }
+        for (LocalDateTime value : times) {
+            if (value != null) {
+                out.writeLong(value.toLocalDate().toEpochDay());
+                out.writeLong(value.toLocalTime().toNanoOfDay());
+            }
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        int flags = in.readInt();
+        String[] strings = new String[strings().length];
+        for (int i = 0; i < strings.length; ++i) {
+            strings[i] = (flags & (1 << i)) != 0 ? readString(in) : null;
+        }
+        int bit = strings.length;
+        Long[] longs = new Long[3];
+        for (int i = 0; i < longs.length; ++i, ++bit) {
+            longs[i] = (flags & (1 << bit)) != 0 ? in.readLong() : null;
+        }
+        LocalDateTime[] times = new LocalDateTime[3];
+        for (int i = 0; i < times.length; ++i, ++bit) {
+            if ((flags & (1 << bit)) != 0) {
+                times[i] = LocalDateTime.of(LocalDate.ofEpochDay(in.readLong()), LocalTime.ofNanoOfDay(in.readLong()));
+            }
+        }
+        this.id = strings[0];
+        this.accessToken = strings[1];
+        this.refreshToken = strings[2];
+        this.idToken = strings[3];
+        this.tokenType = strings[4];
+        this.scope = strings[5];
+        this.userId = strings[6];
+        this.openId = strings[7];
+        this.unionId = strings[8];
+        this.grantType = strings[9];
+        this.clientId = strings[10];
+        this.accessTokenExpiresIn = longs[0];
+        this.refreshTokenExpiresIn = longs[1];
+        this.idTokenExpiresIn = longs[2];
+        this.accessTokenExpiration = times[0];
+        this.refreshTokenExpiration = times[1];
+        this.idTokenExpiration = times[2];
+    }
+
+    private static void writeString(ObjectOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ObjectInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid string length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private String[] strings() {
+        return new String[]{id, accessToken, refreshToken, idToken, tokenType, scope,
+                userId, openId, unionId, grantType, clientId};
+    }
 }
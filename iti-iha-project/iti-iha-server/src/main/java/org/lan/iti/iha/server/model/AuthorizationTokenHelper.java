@@ -18,11 +18,10 @@
 
 package org.lan.iti.iha.server.model;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
+import org.lan.iti.iha.security.json.IhaJson;
+import org.lan.iti.iha.security.json.JsonCodec;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -35,18 +34,12 @@ import java.util.Map;
 @UtilityClass
 @Slf4j
 public class AuthorizationTokenHelper {
-    private static ObjectMapper createMapper() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, true);
-        return objectMapper;
-    }
+    private static final JsonCodec<AuthorizationToken> CODEC = IhaJson.codec(AuthorizationToken.class);
 
     public static Map<String, Object> toMap(AuthorizationToken token) {
-        ObjectMapper objectMapper = createMapper();
         Map<String, Object> result;
         try {
-            result = objectMapper.convertValue(token, new TypeReference<Map<String, Object>>() {
-            });
+            result = CODEC.toMap(token);
         } catch (IllegalArgumentException e) {
             log.warn("deserialize to Map<String, Object> failed.", e);
             result = new HashMap<>();
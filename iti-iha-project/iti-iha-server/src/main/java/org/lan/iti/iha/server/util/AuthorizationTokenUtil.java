@@ -38,6 +38,8 @@ import org.lan.iti.iha.server.model.AuthorizationToken;
 
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -148,14 +150,22 @@ public class AuthorizationTokenUtil {
                                                boolean accessToken,
                                                boolean refreshToken,
                                                boolean idToken) {
+        evictAuthorizationToken(IhaSecurity.getContext().getCache(), token, setNull, accessToken, refreshToken, idToken);
+    }
+
+    private static void evictAuthorizationToken(Cache cache,
+                                                AuthorizationToken token,
+                                                boolean setNull,
+                                                boolean accessToken,
+                                                boolean refreshToken,
+                                                boolean idToken) {
         if (token == null) {
             return;
         }
-        Cache cache = IhaSecurity.getContext().getCache();
+        List<String> keys = new ArrayList<>(3);
 
         if (accessToken && StringUtil.isNotEmpty(token.getAccessToken())) {
-            String rak = IhaServerConstants.OAUTH_ACCESS_TOKEN_CACHE_KEY + token.getAccessToken();
-            cache.evict(rak);
+            keys.add(IhaServerConstants.OAUTH_ACCESS_TOKEN_CACHE_KEY + token.getAccessToken());
 
             if (setNull) {
                 token.setAccessToken(null)
@@ -165,8 +175,7 @@ public class AuthorizationTokenUtil {
         }
 
         if (refreshToken && StringUtil.isNotEmpty(token.getRefreshToken())) {
-            String rak = IhaServerConstants.OAUTH_REFRESH_TOKEN_CACHE_KEY + token.getRefreshToken();
-            cache.evict(rak);
+            keys.add(IhaServerConstants.OAUTH_REFRESH_TOKEN_CACHE_KEY + token.getRefreshToken());
 
             if (setNull) {
                 token.setRefreshToken(null)
@@ -176,8 +185,7 @@ public class AuthorizationTokenUtil {
         }
 
         if (idToken && StringUtil.isNotEmpty(token.getIdToken())) {
-            String rak = IhaServerConstants.OAUTH_ID_TOKEN_CACHE_KEY + token.getIdToken();
-            cache.evict(rak);
+            keys.add(IhaServerConstants.OAUTH_ID_TOKEN_CACHE_KEY + token.getIdToken());
 
             if (setNull) {
                 token.setIdToken(null)
@@ -185,29 +193,35 @@ public class AuthorizationTokenUtil {
                         .setIdTokenExpiresIn(null);
             }
         }
+
+        if (!keys.isEmpty()) {
+            cache.evict(keys.toArray(new String[0]));
+        }
     }
 
     public static void cacheAuthorizationToken(AuthorizationToken token, AuthorizationToken rawToken) {
         if (token == null) {
             return;
         }
-        // 清理rawToken的缓存
-        evictAuthorizationToken(rawToken, false,
-                true, true, true);
-
-        Cache cache = IhaSecurity.getContext().getCache();
-        if (StringUtil.isNotEmpty(token.getAccessToken())) {
-            String ak = IhaServerConstants.OAUTH_ACCESS_TOKEN_CACHE_KEY + token.getAccessToken();
-            cache.put(ak, token, token.getAccessTokenExpiresIn(), TimeUnit.SECONDS);
-        }
-        if (StringUtil.isNotEmpty(token.getRefreshToken())) {
-            String rk = IhaServerConstants.OAUTH_REFRESH_TOKEN_CACHE_KEY + token.getRefreshToken();
-            cache.put(rk, token, token.getRefreshTokenExpiresIn(), TimeUnit.SECONDS);
-        }
-        if (StringUtil.isNotEmpty(token.getIdToken())) {
-            String ik = IhaServerConstants.OAUTH_ID_TOKEN_CACHE_KEY + token.getIdToken();
-            cache.put(ik, token, token.getIdTokenExpiresIn(), TimeUnit.SECONDS);
-        }
+        // 旧令牌清理与新令牌写入合并为一批，远程缓存可一次往返完成
+        IhaSecurity.getContext().getCache().batch(cache -> {
+            // 清理rawToken的缓存
+            evictAuthorizationToken(cache, rawToken, false,
+                    true, true, true);
+
+            if (StringUtil.isNotEmpty(token.getAccessToken())) {
+                String ak = IhaServerConstants.OAUTH_ACCESS_TOKEN_CACHE_KEY + token.getAccessToken();
+                cache.put(ak, token, token.getAccessTokenExpiresIn(), TimeUnit.SECONDS);
+            }
+            if (StringUtil.isNotEmpty(token.getRefreshToken())) {
+                String rk = IhaServerConstants.OAUTH_REFRESH_TOKEN_CACHE_KEY + token.getRefreshToken();
+                cache.put(rk, token, token.getRefreshTokenExpiresIn(), TimeUnit.SECONDS);
+            }
+            if (StringUtil.isNotEmpty(token.getIdToken())) {
+                String ik = IhaServerConstants.OAUTH_ID_TOKEN_CACHE_KEY + token.getIdToken();
+                cache.put(ik, token, token.getIdTokenExpiresIn(), TimeUnit.SECONDS);
+            }
+        });
     }
 
     /**
@@ -18,10 +18,18 @@
 
 package org.lan.iti.iha.server;
 
+import cn.hutool.core.util.StrUtil;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.lan.iti.iha.server.model.AuthorizationToken;
 import org.lan.iti.iha.server.model.AuthorizationTokenHelper;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDateTime;
+
 /**
  * @author NorthLan
  * @date 2021/8/17
@@ -38,4 +46,26 @@ public class AuthorizationTokenHelperTest {
 
         System.out.println(AuthorizationTokenHelper.toMap(token));
     }
+
+    @Test
+    public void externalizableTest() throws Exception {
+        // 超过 writeUTF 65535 字节上限的 id_token，含多字节字符
+        String idToken = StrUtil.repeat("令牌.jwt-", 20_000);
+        AuthorizationToken token = AuthorizationToken.builder()
+                .id("1")
+                .accessToken("accessToken")
+                .idToken(idToken)
+                .scope("")
+                .accessTokenExpiresIn(7200L)
+                .accessTokenExpiration(LocalDateTime.of(2026, 10, 18, 23, 59, 59, 123_000_000))
+                .build();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(token);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Assertions.assertEquals(token, in.readObject());
+        }
+    }
 }
@@ -20,14 +20,14 @@ package org.lan.iti.iha.social.security;
 
 import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.util.ObjectUtil;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import me.zhyd.oauth.cache.AuthStateCache;
 import me.zhyd.oauth.config.AuthConfig;
 import me.zhyd.oauth.model.AuthCallback;
 import me.zhyd.oauth.request.AuthRequest;
 import org.lan.iti.iha.security.authentication.Authentication;
 import org.lan.iti.iha.security.exception.authentication.AuthenticationException;
+import org.lan.iti.iha.security.json.IhaJson;
+import org.lan.iti.iha.security.json.JsonCodec;
 import org.lan.iti.iha.security.mgt.RequestParameter;
 import org.lan.iti.iha.security.processor.ProcessChain;
 import org.lan.iti.iha.social.JustAuthRequestContext;
@@ -39,6 +39,8 @@ import org.lan.iti.iha.social.SocialConfig;
  * @url https://blog.noahlan.com
  */
 public class PreSocialAuthenticationProcessor extends AbstractSocialAuthenticationProcessor {
+    private static final JsonCodec<AuthCallback> CALLBACK_CODEC = IhaJson.codec(AuthCallback.class);
+
     private AuthStateCache authStateCache;
 
     @Override
@@ -85,9 +87,7 @@ public class PreSocialAuthenticationProcessor extends AbstractSocialAuthenticati
         }
         AuthCallback result;
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            result = objectMapper.convertValue(parameter, AuthCallback.class);
+            result = CALLBACK_CODEC.fromMap(parameter);
         } catch (IllegalArgumentException e) {
             result = new AuthCallback();
         }
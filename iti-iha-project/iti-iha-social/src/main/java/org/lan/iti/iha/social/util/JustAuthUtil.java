@@ -19,12 +19,11 @@
 package org.lan.iti.iha.social.util;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 import me.zhyd.oauth.model.AuthToken;
+import org.lan.iti.iha.security.json.IhaJson;
+import org.lan.iti.iha.security.json.JsonCodec;
 
 /**
  * @author NorthLan
@@ -34,17 +33,11 @@ import me.zhyd.oauth.model.AuthToken;
 @UtilityClass
 @Slf4j
 public class JustAuthUtil {
-    private static ObjectMapper createMapper() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, true);
-        objectMapper.setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
-        return objectMapper;
-    }
+    private static final JsonCodec<AuthToken> CODEC = IhaJson.snakeCaseCodec(AuthToken.class);
 
     public static String toJsonString(AuthToken authToken) {
-        ObjectMapper objectMapper = createMapper();
         try {
-            return objectMapper.writeValueAsString(authToken);
+            return CODEC.write(authToken);
         } catch (JsonProcessingException e) {
             log.error("cannot convert {} to json string.", authToken.getClass().getName(), e);
             return null;